@@ -0,0 +1,54 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Marks the loads that fill a cache, together with the scopes whose events evict what they load.
+// ReplicaRouter sends these reads to the primary for a while after an invalidation of one of those scopes,
+// the reads that aren't cached keep going to the replicas. Bound to the thread running the loader.
+public final class CacheRefill
+{
+    private static final ThreadLocal<Set<Scope>> CURRENT = new ThreadLocal<>();
+
+    private CacheRefill()
+    {
+    }
+
+    public static <T> T run(Set<Scope> scopes, Supplier<T> loader)
+    {
+        Set<Scope> outer = CURRENT.get();
+        // A refill inside another one is stored in both caches
+        Set<Scope> combined = EnumSet.noneOf(Scope.class);
+        combined.addAll(scopes);
+        if (outer != null)
+        {
+            combined.addAll(outer);
+        }
+
+        CURRENT.set(combined);
+        try
+        {
+            return loader.get();
+        }
+        finally
+        {
+            if (outer == null)
+            {
+                CURRENT.remove();
+            }
+            else
+            {
+                CURRENT.set(outer);
+            }
+        }
+    }
+
+    // Null outside a refill
+    public static Set<Scope> current()
+    {
+        return CURRENT.get();
+    }
+}
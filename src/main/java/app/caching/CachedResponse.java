@@ -0,0 +1,9 @@
+package app.caching;
+
+public record CachedResponse
+        (
+                byte[] body,
+                String etag
+        )
+{
+}
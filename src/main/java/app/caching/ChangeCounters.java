@@ -0,0 +1,197 @@
+package app.caching;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-collection counters, bumped for every committed write that changes a collection.
+// Collection ETags are built from them, so a poll that finds nothing changed costs no query.
+// With a Store the counters live in the database: the instance that publishes an event bumps them there,
+// and every instance reads them again once after it has been delivered an event, so all instances
+// hand out the same ETag for the same state. Without one (the in-memory database) they are this
+// instance's own, and the random epoch keeps an ETag from a previous run from ever matching.
+public class ChangeCounters
+{
+    private static final Logger log = LoggerFactory.getLogger(ChangeCounters.class);
+
+    public enum Scope
+    {
+        ASSETS,
+        EMPLOYEES,
+        LOGS
+    }
+
+    // Shared by every instance on the same database
+    public interface Store
+    {
+        void bump(Set<Scope> scopes);
+
+        Map<Scope, Long> read();
+    }
+
+    private final Store store;
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong());
+    private final Map<Scope, AtomicLong> counters = new EnumMap<>(Scope.class);
+    // Moves with every delivered event, the stored counters are read again when it has
+    private final AtomicLong generation = new AtomicLong();
+    private volatile Snapshot shared;
+    // Bumps that didn't reach the store, sent along with the next one
+    private final Set<Scope> pending = EnumSet.noneOf(Scope.class);
+    private final AtomicLong bumpFailures = new AtomicLong();
+
+    public ChangeCounters()
+    {
+        this(null);
+    }
+
+    public ChangeCounters(Store store)
+    {
+        this.store = store;
+        for (Scope scope : Scope.values())
+        {
+            counters.put(scope, new AtomicLong());
+        }
+    }
+
+    // Logs show the performer's name, so they change with the employee
+    private static Set<Scope> affected(Scope scope)
+    {
+        return scope == Scope.EMPLOYEES ? EnumSet.of(Scope.EMPLOYEES, Scope.LOGS) : EnumSet.of(scope);
+    }
+
+    // On the publishing instance only, before the event is delivered to anyone
+    public void onPublish(InvalidationEvent event)
+    {
+        if (store == null || !event.collectionsChanged())
+        {
+            return;
+        }
+        synchronized (pending)
+        {
+            pending.addAll(affected(event.scope()));
+        }
+        sendPending();
+    }
+
+    public void onInvalidation(InvalidationEvent event)
+    {
+        if (!event.collectionsChanged())
+        {
+            return;
+        }
+        if (store != null)
+        {
+            generation.incrementAndGet();
+            return;
+        }
+        for (Scope scope : affected(event.scope()))
+        {
+            counters.get(scope).incrementAndGet();
+        }
+    }
+
+    public String tag(Scope scope)
+    {
+        if (store == null)
+        {
+            return scope.name().toLowerCase() + "-" + epoch + "-" + counters.get(scope).get();
+        }
+        return scope.name().toLowerCase() + "-" + stored().values().get(scope);
+    }
+
+    // Read after the generation, an event arriving meanwhile makes the next caller read again
+    private Snapshot stored()
+    {
+        long current = generation.get();
+        Snapshot snapshot = shared;
+        if (snapshot != null && snapshot.generation() == current)
+        {
+            return snapshot;
+        }
+
+        if (!sendPending() && snapshot != null)
+        {
+            // Until the bump goes through, the old tag is kept; the old entries under it were evicted with the event
+            return snapshot;
+        }
+        try
+        {
+            snapshot = new Snapshot(current, store.read());
+        }
+        catch (RuntimeException e)
+        {
+            if (snapshot == null)
+            {
+                throw e;
+            }
+            log.warn("Reading the change counters failed, keeping the last ones: {}", e.getMessage());
+            return snapshot;
+        }
+        shared = snapshot;
+        return snapshot;
+    }
+
+    private boolean sendPending()
+    {
+        Set<Scope> scopes;
+        synchronized (pending)
+        {
+            if (pending.isEmpty())
+            {
+                return true;
+            }
+            scopes = EnumSet.copyOf(pending);
+            pending.clear();
+        }
+
+        try
+        {
+            store.bump(scopes);
+            return true;
+        }
+        catch (RuntimeException e)
+        {
+            // The write has committed, it must not turn into an error response
+            bumpFailures.incrementAndGet();
+            synchronized (pending)
+            {
+                pending.addAll(scopes);
+            }
+            log.warn("Bumping the change counters of {} failed, retried with the next bump or read: {}", scopes, e.getMessage());
+            return false;
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        if (store == null)
+        {
+            counters.forEach((scope, counter) -> metrics.put(scope.name().toLowerCase(), counter.get()));
+            return metrics;
+        }
+
+        Snapshot snapshot = shared;
+        if (snapshot != null)
+        {
+            snapshot.values().forEach((scope, value) -> metrics.put(scope.name().toLowerCase(), value));
+        }
+        synchronized (pending)
+        {
+            metrics.put("pending", pending.toString());
+        }
+        metrics.put("bumpFailures", bumpFailures.get());
+        return metrics;
+    }
+
+    private record Snapshot(long generation, Map<Scope, Long> values)
+    {
+    }
+}
@@ -0,0 +1,212 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import app.concurrency.RequestCoalescer;
+import app.utils.ETags;
+import app.utils.EnvReader;
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import io.javalin.http.ContentType;
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Keeps the encoded bytes of hot collection responses under their ETag. A repeat request for an
+// unchanged collection skips the query, serialization and compression; a new ETag simply misses.
+// A miss loads as a CacheRefill of the scopes the ETag follows.
+public class CompressedResponseCache
+{
+    private static final int BROTLI_QUALITY = 9;
+
+    private final long maxBytes;
+    private final RequestCoalescer coalescer;
+    private final boolean brotliAvailable = Brotli4jLoader.isAvailable();
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long usedBytes;
+
+    public CompressedResponseCache(RequestCoalescer coalescer)
+    {
+        this(EnvReader.getLong("COMPRESSED_CACHE_MAX_BYTES", 32L * 1024 * 1024), coalescer);
+    }
+
+    public CompressedResponseCache(long maxBytes, RequestCoalescer coalescer)
+    {
+        this.maxBytes = maxBytes;
+        this.coalescer = coalescer;
+    }
+
+    public void serve(Context ctx, String etag, Set<Scope> scopes, Supplier<Object> loader)
+    {
+        Encoding encoding = negotiate(ctx.header(Header.ACCEPT_ENCODING));
+        // A differently encoded body is a different representation, so it gets its own tag
+        String representationTag = encoding == Encoding.IDENTITY ? etag : etag + "-" + encoding.token;
+
+        ctx.header(Header.VARY, Header.ACCEPT_ENCODING);
+        if (ETags.notModified(ctx, representationTag))
+        {
+            return;
+        }
+
+        byte[] body = get(representationTag);
+        (body == null ? misses : hits).incrementAndGet();
+        if (body == null)
+        {
+            body = coalescer.load(ctx, "body-" + representationTag, () -> load(ctx, etag, representationTag, encoding, scopes, loader));
+        }
+
+        // Already encoded, Javalin must not compress it a second time
+        ctx.disableCompression();
+        if (encoding != Encoding.IDENTITY)
+        {
+            ctx.header(Header.CONTENT_ENCODING, encoding.token);
+        }
+        ctx.status(200).contentType(ContentType.APPLICATION_JSON).result(body);
+    }
+
+    private byte[] load(Context ctx, String etag, String representationTag, Encoding encoding, Set<Scope> scopes, Supplier<Object> loader)
+    {
+        // A coalesced flight may have finished between the lookup in serve and this one
+        byte[] body = get(representationTag);
+        if (body != null)
+        {
+            return body;
+        }
+
+        byte[] json = get(etag);
+        if (json == null)
+        {
+            // Shared with concurrent requests for the same ETag in other encodings
+            json = coalescer.load(ctx, "json-" + etag, () ->
+            {
+                byte[] serialized = ctx.jsonMapper().toJsonString(CacheRefill.run(scopes, loader), Object.class).getBytes(StandardCharsets.UTF_8);
+                put(etag, serialized);
+                return serialized;
+            });
+        }
+        body = encoding == Encoding.IDENTITY ? json : encode(json, encoding);
+        put(representationTag, body);
+        return body;
+    }
+
+    private Encoding negotiate(String acceptEncoding)
+    {
+        if (acceptEncoding == null)
+        {
+            return Encoding.IDENTITY;
+        }
+        String accepted = acceptEncoding.toLowerCase();
+        if (brotliAvailable && accepts(accepted, Encoding.BROTLI.token))
+        {
+            return Encoding.BROTLI;
+        }
+        if (accepts(accepted, Encoding.GZIP.token))
+        {
+            return Encoding.GZIP;
+        }
+        return Encoding.IDENTITY;
+    }
+
+    private static boolean accepts(String acceptEncoding, String token)
+    {
+        for (String part : acceptEncoding.split(","))
+        {
+            String[] codingAndParams = part.trim().split(";");
+            if (codingAndParams[0].trim().equals(token))
+            {
+                return !(codingAndParams.length > 1 && codingAndParams[1].trim().matches("q=0(\\.0*)?"));
+            }
+        }
+        return false;
+    }
+
+    // Paid once per ETag, so both use their highest practical level
+    private static byte[] encode(byte[] json, Encoding encoding)
+    {
+        try
+        {
+            if (encoding == Encoding.BROTLI)
+            {
+                return Encoder.compress(json, new Encoder.Parameters().setQuality(BROTLI_QUALITY));
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)
+            {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            })
+            {
+                gzip.write(json);
+            }
+            return out.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Compressing response failed", e);
+        }
+    }
+
+    private synchronized byte[] get(String key)
+    {
+        return entries.get(key);
+    }
+
+    private synchronized void put(String key, byte[] body)
+    {
+        if (body.length > maxBytes)
+        {
+            return;
+        }
+
+        byte[] previous = entries.put(key, body);
+        usedBytes += body.length - (previous == null ? 0 : previous.length);
+
+        Iterator<byte[]> eldest = entries.values().iterator();
+        while (usedBytes > maxBytes && eldest.hasNext())
+        {
+            usedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    public synchronized Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entries", entries.size());
+        metrics.put("usedBytes", usedBytes);
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("brotli", brotliAvailable);
+        return metrics;
+    }
+
+    private enum Encoding
+    {
+        IDENTITY("identity"),
+        GZIP("gzip"),
+        BROTLI("br");
+
+        private final String token;
+
+        Encoding(String token)
+        {
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import app.concurrency.Bulkhead;
+import app.concurrency.SingleFlight;
+import app.exceptions.OverloadException;
+import app.utils.EnvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// Mapped DTOs for one service method, bounded by entry count and evicted least recently used first.
+// Fresh for the TTL; for the stale window after that the old value is still returned while one
+// background refresh runs on the refresher bulkhead. Older entries are loaded in the request.
+// Configured per cache with DTO_CACHE_<NAME>_TTL_MS, _STALE_MS and _MAX_ENTRIES.
+// An entry can carry the version (e.g. the ETag) it was loaded for, a caller asking for another version gets a fresh load.
+// Loads run as a CacheRefill of the scopes whose events evict the cache.
+public class DtoCache<V>
+{
+    private static final Logger log = LoggerFactory.getLogger(DtoCache.class);
+
+    private final String name;
+    private final Set<Scope> scopes;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final Bulkhead refresher;
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final SingleFlight<V> loads = new SingleFlight<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private long invalidations;
+
+    public DtoCache(String name, int defaultMaxEntries, long defaultTtlMs, long defaultStaleMs, Bulkhead refresher)
+    {
+        this(name, EnumSet.allOf(Scope.class), defaultMaxEntries, defaultTtlMs, defaultStaleMs, refresher);
+    }
+
+    public DtoCache(String name, Set<Scope> scopes, int defaultMaxEntries, long defaultTtlMs, long defaultStaleMs, Bulkhead refresher)
+    {
+        this.name = name;
+        this.scopes = scopes;
+        this.maxEntries = EnvReader.getInt("DTO_CACHE_" + name + "_MAX_ENTRIES", defaultMaxEntries);
+        this.ttlNanos = EnvReader.getLong("DTO_CACHE_" + name + "_TTL_MS", defaultTtlMs) * 1_000_000;
+        this.staleNanos = EnvReader.getLong("DTO_CACHE_" + name + "_STALE_MS", defaultStaleMs) * 1_000_000;
+        this.refresher = refresher;
+    }
+
+    public V get(String key, Supplier<V> loader)
+    {
+        return get(key, null, loader);
+    }
+
+    // A null version accepts whatever is cached
+    public V get(String key, String version, Supplier<V> loader)
+    {
+        Entry<V> entry;
+        synchronized (this)
+        {
+            entry = entries.get(key);
+        }
+
+        if (entry != null && (version == null || version.equals(entry.version())))
+        {
+            long age = System.nanoTime() - entry.loadedAt();
+            if (age < ttlNanos)
+            {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            if (age < ttlNanos + staleNanos)
+            {
+                staleHits.incrementAndGet();
+                refresh(key, entry.version(), loader);
+                return entry.value();
+            }
+        }
+
+        misses.incrementAndGet();
+        return load(key, version, loader);
+    }
+
+    // The stamp is part of the flight key, a request arriving after an invalidation never joins a load that started before it
+    private V load(String key, String version, Supplier<V> loader)
+    {
+        long stamp;
+        synchronized (this)
+        {
+            stamp = invalidations;
+        }
+        return loads.execute(key + "@" + stamp + "|" + version, () ->
+        {
+            V value = CacheRefill.run(scopes, loader);
+            put(key, value, version, stamp);
+            return value;
+        });
+    }
+
+    private void refresh(String key, String version, Supplier<V> loader)
+    {
+        if (!refreshing.add(key))
+        {
+            return;
+        }
+
+        try
+        {
+            refresher.submit(() -> load(key, version, loader))
+                    .whenComplete((value, e) ->
+                    {
+                        refreshing.remove(key);
+                        if (e != null)
+                        {
+                            refreshFailures.incrementAndGet();
+                            log.warn("Refreshing {} cache entry '{}' failed: {}", name, key, e.getMessage());
+                        }
+                        else
+                        {
+                            refreshes.incrementAndGet();
+                        }
+                    });
+        }
+        catch (OverloadException e)
+        {
+            // Refresher is busy, the stale value is served until a later request gets a slot
+            refreshing.remove(key);
+            refreshFailures.incrementAndGet();
+        }
+    }
+
+    private synchronized void put(String key, V value, String version, long stamp)
+    {
+        // Something was invalidated while this value was loading, it may predate that write
+        if (value == null || stamp != invalidations)
+        {
+            return;
+        }
+
+        entries.put(key, new Entry<>(value, version, System.nanoTime()));
+
+        Iterator<Entry<V>> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext())
+        {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    public synchronized void invalidate(String key)
+    {
+        invalidations++;
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<V> predicate)
+    {
+        invalidations++;
+        entries.values().removeIf(entry -> predicate.test(entry.value()));
+    }
+
+    public synchronized void invalidateAll()
+    {
+        invalidations++;
+        entries.clear();
+    }
+
+    public synchronized Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entries", entries.size());
+        metrics.put("maxEntries", maxEntries);
+        metrics.put("ttlMs", ttlNanos / 1_000_000);
+        metrics.put("staleMs", staleNanos / 1_000_000);
+        metrics.put("hits", hits.get());
+        metrics.put("staleHits", staleHits.get());
+        metrics.put("misses", misses.get());
+        metrics.put("refreshes", refreshes.get());
+        metrics.put("refreshFailures", refreshFailures.get());
+        return metrics;
+    }
+
+    private record Entry<V>(V value, String version, long loadedAt)
+    {
+    }
+}
@@ -0,0 +1,17 @@
+package app.caching;
+
+import java.util.function.Consumer;
+
+// Services publish after a write has committed, caches subscribe and evict what the event covers
+public interface InvalidationBus
+{
+    void publish(InvalidationEvent event);
+
+    void subscribe(Consumer<InvalidationEvent> listener);
+
+    // Runs for this instance's own events only, ahead of every subscriber, e.g. to record the change where all instances see it
+    void onPublish(Consumer<InvalidationEvent> hook);
+
+    // Drops everything every subscriber holds, for writes that went around the services
+    void flush();
+}
@@ -0,0 +1,28 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+
+// id null means every cached entry of the scope.
+// collectionsChanged is false when only the item's own representation changed, e.g. an asset's lastLogDate after a new log.
+public record InvalidationEvent(Scope scope, Integer id, boolean collectionsChanged)
+{
+    public static InvalidationEvent changed(Scope scope, Integer id)
+    {
+        return new InvalidationEvent(scope, id, true);
+    }
+
+    public static InvalidationEvent itemChanged(Scope scope, Integer id)
+    {
+        return new InvalidationEvent(scope, id, false);
+    }
+
+    public static InvalidationEvent all(Scope scope)
+    {
+        return new InvalidationEvent(scope, null, true);
+    }
+
+    public boolean isAll()
+    {
+        return id == null;
+    }
+}
@@ -0,0 +1,80 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Delivers events to this instance's caches only, on the publishing thread, so they are evicted before the write returns
+public class LocalInvalidationBus implements InvalidationBus
+{
+    private static final Logger log = LoggerFactory.getLogger(LocalInvalidationBus.class);
+
+    private final List<Consumer<InvalidationEvent>> listeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<InvalidationEvent>> publishHooks = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(InvalidationEvent event)
+    {
+        beforeDelivery(event);
+        deliver(event);
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationEvent> listener)
+    {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void onPublish(Consumer<InvalidationEvent> hook)
+    {
+        publishHooks.add(hook);
+    }
+
+    @Override
+    public void flush()
+    {
+        for (Scope scope : Scope.values())
+        {
+            InvalidationEvent event = InvalidationEvent.all(scope);
+            beforeDelivery(event);
+            deliver(event);
+        }
+    }
+
+    // Like the listeners, a failing hook must not fail the write that published
+    protected void beforeDelivery(InvalidationEvent event)
+    {
+        for (Consumer<InvalidationEvent> hook : publishHooks)
+        {
+            try
+            {
+                hook.accept(event);
+            }
+            catch (RuntimeException e)
+            {
+                log.error("Publish hook failed for {}", event, e);
+            }
+        }
+    }
+
+    // The write has already committed, a failing listener must not turn it into an error response
+    protected void deliver(InvalidationEvent event)
+    {
+        for (Consumer<InvalidationEvent> listener : listeners)
+        {
+            try
+            {
+                listener.accept(event);
+            }
+            catch (RuntimeException e)
+            {
+                log.error("Invalidation listener failed for {}", event, e);
+            }
+        }
+    }
+}
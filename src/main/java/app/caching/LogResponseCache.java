@@ -0,0 +1,153 @@
+package app.caching;
+
+import app.utils.ETags;
+import app.utils.EnvReader;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Serialized GET /logs/{id} bodies, bounded by total size and evicted least recently used first.
+// Logs are immutable, so an entry only goes stale through performedByName: updating an employee
+// evicts every entry that employee performed. Bodies are shared with readers as they are, nothing writes to them after put.
+public class LogResponseCache
+{
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Integer, Set<Integer>> logIdsByEmployee = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private long usedBytes;
+    private long evictions;
+
+    public LogResponseCache()
+    {
+        this(EnvReader.getLong("LOG_CACHE_MAX_BYTES", 64L * 1024 * 1024));
+    }
+
+    public LogResponseCache(long maxBytes)
+    {
+        this.maxBytes = maxBytes;
+    }
+
+    public CachedResponse get(Integer logId)
+    {
+        Entry entry;
+        synchronized (this)
+        {
+            entry = entries.get(logId);
+        }
+        if (entry == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return new CachedResponse(entry.body, entry.etag);
+    }
+
+    // Taken before loading a log, handed back to put
+    public synchronized long stamp()
+    {
+        return evictions;
+    }
+
+    public CachedResponse put(Integer logId, Integer employeeId, byte[] body, long stamp)
+    {
+        CachedResponse response = new CachedResponse(body, "log-" + logId + "-" + ETags.ofContent(body));
+        if (body.length > maxBytes)
+        {
+            return response;
+        }
+
+        synchronized (this)
+        {
+            // An employee was evicted while this log was loading, the body may carry the old name
+            if (stamp != evictions)
+            {
+                return response;
+            }
+
+            remove(logId);
+            entries.put(logId, new Entry(body, response.etag(), employeeId));
+            logIdsByEmployee.computeIfAbsent(employeeId, id -> new HashSet<>()).add(logId);
+            usedBytes += body.length;
+
+            Iterator<Map.Entry<Integer, Entry>> eldest = entries.entrySet().iterator();
+            while (usedBytes > maxBytes && eldest.hasNext())
+            {
+                Map.Entry<Integer, Entry> evicted = eldest.next();
+                eldest.remove();
+                unlink(evicted.getKey(), evicted.getValue());
+            }
+        }
+        return response;
+    }
+
+    public void onInvalidation(InvalidationEvent event)
+    {
+        if (event.isAll())
+        {
+            clear();
+        }
+        else if (event.scope() == ChangeCounters.Scope.EMPLOYEES)
+        {
+            evictByEmployee(event.id());
+        }
+    }
+
+    public synchronized void clear()
+    {
+        evictions++;
+        entries.clear();
+        logIdsByEmployee.clear();
+        usedBytes = 0;
+    }
+
+    public synchronized void evictByEmployee(Integer employeeId)
+    {
+        evictions++;
+        Set<Integer> logIds = logIdsByEmployee.remove(employeeId);
+        if (logIds != null)
+        {
+            logIds.forEach(this::remove);
+        }
+    }
+
+    private void remove(Integer logId)
+    {
+        Entry entry = entries.remove(logId);
+        if (entry != null)
+        {
+            unlink(logId, entry);
+        }
+    }
+
+    private void unlink(Integer logId, Entry entry)
+    {
+        usedBytes -= entry.body.length;
+        Set<Integer> logIds = logIdsByEmployee.get(entry.employeeId);
+        if (logIds != null)
+        {
+            logIds.remove(logId);
+            if (logIds.isEmpty())
+            {
+                logIdsByEmployee.remove(entry.employeeId);
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("entries", entries.size());
+        metrics.put("usedBytes", usedBytes);
+        metrics.put("maxBytes", maxBytes);
+        metrics.put("hits", hits.get());
+        metrics.put("misses", misses.get());
+        return metrics;
+    }
+
+    private record Entry(byte[] body, String etag, Integer employeeId)
+    {
+    }
+}
@@ -0,0 +1,361 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManagerFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Carries invalidation events between instances over Postgres LISTEN/NOTIFY, no broker needed.
+// Events are delivered locally right away and sent to the other instances in batches with pg_notify.
+// A listener thread on its own connection applies the other instances' events. NOTIFY is not
+// durable: after a reconnect anything sent in between is lost, so every local cache is flushed.
+// Events that could not be sent, and anything missed while the listener was down, are made up
+// for with a flush of every scope on the other instances once a send goes through again.
+// Uses two connections outside the Hikari pool, one for LISTEN and one for sending.
+public class PgInvalidationBus extends LocalInvalidationBus
+{
+    private static final Logger log = LoggerFactory.getLogger(PgInvalidationBus.class);
+    private static final String CHANNEL = "cache_invalidation";
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD_CHARS = 7_000;
+    private static final int MAX_EVENTS_PER_BATCH = 1_000;
+    private static final int POLL_TIMEOUT_MS = 1_000;
+    private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String nodeId = EnvReader.getString("INVALIDATION_NODE_ID", UUID.randomUUID().toString().substring(0, 8));
+    private final long batchMs = EnvReader.getLong("INVALIDATION_BATCH_MS", 50);
+    private final LinkedBlockingQueue<InvalidationEvent> outbox = new LinkedBlockingQueue<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong notificationsSent = new AtomicLong();
+    private final AtomicLong sendFailures = new AtomicLong();
+    private final AtomicLong eventsReceived = new AtomicLong();
+    private final AtomicLong reconnects = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean listening;
+    // Set when events may have been lost, the next send is a flush of every scope
+    private final AtomicBoolean flushPending = new AtomicBoolean();
+    private Connection sendConnection;
+
+    public PgInvalidationBus(EntityManagerFactory emf)
+    {
+        Map<String, Object> properties = emf.getProperties();
+        this.url = (String) properties.get("hibernate.connection.url");
+        this.username = (String) properties.get("hibernate.connection.username");
+        this.password = (String) properties.get("hibernate.connection.password");
+    }
+
+    public void start()
+    {
+        running = true;
+        daemon("invalidation-sender", this::sendLoop).start();
+        daemon("invalidation-listener", this::listenLoop).start();
+        log.info("Invalidation bus started on channel '{}' as node {}", CHANNEL, nodeId);
+    }
+
+    public void stop()
+    {
+        running = false;
+    }
+
+    @Override
+    public void publish(InvalidationEvent event)
+    {
+        beforeDelivery(event);
+        deliver(event);
+        published.incrementAndGet();
+        outbox.add(event);
+    }
+
+    private void sendLoop()
+    {
+        while (running)
+        {
+            try
+            {
+                InvalidationEvent first = outbox.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null && !flushPending.get())
+                {
+                    continue;
+                }
+                // Let the rest of a burst arrive, then send it as one batch
+                Thread.sleep(batchMs);
+
+                List<InvalidationEvent> drained = new ArrayList<>();
+                if (first != null)
+                {
+                    drained.add(first);
+                }
+                outbox.drainTo(drained);
+
+                // A flush of every scope covers whatever was drained with it
+                boolean flushing = flushPending.getAndSet(false);
+                if (send(flushing ? flushAll() : collapse(drained)) && flushing)
+                {
+                    log.info("Sent a full flush to the other instances after lost invalidations");
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        closeQuietly(sendConnection);
+        sendConnection = null;
+    }
+
+    // Duplicates are dropped, and a batch too large to send id by id becomes one flush per scope
+    private static Set<InvalidationEvent> collapse(List<InvalidationEvent> events)
+    {
+        Set<InvalidationEvent> unique = new LinkedHashSet<>(events);
+        if (unique.size() <= MAX_EVENTS_PER_BATCH)
+        {
+            return unique;
+        }
+
+        Set<InvalidationEvent> flushes = new LinkedHashSet<>();
+        for (InvalidationEvent event : unique)
+        {
+            flushes.add(InvalidationEvent.all(event.scope()));
+        }
+        return flushes;
+    }
+
+    private static Set<InvalidationEvent> flushAll()
+    {
+        Set<InvalidationEvent> flushes = new LinkedHashSet<>();
+        for (Scope scope : Scope.values())
+        {
+            flushes.add(InvalidationEvent.all(scope));
+        }
+        return flushes;
+    }
+
+    private boolean send(Set<InvalidationEvent> events)
+    {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        for (InvalidationEvent event : events)
+        {
+            String encoded = encode(event);
+            if (payload.length() + encoded.length() + 1 > MAX_PAYLOAD_CHARS)
+            {
+                payloads.add(payload.toString());
+                payload = new StringBuilder(nodeId);
+            }
+            payload.append(';').append(encoded);
+        }
+        payloads.add(payload.toString());
+
+        try
+        {
+            if (sendConnection == null || sendConnection.isClosed())
+            {
+                sendConnection = connect("sender");
+            }
+            try (PreparedStatement statement = sendConnection.prepareStatement("SELECT pg_notify(?, ?)"))
+            {
+                for (String batch : payloads)
+                {
+                    statement.setString(1, CHANNEL);
+                    statement.setString(2, batch);
+                    statement.execute();
+                    notificationsSent.incrementAndGet();
+                }
+            }
+            return true;
+        }
+        catch (SQLException e)
+        {
+            // The events are gone, the other instances get a full flush once a send works again (retried every poll)
+            sendFailures.incrementAndGet();
+            flushPending.set(true);
+            log.warn("Sending {} invalidation events failed, flushing every scope on the next send: {}", events.size(), e.getMessage());
+            closeQuietly(sendConnection);
+            sendConnection = null;
+            return false;
+        }
+    }
+
+    private void listenLoop()
+    {
+        long delayMs = 500;
+        boolean connectedBefore = false;
+        while (running)
+        {
+            try (Connection connection = connect("listener"))
+            {
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                listening = true;
+                delayMs = 500;
+
+                // Whatever broke the connection may have cost the other instances events as well
+                if (connectedBefore)
+                {
+                    reconnects.incrementAndGet();
+                    log.warn("Invalidation listener reconnected, flushing local caches and the other instances");
+                    flush();
+                    flushPending.set(true);
+                }
+                connectedBefore = true;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running)
+                {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications == null)
+                    {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications)
+                    {
+                        receive(notification.getParameter());
+                    }
+                }
+            }
+            catch (SQLException e)
+            {
+                listening = false;
+                log.warn("Invalidation listener lost its connection, retrying in {} ms: {}", delayMs, e.getMessage());
+                try
+                {
+                    Thread.sleep(delayMs);
+                }
+                catch (InterruptedException interrupted)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                delayMs = Math.min(delayMs * 2, MAX_RECONNECT_DELAY_MS);
+            }
+        }
+        listening = false;
+    }
+
+    private void receive(String payload)
+    {
+        String[] parts = payload.split(";");
+        // This instance's own events were delivered when they were published
+        if (parts.length == 0 || parts[0].equals(nodeId))
+        {
+            return;
+        }
+
+        for (int i = 1; i < parts.length; i++)
+        {
+            InvalidationEvent event = decode(parts[i]);
+            if (event == null)
+            {
+                log.warn("Ignoring malformed invalidation event '{}'", parts[i]);
+                continue;
+            }
+            eventsReceived.incrementAndGet();
+            deliver(event);
+        }
+    }
+
+    // SCOPE:id:c, with * for every id and i for item-only changes
+    private static String encode(InvalidationEvent event)
+    {
+        return event.scope().name() + ":" + (event.isAll() ? "*" : event.id()) + ":" + (event.collectionsChanged() ? "c" : "i");
+    }
+
+    private static InvalidationEvent decode(String encoded)
+    {
+        String[] fields = encoded.split(":");
+        if (fields.length != 3)
+        {
+            return null;
+        }
+        try
+        {
+            Scope scope = Scope.valueOf(fields[0]);
+            Integer id = fields[1].equals("*") ? null : Integer.valueOf(fields[1]);
+            return new InvalidationEvent(scope, id, fields[2].equals("c"));
+        }
+        catch (IllegalArgumentException e)
+        {
+            return null;
+        }
+    }
+
+    // Named in pg_stat_activity, e.g. invalidation-listener-1a2b3c4d
+    private Connection connect(String role) throws SQLException
+    {
+        Properties info = new Properties();
+        if (username != null)
+        {
+            info.setProperty("user", username);
+        }
+        if (password != null)
+        {
+            info.setProperty("password", password);
+        }
+        info.setProperty("ApplicationName", "invalidation-" + role + "-" + nodeId);
+        return DriverManager.getConnection(url, info);
+    }
+
+    private static void closeQuietly(Connection connection)
+    {
+        if (connection == null)
+        {
+            return;
+        }
+        try
+        {
+            connection.close();
+        }
+        catch (SQLException ignored)
+        {
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task)
+    {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("nodeId", nodeId);
+        metrics.put("listening", listening);
+        metrics.put("published", published.get());
+        metrics.put("pending", outbox.size());
+        metrics.put("notificationsSent", notificationsSent.get());
+        metrics.put("sendFailures", sendFailures.get());
+        metrics.put("flushPending", flushPending.get());
+        metrics.put("eventsReceived", eventsReceived.get());
+        metrics.put("reconnects", reconnects.get());
+        return metrics;
+    }
+}
@@ -0,0 +1,102 @@
+package app.concurrency;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Gradient limiter: compares the short-term latency with the long-term (no-load) latency.
+// When requests start queueing the short-term latency rises, the gradient drops below 1 and the limit shrinks.
+// When latency is back at baseline the limit grows by roughly sqrt(limit) per sample.
+public class AdaptiveConcurrencyLimiter
+{
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_DECAY = 0.05;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    private volatile double longRttNanos;
+    private volatile double lastRttNanos;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit)
+    {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    // share is the fraction of the limit a priority may use, e.g. reads stop at 80% so writes keep headroom
+    public boolean tryAcquire(double share)
+    {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true)
+        {
+            int current = inFlight.get();
+            if (current >= allowed)
+            {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1))
+            {
+                return true;
+            }
+        }
+    }
+
+    public void release(long rttNanos, int inFlightAtStart)
+    {
+        inFlight.decrementAndGet();
+        onSample(rttNanos, inFlightAtStart);
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart)
+    {
+        lastRttNanos = rttNanos;
+        if (longRttNanos == 0)
+        {
+            longRttNanos = rttNanos;
+            return;
+        }
+
+        longRttNanos = longRttNanos * (1 - LONG_RTT_DECAY) + rttNanos * LONG_RTT_DECAY;
+        // Latency has recovered to under half the baseline, e.g. after an overload raised it; let the baseline
+        // come down faster than the decay alone would, so the gradient doesn't keep growing the limit on a stale value
+        if (longRttNanos / rttNanos > 2)
+        {
+            longRttNanos *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+
+        // Don't grow the limit when the service isn't actually using it
+        if (newLimit > limit && inFlightAtStart < limit / 2)
+        {
+            return;
+        }
+
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    public int getLimit()
+    {
+        return (int) limit;
+    }
+
+    public int getInFlight()
+    {
+        return inFlight.get();
+    }
+
+    public double getLongRttMs()
+    {
+        return longRttNanos / 1_000_000.0;
+    }
+
+    public double getLastRttMs()
+    {
+        return lastRttNanos / 1_000_000.0;
+    }
+}
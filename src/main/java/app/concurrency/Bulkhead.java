@@ -0,0 +1,150 @@
+package app.concurrency;
+
+import app.context.RequestContext;
+import app.exceptions.OverloadException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Isolated executor, in-flight limit and connection budget for one WorkloadClass
+public class Bulkhead
+{
+    private final WorkloadClass workloadClass;
+    private final ExecutorService executor;
+    private final Semaphore inFlight;
+    private final Semaphore connectionBudget;
+    private final int maxInFlight;
+    private final long timeoutMs;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+
+    public Bulkhead(WorkloadClass workloadClass)
+    {
+        this(workloadClass, false);
+    }
+
+    // With virtual threads every task gets its own thread, the in-flight limit alone bounds concurrency
+    // and BULKHEAD_<CLASS>_THREADS is ignored
+    public Bulkhead(WorkloadClass workloadClass, boolean virtualThreads)
+    {
+        this.workloadClass = workloadClass;
+        this.maxInFlight = workloadClass.maxInFlight();
+        this.timeoutMs = workloadClass.timeoutMs();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.connectionBudget = new Semaphore(workloadClass.connections(), true);
+        String name = "bulkhead-" + workloadClass.name().toLowerCase();
+        this.executor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory())
+                : Executors.newFixedThreadPool(workloadClass.threads(), namedDaemonThreads(name));
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> task)
+    {
+        return submit(null, task);
+    }
+
+    // The request's deadline is capped with this workload's default and bound to the worker thread
+    public <T> CompletableFuture<T> submit(RequestContext requestContext, Callable<T> task)
+    {
+        RequestContext context = requestContext != null ? requestContext.withTimeoutCap(timeoutMs) : RequestContext.withTimeout(timeoutMs);
+
+        // Reject right away instead of queueing without bound, the other workload classes are unaffected
+        if (!inFlight.tryAcquire())
+        {
+            rejected.incrementAndGet();
+            throw new OverloadException("Server is busy with " + workloadClass.name().toLowerCase().replace('_', ' ') + " requests, try again later", 1);
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try
+        {
+            executor.execute(() ->
+            {
+                ConnectionBudget.set(connectionBudget);
+                RequestContext.set(context);
+                try
+                {
+                    future.complete(task.call());
+                }
+                catch (Throwable e)
+                {
+                    future.completeExceptionally(e);
+                }
+                finally
+                {
+                    ConnectionBudget.clear();
+                    RequestContext.clear();
+                    inFlight.release();
+                    completed.incrementAndGet();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            inFlight.release();
+            rejected.incrementAndGet();
+            throw new OverloadException("Server is shutting down", 5);
+        }
+        return future;
+    }
+
+    public WorkloadClass getWorkloadClass()
+    {
+        return workloadClass;
+    }
+
+    public int getInFlight()
+    {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    public int getMaxInFlight()
+    {
+        return maxInFlight;
+    }
+
+    public int getAvailableConnections()
+    {
+        return connectionBudget.availablePermits();
+    }
+
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    public long getCompleted()
+    {
+        return completed.get();
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inFlight", getInFlight());
+        metrics.put("maxInFlight", maxInFlight);
+        metrics.put("availableConnections", getAvailableConnections());
+        metrics.put("rejected", rejected.get());
+        metrics.put("completed", completed.get());
+        return metrics;
+    }
+
+    public void shutdown()
+    {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedDaemonThreads(String prefix)
+    {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable ->
+        {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
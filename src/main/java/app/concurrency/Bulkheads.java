@@ -0,0 +1,85 @@
+package app.concurrency;
+
+import app.context.RequestContextHandler;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Wraps route handlers so they run as Javalin async handlers on their workload's bulkhead.
+// Jetty threads are released while the handler waits for a connection or the database.
+public class Bulkheads
+{
+    private final Map<WorkloadClass, Bulkhead> bulkheads = new EnumMap<>(WorkloadClass.class);
+
+    public Bulkheads()
+    {
+        this(false);
+    }
+
+    public Bulkheads(boolean virtualThreads)
+    {
+        for (WorkloadClass workloadClass : WorkloadClass.values())
+        {
+            bulkheads.put(workloadClass, new Bulkhead(workloadClass, virtualThreads));
+        }
+    }
+
+    public Handler interactiveWrite(Handler handler)
+    {
+        return wrap(WorkloadClass.INTERACTIVE_WRITE, handler);
+    }
+
+    public Handler pointRead(Handler handler)
+    {
+        return wrap(WorkloadClass.POINT_READ, handler);
+    }
+
+    public Handler bulkRead(Handler handler)
+    {
+        return wrap(WorkloadClass.BULK_READ, handler);
+    }
+
+    public Handler wrap(WorkloadClass workloadClass, Handler handler)
+    {
+        Bulkhead bulkhead = bulkheads.get(workloadClass);
+        return ctx -> ctx.future(() -> bulkhead.submit(RequestContextHandler.from(ctx), () ->
+        {
+            handler.handle(ctx);
+            return null;
+        }));
+    }
+
+    // For handlers that answer some requests through ctx.future themselves, only the others run on the bulkhead
+    public Handler wrapUnless(WorkloadClass workloadClass, Predicate<Context> async, Handler handler)
+    {
+        Handler wrapped = wrap(workloadClass, handler);
+        return ctx -> (async.test(ctx) ? handler : wrapped).handle(ctx);
+    }
+
+    public Bulkhead get(WorkloadClass workloadClass)
+    {
+        return bulkheads.get(workloadClass);
+    }
+
+    public Collection<Bulkhead> getAll()
+    {
+        return bulkheads.values();
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        bulkheads.forEach((workloadClass, bulkhead) -> metrics.put(workloadClass.name(), bulkhead.metrics()));
+        return metrics;
+    }
+
+    public void shutdown()
+    {
+        bulkheads.values().forEach(Bulkhead::shutdown);
+    }
+}
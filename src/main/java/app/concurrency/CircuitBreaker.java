@@ -0,0 +1,110 @@
+package app.concurrency;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Opens after failureThreshold consecutive failures, and then rejects calls without trying for openMs.
+// After that one call is let through as a probe: its success closes the circuit, its failure opens it again.
+public class CircuitBreaker
+{
+    public enum State
+    {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    // Lock-free: every connection acquisition passes here, and while closed it only reads
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMs)
+    {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+    }
+
+    // Doesn't claim the probe, for rejecting early before a caller starts queueing
+    public boolean permitsCalls()
+    {
+        State current = state.get();
+        return current == State.CLOSED || (current == State.OPEN && probeDue());
+    }
+
+    // False while open, and while another call is the probe. Of the callers racing for the probe only one wins the CAS.
+    public boolean tryAcquire()
+    {
+        State current = state.get();
+        if (current == State.CLOSED)
+        {
+            return true;
+        }
+        if (current == State.OPEN && probeDue() && state.compareAndSet(State.OPEN, State.HALF_OPEN))
+        {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    public void onSuccess()
+    {
+        // Closed without failures is the common case, and it writes nothing
+        if (state.get() == State.CLOSED && consecutiveFailures.get() == 0)
+        {
+            return;
+        }
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    public void onFailure()
+    {
+        int failures = consecutiveFailures.incrementAndGet();
+        State current = state.get();
+        if (current == State.HALF_OPEN || (current == State.CLOSED && failures >= failureThreshold))
+        {
+            // Set before the state, so no caller sees OPEN with the previous openedAt and probes right away
+            openedAt = System.nanoTime();
+            if (state.compareAndSet(current, State.OPEN))
+            {
+                opened.incrementAndGet();
+            }
+        }
+    }
+
+    // Counts a call turned away before tryAcquire
+    public void onRejected()
+    {
+        rejected.incrementAndGet();
+    }
+
+    public State getState()
+    {
+        return state.get();
+    }
+
+    private boolean probeDue()
+    {
+        return System.nanoTime() - openedAt >= openMs * 1_000_000;
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("state", state.get().name());
+        metrics.put("consecutiveFailures", consecutiveFailures.get());
+        metrics.put("opened", opened.get());
+        metrics.put("rejected", rejected.get());
+        return metrics;
+    }
+}
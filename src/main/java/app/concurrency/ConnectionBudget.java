@@ -0,0 +1,57 @@
+package app.concurrency;
+
+import java.sql.Connection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Per-workload cap on database connections. The bulkhead sets the budget for the thread running a request,
+// GatedConnectionProvider acquires from it before taking a connection from the pool.
+public final class ConnectionBudget
+{
+    private static final ThreadLocal<Semaphore> CURRENT = new ThreadLocal<>();
+    private static final Map<Connection, Semaphore> HELD = new ConcurrentHashMap<>();
+
+    private ConnectionBudget()
+    {
+    }
+
+    static void set(Semaphore budget)
+    {
+        CURRENT.set(budget);
+    }
+
+    static void clear()
+    {
+        CURRENT.remove();
+    }
+
+    public static Semaphore current()
+    {
+        return CURRENT.get();
+    }
+
+    public static boolean tryAcquire(Semaphore budget, long timeoutMs) throws InterruptedException
+    {
+        return budget == null || budget.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static void bind(Connection connection, Semaphore budget)
+    {
+        if (budget != null)
+        {
+            HELD.put(connection, budget);
+        }
+    }
+
+    // Connections may be closed from another thread than the one that opened them, so release by connection
+    public static void release(Connection connection)
+    {
+        Semaphore budget = HELD.remove(connection);
+        if (budget != null)
+        {
+            budget.release();
+        }
+    }
+}
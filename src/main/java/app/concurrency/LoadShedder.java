@@ -0,0 +1,100 @@
+package app.concurrency;
+
+import app.exceptions.OverloadException;
+import app.utils.EnvReader;
+import io.javalin.http.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Before/after handler pair around every matched request. Rejects early with 503 + Retry-After
+// once the adaptive limit is reached, instead of letting requests queue until clients time out.
+public class LoadShedder
+{
+    private static final String START_ATTRIBUTE = "loadShedder.start";
+    private static final String IN_FLIGHT_ATTRIBUTE = "loadShedder.inFlight";
+    private static final String SHED_ATTRIBUTE = "loadShedder.shed";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final double readShare;
+    private final int retryAfterSeconds;
+    private final AtomicLong shedWrites = new AtomicLong();
+    private final AtomicLong shedReads = new AtomicLong();
+
+    public LoadShedder()
+    {
+        this(new AdaptiveConcurrencyLimiter(
+                        EnvReader.getInt("LOAD_SHEDDING_INITIAL_LIMIT", 100),
+                        EnvReader.getInt("LOAD_SHEDDING_MIN_LIMIT", 10),
+                        EnvReader.getInt("LOAD_SHEDDING_MAX_LIMIT", 1000)),
+                EnvReader.getInt("LOAD_SHEDDING_READ_SHARE_PERCENT", 80) / 100.0,
+                EnvReader.getInt("LOAD_SHEDDING_RETRY_AFTER_SECONDS", 1));
+    }
+
+    public LoadShedder(AdaptiveConcurrencyLimiter limiter, double readShare, int retryAfterSeconds)
+    {
+        this.limiter = limiter;
+        this.readShare = readShare;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public void acquire(Context ctx)
+    {
+        // Preflight and open endpoints (health check, route overview) are never shed
+        if (ctx.method().toString().equals("OPTIONS") || ctx.routeRoles().isEmpty())
+        {
+            return;
+        }
+
+        boolean write = isWrite(ctx);
+        if (!limiter.tryAcquire(write ? 1.0 : readShare))
+        {
+            (write ? shedWrites : shedReads).incrementAndGet();
+            ctx.attribute(SHED_ATTRIBUTE, true);
+            throw new OverloadException("Server is overloaded, try again later", retryAfterSeconds);
+        }
+
+        ctx.attribute(IN_FLIGHT_ATTRIBUTE, limiter.getInFlight());
+        ctx.attribute(START_ATTRIBUTE, System.nanoTime());
+    }
+
+    public void release(Context ctx)
+    {
+        Long start = ctx.attribute(START_ATTRIBUTE);
+        if (start == null)
+        {
+            return;
+        }
+        Integer inFlightAtStart = ctx.attribute(IN_FLIGHT_ATTRIBUTE);
+        limiter.release(System.nanoTime() - start, inFlightAtStart == null ? 0 : inFlightAtStart);
+    }
+
+    public AdaptiveConcurrencyLimiter getLimiter()
+    {
+        return limiter;
+    }
+
+    public static boolean wasShed(Context ctx)
+    {
+        return ctx.attribute(SHED_ATTRIBUTE) != null;
+    }
+
+    private static boolean isWrite(Context ctx)
+    {
+        String method = ctx.method().toString();
+        return !method.equals("GET") && !method.equals("HEAD");
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("limit", limiter.getLimit());
+        metrics.put("inFlight", limiter.getInFlight());
+        metrics.put("shedWrites", shedWrites.get());
+        metrics.put("shedReads", shedReads.get());
+        metrics.put("lastRttMs", limiter.getLastRttMs());
+        metrics.put("baselineRttMs", limiter.getLongRttMs());
+        return metrics;
+    }
+}
@@ -0,0 +1,67 @@
+package app.concurrency;
+
+import dk.bugelhartmann.UserDTO;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Opt-in per route in the *Routes classes. Identical GETs that miss the response cache at the same time
+// (same path, query parameters and roles) share one service call and one serialized body.
+public class RequestCoalescer
+{
+    private static final String ATTRIBUTE = "requestCoalescer.route";
+
+    private final SingleFlight<byte[]> flights = new SingleFlight<>();
+    private final Map<String, LongAdder> coalescedByRoute = new ConcurrentHashMap<>();
+
+    // route is the label used in metrics, e.g. "GET /assets"
+    public Handler coalesce(String route, Handler handler)
+    {
+        return ctx ->
+        {
+            ctx.attribute(ATTRIBUTE, route);
+            handler.handle(ctx);
+        };
+    }
+
+    // variant separates results that differ for the same request, e.g. the ETag they were loaded for or the encoding
+    public byte[] load(Context ctx, String variant, Supplier<byte[]> loader)
+    {
+        String route = ctx.attribute(ATTRIBUTE);
+        if (route == null)
+        {
+            return loader.get();
+        }
+
+        return flights.execute(key(ctx, variant), loader,
+                () -> coalescedByRoute.computeIfAbsent(route, r -> new LongAdder()).increment());
+    }
+
+    private static String key(Context ctx, String variant)
+    {
+        // The role scope keeps callers that may see different data apart, even though today's coalesced routes return the same for every role
+        UserDTO employee = ctx.attribute("employee");
+        String roles = employee != null ? new TreeSet<>(employee.getRoles()).toString() : "[]";
+        return ctx.method() + " " + ctx.path() + "?" + new TreeMap<>(ctx.queryParamMap()) + "|" + roles + "|" + variant;
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> byRoute = new TreeMap<>();
+        coalescedByRoute.forEach((route, count) -> byRoute.put(route, count.sum()));
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inFlight", flights.getInFlight());
+        metrics.put("loads", flights.getLoads());
+        metrics.put("coalesced", flights.getCoalesced());
+        metrics.put("coalescedByRoute", byRoute);
+        return metrics;
+    }
+}
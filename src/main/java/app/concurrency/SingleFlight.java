@@ -0,0 +1,99 @@
+package app.concurrency;
+
+import app.context.RequestContext;
+import app.exceptions.ApiException;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// At most one load per key at a time. Callers arriving while a load is running wait for it and get the same
+// result (or exception). Nothing is kept once the load finishes, caching is left to the callers.
+public class SingleFlight<T>
+{
+    private final ConcurrentHashMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public T execute(String key, Supplier<T> loader)
+    {
+        return execute(key, loader, () -> {});
+    }
+
+    public T execute(String key, Supplier<T> loader, Runnable onCoalesced)
+    {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null)
+        {
+            coalesced.incrementAndGet();
+            onCoalesced.run();
+            return await(existing);
+        }
+
+        loads.incrementAndGet();
+        try
+        {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        }
+        catch (RuntimeException | Error e)
+        {
+            flight.completeExceptionally(e);
+            throw e;
+        }
+        finally
+        {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Followers keep their own deadline, a slow leader doesn't hold them past it
+    private static <T> T await(CompletableFuture<T> flight)
+    {
+        RequestContext context = RequestContext.current();
+        try
+        {
+            return context == null ? flight.join() : flight.get(context.remainingMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (CompletionException | ExecutionException e)
+        {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+            {
+                throw runtimeException;
+            }
+            throw new CompletionException(e.getCause());
+        }
+        catch (TimeoutException | CancellationException e)
+        {
+            throw new ApiException(504, "Request deadline exceeded");
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Request was interrupted");
+        }
+    }
+
+    public int getInFlight()
+    {
+        return inFlight.size();
+    }
+
+    public long getLoads()
+    {
+        return loads.get();
+    }
+
+    public long getCoalesced()
+    {
+        return coalesced.get();
+    }
+}
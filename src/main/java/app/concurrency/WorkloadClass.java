@@ -0,0 +1,45 @@
+package app.concurrency;
+
+import app.utils.EnvReader;
+
+// Declared per route in the *Routes classes. Defaults split the 10 Hikari connections 4/4/2.
+public enum WorkloadClass
+{
+    INTERACTIVE_WRITE(8, 200, 4, 10_000), // Technicians posting logs, managers editing assets/employees
+    POINT_READ(16, 400, 4, 5_000), // Single resources, e.g. GET /assets/{id}
+    BULK_READ(4, 20, 2, 30_000); // Full-table and per-employee reports
+
+    private final int defaultThreads;
+    private final int defaultMaxInFlight;
+    private final int defaultConnections;
+    private final long defaultTimeoutMs;
+
+    WorkloadClass(int defaultThreads, int defaultMaxInFlight, int defaultConnections, long defaultTimeoutMs)
+    {
+        this.defaultThreads = defaultThreads;
+        this.defaultMaxInFlight = defaultMaxInFlight;
+        this.defaultConnections = defaultConnections;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    public int threads()
+    {
+        return EnvReader.getInt("BULKHEAD_" + name() + "_THREADS", defaultThreads);
+    }
+
+    public int maxInFlight()
+    {
+        return EnvReader.getInt("BULKHEAD_" + name() + "_MAX_IN_FLIGHT", defaultMaxInFlight);
+    }
+
+    public int connections()
+    {
+        return EnvReader.getInt("BULKHEAD_" + name() + "_CONNECTIONS", defaultConnections);
+    }
+
+    // Default request deadline for routes of this class
+    public long timeoutMs()
+    {
+        return EnvReader.getLong("BULKHEAD_" + name() + "_TIMEOUT_MS", defaultTimeoutMs);
+    }
+}
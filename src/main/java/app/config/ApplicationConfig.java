@@ -1,15 +1,26 @@
 package app.config;
 
+import app.concurrency.LoadShedder;
+import app.context.RequestContextHandler;
 import app.controllers.routes.Routes;
 import app.exceptions.ApiException;
 import app.exceptions.DatabaseException;
+import app.exceptions.OverloadException;
+import app.persistence.memory.InMemoryDatabase;
 import app.services.interfaces.SecurityService;
+import app.utils.EnvReader;
+import com.aayushatharva.brotli4j.Brotli4jLoader;
 import io.javalin.Javalin;
+import io.javalin.compression.Brotli;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
 import io.javalin.config.JavalinConfig;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Map;
+import java.util.concurrent.Executors;
 
 public class ApplicationConfig
 {
@@ -18,28 +29,75 @@ public class ApplicationConfig
 
     public static Javalin start(int port)
     {
-        DependencyContainer container = new DependencyContainer();
-        return start(container, port);
+        // PERSISTENCE=memory runs without Postgres, everything is gone on restart
+        DependencyContainer container = EnvReader.getString("PERSISTENCE", "postgres").equalsIgnoreCase("memory")
+                ? new DependencyContainer(new InMemoryDatabase())
+                : new DependencyContainer();
+        Javalin app = start(container, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> stop(app, container), "shutdown"));
+        return app;
     }
 
     public static Javalin start(DependencyContainer container, int port) //used for test Container
+    {
+        return start(container, port, container.getExecutionMode());
+    }
+
+    public static Javalin start(DependencyContainer container, int port, ExecutionMode executionMode)
     {
         Routes routes = container.getRoutes();
         SecurityService securityService = container.getSecurityService();
+        LoadShedder loadShedder = container.getLoadShedder();
+        RequestContextHandler requestContextHandler = container.getRequestContextHandler();
 
         return Javalin.create(config ->
         {
+            configureThreads(config, executionMode);
+            configureCompression(config);
             configurePlugins(config);
             configureRoutes(config, routes);
-            configureSecurity(config, securityService);
+            configureSecurity(config, securityService, loadShedder, requestContextHandler);
             configureExceptionHandlers(config);
         }).start(port);
     }
 
 
-    public static void stop(Javalin app)
+    // The server first, so no request is still using what the container closes
+    public static void stop(Javalin app, DependencyContainer container)
     {
         app.stop();
+        container.close();
+    }
+
+    private static void configureThreads(JavalinConfig config, ExecutionMode executionMode)
+    {
+        if (executionMode == ExecutionMode.VIRTUAL)
+        {
+            // Jetty still accepts and selects on its platform threads, handlers run on virtual threads.
+            // DB concurrency stays capped by GatedConnectionProvider.
+            QueuedThreadPool threadPool = new QueuedThreadPool();
+            threadPool.setName("jetty-virtual");
+            threadPool.setVirtualThreadsExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            config.jetty.threadPool = threadPool;
+        }
+        log.info("Running request handlers on {} threads", executionMode.name().toLowerCase());
+    }
+
+    private static void configureCompression(JavalinConfig config)
+    {
+        // Low levels keep per-request CPU down, hot collections are precompressed harder by CompressedResponseCache
+        Gzip gzip = new Gzip(6);
+        CompressionStrategy strategy = Brotli4jLoader.isAvailable()
+                ? new CompressionStrategy(new Brotli(4), gzip)
+                : new CompressionStrategy(null, gzip);
+        // Below roughly one packet compression saves nothing
+        strategy.setMinSizeForCompression(EnvReader.getInt("COMPRESSION_MIN_BYTES", 1500));
+        config.http.customCompression(strategy);
+
+        if (!Brotli4jLoader.isAvailable())
+        {
+            log.warn("Brotli native library not available, compressing with gzip only");
+        }
     }
 
     private static void configurePlugins(JavalinConfig config)
@@ -52,23 +110,29 @@ public class ApplicationConfig
         config.routes.apiBuilder(routes.getRoutes());
     }
 
-    private static void configureSecurity(JavalinConfig config, SecurityService securityService)
+    private static void configureSecurity(JavalinConfig config, SecurityService securityService, LoadShedder loadShedder, RequestContextHandler requestContextHandler)
     {
+        // Shed before authenticating, so rejected requests cost no token verification
+        config.routes.beforeMatched(loadShedder::acquire);
+        config.routes.beforeMatched(requestContextHandler::before);
         config.routes.beforeMatched(securityService::authenticate);
-        config.routes.afterMatched(securityService::authorize);
+        config.routes.afterMatched(loadShedder::release);
+        config.routes.afterMatched(requestContextHandler::after);
+        config.routes.afterMatched(ctx ->
+        {
+            // A shed request never authenticated, authorize would turn the 503 into a 403
+            if (!LoadShedder.wasShed(ctx))
+            {
+                securityService.authorize(ctx);
+            }
+        });
     }
 
     private static void configureExceptionHandlers(JavalinConfig config)
     {
         config.routes.exception(DatabaseException.class, (e, ctx) ->
         {
-            int statusCode = switch (e.getErrorType())
-            {
-                case NOT_FOUND -> 404;
-                case CONSTRAINT_VIOLATION -> 409;
-                case CONNECTION_FAILURE -> 503;
-                case TRANSACTION_FAILURE, QUERY_FAILURE, UNKNOWN -> 500;
-            };
+            int statusCode = e.getStatusCode();
 
             if (statusCode >= 500)
             {
@@ -82,6 +146,13 @@ public class ApplicationConfig
             ctx.status(statusCode).json(Map.of("status", statusCode, "msg", e.getMessage()));
         });
 
+        config.routes.exception(OverloadException.class, (e, ctx) ->
+        {
+            log.warn("Overloaded: {}", e.getMessage());
+            ctx.header("Retry-After", String.valueOf(e.getRetryAfterSeconds()));
+            ctx.status(e.getCode()).json(Map.of("error", e.getMessage()));
+        });
+
         config.routes.exception(ApiException.class, (e, ctx) ->
         {
             log.warn("API error [{}]: {}", e.getCode(), e.getMessage());
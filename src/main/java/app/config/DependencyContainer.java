@@ -1,57 +1,388 @@
 package app.config;
 
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import app.caching.CompressedResponseCache;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
+import app.caching.LocalInvalidationBus;
+import app.caching.LogResponseCache;
+import app.caching.PgInvalidationBus;
+import app.concurrency.Bulkhead;
+import app.concurrency.Bulkheads;
+import app.concurrency.LoadShedder;
+import app.concurrency.RequestCoalescer;
+import app.concurrency.WorkloadClass;
+import app.context.RequestContextHandler;
+import app.context.WriteStickiness;
+import app.config.hibernate.GatedConnectionProvider;
 import app.config.hibernate.HibernateConfig;
 import app.controllers.AssetController;
 import app.controllers.MaintenanceLogController;
 import app.controllers.EmployeeController;
+import app.controllers.HealthController;
+import app.controllers.MetricsController;
 import app.controllers.routes.Routes;
+import app.health.HealthMonitor;
+import app.metrics.MetricsRegistry;
 import app.persistence.AssetDAO;
+import app.persistence.LogPartitionMaintainer;
 import app.persistence.MaintenanceLogDAO;
 import app.persistence.EmployeeDAO;
+import app.persistence.JdbcMaintenanceLogQueries;
+import app.persistence.PgChangeCounterStore;
+import app.persistence.ReplicaRouter;
+import app.persistence.TransactionExecutor;
+import app.persistence.archive.ArchivingMaintenanceLogDAO;
+import app.persistence.archive.LogArchive;
+import app.persistence.archive.LogArchiver;
+import app.persistence.interfaces.IAssetDAO;
+import app.persistence.interfaces.IEmployeeDAO;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.interfaces.IMaintenanceLogDTOQueries;
+import app.persistence.logstore.SegmentedLogStore;
+import app.persistence.logstore.SegmentedMaintenanceLogDAO;
+import app.persistence.memory.InMemoryAssetDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.memory.InMemoryEmployeeDAO;
+import app.persistence.memory.InMemoryMaintenanceLogDAO;
+import app.persistence.reactive.ReactiveAssetDAO;
+import app.persistence.reactive.ReactiveMaintenanceLogDAO;
+import app.persistence.reactive.ReactivePgClient;
 import app.services.interfaces.AssetService;
+import app.services.interfaces.AsyncMaintenanceLogService;
 import app.services.interfaces.EmployeeService;
 import app.services.interfaces.MaintenanceLogService;
 import app.services.interfaces.SecurityService;
 import app.services.SecurityServiceImpl;
 import app.controllers.SecurityController;
 import app.services.*;
+import app.utils.EnvReader;
 import jakarta.persistence.EntityManagerFactory;
 import lombok.Getter;
 
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 public class DependencyContainer
 {
     private final EmployeeController employeeController;
     private final AssetController assetController;
     private final MaintenanceLogController maintenanceLogController;
     private final SecurityController securityController;
+    private final MetricsController metricsController;
+    private final HealthController healthController;
+    private final RequestCoalescer coalescer;
     @Getter
     private final SecurityService securityService;
+    @Getter
+    private final Bulkheads bulkheads;
+    @Getter
+    private final InvalidationBus invalidationBus;
+    @Getter
+    private final LoadShedder loadShedder;
+    @Getter
+    private final MetricsRegistry metricsRegistry;
+    @Getter
+    private final RequestContextHandler requestContextHandler;
+    @Getter
+    private final ExecutionMode executionMode;
+    // Background work started here, stopped by close
+    private final HealthMonitor healthMonitor;
+    private final LogPartitionMaintainer partitionMaintainer;
+    private final ReplicaRouter replicaRouter;
+    private final LogArchiver logArchiver;
+    private final PgInvalidationBus pgInvalidationBus;
+    private final ReactivePgClient reactiveClient;
+    private final SegmentedLogStore logStore;
 
     public DependencyContainer()
     {
-        this(HibernateConfig.getEntityManagerFactory());
+        this(HibernateConfig.getEntityManagerFactory(), HibernateConfig.getReplicaEntityManagerFactories());
     }
 
     public DependencyContainer(EntityManagerFactory emfTest)
     {
-        EmployeeDAO employeeDaoImpl = new EmployeeDAO(emfTest);
-        AssetDAO assetDaoImpl = new AssetDAO(emfTest);
-        MaintenanceLogDAO logDaoImpl = new MaintenanceLogDAO(emfTest);
+        this(emfTest, List.of());
+    }
+
+    public DependencyContainer(EntityManagerFactory emfTest, List<EntityManagerFactory> replicaEmfs)
+    {
+        this(emfTest, replicaEmfs, null, ExecutionMode.fromEnvironment());
+    }
+
+    // For comparing the modes in one run, EXECUTION_MODE is used otherwise
+    public DependencyContainer(EntityManagerFactory emfTest, ExecutionMode executionMode)
+    {
+        this(emfTest, List.of(), null, executionMode);
+    }
+
+    // No database at all, for local runs and for benchmarking the web and service layers on their own
+    public DependencyContainer(InMemoryDatabase memory)
+    {
+        this(null, List.of(), memory, ExecutionMode.fromEnvironment());
+    }
+
+    private DependencyContainer(EntityManagerFactory emfTest, List<EntityManagerFactory> replicaEmfs, InMemoryDatabase memory, ExecutionMode executionMode)
+    {
+        this.executionMode = executionMode;
+        // Handlers run on the bulkheads, so they decide which threads the blocking work runs on
+        bulkheads = new Bulkheads(executionMode == ExecutionMode.VIRTUAL);
+        loadShedder = new LoadShedder();
+        WriteStickiness writeStickiness = new WriteStickiness();
+        requestContextHandler = new RequestContextHandler(writeStickiness);
+        metricsRegistry = new MetricsRegistry();
+
+        TransactionExecutor transactions = new TransactionExecutor();
+        // Kept in Postgres, so every instance builds the same collection ETags for the same state
+        ChangeCounters changeCounters = memory == null ? new ChangeCounters(new PgChangeCounterStore(emfTest, transactions)) : new ChangeCounters();
+        LogResponseCache logCache = new LogResponseCache();
+        coalescer = new RequestCoalescer();
+        CompressedResponseCache compressedResponses = new CompressedResponseCache(coalescer);
+
+        PgInvalidationBus pgInvalidationBus = null;
+        ReplicaRouter replicaRouter = null;
+        LogPartitionMaintainer partitionMaintainer = null;
+        ReactivePgClient reactiveClient = null;
+        LogArchiver logArchiver = null;
+        SegmentedLogStore logStore = null;
+        // Several instances behind a load balancer: their caches evict each other's writes over LISTEN/NOTIFY
+        if (memory == null && EnvReader.getString("INVALIDATION_BUS", "local").equalsIgnoreCase("postgres"))
+        {
+            pgInvalidationBus = new PgInvalidationBus(emfTest);
+            metricsRegistry.register("invalidationBus", pgInvalidationBus::metrics);
+            invalidationBus = pgInvalidationBus;
+        }
+        else
+        {
+            invalidationBus = new LocalInvalidationBus();
+        }
+        if (memory == null)
+        {
+            replicaRouter = new ReplicaRouter(emfTest, replicaEmfs);
+            // Ahead of every cache, see ReplicaRouter.onInvalidation
+            if (!replicaEmfs.isEmpty())
+            {
+                invalidationBus.subscribe(replicaRouter::onInvalidation);
+            }
+        }
+        invalidationBus.onPublish(changeCounters::onPublish);
+        invalidationBus.subscribe(changeCounters::onInvalidation);
+        invalidationBus.subscribe(logCache::onInvalidation);
 
-        EmployeeService employeeService = new EmployeeServiceImpl(employeeDaoImpl);
-        AssetService assetService = new AssetServiceImpl(assetDaoImpl);
-        MaintenanceLogService logService = new MaintenanceLogServiceImpl(logDaoImpl, assetDaoImpl, employeeDaoImpl);
-        securityService = new SecurityServiceImpl(employeeDaoImpl);
+        IEmployeeDAO employeeDao;
+        IAssetDAO assetDao;
+        IMaintenanceLogDAO logDao;
+        IMaintenanceLogDTOQueries fastQueries = null;
+        if (memory != null)
+        {
+            employeeDao = new InMemoryEmployeeDAO(memory);
+            assetDao = new InMemoryAssetDAO(memory);
+            logDao = new InMemoryMaintenanceLogDAO(memory);
+            metricsRegistry.register("inMemoryDatabase", memory::metrics);
+        }
+        else
+        {
+            if (!replicaEmfs.isEmpty())
+            {
+                replicaRouter.start();
+                metricsRegistry.register("replicas", replicaRouter::metrics);
+                metricsRegistry.register("writeStickiness", writeStickiness::metrics);
+            }
 
+            // Skips its work while maintenance_logs isn't partitioned, as in the tests
+            partitionMaintainer = new LogPartitionMaintainer(emfTest, () ->
+            {
+                invalidationBus.publish(InvalidationEvent.all(Scope.LOGS));
+                invalidationBus.publish(InvalidationEvent.all(Scope.ASSETS));
+            });
+            partitionMaintainer.start();
+            metricsRegistry.register("logPartitions", partitionMaintainer::metrics);
+
+            GatedConnectionProvider primaryPool = GatedConnectionProvider.of(emfTest);
+            if (primaryPool != null)
+            {
+                metricsRegistry.register("databaseCircuit", primaryPool.getCircuitBreaker()::metrics);
+            }
+
+            metricsRegistry.register("transactions", transactions::metrics);
+
+            EmployeeDAO employeeDaoImpl = new EmployeeDAO(emfTest, replicaRouter, transactions);
+            AssetDAO assetDaoImpl = new AssetDAO(emfTest, replicaRouter, transactions);
+            MaintenanceLogDAO logDaoImpl = new MaintenanceLogDAO(emfTest, replicaRouter, transactions);
+            employeeDao = employeeDaoImpl;
+            assetDao = assetDaoImpl;
+            logDao = logDaoImpl;
+
+            // Logs in append-only segment files instead of maintenance_logs, assets and employees stay in Postgres
+            if (EnvReader.getString("LOG_STORE", "postgres").equalsIgnoreCase("segmented"))
+            {
+                requireSingleInstance("LOG_STORE=segmented", replicaEmfs, pgInvalidationBus);
+                logStore = SegmentedLogStore.open(Path.of(EnvReader.getString("LOG_STORE_DIR", "data/logstore")));
+                logDao = new SegmentedMaintenanceLogDAO(logStore, assetDaoImpl, employeeDaoImpl);
+                metricsRegistry.register("logStore", logStore::metrics);
+            }
+            else if (EnvReader.getBoolean("LOG_ARCHIVE_ENABLED", false))
+            {
+                requireSingleInstance("LOG_ARCHIVE_ENABLED", replicaEmfs, pgInvalidationBus);
+                LogArchive logArchive = new LogArchive(Path.of(EnvReader.getString("LOG_ARCHIVE_DIR", "archive/logs")));
+                logArchive.open(logId -> !logDaoImpl.getAll(List.of(logId)).isEmpty());
+                logDao = new ArchivingMaintenanceLogDAO(logDaoImpl, logArchive, assetDaoImpl, employeeDaoImpl);
+                // Archived logs leave the unbounded lists, and an asset's lastLogDate may move back
+                logArchiver = new LogArchiver(emfTest, logArchive, () ->
+                {
+                    invalidationBus.publish(InvalidationEvent.all(Scope.LOGS));
+                    invalidationBus.publish(InvalidationEvent.all(Scope.ASSETS));
+                });
+                metricsRegistry.register("logArchive", logArchiver::metrics);
+            }
+            else
+            {
+                // Only with logs in maintenance_logs alone, which is all the JDBC and reactive queries read
+                fastQueries = new JdbcMaintenanceLogQueries(replicaRouter, transactions);
+                if (EnvReader.getBoolean("REACTIVE_LOGS_ENABLED", false))
+                {
+                    reactiveClient = new ReactivePgClient(emfTest);
+                    metricsRegistry.register("reactiveClient", reactiveClient::metrics);
+                }
+            }
+        }
+
+        EmployeeService employeeService = new EmployeeServiceImpl(employeeDao, changeCounters, invalidationBus);
+        AssetService assetService = new AssetServiceImpl(assetDao, changeCounters, invalidationBus);
+        MaintenanceLogService logService = new MaintenanceLogServiceImpl(logDao, assetDao, employeeDao, changeCounters, logCache, invalidationBus,
+                fastQueries, fastPathMethods());
+        securityService = new SecurityServiceImpl(employeeDao, invalidationBus);
+        AsyncMaintenanceLogService asyncLogService = reactiveClient != null
+                ? new ReactiveMaintenanceLogServiceImpl(new ReactiveMaintenanceLogDAO(reactiveClient), new ReactiveAssetDAO(reactiveClient), invalidationBus)
+                : null;
+
+        if (EnvReader.getBoolean("DTO_CACHE_ENABLED", true))
+        {
+            // Stale entries are refreshed in the background on the bulk read bulkhead, next to the reports
+            Bulkhead refresher = bulkheads.get(WorkloadClass.BULK_READ);
+            CachingEmployeeService cachingEmployeeService = new CachingEmployeeService(employeeService, refresher);
+            CachingAssetService cachingAssetService = new CachingAssetService(assetService, refresher);
+            CachingMaintenanceLogService cachingLogService = new CachingMaintenanceLogService(logService, refresher);
+            invalidationBus.subscribe(cachingEmployeeService::onInvalidation);
+            invalidationBus.subscribe(cachingAssetService::onInvalidation);
+            invalidationBus.subscribe(cachingLogService::onInvalidation);
+
+            metricsRegistry.register("dtoCache", () -> Map.of(
+                    "employees", cachingEmployeeService.metrics(),
+                    "assets", cachingAssetService.metrics(),
+                    "logs", cachingLogService.metrics()));
+
+            employeeService = cachingEmployeeService;
+            assetService = cachingAssetService;
+            logService = cachingLogService;
+        }
+
+        // Once every cache has subscribed
+        if (pgInvalidationBus != null)
+        {
+            pgInvalidationBus.start();
+        }
+        if (logArchiver != null)
+        {
+            logArchiver.start();
+        }
+
+        // Warm means the hot lists have been read once, which fills the DTO caches and the pool
+        AssetService warmAssets = assetService;
+        MaintenanceLogService warmLogs = logService;
+        HealthMonitor healthMonitor = new HealthMonitor(emfTest, () ->
+        {
+            warmAssets.getAll(null);
+            warmLogs.getLogsOnActiveAssets(50);
+        });
+        healthMonitor.start();
+        metricsRegistry.register("health", () -> healthMonitor.getReadiness().details());
+
+        metricsRegistry.register("bulkheads", bulkheads::metrics);
+        metricsRegistry.register("loadShedding", loadShedder::metrics);
+        metricsRegistry.register("changeCounters", changeCounters::metrics);
+        metricsRegistry.register("logCache", logCache::metrics);
+        metricsRegistry.register("compressedResponses", compressedResponses::metrics);
+        metricsRegistry.register("coalescing", coalescer::metrics);
+
+        this.healthMonitor = healthMonitor;
+        this.partitionMaintainer = partitionMaintainer;
+        this.replicaRouter = replicaRouter;
+        this.logArchiver = logArchiver;
+        this.pgInvalidationBus = pgInvalidationBus;
+        this.reactiveClient = reactiveClient;
+        this.logStore = logStore;
 
         this.employeeController = new EmployeeController(employeeService);
-        this.assetController = new AssetController(assetService);
-        this.maintenanceLogController = new MaintenanceLogController(logService);
+        this.assetController = new AssetController(assetService, compressedResponses);
+        this.maintenanceLogController = new MaintenanceLogController(logService, compressedResponses, asyncLogService);
         this.securityController = new SecurityController(securityService);
+        this.metricsController = new MetricsController(metricsRegistry);
+        this.healthController = new HealthController(healthMonitor);
+    }
+
+    // Stops the background threads and closes the connections and files opened here, not the EntityManagerFactories.
+    // Call it once the server has stopped taking requests.
+    public void close()
+    {
+        healthMonitor.stop();
+        if (logArchiver != null)
+        {
+            logArchiver.stop();
+        }
+        if (partitionMaintainer != null)
+        {
+            partitionMaintainer.stop();
+        }
+        if (replicaRouter != null)
+        {
+            replicaRouter.stop();
+        }
+        if (pgInvalidationBus != null)
+        {
+            pgInvalidationBus.stop();
+        }
+        if (reactiveClient != null)
+        {
+            reactiveClient.close();
+        }
+        if (logStore != null)
+        {
+            logStore.close();
+        }
+        bulkheads.shutdown();
+    }
+
+    // For features that keep data on this instance's disk: other instances would never see it
+    private static void requireSingleInstance(String feature, List<EntityManagerFactory> replicaEmfs, PgInvalidationBus pgInvalidationBus)
+    {
+        if (!replicaEmfs.isEmpty() || pgInvalidationBus != null)
+        {
+            throw new IllegalStateException(feature + " only works on a single instance, its files are local to this one. "
+                    + "It cannot be combined with DB_REPLICA_URLS or INVALIDATION_BUS=postgres.");
+        }
+    }
+
+    // LOG_JDBC_FAST_PATH lists the IMaintenanceLogDTOQueries methods to serve through JDBC, e.g. "getByAsset,getLogsOnActiveAssets"
+    private static Set<String> fastPathMethods()
+    {
+        Set<String> methods = new HashSet<>();
+        for (String method : EnvReader.getString("LOG_JDBC_FAST_PATH", "").split(","))
+        {
+            if (!method.isBlank())
+            {
+                methods.add(method.trim());
+            }
+        }
+        return methods;
     }
 
     public Routes getRoutes()
     {
-        return new Routes(employeeController, assetController, maintenanceLogController, securityController);
+        return new Routes(employeeController, assetController, maintenanceLogController, securityController, metricsController, healthController, securityService, bulkheads, coalescer);
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package app.config;
+
+import app.utils.EnvReader;
+
+public enum ExecutionMode
+{
+    PLATFORM, // Jetty's default pool of platform threads
+    VIRTUAL; // One virtual thread per request, blocking JDBC/BCrypt calls no longer hold a worker
+
+    public static ExecutionMode fromEnvironment()
+    {
+        String mode = EnvReader.getString("EXECUTION_MODE", PLATFORM.name());
+        try
+        {
+            return ExecutionMode.valueOf(mode.toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IllegalArgumentException("EXECUTION_MODE must be PLATFORM or VIRTUAL, was: " + mode, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package app.config.hibernate;
+
+import app.concurrency.CircuitBreaker;
+import app.concurrency.ConnectionBudget;
+import app.utils.EnvReader;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Hikari provider with a fair semaphore in front of the pool.
+// With virtual threads thousands of requests can reach the DAOs at once, the semaphore makes them
+// queue in order for one of the maximumPoolSize connections instead of storming the pool.
+// Requests running in a bulkhead additionally wait for their workload's ConnectionBudget first.
+// A circuit breaker fails every acquisition at once while Postgres can't be reached, instead of each
+// request waiting out the connection timeout.
+public class GatedConnectionProvider extends HikariCPConnectionProvider
+{
+    private Semaphore permits;
+    private long acquireTimeoutMs;
+    private final CircuitBreaker circuit = new CircuitBreaker(
+            EnvReader.getInt("DB_CIRCUIT_FAILURE_THRESHOLD", 5),
+            EnvReader.getLong("DB_CIRCUIT_OPEN_MS", 5000));
+
+    // Null when emf was built with another connection provider
+    public static GatedConnectionProvider of(EntityManagerFactory emf)
+    {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().requireService(ConnectionProvider.class);
+        return provider instanceof GatedConnectionProvider gated ? gated : null;
+    }
+
+    @Override
+    public void configure(Map<String, Object> props)
+    {
+        int poolSize = Integer.parseInt(String.valueOf(props.getOrDefault("hibernate.hikari.maximumPoolSize", "10")));
+        this.acquireTimeoutMs = Long.parseLong(String.valueOf(props.getOrDefault("hibernate.hikari.connectionTimeout", "30000")));
+        this.permits = new Semaphore(poolSize, true);
+        super.configure(props);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        if (!circuit.permitsCalls())
+        {
+            circuit.onRejected();
+            throw circuitOpen();
+        }
+
+        Semaphore budget = ConnectionBudget.current();
+        try
+        {
+            if (!ConnectionBudget.tryAcquire(budget, acquireTimeoutMs))
+            {
+                throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMs + "ms waiting for the workload's connection budget", "08001");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", "08001", e);
+        }
+
+        try
+        {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS))
+            {
+                releaseBudget(budget);
+                throw new SQLTransientConnectionException("Timed out after " + acquireTimeoutMs + "ms waiting for a database connection", "08001");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            releaseBudget(budget);
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", "08001", e);
+        }
+
+        // Only Hikari's own failures count. The permits match the pool size, so Hikari waiting
+        // out its timeout means it couldn't open a connection, not that the pool was busy.
+        if (!circuit.tryAcquire())
+        {
+            permits.release();
+            releaseBudget(budget);
+            throw circuitOpen();
+        }
+        try
+        {
+            Connection connection = super.getConnection();
+            circuit.onSuccess();
+            ConnectionBudget.bind(connection, budget);
+            return connection;
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            circuit.onFailure();
+            permits.release();
+            releaseBudget(budget);
+            throw e;
+        }
+    }
+
+    // 08xxx like the driver's connection errors, so the DAOs answer 503 CONNECTION_FAILURE.
+    // A SQLTransientConnectionException is never retried by TransactionExecutor.
+    private static SQLTransientConnectionException circuitOpen()
+    {
+        return new SQLTransientConnectionException("Database circuit is open, not trying to connect", "08001");
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException
+    {
+        try
+        {
+            super.closeConnection(connection);
+        }
+        finally
+        {
+            ConnectionBudget.release(connection);
+            permits.release();
+        }
+    }
+
+    private static void releaseBudget(Semaphore budget)
+    {
+        if (budget != null)
+        {
+            budget.release();
+        }
+    }
+
+    public int getAvailablePermits()
+    {
+        return permits.availablePermits();
+    }
+
+    public int getQueueLength()
+    {
+        return permits.getQueueLength();
+    }
+
+    // Waiting inside Hikari, past the semaphore. Only happens while Hikari can't open connections.
+    public int getThreadsAwaitingConnection()
+    {
+        HikariPoolMXBean pool = unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    public CircuitBreaker getCircuitBreaker()
+    {
+        return circuit;
+    }
+}
@@ -20,6 +20,11 @@ public final class HibernateBaseProperties
         props.put("hibernate.hikari.maximumPoolSize", "10");
         props.put("hibernate.hikari.minimumIdle", "2");
         props.put("hibernate.hikari.connectionTimeout", "20000");
+        props.put("hibernate.connection.provider_class", GatedConnectionProvider.class.getName());
+        // IN lists are padded to powers of two, so multi-gets of different sizes share a few cached plans
+        props.put("hibernate.query.in_clause_parameter_padding", "true");
+        // Lets hbm2ddl update/validate see maintenance_logs once it is partitioned, instead of trying to create it
+        props.put("hibernate.hbm2ddl.extra_physical_table_types", "PARTITIONED TABLE");
         return props;
     }
 }
\ No newline at end of file
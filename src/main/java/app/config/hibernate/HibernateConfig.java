@@ -1,14 +1,18 @@
 package app.config.hibernate;
 
+import app.utils.EnvReader;
 import app.utils.PropertyReader;
 import jakarta.persistence.EntityManagerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 
 public final class HibernateConfig
 {
 
     private static volatile EntityManagerFactory emf;
+    private static volatile List<EntityManagerFactory> replicaEmfs;
 
     private HibernateConfig()
     {
@@ -29,6 +33,45 @@ public final class HibernateConfig
         return emf;
     }
 
+    // One read-only factory per JDBC URL in DB_REPLICA_URLS (comma separated), none when it isn't set.
+    // Credentials default to the primary's.
+    public static List<EntityManagerFactory> getReplicaEntityManagerFactories()
+    {
+        if (replicaEmfs == null)
+        {
+            synchronized (HibernateConfig.class)
+            {
+                if (replicaEmfs == null)
+                {
+                    List<EntityManagerFactory> factories = new ArrayList<>();
+                    String urls = EnvReader.getString("DB_REPLICA_URLS", "");
+                    for (String url : urls.split(","))
+                    {
+                        if (!url.isBlank())
+                        {
+                            factories.add(HibernateEmfBuilder.build(buildReplicaProps(url.trim())));
+                        }
+                    }
+                    replicaEmfs = List.copyOf(factories);
+                }
+            }
+        }
+        return replicaEmfs;
+    }
+
+    private static Properties buildReplicaProps(String url)
+    {
+        Properties props = buildProps();
+        // The schema is managed through the primary, a hot standby rejects DDL anyway
+        props.put("hibernate.hbm2ddl.auto", "none");
+        props.put("hibernate.hikari.readOnly", "true");
+        props.put("hibernate.hikari.maximumPoolSize", String.valueOf(EnvReader.getInt("DB_REPLICA_POOL_SIZE", 10)));
+        props.put("hibernate.connection.url", url);
+        props.put("hibernate.connection.username", EnvReader.getString("DB_REPLICA_USERNAME", props.getProperty("hibernate.connection.username")));
+        props.put("hibernate.connection.password", EnvReader.getString("DB_REPLICA_PASSWORD", props.getProperty("hibernate.connection.password")));
+        return props;
+    }
+
     private static Properties buildProps()
     {
         Properties props = HibernateBaseProperties.createBase();
@@ -0,0 +1,65 @@
+package app.context;
+
+// Per-request state the DAOs need but that shouldn't be threaded through every service signature.
+// Bound to the thread running the request: the Jetty thread, or the bulkhead thread for async handlers.
+public final class RequestContext
+{
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    private final boolean primaryPinned;
+
+    private RequestContext(long deadlineNanos, boolean primaryPinned)
+    {
+        this.deadlineNanos = deadlineNanos;
+        this.primaryPinned = primaryPinned;
+    }
+
+    public static RequestContext withTimeout(long timeoutMs)
+    {
+        return new RequestContext(System.nanoTime() + timeoutMs * 1_000_000, false);
+    }
+
+    // Only ever tightens the deadline, a client header cannot extend a route's default
+    public RequestContext withTimeoutCap(long timeoutMs)
+    {
+        long capped = System.nanoTime() + timeoutMs * 1_000_000;
+        return capped - deadlineNanos < 0 ? new RequestContext(capped, primaryPinned) : this;
+    }
+
+    // Reads of this request skip the replicas: writes and their read-before-write, and a client's reads right after it wrote
+    public RequestContext withPrimaryPinned()
+    {
+        return primaryPinned ? this : new RequestContext(deadlineNanos, true);
+    }
+
+    public boolean isPrimaryPinned()
+    {
+        return primaryPinned;
+    }
+
+    public long remainingMillis()
+    {
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000);
+    }
+
+    public boolean isExpired()
+    {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    public static RequestContext current()
+    {
+        return CURRENT.get();
+    }
+
+    public static void set(RequestContext context)
+    {
+        CURRENT.set(context);
+    }
+
+    public static void clear()
+    {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,93 @@
+package app.context;
+
+import app.exceptions.ApiException;
+import app.utils.EnvReader;
+import io.javalin.http.Context;
+
+// Captures the request deadline: X-Request-Timeout (ms) if the client sent one, capped by REQUEST_TIMEOUT_MS.
+// Bulkheads cap it further with the route's workload default.
+// Also pins writes, and reads from a client that just wrote, to the primary database.
+public class RequestContextHandler
+{
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+    private static final String ATTRIBUTE = "requestContext";
+
+    private final long maxTimeoutMs;
+    private final WriteStickiness writeStickiness;
+
+    public RequestContextHandler(WriteStickiness writeStickiness)
+    {
+        this(EnvReader.getLong("REQUEST_TIMEOUT_MS", 30_000), writeStickiness);
+    }
+
+    public RequestContextHandler(long maxTimeoutMs, WriteStickiness writeStickiness)
+    {
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.writeStickiness = writeStickiness;
+    }
+
+    public void before(Context ctx)
+    {
+        RequestContext context = RequestContext.withTimeout(maxTimeoutMs);
+
+        String header = ctx.header(TIMEOUT_HEADER);
+        if (header != null)
+        {
+            long timeoutMs;
+            try
+            {
+                timeoutMs = Long.parseLong(header.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                throw new ApiException(400, TIMEOUT_HEADER + " must be a number of milliseconds");
+            }
+            // 0 or less would answer 504 without trying, for what is a client error
+            if (timeoutMs <= 0)
+            {
+                throw new ApiException(400, TIMEOUT_HEADER + " must be a positive number of milliseconds");
+            }
+            context = context.withTimeoutCap(timeoutMs);
+        }
+
+        if (isWrite(ctx) || writeStickiness.wroteRecently(client(ctx)))
+        {
+            context = context.withPrimaryPinned();
+        }
+
+        ctx.attribute(ATTRIBUTE, context);
+        RequestContext.set(context);
+    }
+
+    public void after(Context ctx)
+    {
+        if (isWrite(ctx) && ctx.status().getCode() < 400)
+        {
+            writeStickiness.recordWrite(client(ctx));
+        }
+        RequestContext.clear();
+    }
+
+    // POST /batch only runs GETs, so it may use the replicas
+    private static boolean isWrite(Context ctx)
+    {
+        String method = ctx.method().toString();
+        if (method.equals("POST") && ctx.path().endsWith("/batch"))
+        {
+            return false;
+        }
+        return !method.equals("GET") && !method.equals("HEAD") && !method.equals("OPTIONS");
+    }
+
+    private static String client(Context ctx)
+    {
+        String authorization = ctx.header("Authorization");
+        return authorization != null ? authorization : ctx.ip();
+    }
+
+    public static RequestContext from(Context ctx)
+    {
+        RequestContext context = ctx.attribute(ATTRIBUTE);
+        return context != null ? context : RequestContext.current();
+    }
+}
@@ -0,0 +1,51 @@
+package app.context;
+
+import app.utils.EnvReader;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers which clients wrote recently, so their next reads go to the primary and see the write
+// even while the replicas lag behind. A client is its Authorization header, or its IP without one.
+public class WriteStickiness
+{
+    private static final int CLEANUP_THRESHOLD = 10_000;
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public WriteStickiness()
+    {
+        this(EnvReader.getLong("REPLICA_STICKY_MS", 5_000));
+    }
+
+    public WriteStickiness(long windowMs)
+    {
+        this.windowNanos = windowMs * 1_000_000;
+    }
+
+    public void recordWrite(String client)
+    {
+        lastWrites.put(client, System.nanoTime());
+        if (lastWrites.size() > CLEANUP_THRESHOLD)
+        {
+            long now = System.nanoTime();
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt > windowNanos);
+        }
+    }
+
+    public boolean wroteRecently(String client)
+    {
+        Long writtenAt = lastWrites.get(client);
+        return writtenAt != null && System.nanoTime() - writtenAt <= windowNanos;
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("windowMs", windowNanos / 1_000_000);
+        metrics.put("trackedClients", lastWrites.size());
+        return metrics;
+    }
+}
@@ -1,16 +1,32 @@
 package app.controllers;
 
+import app.caching.ChangeCounters.Scope;
+import app.caching.CompressedResponseCache;
+import app.controllers.routes.ReadRoute;
 import app.dtos.AssetDTO;
 import app.services.interfaces.AssetService;
+import app.utils.ETags;
+import app.utils.IdLists;
+import app.utils.QueryParams;
+import app.utils.SparseFields;
 import io.javalin.http.Context;
 
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
 public class AssetController
 {
+    // The scopes whose events move the collection ETags
+    private static final Set<Scope> SCOPES = Set.of(Scope.ASSETS);
+
     private AssetService assetService;
+    private final CompressedResponseCache compressedResponses;
 
-    public AssetController(AssetService assetService)
+    public AssetController(AssetService assetService, CompressedResponseCache compressedResponses)
     {
         this.assetService = assetService;
+        this.compressedResponses = compressedResponses;
     }
 
     public void create(Context ctx)
@@ -25,16 +41,47 @@ public class AssetController
 
     public void getAll(Context ctx)
     {
-        String activeParam = ctx.queryParam("active");
-        Boolean active = activeParam != null ? Boolean.parseBoolean(activeParam) : null;
+        Function<String, String> param = ReadRoute.params(ctx);
+        if (IdLists.parse(param.apply("ids")) != null)
+        {
+            ctx.status(200).json(loadAll(param));
+            return;
+        }
+
+        Boolean active = QueryParams.parseBoolean(param.apply("active"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), AssetDTO.class);
 
-        ctx.json(assetService.getAll(active));
+        compressedResponses.serve(ctx, assetService.getCollectionETag(active) + SparseFields.variant(fields), SCOPES, () -> loadAll(param));
+    }
+
+    public Object loadAll(Function<String, String> param)
+    {
+        List<Integer> ids = IdLists.parse(param.apply("ids"));
+        if (ids != null)
+        {
+            return assetService.getMany(ids);
+        }
+
+        Boolean active = QueryParams.parseBoolean(param.apply("active"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), AssetDTO.class);
+        return fields != null ? assetService.getAllProjected(fields, active) : assetService.getAll(active);
     }
 
     public void get(Context ctx)
     {
         int id = Integer.parseInt(ctx.pathParam("id"));
-        ctx.status(200).json(assetService.get(id));
+
+        String etag = assetService.getETag(id);
+        if (ETags.notModified(ctx, etag))
+        {
+            return;
+        }
+        ctx.status(200).json(assetService.get(id, etag));
+    }
+
+    public Object load(Function<String, String> param)
+    {
+        return assetService.get(Integer.parseInt(param.apply("id")));
     }
 
     public void active(Context ctx)
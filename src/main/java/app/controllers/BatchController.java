@@ -0,0 +1,182 @@
+package app.controllers;
+
+import app.concurrency.Bulkheads;
+import app.context.RequestContext;
+import app.context.RequestContextHandler;
+import app.controllers.routes.ReadRoute;
+import app.controllers.routes.Routes;
+import app.dtos.BatchItem;
+import app.dtos.BatchItemResult;
+import app.dtos.BatchRequest;
+import app.dtos.BatchResponse;
+import app.exceptions.ExceptionStatus;
+import app.services.interfaces.SecurityService;
+import app.utils.EnvReader;
+import dk.bugelhartmann.UserDTO;
+import io.javalin.http.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Runs several GET requests in one round trip. The token is verified once for the batch,
+// each item is checked against the same role as its route and runs on that route's bulkhead.
+public class BatchController
+{
+    private static final Logger log = LoggerFactory.getLogger(BatchController.class);
+    private static final String API_PREFIX = "/" + Routes.getApiVersion();
+    private static final Pattern PATH_PARAM = Pattern.compile("\\{(\\w+)}");
+
+    private final SecurityService securityService;
+    private final Bulkheads bulkheads;
+    private final int maxRequests = EnvReader.getInt("BATCH_MAX_REQUESTS", 20);
+    private final List<SubRoute> subRoutes;
+
+    // The GET routes as registered by AssetRoutes, EmployeeRoutes and MaintenanceLogRoutes
+    public BatchController(SecurityService securityService, Bulkheads bulkheads, List<ReadRoute> readRoutes)
+    {
+        this.securityService = securityService;
+        this.bulkheads = bulkheads;
+        this.subRoutes = readRoutes.stream().map(SubRoute::new).toList();
+    }
+
+    public void batch(Context ctx)
+    {
+        BatchRequest request = ctx.bodyValidator(BatchRequest.class)
+                .check(dto -> dto.requests() != null && !dto.requests().isEmpty(), "At least one request is required")
+                .check(dto -> dto.requests() == null || dto.requests().size() <= maxRequests, "At most " + maxRequests + " requests per batch")
+                .check(dto -> dto.requests() == null || dto.requests().stream().allMatch(item -> item != null && item.path() != null), "Every request needs a path")
+                .get();
+
+        UserDTO employee = ctx.attribute("employee");
+        RequestContext requestContext = RequestContextHandler.from(ctx);
+
+        List<CompletableFuture<BatchItemResult>> results = new ArrayList<>();
+        for (BatchItem item : request.requests())
+        {
+            results.add(execute(item, employee, requestContext));
+        }
+
+        ctx.future(() -> CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenAccept(done -> ctx.status(200).json(new BatchResponse(results.stream().map(CompletableFuture::join).toList()))));
+    }
+
+    private CompletableFuture<BatchItemResult> execute(BatchItem item, UserDTO employee, RequestContext requestContext)
+    {
+        String method = item.method() != null ? item.method().toUpperCase() : "GET";
+        if (!method.equals("GET"))
+        {
+            return CompletableFuture.completedFuture(error(item, 405, "Only GET requests can be batched"));
+        }
+
+        String path = item.path();
+        String queryString = "";
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0)
+        {
+            queryString = path.substring(queryStart + 1);
+            path = path.substring(0, queryStart);
+        }
+        if (path.startsWith(API_PREFIX))
+        {
+            path = path.substring(API_PREFIX.length());
+        }
+        if (path.length() > 1 && path.endsWith("/"))
+        {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        for (SubRoute subRoute : subRoutes)
+        {
+            Matcher matcher = subRoute.pattern().matcher(path);
+            if (!matcher.matches())
+            {
+                continue;
+            }
+            if (!securityService.hasAccess(employee, Set.of(subRoute.route().role())))
+            {
+                return CompletableFuture.completedFuture(error(item, 403, "Employee was not authorized for " + item.path()));
+            }
+
+            try
+            {
+                Map<String, String> query = parseQuery(queryString);
+                return bulkheads.get(subRoute.route().workloadClass())
+                        .submit(requestContext, () -> subRoute.route().loader().load(subRoute.params(matcher, query)))
+                        .handle((body, e) -> e == null ? new BatchItemResult(item.id(), 200, body) : error(item, e));
+            }
+            catch (RuntimeException e)
+            {
+                // Bulkhead full or a malformed query string, only this item fails
+                return CompletableFuture.completedFuture(error(item, e));
+            }
+        }
+        return CompletableFuture.completedFuture(error(item, 404, "No batchable route for " + item.path()));
+    }
+
+    private static Map<String, String> parseQuery(String queryString)
+    {
+        Map<String, String> query = new HashMap<>();
+        for (String pair : queryString.split("&"))
+        {
+            if (pair.isEmpty())
+            {
+                continue;
+            }
+            int separator = pair.indexOf('=');
+            String key = URLDecoder.decode(separator >= 0 ? pair.substring(0, separator) : pair, StandardCharsets.UTF_8);
+            String value = separator >= 0 ? URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8) : "";
+            // Same as ctx.queryParam: the first value wins
+            query.putIfAbsent(key, value);
+        }
+        return query;
+    }
+
+    // Logged like the exception handlers in ApplicationConfig would, the batch itself still answers 200
+    private static BatchItemResult error(BatchItem item, Throwable e)
+    {
+        Throwable cause = ExceptionStatus.unwrap(e);
+        int status = ExceptionStatus.of(cause);
+        if (status >= 500)
+        {
+            log.error("Batch item {} failed [{}]: {}", item.path(), status, cause.getMessage(), cause);
+        }
+        else
+        {
+            log.warn("Batch item {} failed [{}]: {}", item.path(), status, cause.getMessage());
+        }
+        return error(item, status, String.valueOf(cause.getMessage()));
+    }
+
+    private static BatchItemResult error(BatchItem item, int status, String message)
+    {
+        return new BatchItemResult(item.id(), status, Map.of("error", message));
+    }
+
+    // The route's path with each {param} turned into a named group
+    private record SubRoute(ReadRoute route, Pattern pattern, List<String> paramNames)
+    {
+        SubRoute(ReadRoute route)
+        {
+            this(route, Pattern.compile(PATH_PARAM.matcher(route.path()).replaceAll("(?<$1>[^/]+)")),
+                    PATH_PARAM.matcher(route.path()).results().map(result -> result.group(1)).toList());
+        }
+
+        Function<String, String> params(Matcher matcher, Map<String, String> query)
+        {
+            Map<String, String> params = new HashMap<>(query);
+            paramNames.forEach(name -> params.put(name, matcher.group(name)));
+            return params::get;
+        }
+    }
+}
@@ -1,9 +1,17 @@
 package app.controllers;
 
+import app.controllers.routes.ReadRoute;
 import app.dtos.EmployeeDTO;
 import app.services.interfaces.EmployeeService;
+import app.utils.ETags;
+import app.utils.IdLists;
+import app.utils.QueryParams;
+import app.utils.SparseFields;
 import io.javalin.http.Context;
 
+import java.util.List;
+import java.util.function.Function;
+
 public class EmployeeController
 {
     private final EmployeeService employeeService;
@@ -15,16 +23,51 @@ public class EmployeeController
 
     public void getAll(Context ctx)
     {
-        String activeParam = ctx.queryParam("active");
-        Boolean active = activeParam != null ? Boolean.parseBoolean(activeParam) : null;
+        Function<String, String> param = ReadRoute.params(ctx);
+        if (IdLists.parse(param.apply("ids")) != null)
+        {
+            ctx.status(200).json(loadAll(param));
+            return;
+        }
+
+        Boolean active = QueryParams.parseBoolean(param.apply("active"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), EmployeeDTO.class);
+
+        if (ETags.notModified(ctx, employeeService.getCollectionETag(active) + SparseFields.variant(fields)))
+        {
+            return;
+        }
+        ctx.status(200).json(loadAll(param));
+    }
+
+    public Object loadAll(Function<String, String> param)
+    {
+        List<Integer> ids = IdLists.parse(param.apply("ids"));
+        if (ids != null)
+        {
+            return employeeService.getMany(ids);
+        }
 
-        ctx.status(200).json(employeeService.getAll(active));
+        Boolean active = QueryParams.parseBoolean(param.apply("active"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), EmployeeDTO.class);
+        return fields != null ? employeeService.getAllProjected(fields, active) : employeeService.getAll(active);
     }
 
     public void get(Context ctx)
     {
         int id = Integer.parseInt(ctx.pathParam("id"));
-        ctx.status(200).json(employeeService.get(id));
+
+        String etag = employeeService.getETag(id);
+        if (ETags.notModified(ctx, etag))
+        {
+            return;
+        }
+        ctx.status(200).json(employeeService.get(id, etag));
+    }
+
+    public Object load(Function<String, String> param)
+    {
+        return employeeService.get(Integer.parseInt(param.apply("id")));
     }
 
     public void update(Context ctx)
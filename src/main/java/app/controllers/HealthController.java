@@ -0,0 +1,31 @@
+package app.controllers;
+
+import app.health.HealthMonitor;
+import io.javalin.http.Context;
+
+import java.util.Map;
+
+public class HealthController
+{
+    private final HealthMonitor healthMonitor;
+
+    public HealthController(HealthMonitor healthMonitor)
+    {
+        this.healthMonitor = healthMonitor;
+    }
+
+    // The process answers, nothing else is checked. Failing it gets the instance restarted.
+    public void live(Context ctx)
+    {
+        ctx.status(200).json(Map.of("status", "UP"));
+    }
+
+    // Only reads the last background check, so probes never touch the database or the pool
+    public void ready(Context ctx)
+    {
+        HealthMonitor.Readiness readiness = healthMonitor.getReadiness();
+        ctx.status(readiness.ready() ? 200 : 503).json(Map.of(
+                "status", readiness.ready() ? "UP" : "DOWN",
+                "checks", readiness.details()));
+    }
+}
@@ -1,19 +1,59 @@
 package app.controllers;
 
+import app.caching.CachedResponse;
+import app.caching.ChangeCounters.Scope;
+import app.caching.CompressedResponseCache;
+import app.controllers.routes.ReadRoute;
 import app.dtos.CreateLogRequest;
+import app.dtos.MaintenanceLogDTO;
 import app.entities.enums.LogStatus;
 import app.entities.enums.TaskType;
-import app.exceptions.ApiException;
+import app.services.interfaces.AsyncMaintenanceLogService;
 import app.services.interfaces.MaintenanceLogService;
+import app.utils.DateRange;
+import app.utils.ETags;
+import app.utils.EnvReader;
+import app.utils.IdLists;
+import app.utils.QueryParams;
+import app.utils.SparseFields;
+import io.javalin.http.ContentType;
 import io.javalin.http.Context;
 
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
 public class MaintenanceLogController
 {
+    // The scopes whose events move the collection ETags
+    private static final Set<Scope> SCOPES = Set.of(Scope.LOGS, Scope.EMPLOYEES);
+    private static final int MAX_ACTIVE_LIMIT = 1_000;
+
     private final MaintenanceLogService logService;
+    private final CompressedResponseCache compressedResponses;
+    private final AsyncMaintenanceLogService asyncLogService;
+    // Logs are immutable, but performedByName follows the employee: max-age bounds how long a client shows an old name
+    private final String logCacheControl = "private, max-age=" + EnvReader.getLong("LOG_CACHE_MAX_AGE_SECONDS", 86_400) + ", immutable";
 
-    public MaintenanceLogController(MaintenanceLogService logService)
+    public MaintenanceLogController(MaintenanceLogService logService, CompressedResponseCache compressedResponses)
+    {
+        this(logService, compressedResponses, null);
+    }
+
+    // With an asyncLogService, creates, employee lists and the unfiltered asset lists are answered through ctx.future
+    public MaintenanceLogController(MaintenanceLogService logService, CompressedResponseCache compressedResponses, AsyncMaintenanceLogService asyncLogService)
     {
         this.logService = logService;
+        this.compressedResponses = compressedResponses;
+        this.asyncLogService = asyncLogService;
+    }
+
+    // Whether a request is answered through ctx.future. Async handlers already release the Jetty thread,
+    // so the routes only put the other requests on a bulkhead.
+    public boolean isAsync(Context ctx)
+    {
+        return asyncLogService != null && ctx.queryParam("fields") == null && ctx.queryParam("from") == null && ctx.queryParam("to") == null;
     }
 
     public void createLogForAsset(Context ctx)
@@ -28,76 +68,155 @@ public class MaintenanceLogController
                 .check(dto -> dto.performedByEmployeeId() != null, "Performed by employee id is required")
                 .get();
 
+        if (isAsync(ctx))
+        {
+            ctx.future(() -> asyncLogService.create(assetId, request).thenAccept(dto -> ctx.status(201).json(dto)));
+            return;
+        }
         ctx.status(201).json(logService.create(assetId, request));
     }
 
     public void getAll(Context ctx)
     {
-        String statusParam = ctx.queryParam("status");
+        Function<String, String> param = ReadRoute.params(ctx);
+        if (IdLists.parse(param.apply("ids")) != null)
+        {
+            ctx.status(200).json(loadAll(param));
+            return;
+        }
+
+        List<String> fields = SparseFields.parse(param.apply("fields"), MaintenanceLogDTO.class);
+        LogStatus status = QueryParams.parseEnum(param.apply("status"), LogStatus.class, "Invalid status value");
+        DateRange range = DateRange.parse(param.apply("from"), param.apply("to"));
+        String variant = (status != null ? "status-" + status : "all") + DateRange.variant(range) + SparseFields.variant(fields);
 
-        if (statusParam != null)
+        compressedResponses.serve(ctx, logService.getCollectionETag(variant), SCOPES, () -> loadAll(param));
+    }
+
+    public Object loadAll(Function<String, String> param)
+    {
+        List<Integer> ids = IdLists.parse(param.apply("ids"));
+        if (ids != null)
         {
-            try
-            {
-                LogStatus status = LogStatus.valueOf(statusParam.toUpperCase());
-                ctx.status(200).json(logService.getByStatus(status));
-            }
-            catch (IllegalArgumentException e)
-            {
-                throw new ApiException(400, "Invalid status value");
-            }
+            return logService.getMany(ids);
         }
-        else
+
+        List<String> fields = SparseFields.parse(param.apply("fields"), MaintenanceLogDTO.class);
+        LogStatus status = QueryParams.parseEnum(param.apply("status"), LogStatus.class, "Invalid status value");
+        DateRange range = DateRange.parse(param.apply("from"), param.apply("to"));
+        if (fields != null)
         {
-            ctx.status(200).json(logService.getAll());
+            return logService.getProjected(fields, null, status, null, range);
         }
+        if (range != null)
+        {
+            return logService.getByDateRange(range, null, status, null);
+        }
+        return status != null ? logService.getByStatus(status) : logService.getAll();
+    }
+
+    public void getLogsOnActiveAssets(Context ctx)
+    {
+        ctx.status(200).json(loadLogsOnActiveAssets(ReadRoute.params(ctx)));
+    }
+
+    // With from/to only the overlapping monthly partitions are scanned
+    public Object loadLogsOnActiveAssets(Function<String, String> param)
+    {
+        int limit = QueryParams.parseInt(param.apply("limit"), 50, 1, MAX_ACTIVE_LIMIT, "Limit must be between 1 and " + MAX_ACTIVE_LIMIT);
+        DateRange range = DateRange.parse(param.apply("from"), param.apply("to"));
+        return range != null ? logService.getLogsOnActiveAssets(limit, range) : logService.getLogsOnActiveAssets(limit);
     }
 
     public void get(Context ctx)
     {
         int id = Integer.parseInt(ctx.pathParam("id"));
-        ctx.status(200).json(logService.get(id));
+        CachedResponse response = logService.getSerialized(id, dto -> ctx.jsonMapper().toJsonString(dto, MaintenanceLogDTO.class));
+
+        if (ETags.notModified(ctx, response.etag(), logCacheControl))
+        {
+            return;
+        }
+        ctx.status(200).contentType(ContentType.APPLICATION_JSON).result(response.body());
+    }
+
+    // The DTO itself, get answers with the cached serialized body instead
+    public Object load(Function<String, String> param)
+    {
+        return logService.get(Integer.parseInt(param.apply("id")));
     }
 
     public void getByEmployee(Context ctx)
     {
         int employeeId = Integer.parseInt(ctx.pathParam("employeeId"));
-        ctx.status(200).json(logService.getByPerformedEmployee(employeeId));
+        if (isAsync(ctx))
+        {
+            ctx.future(() -> asyncLogService.getByPerformedEmployee(employeeId).thenAccept(logs -> ctx.status(200).json(logs)));
+            return;
+        }
+        ctx.status(200).json(loadByEmployee(ReadRoute.params(ctx)));
+    }
+
+    public Object loadByEmployee(Function<String, String> param)
+    {
+        return logService.getByPerformedEmployee(Integer.parseInt(param.apply("employeeId")));
     }
 
     public void getLogsByAsset(Context ctx)
     {
-        int assetId = Integer.parseInt(ctx.pathParam("id"));
-        String taskParam = ctx.queryParam("taskType");
-        String statusParam = ctx.queryParam("status");
+        Function<String, String> param = ReadRoute.params(ctx);
+        int assetId = Integer.parseInt(param.apply("id"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), MaintenanceLogDTO.class);
+        TaskType taskType = QueryParams.parseEnum(param.apply("taskType"), TaskType.class, "Invalid task type value");
+        // taskType takes precedence when both are given
+        LogStatus status = taskType == null ? QueryParams.parseEnum(param.apply("status"), LogStatus.class, "Invalid status value") : null;
+        DateRange range = DateRange.parse(param.apply("from"), param.apply("to"));
+
+        String variant = "asset-" + assetId
+                + (taskType != null ? "-task-" + taskType : "")
+                + (status != null ? "-status-" + status : "")
+                + DateRange.variant(range)
+                + SparseFields.variant(fields);
 
-        if (taskParam != null)
+        // The compressed cache loads synchronously, so the async lists are only conditional: Javalin compresses them
+        if (isAsync(ctx))
         {
-            try
+            if (ETags.notModified(ctx, logService.getCollectionETag(variant)))
             {
-                TaskType taskType = TaskType.valueOf(taskParam.toUpperCase());
-                ctx.status(200).json(logService.getByAssetAndTask(assetId, taskType));
+                return;
             }
-            catch (IllegalArgumentException e)
+            ctx.future(() ->
             {
-                throw new ApiException(400, "Invalid task type value");
-            }
+                CompletableFuture<List<MaintenanceLogDTO>> logs = taskType != null ? asyncLogService.getByAssetAndTask(assetId, taskType)
+                        : status != null ? asyncLogService.getByStatusAndAsset(status, assetId)
+                        : asyncLogService.getByAsset(assetId);
+                return logs.thenAccept(result -> ctx.status(200).json(result));
+            });
+            return;
         }
-        else if (statusParam != null)
+
+        compressedResponses.serve(ctx, logService.getCollectionETag(variant), SCOPES, () -> loadByAsset(param));
+    }
+
+    public Object loadByAsset(Function<String, String> param)
+    {
+        int assetId = Integer.parseInt(param.apply("id"));
+        List<String> fields = SparseFields.parse(param.apply("fields"), MaintenanceLogDTO.class);
+        TaskType taskType = QueryParams.parseEnum(param.apply("taskType"), TaskType.class, "Invalid task type value");
+        LogStatus status = taskType == null ? QueryParams.parseEnum(param.apply("status"), LogStatus.class, "Invalid status value") : null;
+        DateRange range = DateRange.parse(param.apply("from"), param.apply("to"));
+        if (fields != null)
         {
-            try
-            {
-                LogStatus status = LogStatus.valueOf(statusParam.toUpperCase());
-                ctx.status(200).json(logService.getByStatus(status));
-            }
-            catch (IllegalArgumentException e)
-            {
-                throw new ApiException(400, "Invalid status value");
-            }
+            return logService.getProjected(fields, assetId, status, taskType, range);
+        }
+        if (range != null)
+        {
+            return logService.getByDateRange(range, assetId, status, taskType);
         }
-        else
+        if (taskType != null)
         {
-            ctx.status(200).json(logService.getByAsset(assetId));
+            return logService.getByAssetAndTask(assetId, taskType);
         }
+        return status != null ? logService.getByStatusAndAsset(status, assetId) : logService.getByAsset(assetId);
     }
-}
\ No newline at end of file
+}
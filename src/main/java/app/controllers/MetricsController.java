@@ -0,0 +1,19 @@
+package app.controllers;
+
+import app.metrics.MetricsRegistry;
+import io.javalin.http.Context;
+
+public class MetricsController
+{
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsController(MetricsRegistry metricsRegistry)
+    {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public void getMetrics(Context ctx)
+    {
+        ctx.status(200).json(metricsRegistry.snapshot());
+    }
+}
@@ -39,8 +39,4 @@ public class SecurityController
 
         ctx.status(200).json(securityService.login(loginDTO));
     }
-
-    public void healthCheck(Context ctx) {
-        ctx.status(200).json("{\"msg\": \"API is up and running\"}");
-    }
 }
@@ -1,41 +1,59 @@
 package app.controllers.routes;
 
+import app.concurrency.Bulkheads;
+import app.concurrency.RequestCoalescer;
+import app.concurrency.WorkloadClass;
 import app.controllers.AssetController;
 import app.controllers.MaintenanceLogController;
 import app.entities.enums.EmployeeRole;
 import io.javalin.apibuilder.EndpointGroup;
 
+import java.util.List;
+
 import static io.javalin.apibuilder.ApiBuilder.*;
 
 public class AssetRoutes
 {
     private final AssetController assetController;
     private final MaintenanceLogController maintenanceLogController;
+    private final Bulkheads bulkheads;
+    private final List<ReadRoute> readRoutes;
 
-    public AssetRoutes(AssetController assetController, MaintenanceLogController maintenanceLogController)
+    public AssetRoutes(AssetController assetController, MaintenanceLogController maintenanceLogController, Bulkheads bulkheads, RequestCoalescer coalescer)
     {
         this.assetController = assetController;
         this.maintenanceLogController = maintenanceLogController;
+        this.bulkheads = bulkheads;
+        this.readRoutes = List.of(
+                // Polled by every client at shift start
+                new ReadRoute("/assets", EmployeeRole.AUTHENTICATED, WorkloadClass.POINT_READ,
+                        coalescer.coalesce("GET /assets", assetController::getAll), assetController::loadAll),
+                new ReadRoute("/assets/{id}", EmployeeRole.AUTHENTICATED, WorkloadClass.POINT_READ,
+                        assetController::get, assetController::load),
+                new ReadRoute("/assets/{id}/logs", EmployeeRole.AUTHENTICATED, WorkloadClass.BULK_READ, maintenanceLogController::isAsync,
+                        maintenanceLogController::getLogsByAsset, maintenanceLogController::loadByAsset));
+    }
+
+    public List<ReadRoute> getReadRoutes()
+    {
+        return readRoutes;
     }
 
     public EndpointGroup getRoutes()
     {
         return () ->
         {
+            readRoutes.forEach(route -> route.register(bulkheads));
+
             path("assets", () ->
             {
-                get(assetController::getAll, EmployeeRole.AUTHENTICATED);
-                get("/{id}", assetController::get, EmployeeRole.AUTHENTICATED);
-                post(assetController::create, EmployeeRole.MANAGER);
-                patch("/{id}", assetController::active, EmployeeRole.MANAGER);
-                delete("/{id}", assetController::delete, EmployeeRole.ADMIN);
+                post(bulkheads.interactiveWrite(assetController::create), EmployeeRole.MANAGER);
+                patch("/{id}", bulkheads.interactiveWrite(assetController::active), EmployeeRole.MANAGER);
+                delete("/{id}", bulkheads.interactiveWrite(assetController::delete), EmployeeRole.ADMIN);
 
                 path("/{id}/logs", () ->
-                {
-                    get(maintenanceLogController::getLogsByAsset, EmployeeRole.AUTHENTICATED);
-                    post(maintenanceLogController::createLogForAsset, EmployeeRole.TECHNICIAN);
-                });
+                        post(bulkheads.wrapUnless(WorkloadClass.INTERACTIVE_WRITE, maintenanceLogController::isAsync, maintenanceLogController::createLogForAsset), EmployeeRole.TECHNICIAN));
             });
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package app.controllers.routes;
+
+import app.controllers.BatchController;
+import app.entities.enums.EmployeeRole;
+import io.javalin.apibuilder.EndpointGroup;
+
+import static io.javalin.apibuilder.ApiBuilder.*;
+
+public class BatchRoutes
+{
+    private final BatchController batchController;
+
+    public BatchRoutes(BatchController batchController)
+    {
+        this.batchController = batchController;
+    }
+
+    public EndpointGroup getRoutes()
+    {
+        // Not wrapped in a bulkhead, each sub-request is submitted to its own route's bulkhead
+        return () -> path("batch", () -> post(batchController::batch, EmployeeRole.AUTHENTICATED));
+    }
+}
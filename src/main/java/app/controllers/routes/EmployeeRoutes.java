@@ -1,36 +1,51 @@
 package app.controllers.routes;
 
+import app.concurrency.Bulkheads;
+import app.concurrency.WorkloadClass;
 import app.controllers.EmployeeController;
 import app.entities.enums.EmployeeRole;
 import io.javalin.apibuilder.EndpointGroup;
 
+import java.util.List;
 
 import static io.javalin.apibuilder.ApiBuilder.*;
 import static io.javalin.apibuilder.ApiBuilder.delete;
-import static io.javalin.apibuilder.ApiBuilder.get;
 import static io.javalin.apibuilder.ApiBuilder.put;
 
 public class EmployeeRoutes
 {
     private final EmployeeController employeeController;
+    private final Bulkheads bulkheads;
+    private final List<ReadRoute> readRoutes;
 
-    public EmployeeRoutes(EmployeeController employeeController)
+    public EmployeeRoutes(EmployeeController employeeController, Bulkheads bulkheads)
     {
         this.employeeController = employeeController;
+        this.bulkheads = bulkheads;
+        this.readRoutes = List.of(
+                new ReadRoute("/employees", EmployeeRole.AUTHENTICATED, WorkloadClass.BULK_READ,
+                        employeeController::getAll, employeeController::loadAll),
+                new ReadRoute("/employees/{id}", EmployeeRole.AUTHENTICATED, WorkloadClass.POINT_READ,
+                        employeeController::get, employeeController::load));
+    }
+
+    public List<ReadRoute> getReadRoutes()
+    {
+        return readRoutes;
     }
 
     public EndpointGroup getRoutes()
     {
         return () ->
         {
+            readRoutes.forEach(route -> route.register(bulkheads));
+
             path("employees", () ->
             {
-                get(employeeController::getAll, EmployeeRole.AUTHENTICATED);
-                get("/{id}", employeeController::get, EmployeeRole.AUTHENTICATED);
-                put("/{id}", employeeController::update, EmployeeRole.MANAGER);
-                delete("/{id}", employeeController::deactivate, EmployeeRole.ADMIN);
-                patch("/{id}", employeeController::activate, EmployeeRole.ADMIN);
+                put("/{id}", bulkheads.interactiveWrite(employeeController::update), EmployeeRole.MANAGER);
+                delete("/{id}", bulkheads.interactiveWrite(employeeController::deactivate), EmployeeRole.ADMIN);
+                patch("/{id}", bulkheads.interactiveWrite(employeeController::activate), EmployeeRole.ADMIN);
             });
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,26 @@
+package app.controllers.routes;
+
+import app.controllers.HealthController;
+import io.javalin.apibuilder.EndpointGroup;
+
+import static io.javalin.apibuilder.ApiBuilder.*;
+
+public class HealthRoutes
+{
+    private final HealthController healthController;
+
+    public HealthRoutes(HealthController healthController)
+    {
+        this.healthController = healthController;
+    }
+
+    // No roles, so probes pass the load shedder and need no token
+    public EndpointGroup getRoutes()
+    {
+        return () -> path("health", () ->
+        {
+            get("/live", healthController::live);
+            get("/ready", healthController::ready);
+        });
+    }
+}
@@ -1,30 +1,41 @@
 package app.controllers.routes;
 
+import app.concurrency.Bulkheads;
+import app.concurrency.RequestCoalescer;
+import app.concurrency.WorkloadClass;
 import app.controllers.MaintenanceLogController;
 import app.entities.enums.EmployeeRole;
 import io.javalin.apibuilder.EndpointGroup;
 
-import static io.javalin.apibuilder.ApiBuilder.*;
+import java.util.List;
 
 public class MaintenanceLogRoutes
 {
-    private final MaintenanceLogController maintenanceLogController;
+    private final Bulkheads bulkheads;
+    private final List<ReadRoute> readRoutes;
 
-    public MaintenanceLogRoutes(MaintenanceLogController maintenanceLogController)
+    public MaintenanceLogRoutes(MaintenanceLogController maintenanceLogController, Bulkheads bulkheads, RequestCoalescer coalescer)
     {
-        this.maintenanceLogController = maintenanceLogController;
+        this.bulkheads = bulkheads;
+        this.readRoutes = List.of(
+                new ReadRoute("/logs", EmployeeRole.AUTHENTICATED, WorkloadClass.BULK_READ,
+                        coalescer.coalesce("GET /logs", maintenanceLogController::getAll), maintenanceLogController::loadAll),
+                // Ahead of /logs/{id}, which would match it too
+                new ReadRoute("/logs/active", EmployeeRole.AUTHENTICATED, WorkloadClass.BULK_READ,
+                        maintenanceLogController::getLogsOnActiveAssets, maintenanceLogController::loadLogsOnActiveAssets),
+                new ReadRoute("/logs/{id}", EmployeeRole.AUTHENTICATED, WorkloadClass.POINT_READ,
+                        maintenanceLogController::get, maintenanceLogController::load),
+                new ReadRoute("/logs/employee/{employeeId}", EmployeeRole.MANAGER, WorkloadClass.BULK_READ, maintenanceLogController::isAsync,
+                        maintenanceLogController::getByEmployee, maintenanceLogController::loadByEmployee));
+    }
+
+    public List<ReadRoute> getReadRoutes()
+    {
+        return readRoutes;
     }
 
     public EndpointGroup getRoutes()
     {
-        return () ->
-        {
-            path("logs", () ->
-            {
-                get(maintenanceLogController::getAll, EmployeeRole.AUTHENTICATED);
-                get("/{id}", maintenanceLogController::get, EmployeeRole.AUTHENTICATED);
-                get("/employee/{employeeId}", maintenanceLogController::getByEmployee, EmployeeRole.MANAGER);
-            });
-        };
+        return () -> readRoutes.forEach(route -> route.register(bulkheads));
     }
 }
@@ -0,0 +1,23 @@
+package app.controllers.routes;
+
+import app.controllers.MetricsController;
+import app.entities.enums.EmployeeRole;
+import io.javalin.apibuilder.EndpointGroup;
+
+import static io.javalin.apibuilder.ApiBuilder.*;
+
+public class MetricsRoutes
+{
+    private final MetricsController metricsController;
+
+    public MetricsRoutes(MetricsController metricsController)
+    {
+        this.metricsController = metricsController;
+    }
+
+    public EndpointGroup getRoutes()
+    {
+        return () -> path("metrics", () ->
+                get(metricsController::getMetrics, EmployeeRole.ADMIN));
+    }
+}
@@ -0,0 +1,40 @@
+package app.controllers.routes;
+
+import app.concurrency.Bulkheads;
+import app.concurrency.WorkloadClass;
+import app.entities.enums.EmployeeRole;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static io.javalin.apibuilder.ApiBuilder.get;
+
+// A GET route, defined once: its *Routes class registers it with Javalin and POST /batch serves it through loader.
+// path is relative to the API root, e.g. "/assets/{id}".
+public record ReadRoute(String path, EmployeeRole role, WorkloadClass workloadClass, Predicate<Context> async, Handler handler, Loader loader)
+{
+    public ReadRoute(String path, EmployeeRole role, WorkloadClass workloadClass, Handler handler, Loader loader)
+    {
+        this(path, role, workloadClass, ctx -> false, handler, loader);
+    }
+
+    // The response body without any HTTP caching. param looks up path and query parameters by name.
+    @FunctionalInterface
+    public interface Loader
+    {
+        Object load(Function<String, String> param);
+    }
+
+    // On the route's bulkhead, except requests the handler answers through ctx.future itself
+    public void register(Bulkheads bulkheads)
+    {
+        get(path, bulkheads.wrapUnless(workloadClass, async, handler), role);
+    }
+
+    public static Function<String, String> params(Context ctx)
+    {
+        return name -> ctx.pathParamMap().containsKey(name) ? ctx.pathParam(name) : ctx.queryParam(name);
+    }
+}
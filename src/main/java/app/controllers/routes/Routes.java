@@ -1,11 +1,19 @@
 package app.controllers.routes;
 
+import app.concurrency.Bulkheads;
+import app.concurrency.RequestCoalescer;
 import app.controllers.AssetController;
+import app.controllers.BatchController;
 import app.controllers.MaintenanceLogController;
 import app.controllers.EmployeeController;
+import app.controllers.HealthController;
+import app.controllers.MetricsController;
 import app.controllers.SecurityController;
+import app.services.interfaces.SecurityService;
 import io.javalin.apibuilder.EndpointGroup;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static io.javalin.apibuilder.ApiBuilder.get;
@@ -18,13 +26,24 @@ public class Routes
     private final AssetRoutes assetRoutes;
     private final MaintenanceLogRoutes maintenanceLogRoutes;
     private final SecurityRoutes securityRoutes;
+    private final MetricsRoutes metricsRoutes;
+    private final BatchRoutes batchRoutes;
+    private final HealthRoutes healthRoutes;
 
-    public Routes(EmployeeController employeeController, AssetController assetController, MaintenanceLogController maintenanceLogController, SecurityController securityController)
+    public Routes(EmployeeController employeeController, AssetController assetController, MaintenanceLogController maintenanceLogController, SecurityController securityController, MetricsController metricsController, HealthController healthController, SecurityService securityService, Bulkheads bulkheads, RequestCoalescer coalescer)
     {
-        this.employeeRoutes = new EmployeeRoutes(employeeController);
-        this.assetRoutes = new AssetRoutes(assetController, maintenanceLogController);
-        this.maintenanceLogRoutes = new MaintenanceLogRoutes(maintenanceLogController);
-        this.securityRoutes = new SecurityRoutes(securityController);
+        this.employeeRoutes = new EmployeeRoutes(employeeController, bulkheads);
+        this.assetRoutes = new AssetRoutes(assetController, maintenanceLogController, bulkheads, coalescer);
+        this.maintenanceLogRoutes = new MaintenanceLogRoutes(maintenanceLogController, bulkheads, coalescer);
+        this.securityRoutes = new SecurityRoutes(securityController, healthController);
+        this.metricsRoutes = new MetricsRoutes(metricsController);
+        // Batches serve the same GET routes the other route classes register
+        List<ReadRoute> readRoutes = new ArrayList<>();
+        readRoutes.addAll(employeeRoutes.getReadRoutes());
+        readRoutes.addAll(assetRoutes.getReadRoutes());
+        readRoutes.addAll(maintenanceLogRoutes.getReadRoutes());
+        this.batchRoutes = new BatchRoutes(new BatchController(securityService, bulkheads, readRoutes));
+        this.healthRoutes = new HealthRoutes(healthController);
 
     }
 
@@ -33,6 +52,8 @@ public class Routes
         return () ->
         {
             get("/", ctx -> ctx.status(200).json(Map.of("message", "Welcome to the Maintenance Log!")));
+            // Outside the versioned API, probe paths don't change with it
+            healthRoutes.getRoutes().addEndpoints();
 
             path(API_VERSION, () ->
             {
@@ -40,6 +61,8 @@ public class Routes
                 assetRoutes.getRoutes().addEndpoints();
                 maintenanceLogRoutes.getRoutes().addEndpoints();
                 securityRoutes.getRoutes().addEndpoints();
+                metricsRoutes.getRoutes().addEndpoints();
+                batchRoutes.getRoutes().addEndpoints();
             });
         };
     }
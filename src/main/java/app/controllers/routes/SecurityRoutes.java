@@ -1,6 +1,7 @@
 package app.controllers.routes;
 
 import app.entities.enums.EmployeeRole;
+import app.controllers.HealthController;
 import app.controllers.SecurityController;
 import io.javalin.apibuilder.EndpointGroup;
 
@@ -9,17 +10,20 @@ import static io.javalin.apibuilder.ApiBuilder.*;
 public class SecurityRoutes
 {
     private final SecurityController securityController;
+    private final HealthController healthController;
 
-    public SecurityRoutes(SecurityController securityController)
+    public SecurityRoutes(SecurityController securityController, HealthController healthController)
     {
         this.securityController = securityController;
+        this.healthController = healthController;
     }
 
     public EndpointGroup getRoutes()
     {
         return () -> path("auth", () ->
         {
-            get("/healthcheck", securityController::healthCheck);
+            // Kept for existing load balancer configs, answers like /health/live
+            get("/healthcheck", healthController::live);
             post("/register", securityController::register, EmployeeRole.MANAGER);
             post("/login", securityController::login);
             get("/protected", ctx -> ctx.json("Hello fom protected").status(200), EmployeeRole.ADMIN);
@@ -0,0 +1,10 @@
+package app.dtos;
+
+public record BatchItem
+        (
+                String id,
+                String method,
+                String path
+        )
+{
+}
@@ -0,0 +1,10 @@
+package app.dtos;
+
+public record BatchItemResult
+        (
+                String id,
+                int status,
+                Object body
+        )
+{
+}
@@ -0,0 +1,10 @@
+package app.dtos;
+
+import java.util.List;
+
+public record BatchRequest
+        (
+                List<BatchItem> requests
+        )
+{
+}
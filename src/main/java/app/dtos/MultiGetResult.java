@@ -0,0 +1,34 @@
+package app.dtos;
+
+import java.util.*;
+import java.util.function.Function;
+
+public record MultiGetResult<T>
+        (
+                List<T> items,
+                List<Integer> missing
+        )
+{
+    // Puts what was found back in the requested order and lists the ids that weren't
+    public static <T> MultiGetResult<T> of(List<Integer> ids, Collection<T> found, Function<T, Integer> idOf)
+    {
+        Map<Integer, T> byId = new HashMap<>();
+        found.forEach(item -> byId.put(idOf.apply(item), item));
+
+        List<T> items = new ArrayList<>(ids.size());
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids)
+        {
+            T item = byId.get(id);
+            if (item != null)
+            {
+                items.add(item);
+            }
+            else
+            {
+                missing.add(id);
+            }
+        }
+        return new MultiGetResult<>(items, missing);
+    }
+}
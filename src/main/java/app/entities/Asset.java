@@ -31,6 +31,10 @@ public class Asset
     @Column(name = "status", nullable = false)
     private boolean active;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @OneToMany(fetch = FetchType.LAZY, mappedBy = "asset")
     @OrderBy("performedDate DESC")
     private List<MaintenanceLog> logs = new ArrayList<>();
@@ -40,6 +40,9 @@ public class Employee
     @Setter
     @Column(name = "active", nullable = false)
     private boolean active = true;
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
 
     public Employee(String firstName, String lastName, String phone, String email, EmployeeRole role, boolean active)
     {
@@ -18,4 +18,15 @@ public class DatabaseException extends RuntimeException {
     public DatabaseErrorType getErrorType() {
         return errorType;
     }
+
+    public int getStatusCode() {
+        return switch (errorType)
+        {
+            case NOT_FOUND -> 404;
+            case CONSTRAINT_VIOLATION -> 409;
+            case CONNECTION_FAILURE -> 503;
+            case QUERY_TIMEOUT -> 504;
+            case TRANSACTION_FAILURE, QUERY_FAILURE, UNKNOWN -> 500;
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package app.exceptions;
+
+import io.javalin.http.HttpResponseException;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+// Same status codes as the exception handlers in ApplicationConfig, for failures that never reach them (batch items)
+public class ExceptionStatus
+{
+    public static int of(Throwable e)
+    {
+        Throwable cause = unwrap(e);
+
+        if (cause instanceof DatabaseException databaseException)
+            return databaseException.getStatusCode();
+        if (cause instanceof ApiException apiException)
+            return apiException.getCode();
+        if (cause instanceof HttpResponseException httpResponseException)
+            return httpResponseException.getStatus();
+        if (cause instanceof RuntimeException)
+            return 400;
+
+        return 500;
+    }
+
+    public static Throwable unwrap(Throwable e)
+    {
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null)
+        {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+}
@@ -0,0 +1,17 @@
+package app.exceptions;
+
+public class OverloadException extends ApiException
+{
+    private final int retryAfterSeconds;
+
+    public OverloadException(String msg, int retryAfterSeconds)
+    {
+        super(503, msg);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds()
+    {
+        return retryAfterSeconds;
+    }
+}
@@ -8,5 +8,6 @@ public enum DatabaseErrorType
     CONNECTION_FAILURE, // 503 - Server overloaded or under maintenance.
     TRANSACTION_FAILURE, // 500 - Unexpected server error.
     QUERY_FAILURE, // 500
+    QUERY_TIMEOUT, // 504 - Request deadline passed before or while the query ran.
     UNKNOWN
 }
\ No newline at end of file
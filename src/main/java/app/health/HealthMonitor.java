@@ -0,0 +1,151 @@
+package app.health;
+
+import app.concurrency.CircuitBreaker;
+import app.config.hibernate.GatedConnectionProvider;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.QueryDeadlines;
+import app.persistence.TransactionExecutor;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Computes readiness on a background thread, the probe endpoints only read the last result.
+// Ready once the warm-up has run and, with Postgres, while the ping is fast enough, the circuit is closed
+// and not too many requests are waiting for a connection. Starts out not ready.
+public class HealthMonitor
+{
+    private static final Logger log = LoggerFactory.getLogger(HealthMonitor.class);
+
+    private final EntityManagerFactory emf;
+    private final GatedConnectionProvider pool;
+    private final Runnable warmUp;
+    private final long checkIntervalMs;
+    private final long maxPingMs;
+    private final int maxWaiting;
+
+    private volatile boolean warm;
+    private volatile Readiness readiness = new Readiness(false, Map.of("reason", "Not checked yet"));
+    private ScheduledExecutorService checker;
+
+    // emf is null without Postgres
+    public HealthMonitor(EntityManagerFactory emf, Runnable warmUp)
+    {
+        this(emf, warmUp,
+                EnvReader.getLong("HEALTH_CHECK_INTERVAL_MS", 2000),
+                EnvReader.getLong("HEALTH_MAX_DB_LATENCY_MS", 500),
+                EnvReader.getInt("HEALTH_MAX_WAITING_FOR_CONNECTION", 50));
+    }
+
+    public HealthMonitor(EntityManagerFactory emf, Runnable warmUp, long checkIntervalMs, long maxPingMs, int maxWaiting)
+    {
+        this.emf = emf;
+        this.pool = emf != null ? GatedConnectionProvider.of(emf) : null;
+        this.warmUp = warmUp;
+        this.checkIntervalMs = checkIntervalMs;
+        this.maxPingMs = maxPingMs;
+        this.maxWaiting = maxWaiting;
+    }
+
+    public record Readiness(boolean ready, Map<String, Object> details)
+    {
+    }
+
+    public void start()
+    {
+        checker = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(this::check, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop()
+    {
+        if (checker != null)
+        {
+            checker.shutdownNow();
+        }
+    }
+
+    public Readiness getReadiness()
+    {
+        return readiness;
+    }
+
+    private void check()
+    {
+        Map<String, Object> details = new LinkedHashMap<>();
+        boolean ready = warmUp();
+        details.put("warm", warm);
+
+        if (emf != null)
+        {
+            ready &= ping(details);
+        }
+        if (pool != null)
+        {
+            CircuitBreaker.State state = pool.getCircuitBreaker().getState();
+            int waiting = pool.getQueueLength() + pool.getThreadsAwaitingConnection();
+            details.put("databaseCircuit", state.name());
+            details.put("waitingForConnection", waiting);
+            ready &= state == CircuitBreaker.State.CLOSED && waiting <= maxWaiting;
+        }
+
+        if (ready != readiness.ready())
+        {
+            log.info("Readiness changed to {}: {}", ready, details);
+        }
+        readiness = new Readiness(ready, details);
+    }
+
+    // Runs until it succeeds once, a failed warm-up is tried again on the next check
+    private boolean warmUp()
+    {
+        if (warm)
+        {
+            return true;
+        }
+        try
+        {
+            warmUp.run();
+            warm = true;
+        }
+        catch (RuntimeException e)
+        {
+            log.warn("Warm-up failed, retrying in {} ms: {}", checkIntervalMs, e.getMessage());
+        }
+        return warm;
+    }
+
+    // While the circuit is open, this ping is also what gets it probed without waiting for traffic
+    private boolean ping(Map<String, Object> details)
+    {
+        long start = System.nanoTime();
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.createNativeQuery("SELECT 1")
+                    .setHint(QueryDeadlines.TIMEOUT_HINT, QueryDeadlines.timeoutHint(checkIntervalMs))
+                    .getSingleResult();
+            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            details.put("dbLatencyMs", latencyMs);
+            return latencyMs <= maxPingMs;
+        }
+        catch (RuntimeException e)
+        {
+            // Readiness needs no token, so only the category goes out; the message stays in the log
+            details.put("dbError", TransactionExecutor.classify(e, DatabaseErrorType.CONNECTION_FAILURE).name());
+            log.debug("Health ping failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
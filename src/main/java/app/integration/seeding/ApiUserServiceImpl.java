@@ -37,10 +37,7 @@ public class ApiUserServiceImpl implements ApiUserService
 
         assignRoles(convertedEmployees);
 
-        for (Employee employee : convertedEmployees)
-        {
-            employeeDao.create(employee);
-        }
+        employeeDao.createAll(convertedEmployees);
     }
 
     private List<RandomUserDTO> fetchUsers(int count, boolean multiThreaded, int threads)
@@ -3,8 +3,25 @@ package app.mappers;
 import app.dtos.MaintenanceLogDTO;
 import app.entities.MaintenanceLog;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
 public class MaintenanceLogMapper
 {
+    private static final Map<String, Function<MaintenanceLogDTO, Object>> FIELDS = Map.of(
+            "id", MaintenanceLogDTO::id,
+            "performedDate", MaintenanceLogDTO::performedDate,
+            "status", MaintenanceLogDTO::status,
+            "taskType", MaintenanceLogDTO::taskType,
+            "comment", MaintenanceLogDTO::comment,
+            "assetId", MaintenanceLogDTO::assetId,
+            "assetName", MaintenanceLogDTO::assetName,
+            "performedByEmployeeId", MaintenanceLogDTO::performedByEmployeeId,
+            "performedByName", MaintenanceLogDTO::performedByName
+    );
+
     public static MaintenanceLogDTO toDTO(MaintenanceLog log)
     {
         return new MaintenanceLogDTO(
@@ -20,4 +37,17 @@ public class MaintenanceLogMapper
                 log.getPerformedBy().getEmployeeId(),
                 log.getPerformedBy().getFirstName() + " " + log.getPerformedBy().getLastName());
     }
+
+    // Same shape as the rows of IMaintenanceLogQueries.getProjected, for logs that don't come from a JPQL projection
+    public static Map<String, Object> toFields(MaintenanceLog log, List<String> fields)
+    {
+        MaintenanceLogDTO dto = toDTO(log);
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields)
+        {
+            Function<MaintenanceLogDTO, Object> getter = FIELDS.get(field);
+            values.put(field, getter != null ? getter.apply(dto) : null);
+        }
+        return values;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package app.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Components register a supplier of their current numbers, GET /metrics returns all of them in one snapshot
+public class MetricsRegistry
+{
+    private final Map<String, Supplier<Map<String, Object>>> sources = new ConcurrentHashMap<>();
+
+    public void register(String name, Supplier<Map<String, Object>> source)
+    {
+        sources.put(name, source);
+    }
+
+    public Map<String, Object> snapshot()
+    {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        sources.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> snapshot.put(entry.getKey(), entry.getValue().get()));
+        return snapshot;
+    }
+}
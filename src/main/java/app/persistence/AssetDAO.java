@@ -6,15 +6,44 @@ import app.exceptions.enums.DatabaseErrorType;
 import app.persistence.interfaces.IAssetDAO;
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class AssetDAO implements IAssetDAO
 {
+    // lastLogDate is never set on asset lists, so it has no column here
+    private static final Map<String, String> PROJECTION_PATHS = Map.of(
+            "id", "a.assetId",
+            "name", "a.name",
+            "description", "a.description",
+            "active", "a.active"
+    );
+
     private final EntityManagerFactory emf;
+    private final ReplicaRouter router;
+    private final TransactionExecutor transactions;
 
     public AssetDAO(EntityManagerFactory emf)
+    {
+        this(emf, ReplicaRouter.primaryOnly(emf));
+    }
+
+    public AssetDAO(EntityManagerFactory emf, ReplicaRouter router)
+    {
+        this(emf, router, new TransactionExecutor());
+    }
+
+    // Writes use emf, the query methods go through the router
+    public AssetDAO(EntityManagerFactory emf, ReplicaRouter router, TransactionExecutor transactions)
     {
         this.emf = emf;
+        this.router = router;
+        this.transactions = transactions;
     }
 
     @Override
@@ -24,33 +53,30 @@ public class AssetDAO implements IAssetDAO
         {
             throw new IllegalArgumentException("Asset cant be null");
         }
-        try (EntityManager em = emf.createEntityManager())
+
+        return transactions.write(emf, "asset.create", "Create Asset failed", false, em ->
         {
-            em.getTransaction().begin();
+            em.persist(asset);
+            return asset;
+        });
+    }
 
-            try
-            {
-                em.persist(asset);
-                em.getTransaction().commit();
-                return asset;
-            }
-            catch (PersistenceException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create Asset failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
-            }
-            catch (RuntimeException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create Asset failed", DatabaseErrorType.UNKNOWN, e);
-            }
+    @Override
+    public List<Asset> createAll(Collection<Asset> assets)
+    {
+        if (assets == null || assets.stream().anyMatch(Objects::isNull))
+        {
+            throw new IllegalArgumentException("Assets are required and cant contain null");
         }
+
+        StatelessInserter.insert(emf, assets.iterator(), "Create assets failed");
+        return List.copyOf(assets);
+    }
+
+    @Override
+    public int createAll(Iterator<Asset> assets)
+    {
+        return StatelessInserter.insert(emf, assets, "Create assets failed");
     }
 
     // In AssetDAO
@@ -62,7 +88,7 @@ public class AssetDAO implements IAssetDAO
             throw new IllegalArgumentException("Asset id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "asset.get", "Get asset failed", em ->
         {
             TypedQuery<Asset> query = em.createQuery(
                     "SELECT a FROM Asset a LEFT JOIN FETCH a.logs WHERE a.assetId = :id",
@@ -72,31 +98,73 @@ public class AssetDAO implements IAssetDAO
 
             try
             {
-                return query.getSingleResult();
+                return QueryDeadlines.apply(query).getSingleResult();
             }
             catch (NoResultException e)
             {
                 throw new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND);
             }
+        });
+    }
+
+    @Override
+    public List<Asset> getAll()
+    {
+        return transactions.read(router::forRead, "asset.getAll", "Get assets failed", em ->
+        {
+            TypedQuery<Asset> query = em.createQuery("SELECT a FROM Asset a ORDER BY a.assetId DESC", Asset.class);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<Asset> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Asset ids are required");
         }
-        catch (PersistenceException e)
+        if (ids.isEmpty())
         {
-            throw new DatabaseException("Get asset failed", DatabaseErrorType.QUERY_FAILURE, e);
+            return List.of();
         }
+
+        // Unlike get, no fetch of the logs
+        return transactions.read(router::forRead, "asset.getAllByIds", "Get assets by ids failed", em ->
+        {
+            TypedQuery<Asset> query = em.createQuery("SELECT a FROM Asset a WHERE a.assetId IN :ids", Asset.class);
+            query.setParameter("ids", ids);
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
-    public List<Asset> getAll()
+    public Map<Integer, LocalDateTime> getLastLogDates(Collection<Integer> ids)
     {
-        try (EntityManager em = emf.createEntityManager())
+        if (ids == null)
         {
-            TypedQuery<Asset> query = em.createQuery("SELECT a FROM Asset a ORDER BY a.assetId DESC", Asset.class);
-            return query.getResultList();
+            throw new IllegalArgumentException("Asset ids are required");
         }
-        catch (PersistenceException e)
+        if (ids.isEmpty())
         {
-            throw new DatabaseException("Get assets failed", DatabaseErrorType.QUERY_FAILURE, e);
+            return Map.of();
         }
+
+        return transactions.read(router::forRead, "asset.getLastLogDates", "Get last log dates failed", em ->
+        {
+            TypedQuery<Tuple> query = em.createQuery(
+                    "SELECT l.asset.assetId, MAX(l.performedDate) FROM MaintenanceLog l WHERE l.asset.assetId IN :ids GROUP BY l.asset.assetId",
+                    Tuple.class
+            );
+            query.setParameter("ids", ids);
+
+            Map<Integer, LocalDateTime> lastLogDates = new HashMap<>();
+            for (Tuple row : QueryDeadlines.apply(query).getResultList())
+            {
+                lastLogDates.put(row.get(0, Integer.class), row.get(1, LocalDateTime.class));
+            }
+            return lastLogDates;
+        });
     }
 
     public Asset update(Asset asset)
@@ -104,57 +172,92 @@ public class AssetDAO implements IAssetDAO
         throw new UnsupportedOperationException("Assets are immutable");
     }
 
+    // Setting the flag twice leaves the same row, so a failed attempt can run again
     @Override
     public Asset setActive(Integer id, boolean active)
     {
-        try (EntityManager em = emf.createEntityManager())
+        if (id == null)
         {
-            Asset asset = em.find(Asset.class, id);
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return transactions.write(emf, "asset.setActive", "Update Asset failed", true, em ->
+        {
+            Asset asset = em.find(Asset.class, id, QueryDeadlines.hints());
             if (asset == null)
             {
                 throw new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND);
             }
 
-            em.getTransaction().begin();
+            asset.setActive(active);
+            return asset;
+        });
+    }
+
+    @Override
+    public List<Asset> getAllByStatus(boolean active)
+    {
+        return transactions.read(router::forRead, "asset.getAllByStatus", "Get inactive assets failed", em ->
+        {
+            TypedQuery<Asset> query = em.createQuery("SELECT a FROM Asset a WHERE a.active = :active ORDER BY a.assetId DESC", Asset.class)
+                    .setParameter("active", active);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    // The asset's version and its newest log id, both in the tag: each only grows while the asset and its logs change,
+    // but retention and archiving remove logs, so a sum could come back to a value it had before.
+    // Reads one row and one index entry instead of the asset with its logs.
+    @Override
+    public String getChangeVersion(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return transactions.read(router::forRead, "asset.getChangeVersion", "Get asset version failed", em ->
+        {
+            TypedQuery<Object[]> query = em.createQuery(
+                    "SELECT a.version, COALESCE((SELECT MAX(l.logId) FROM MaintenanceLog l WHERE l.asset.assetId = a.assetId), 0) " +
+                            "FROM Asset a WHERE a.assetId = :id",
+                    Object[].class
+            );
+            query.setParameter("id", id);
 
             try
             {
-                asset.setActive(active);
-                em.getTransaction().commit();
-                return asset;
+                Object[] row = QueryDeadlines.apply(query).getSingleResult();
+                return ((Number) row[0]).longValue() + "-" + ((Number) row[1]).longValue();
             }
-            catch (PersistenceException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Update Asset failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
-            }
-            catch (RuntimeException e)
+            catch (NoResultException e)
             {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Update Asset failed", DatabaseErrorType.UNKNOWN, e);
+                throw new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND);
             }
-        }
+        });
     }
 
     @Override
-    public List<Asset> getAllByStatus(boolean active)
+    public List<Map<String, Object>> getProjected(List<String> fields, Boolean active)
     {
-        try (EntityManager em = emf.createEntityManager())
+        if (fields == null || fields.isEmpty())
         {
-            TypedQuery<Asset> query = em.createQuery("SELECT a FROM Asset a WHERE a.active = :active ORDER BY a.assetId DESC", Asset.class)
-                    .setParameter("active", active);
-            return query.getResultList();
+            throw new IllegalArgumentException("At least one field is required");
         }
-        catch (PersistenceException e)
+
+        String jpql = "SELECT " + Projections.selectList(fields, PROJECTION_PATHS) + " FROM Asset a"
+                + (active != null ? " WHERE a.active = :active" : "")
+                + " ORDER BY a.assetId DESC";
+
+        return transactions.read(router::forRead, "asset.getProjected", "Get projected assets failed", em ->
         {
-            throw new DatabaseException("Get inactive assets failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            TypedQuery<Tuple> query = em.createQuery(jpql, Tuple.class);
+            if (active != null)
+            {
+                query.setParameter("active", active);
+            }
+            return Projections.toMaps(QueryDeadlines.apply(query).getResultList(), fields, PROJECTION_PATHS);
+        });
     }
 
-}
\ No newline at end of file
+}
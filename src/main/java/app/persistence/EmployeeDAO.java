@@ -8,15 +8,44 @@ import app.persistence.interfaces.IEmployeeDAO;
 import app.services.SecurityServiceImpl;
 import jakarta.persistence.*;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class EmployeeDAO implements IEmployeeDAO
 {
+    // The password is not an EmployeeDTO field and can never be selected
+    private static final Map<String, String> PROJECTION_PATHS = Map.of(
+            "id", "u.employeeId",
+            "firstName", "u.firstName",
+            "lastName", "u.lastName",
+            "phone", "u.phone",
+            "email", "u.email",
+            "role", "u.role",
+            "active", "u.active"
+    );
+
     private final EntityManagerFactory emf;
+    private final ReplicaRouter router;
+    private final TransactionExecutor transactions;
 
     public EmployeeDAO(EntityManagerFactory emf)
+    {
+        this(emf, ReplicaRouter.primaryOnly(emf));
+    }
+
+    public EmployeeDAO(EntityManagerFactory emf, ReplicaRouter router)
+    {
+        this(emf, router, new TransactionExecutor());
+    }
+
+    public EmployeeDAO(EntityManagerFactory emf, ReplicaRouter router, TransactionExecutor transactions)
     {
         this.emf = emf;
+        this.router = router;
+        this.transactions = transactions;
     }
 
     @Override
@@ -27,33 +56,29 @@ public class EmployeeDAO implements IEmployeeDAO
             throw new IllegalArgumentException("Employee cant be null");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.write(emf, "employee.create", "Create employee failed", false, em ->
         {
-            em.getTransaction().begin();
+            em.persist(employee);
+            return employee;
+        });
+    }
 
-            try
-            {
-                em.persist(employee);
-                em.getTransaction().commit();
-                return employee;
-            }
-            catch (PersistenceException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create employee failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
-            }
-            catch (RuntimeException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create employee failed", DatabaseErrorType.UNKNOWN, e);
-            }
+    @Override
+    public List<Employee> createAll(Collection<Employee> employees)
+    {
+        if (employees == null || employees.stream().anyMatch(Objects::isNull))
+        {
+            throw new IllegalArgumentException("Employees are required and cant contain null");
         }
+
+        StatelessInserter.insert(emf, employees.iterator(), "Create employees failed");
+        return List.copyOf(employees);
+    }
+
+    @Override
+    public int createAll(Iterator<Employee> employees)
+    {
+        return StatelessInserter.insert(emf, employees, "Create employees failed");
     }
 
     @Override
@@ -64,176 +89,208 @@ public class EmployeeDAO implements IEmployeeDAO
             throw new IllegalArgumentException("Employee id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "employee.get", "Get employee failed", em ->
         {
-            Employee employee = em.find(Employee.class, id);
+            Employee employee = em.find(Employee.class, id, QueryDeadlines.hints());
             if (employee != null)
             {
                 return employee;
             }
             throw new DatabaseException("Employee not found", DatabaseErrorType.NOT_FOUND);
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get employee failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+        });
     }
 
     @Override
     public Employee getVerifiedEmployee(String email, String password) throws ValidationException
     {
-        try (EntityManager em = emf.createEntityManager())
+        Employee employee = transactions.read(emf, "employee.getVerified", "Get employee failed", em ->
         {
             TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.email = :email AND u.active = true", Employee.class);
             query.setParameter("email", email);
 
             try
             {
-                Employee employee = query.getSingleResult();
-
-                if (SecurityServiceImpl.verifyPassword(password, employee.getPassword()))
-                {
-                    return employee;
-                }
-                else throw new ValidationException("Could not Authenticate login info");
+                return QueryDeadlines.apply(query).getSingleResult();
             }
             catch (NoResultException e)
             {
-                throw new ValidationException("Could not Authenticate login info");
+                return null;
             }
+        });
+
+        if (employee != null && SecurityServiceImpl.verifyPassword(password, employee.getPassword()))
+        {
+            return employee;
         }
+        throw new ValidationException("Could not Authenticate login info");
     }
 
-        @Override
-        public List<Employee> getAll ()
+    @Override
+    public List<Employee> getAll()
+    {
+        return transactions.read(router::forRead, "employee.getAll", "Get employees failed", em ->
         {
-            try (EntityManager em = emf.createEntityManager())
-            {
-                TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u", Employee.class);
-                return query.getResultList();
-            }
-            catch (PersistenceException e)
-            {
-                throw new DatabaseException("Get employees failed", DatabaseErrorType.QUERY_FAILURE, e);
-            }
+            TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u", Employee.class);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<Employee> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Employee ids are required");
+        }
+        if (ids.isEmpty())
+        {
+            return List.of();
         }
 
-        @Override
-        public Employee update (Employee u)
+        return transactions.read(router::forRead, "employee.getAllByIds", "Get employees by ids failed", em ->
         {
-            if (u == null || u.getEmployeeId() == null)
-            {
-                throw new IllegalArgumentException("Employee and employee id are required");
-            }
+            TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.employeeId IN :ids", Employee.class);
+            query.setParameter("ids", ids);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
 
-            try (EntityManager em = emf.createEntityManager())
-            {
-                em.getTransaction().begin();
+    // The version in u decides, so running the merge again can't overwrite a newer row
+    @Override
+    public Employee update(Employee u)
+    {
+        if (u == null || u.getEmployeeId() == null)
+        {
+            throw new IllegalArgumentException("Employee and employee id are required");
+        }
 
-                try
-                {
-                    Employee managed = em.find(Employee.class, u.getEmployeeId());
-                    if (managed == null)
-                    {
-                        if (em.getTransaction().isActive())
-                        {
-                            em.getTransaction().rollback();
-                        }
-                        throw new DatabaseException("Employee not found or invalid", DatabaseErrorType.NOT_FOUND);
-                    }
-
-                    managed = em.merge(u);
-                    em.getTransaction().commit();
-                    return managed;
-                }
-                catch (DatabaseException e)
-                {
-                    throw e;
-                }
-                catch (PersistenceException e)
-                {
-                    if (em.getTransaction().isActive())
-                    {
-                        em.getTransaction().rollback();
-                    }
-                    throw new DatabaseException("Update employee failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
-                }
-                catch (RuntimeException e)
+        try
+        {
+            return transactions.write(emf, "employee.update", "Update employee failed", true, em ->
+            {
+                Employee managed = em.find(Employee.class, u.getEmployeeId(), QueryDeadlines.hints());
+                if (managed == null)
                 {
-                    if (em.getTransaction().isActive())
-                    {
-                        em.getTransaction().rollback();
-                    }
-                    throw new DatabaseException("Update employee failed", DatabaseErrorType.UNKNOWN, e);
+                    throw new DatabaseException("Employee not found or invalid", DatabaseErrorType.NOT_FOUND);
                 }
-            }
+                return em.merge(u);
+            });
         }
-
-        @Override
-        public Employee getByEmail (String email)
+        catch (DatabaseException e)
         {
-            if (email == null || email.isBlank())
+            // Stale version: someone else updated the employee after it was read
+            Throwable cause = e.getCause();
+            if (cause instanceof OptimisticLockException || (cause != null && cause.getCause() instanceof OptimisticLockException))
             {
-                throw new IllegalArgumentException("Email is required");
+                throw new DatabaseException("Employee was modified by another request", DatabaseErrorType.CONSTRAINT_VIOLATION, cause);
             }
+            throw e;
+        }
+    }
 
-            try (EntityManager em = emf.createEntityManager())
-            {
-                TypedQuery<Employee> query = em.createQuery("SELECT u from Employee u WHERE u.email = :email AND u.active = true", Employee.class);
-                query.setParameter("email", email);
+    @Override
+    public Employee getByEmail(String email)
+    {
+        if (email == null || email.isBlank())
+        {
+            throw new IllegalArgumentException("Email is required");
+        }
 
-                try
-                {
-                    return query.getSingleResult();
-                }
-                catch (NoResultException e)
-                {
-                    return null;
-                }
+        return transactions.read(emf, "employee.getByEmail", "Get employee by email failed", em ->
+        {
+            TypedQuery<Employee> query = em.createQuery("SELECT u from Employee u WHERE u.email = :email AND u.active = true", Employee.class);
+            query.setParameter("email", email);
+
+            try
+            {
+                return QueryDeadlines.apply(query).getSingleResult();
             }
-            catch (PersistenceException e)
+            catch (NoResultException e)
             {
-                throw new DatabaseException("Get employee by email failed", DatabaseErrorType.QUERY_FAILURE, e);
+                return null;
             }
+        });
+    }
+
+    @Override
+    public List<Employee> getInactiveEmployees(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
         }
 
-        @Override
-        public List<Employee> getInactiveEmployees (int limit)
+        return transactions.read(router::forRead, "employee.getInactive", "Get inactive employees failed", em ->
         {
-            if (limit <= 0)
-            {
-                throw new IllegalArgumentException("Input needs to be bigger than 0");
-            }
+            TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.active = false", Employee.class);
+            query.setMaxResults(limit);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
 
-            try (EntityManager em = emf.createEntityManager())
+    @Override
+    public List<Employee> getActiveEmployees(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return transactions.read(router::forRead, "employee.getActive", "Get active employees failed", em ->
+        {
+            TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.active = true", Employee.class);
+            query.setMaxResults(limit);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public long getVersion(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        return transactions.read(router::forRead, "employee.getVersion", "Get employee version failed", em ->
+        {
+            TypedQuery<Long> query = em.createQuery("SELECT u.version FROM Employee u WHERE u.employeeId = :id", Long.class);
+            query.setParameter("id", id);
+
+            try
             {
-                TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.active = false", Employee.class);
-                query.setMaxResults(limit);
-                return query.getResultList();
+                return QueryDeadlines.apply(query).getSingleResult();
             }
-            catch (PersistenceException e)
+            catch (NoResultException e)
             {
-                throw new DatabaseException("Get inactive employees failed", DatabaseErrorType.QUERY_FAILURE, e);
+                throw new DatabaseException("Employee not found", DatabaseErrorType.NOT_FOUND);
             }
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Boolean active, Integer limit)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
         }
 
-        @Override
-        public List<Employee> getActiveEmployees (int limit)
+        String jpql = "SELECT " + Projections.selectList(fields, PROJECTION_PATHS) + " FROM Employee u"
+                + (active != null ? " WHERE u.active = :active" : "");
+
+        return transactions.read(router::forRead, "employee.getProjected", "Get projected employees failed", em ->
         {
-            if (limit <= 0)
+            TypedQuery<Tuple> query = em.createQuery(jpql, Tuple.class);
+            if (active != null)
             {
-                throw new IllegalArgumentException("Input needs to be bigger than 0");
+                query.setParameter("active", active);
             }
-
-            try (EntityManager em = emf.createEntityManager())
+            if (limit != null)
             {
-                TypedQuery<Employee> query = em.createQuery("SELECT u FROM Employee u WHERE u.active = true", Employee.class);
                 query.setMaxResults(limit);
-                return query.getResultList();
             }
-            catch (PersistenceException e)
-            {
-                throw new DatabaseException("Get active employees failed", DatabaseErrorType.QUERY_FAILURE, e);
-            }
-        }
-    }
\ No newline at end of file
+            return Projections.toMaps(QueryDeadlines.apply(query).getResultList(), fields, PROJECTION_PATHS);
+        });
+    }
+}
@@ -0,0 +1,183 @@
+package app.persistence;
+
+import app.dtos.MaintenanceLogDTO;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.interfaces.IMaintenanceLogDTOQueries;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Plain JDBC versions of the hottest log lookups. Connections come from the same gated Hikari pool Hibernate
+// uses, and rows map straight to MaintenanceLogDTOs: no entity hydration, no persistence context, and the
+// asset and employee names come from joins in the same statement instead of the EAGER associations.
+public class JdbcMaintenanceLogQueries implements IMaintenanceLogDTOQueries
+{
+    private static final String SELECT = """
+            SELECT m.log_id, m.performed_date, m.status, m.task_type, m.comment,
+                   a.asset_id, a.name, e.employee_id, e.first_name, e.last_name
+            FROM maintenance_logs m
+            JOIN assets a ON a.asset_id = m.asset_id
+            JOIN employees e ON e.employee_id = m.performed_by_employee_id
+            """;
+    private static final String BY_ASSET = SELECT + "WHERE m.asset_id = ?";
+    private static final String BY_STATUS_AND_ASSET = SELECT + "WHERE m.asset_id = ? AND m.status = ?";
+    private static final String ON_ACTIVE_ASSETS = SELECT + "WHERE a.status = true ORDER BY a.asset_id DESC, m.performed_date DESC LIMIT ?";
+
+    // values() clones the array on every call, these are read for every row
+    private static final LogStatus[] STATUSES = LogStatus.values();
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    private final ReplicaRouter router;
+    private final TransactionExecutor transactions;
+    private final int fetchSize;
+    private final Map<EntityManagerFactory, ConnectionProvider> providers = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    private interface ParameterBinder
+    {
+        void bind(PreparedStatement statement) throws SQLException;
+    }
+
+    public JdbcMaintenanceLogQueries(EntityManagerFactory emf)
+    {
+        this(ReplicaRouter.primaryOnly(emf));
+    }
+
+    public JdbcMaintenanceLogQueries(ReplicaRouter router)
+    {
+        this(router, new TransactionExecutor());
+    }
+
+    public JdbcMaintenanceLogQueries(ReplicaRouter router, TransactionExecutor transactions)
+    {
+        this.router = router;
+        this.transactions = transactions;
+        // 0 buffers the whole result in one round trip, which suits the usual few hundred logs per asset
+        this.fetchSize = EnvReader.getInt("LOG_JDBC_FETCH_SIZE", 0);
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByAsset(Integer assetId)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return query("log.jdbc.getByAsset", "Get logs by asset failed", BY_ASSET, true, statement -> statement.setInt(1, assetId));
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return query("log.jdbc.getByStatusAndAsset", "Get logs by status and asset failed", BY_STATUS_AND_ASSET, true, statement ->
+        {
+            statement.setInt(1, assetId);
+            statement.setString(2, status.name());
+        });
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return query("log.jdbc.getLogsOnActiveAssets", "Get logs on active assets failed", ON_ACTIVE_ASSETS, false, statement -> statement.setInt(1, limit));
+    }
+
+    // Postgres only fetches in batches inside a transaction, in autocommit it always buffers the whole result.
+    // So an unbounded query with a fetch size runs in a short read transaction, a LIMITed one never needs to.
+    // Retries and SQLState mapping are the executor's, like the DAO's reads, and each attempt picks its own replica.
+    private List<MaintenanceLogDTO> query(String operation, String failure, String sql, boolean unbounded, ParameterBinder binder)
+    {
+        boolean batched = unbounded && fetchSize > 0;
+        return transactions.readJdbc(router::forRead, operation, failure, emf ->
+        {
+            ConnectionProvider provider = providers.computeIfAbsent(emf, JdbcMaintenanceLogQueries::connectionProvider);
+            Connection connection = provider.getConnection();
+            try (PreparedStatement statement = connection.prepareStatement(sql))
+            {
+                binder.bind(statement);
+                QueryDeadlines.apply(statement);
+                if (batched)
+                {
+                    connection.setAutoCommit(false);
+                    statement.setFetchSize(fetchSize);
+                }
+
+                List<MaintenanceLogDTO> logs = new ArrayList<>();
+                try (ResultSet rs = statement.executeQuery())
+                {
+                    while (rs.next())
+                    {
+                        logs.add(toDTO(rs));
+                    }
+                }
+                return logs;
+            }
+            finally
+            {
+                // Hikari rolls back the read transaction and restores autocommit when the connection comes back
+                provider.closeConnection(connection);
+            }
+        });
+    }
+
+    private static MaintenanceLogDTO toDTO(ResultSet rs) throws SQLException
+    {
+        return new MaintenanceLogDTO(
+                rs.getInt(1),
+                rs.getObject(2, LocalDateTime.class),
+                lookup(STATUSES, rs.getString(3)),
+                lookup(TASK_TYPES, rs.getString(4)),
+                rs.getString(5),
+
+                rs.getInt(6),
+                rs.getString(7),
+
+                rs.getInt(8),
+                rs.getString(9) + " " + rs.getString(10));
+    }
+
+    // A handful of constants, a scan beats valueOf's map lookup
+    private static <E extends Enum<E>> E lookup(E[] values, String name)
+    {
+        for (E value : values)
+        {
+            if (value.name().equals(name))
+            {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Unknown enum value in maintenance_logs: " + name);
+    }
+
+    private static ConnectionProvider connectionProvider(EntityManagerFactory emf)
+    {
+        return emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().requireService(ConnectionProvider.class);
+    }
+}
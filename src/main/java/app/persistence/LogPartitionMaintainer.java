@@ -0,0 +1,254 @@
+package app.persistence;
+
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Keeps the monthly range partitions of maintenance_logs (see db/partition_maintenance_logs.sql) ahead of time,
+// and enforces retention by detaching or dropping whole months instead of deleting rows.
+// Does nothing while maintenance_logs is a plain table, e.g. when hbm2ddl created it.
+public class LogPartitionMaintainer
+{
+    private static final Logger log = LoggerFactory.getLogger(LogPartitionMaintainer.class);
+    private static final String TABLE = "maintenance_logs";
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_y(\\d{4})m(\\d{2})");
+    private static final String IS_PARTITIONED_QUERY = "SELECT COALESCE((SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass('" + TABLE + "')), false)";
+    private static final String PARTITIONS_QUERY = """
+            SELECT c.relname FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = to_regclass('""" + TABLE + "')";
+
+    private final EntityManagerFactory emf;
+    private final Runnable onExpired;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final boolean dropExpired;
+    private final long checkIntervalMs;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong detached = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile boolean partitioned;
+    private volatile int partitions;
+    private volatile LocalDateTime lastRun;
+    private volatile String lastError;
+    private ScheduledExecutorService scheduler;
+
+    // onExpired runs after a run that detached months, e.g. to evict cached lists that still contain their logs
+    public LogPartitionMaintainer(EntityManagerFactory emf, Runnable onExpired)
+    {
+        // 0 keeps every month
+        this(emf, onExpired, EnvReader.getInt("LOG_PARTITIONS_AHEAD_MONTHS", 3), EnvReader.getInt("LOG_RETENTION_MONTHS", 0),
+                EnvReader.getString("LOG_RETENTION_MODE", "detach").equalsIgnoreCase("drop"));
+    }
+
+    public LogPartitionMaintainer(EntityManagerFactory emf, Runnable onExpired, int monthsAhead, int retentionMonths, boolean dropExpired)
+    {
+        this.emf = emf;
+        this.onExpired = onExpired;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.dropExpired = dropExpired;
+        this.checkIntervalMs = EnvReader.getLong("LOG_PARTITION_CHECK_MS", 3_600_000);
+    }
+
+    public void start()
+    {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "log-partition-maintainer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runSafely()
+    {
+        lastError = null;
+        try
+        {
+            run();
+        }
+        catch (RuntimeException e)
+        {
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            log.warn("Log partition maintenance failed", e);
+        }
+        lastRun = LocalDateTime.now();
+    }
+
+    // Every statement is idempotent, several instances may run this at the same time
+    public void run()
+    {
+        partitioned = queryPartitioned();
+        if (!partitioned)
+        {
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        List<String> existing = queryPartitions();
+        for (int i = 0; i <= monthsAhead; i++)
+        {
+            YearMonth month = current.plusMonths(i);
+            if (!existing.contains(partitionName(month)))
+            {
+                createPartition(month);
+            }
+        }
+
+        if (retentionMonths > 0)
+        {
+            YearMonth oldestKept = current.minusMonths(retentionMonths);
+            boolean expired = false;
+            for (String name : existing)
+            {
+                YearMonth month = monthOf(name);
+                if (month != null && month.isBefore(oldestKept))
+                {
+                    expired |= expire(name);
+                }
+            }
+            // Their logs are gone from every list, and an asset's lastLogDate may move back
+            if (expired)
+            {
+                onExpired.run();
+            }
+        }
+        partitions = queryPartitions().size();
+    }
+
+    // Fails if the default partition already holds rows for the month, which only happens when
+    // the scheduler was down for longer than monthsAhead. Move those rows by hand, then the next run succeeds.
+    private void createPartition(YearMonth month)
+    {
+        String name = partitionName(month);
+        String sql = "CREATE TABLE IF NOT EXISTS " + name + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+        if (execute(sql))
+        {
+            created.incrementAndGet();
+            log.info("Created log partition {}", name);
+        }
+    }
+
+    // True once the month is no longer part of maintenance_logs
+    private boolean expire(String name)
+    {
+        // Detached months stay behind as plain tables, e.g. to be archived before they are dropped
+        if (!execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name))
+        {
+            return false;
+        }
+        detached.incrementAndGet();
+        log.info("Detached expired log partition {}", name);
+
+        if (dropExpired && execute("DROP TABLE IF EXISTS " + name))
+        {
+            dropped.incrementAndGet();
+            log.info("Dropped expired log partition {}", name);
+        }
+        return true;
+    }
+
+    private boolean execute(String sql)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            EntityTransaction tx = em.getTransaction();
+            try
+            {
+                tx.begin();
+                em.createNativeQuery(sql).executeUpdate();
+                tx.commit();
+                return true;
+            }
+            catch (RuntimeException e)
+            {
+                if (tx.isActive())
+                {
+                    tx.rollback();
+                }
+                failures.incrementAndGet();
+                lastError = e.getMessage();
+                log.warn("Log partition statement failed: {}", sql, e);
+                return false;
+            }
+        }
+    }
+
+    private boolean queryPartitioned()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return (Boolean) em.createNativeQuery(IS_PARTITIONED_QUERY).getSingleResult();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> queryPartitions()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return (List<String>) em.createNativeQuery(PARTITIONS_QUERY).getResultList();
+        }
+    }
+
+    static String partitionName(YearMonth month)
+    {
+        return String.format("%s_y%04dm%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    // Null for the default partition and anything not created by this class
+    static YearMonth monthOf(String partitionName)
+    {
+        Matcher matcher = PARTITION_NAME.matcher(partitionName);
+        if (!matcher.matches())
+        {
+            return null;
+        }
+        return YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("partitioned", partitioned);
+        metrics.put("partitions", partitions);
+        metrics.put("monthsAhead", monthsAhead);
+        metrics.put("retentionMonths", retentionMonths);
+        metrics.put("retentionMode", dropExpired ? "drop" : "detach");
+        metrics.put("created", created.get());
+        metrics.put("detached", detached.get());
+        metrics.put("dropped", dropped.get());
+        metrics.put("failures", failures.get());
+        metrics.put("lastRun", lastRun != null ? lastRun.toString() : null);
+        metrics.put("lastError", lastError);
+        return metrics;
+    }
+}
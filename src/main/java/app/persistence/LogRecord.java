@@ -0,0 +1,19 @@
+package app.persistence;
+
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+
+import java.time.LocalDateTime;
+
+// A log as stored outside Postgres (archive segments, the segmented log store). Asset and employee are kept
+// by id and resolved by LogRecordResolver when the row is read.
+public record LogRecord(
+        int logId,
+        LocalDateTime performedDate,
+        LogStatus status,
+        TaskType taskType,
+        String comment,
+        int assetId,
+        int employeeId)
+{
+}
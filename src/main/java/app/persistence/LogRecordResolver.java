@@ -0,0 +1,74 @@
+package app.persistence;
+
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IReadDAO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Turns LogRecords from the stores outside Postgres into MaintenanceLogs with their asset and employee.
+// Assets and employees are never deleted, they are looked up with one multi-get each.
+public class LogRecordResolver
+{
+    private final IReadDAO<Asset> assetDao;
+    private final IReadDAO<Employee> employeeDao;
+
+    public LogRecordResolver(IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao)
+    {
+        this.assetDao = assetDao;
+        this.employeeDao = employeeDao;
+    }
+
+    public List<MaintenanceLog> resolve(List<LogRecord> rows)
+    {
+        if (rows.isEmpty())
+        {
+            return List.of();
+        }
+
+        Map<Integer, Asset> assets = assetDao.getAll(rows.stream().map(LogRecord::assetId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Asset::getAssetId, Function.identity()));
+        Map<Integer, Employee> employees = employeeDao.getAll(rows.stream().map(LogRecord::employeeId).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Employee::getEmployeeId, Function.identity()));
+
+        List<MaintenanceLog> logs = new ArrayList<>(rows.size());
+        for (LogRecord row : rows)
+        {
+            Asset asset = assets.get(row.assetId());
+            Employee employee = employees.get(row.employeeId());
+            if (asset == null || employee == null)
+            {
+                throw new DatabaseException("Log " + row.logId() + " references a missing asset or employee", DatabaseErrorType.QUERY_FAILURE);
+            }
+            logs.add(MaintenanceLog.builder()
+                    .logId(row.logId())
+                    .performedDate(row.performedDate())
+                    .status(row.status())
+                    .taskType(row.taskType())
+                    .comment(row.comment())
+                    .asset(asset)
+                    .performedBy(employee)
+                    .build());
+        }
+        return logs;
+    }
+
+    public static LogRecord toRecord(MaintenanceLog log)
+    {
+        return new LogRecord(
+                log.getLogId(),
+                log.getPerformedDate(),
+                log.getStatus(),
+                log.getTaskType(),
+                log.getComment(),
+                log.getAsset().getAssetId(),
+                log.getPerformedBy().getEmployeeId());
+    }
+}
@@ -6,20 +6,52 @@ import app.entities.enums.TaskType;
 import app.exceptions.DatabaseException;
 import app.exceptions.enums.DatabaseErrorType;
 import app.persistence.interfaces.IMaintenanceLogDAO;
-import jakarta.persistence.EntityManager;
+import app.utils.DateRange;
 import jakarta.persistence.EntityManagerFactory;
-import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.TypedQuery;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class MaintenanceLogDAO implements IMaintenanceLogDAO
 {
+    // assetId and performedByEmployeeId are foreign key columns, only the names need a join
+    private static final Map<String, String> PROJECTION_PATHS = Map.of(
+            "id", "m.logId",
+            "performedDate", "m.performedDate",
+            "status", "m.status",
+            "taskType", "m.taskType",
+            "comment", "m.comment",
+            "assetId", "m.asset.assetId",
+            "assetName", "a.name",
+            "performedByEmployeeId", "m.performedBy.employeeId",
+            "performedByName", "CONCAT(e.firstName, ' ', e.lastName)"
+    );
+
     private final EntityManagerFactory emf;
+    private final ReplicaRouter router;
+    private final TransactionExecutor transactions;
 
     public MaintenanceLogDAO(EntityManagerFactory emf)
+    {
+        this(emf, ReplicaRouter.primaryOnly(emf));
+    }
+
+    public MaintenanceLogDAO(EntityManagerFactory emf, ReplicaRouter router)
+    {
+        this(emf, router, new TransactionExecutor());
+    }
+
+    public MaintenanceLogDAO(EntityManagerFactory emf, ReplicaRouter router, TransactionExecutor transactions)
     {
         this.emf = emf;
+        this.router = router;
+        this.transactions = transactions;
     }
 
     @Override
@@ -30,33 +62,29 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Log cant be null");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.write(emf, "log.create", "Create log failed", false, em ->
         {
-            em.getTransaction().begin();
+            em.persist(log);
+            return log;
+        });
+    }
 
-            try
-            {
-                em.persist(log);
-                em.getTransaction().commit();
-                return log;
-            }
-            catch (PersistenceException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create log failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
-            }
-            catch (RuntimeException e)
-            {
-                if (em.getTransaction().isActive())
-                {
-                    em.getTransaction().rollback();
-                }
-                throw new DatabaseException("Create log failed", DatabaseErrorType.UNKNOWN, e);
-            }
+    @Override
+    public List<MaintenanceLog> createAll(Collection<MaintenanceLog> logs)
+    {
+        if (logs == null || logs.stream().anyMatch(Objects::isNull))
+        {
+            throw new IllegalArgumentException("Logs are required and cant contain null");
         }
+
+        StatelessInserter.insert(emf, logs.iterator(), "Create logs failed");
+        return List.copyOf(logs);
+    }
+
+    @Override
+    public int createAll(Iterator<MaintenanceLog> logs)
+    {
+        return StatelessInserter.insert(emf, logs, "Create logs failed");
     }
 
     @Override
@@ -67,33 +95,49 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Log id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.get", "Get log failed", em ->
         {
-            MaintenanceLog log = em.find(MaintenanceLog.class, id);
+            MaintenanceLog log = em.find(MaintenanceLog.class, id, QueryDeadlines.hints());
             if (log != null)
             {
                 return log;
             }
             throw new DatabaseException("Log not found", DatabaseErrorType.NOT_FOUND);
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get log failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+        });
     }
 
     @Override
     public List<MaintenanceLog> getAll()
     {
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getAll", "Get logs failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m FROM MaintenanceLog m", MaintenanceLog.class);
-            return query.getResultList();
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Log ids are required");
         }
-        catch (PersistenceException e)
+        if (ids.isEmpty())
         {
-            throw new DatabaseException("Get logs failed", DatabaseErrorType.QUERY_FAILURE, e);
+            return List.of();
         }
+
+        // Fetch joined, otherwise every log loads its asset and employee with a query of its own
+        return transactions.read(router::forRead, "log.getAllByIds", "Get logs by ids failed", em ->
+        {
+            TypedQuery<MaintenanceLog> query = em.createQuery(
+                    "SELECT m FROM MaintenanceLog m JOIN FETCH m.asset JOIN FETCH m.performedBy WHERE m.logId IN :ids",
+                    MaintenanceLog.class
+            );
+            query.setParameter("ids", ids);
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     public MaintenanceLog update(MaintenanceLog maintenanceLog)
@@ -109,16 +153,12 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Asset id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getByAsset", "Get logs by asset failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m from MaintenanceLog m WHERE m.asset.assetId = :assetId", MaintenanceLog.class);
             query.setParameter("assetId", assetId);
-            return query.getResultList();
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get logs by asset failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
@@ -133,17 +173,13 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Task type is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getByAssetAndTask", "Get logs by asset and task failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m from MaintenanceLog m WHERE m.asset.assetId = :assetId AND m.taskType = :taskType", MaintenanceLog.class);
             query.setParameter("assetId", assetId);
             query.setParameter("taskType", taskType);
-            return query.getResultList();
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get logs by asset and task failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
@@ -154,16 +190,12 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Status is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getByStatus", "Get logs by status failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m from MaintenanceLog m WHERE m.status = :status", MaintenanceLog.class);
             query.setParameter("status", status);
-            return query.getResultList();
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get logs by status failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
@@ -178,17 +210,13 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Asset id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getByStatusAndAsset", "Get logs by status and asset failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m from MaintenanceLog m WHERE m.asset.assetId  = :assetId AND m.status = :status", MaintenanceLog.class);
             query.setParameter("assetId", assetId);
             query.setParameter("status", status);
-            return query.getResultList();
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get logs by status and asset failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
@@ -199,16 +227,12 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Employee id is required");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getByPerformedEmployee", "Get logs by performed employee failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m FROM MaintenanceLog m WHERE m.performedBy.employeeId = :employeeId", MaintenanceLog.class);
             query.setParameter("employeeId", employeeId);
-            return query.getResultList();
-        }
-        catch (PersistenceException e)
-        {
-            throw new DatabaseException("Get logs by performed employee failed", DatabaseErrorType.QUERY_FAILURE, e);
-        }
+            return QueryDeadlines.apply(query).getResultList();
+        });
     }
 
     @Override
@@ -219,15 +243,170 @@ public class MaintenanceLogDAO implements IMaintenanceLogDAO
             throw new IllegalArgumentException("Input needs to be bigger than 0");
         }
 
-        try (EntityManager em = emf.createEntityManager())
+        return transactions.read(router::forRead, "log.getLogsOnActiveAssets", "Get logs on active assets failed", em ->
         {
             TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m FROM MaintenanceLog m WHERE m.asset.active = true ORDER BY m.asset.assetId DESC, m.performedDate DESC", MaintenanceLog.class);
             query.setMaxResults(limit);
-            return query.getResultList();
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        if (range == null)
+        {
+            return getLogsOnActiveAssets(limit);
+        }
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        List<String> conditions = new ArrayList<>(List.of("m.asset.active = true"));
+        addRangeConditions(conditions, range);
+
+        return transactions.read(router::forRead, "log.getLogsOnActiveAssetsInRange", "Get logs on active assets failed", em ->
+        {
+            TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m FROM MaintenanceLog m WHERE " + String.join(" AND ", conditions) + " ORDER BY m.asset.assetId DESC, m.performedDate DESC", MaintenanceLog.class);
+            setRangeParameters(query, range);
+            query.setMaxResults(limit);
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<MaintenanceLog> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        if (range == null)
+        {
+            throw new IllegalArgumentException("Date range is required");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        addRangeConditions(conditions, range);
+        if (assetId != null)
+        {
+            conditions.add("m.asset.assetId = :assetId");
+        }
+        if (status != null)
+        {
+            conditions.add("m.status = :status");
+        }
+        if (taskType != null)
+        {
+            conditions.add("m.taskType = :taskType");
+        }
+
+        return transactions.read(router::forRead, "log.getByDateRange", "Get logs by date range failed", em ->
+        {
+            TypedQuery<MaintenanceLog> query = em.createQuery("SELECT m FROM MaintenanceLog m WHERE " + String.join(" AND ", conditions) + " ORDER BY m.performedDate DESC", MaintenanceLog.class);
+            setRangeParameters(query, range);
+            if (assetId != null)
+            {
+                query.setParameter("assetId", assetId);
+            }
+            if (status != null)
+            {
+                query.setParameter("status", status);
+            }
+            if (taskType != null)
+            {
+                query.setParameter("taskType", taskType);
+            }
+            return QueryDeadlines.apply(query).getResultList();
+        });
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        StringBuilder jpql = new StringBuilder("SELECT ")
+                .append(Projections.selectList(fields, PROJECTION_PATHS))
+                .append(" FROM MaintenanceLog m");
+        if (Projections.uses(fields, PROJECTION_PATHS, "a"))
+        {
+            jpql.append(" JOIN m.asset a");
+        }
+        if (Projections.uses(fields, PROJECTION_PATHS, "e"))
+        {
+            jpql.append(" JOIN m.performedBy e");
+        }
+
+        List<String> conditions = new ArrayList<>();
+        addRangeConditions(conditions, range);
+        if (assetId != null)
+        {
+            conditions.add("m.asset.assetId = :assetId");
+        }
+        if (status != null)
+        {
+            conditions.add("m.status = :status");
+        }
+        if (taskType != null)
+        {
+            conditions.add("m.taskType = :taskType");
+        }
+        if (!conditions.isEmpty())
+        {
+            jpql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+
+        return transactions.read(router::forRead, "log.getProjected", "Get projected logs failed", em ->
+        {
+            TypedQuery<Tuple> query = em.createQuery(jpql.toString(), Tuple.class);
+            setRangeParameters(query, range);
+            if (assetId != null)
+            {
+                query.setParameter("assetId", assetId);
+            }
+            if (status != null)
+            {
+                query.setParameter("status", status);
+            }
+            if (taskType != null)
+            {
+                query.setParameter("taskType", taskType);
+            }
+            return Projections.toMaps(QueryDeadlines.apply(query).getResultList(), fields, PROJECTION_PATHS);
+        });
+    }
+
+    // Plain comparisons on performed_date, so Postgres can prune the monthly partitions at plan time
+    private static void addRangeConditions(List<String> conditions, DateRange range)
+    {
+        if (range == null)
+        {
+            return;
+        }
+        if (range.from() != null)
+        {
+            conditions.add("m.performedDate >= :from");
+        }
+        if (range.to() != null)
+        {
+            conditions.add("m.performedDate < :to");
+        }
+    }
+
+    private static void setRangeParameters(TypedQuery<?> query, DateRange range)
+    {
+        if (range == null)
+        {
+            return;
+        }
+        if (range.from() != null)
+        {
+            query.setParameter("from", range.from());
         }
-        catch (PersistenceException e)
+        if (range.to() != null)
         {
-            throw new DatabaseException("Get logs on active assets failed", DatabaseErrorType.QUERY_FAILURE, e);
+            query.setParameter("to", range.to());
         }
     }
 }
\ No newline at end of file
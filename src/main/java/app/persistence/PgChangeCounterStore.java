@@ -0,0 +1,81 @@
+package app.persistence;
+
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The change counters in one row per scope of change_counters, created on first use. Always on the primary,
+// a replica would hand out an older counter. Every collection write updates its scope's row, so these writes
+// queue on that row lock, for as long as one autocommitted UPDATE takes.
+public class PgChangeCounterStore implements ChangeCounters.Store
+{
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS change_counters (scope VARCHAR(16) PRIMARY KEY, version BIGINT NOT NULL)";
+    private static final String INSERT_SCOPE = "INSERT INTO change_counters (scope, version) VALUES (?1, 0) ON CONFLICT (scope) DO NOTHING";
+
+    private final EntityManagerFactory emf;
+    private final TransactionExecutor transactions;
+    private volatile boolean created;
+
+    public PgChangeCounterStore(EntityManagerFactory emf, TransactionExecutor transactions)
+    {
+        this.emf = emf;
+        this.transactions = transactions;
+    }
+
+    @Override
+    public void bump(Set<Scope> scopes)
+    {
+        createTable();
+        List<String> names = scopes.stream().map(Scope::name).toList();
+        // A retry after a commit whose answer was lost bumps twice, which only moves the tag once more
+        transactions.write(emf, "changeCounters.bump", "Bumping change counters failed", true, em ->
+                em.createNativeQuery("UPDATE change_counters SET version = version + 1 WHERE scope IN (:scopes)")
+                        .setParameter("scopes", names)
+                        .executeUpdate());
+    }
+
+    @Override
+    public Map<Scope, Long> read()
+    {
+        createTable();
+        return transactions.read(emf, "changeCounters.read", "Reading change counters failed", em ->
+        {
+            @SuppressWarnings("unchecked")
+            List<Object[]> rows = em.createNativeQuery("SELECT scope, version FROM change_counters").getResultList();
+            Map<Scope, Long> values = new EnumMap<>(Scope.class);
+            for (Scope scope : Scope.values())
+            {
+                values.put(scope, 0L);
+            }
+            for (Object[] row : rows)
+            {
+                values.put(Scope.valueOf((String) row[0]), ((Number) row[1]).longValue());
+            }
+            return values;
+        });
+    }
+
+    // Instances starting together may race on the CREATE, the loser simply tries again on its next call
+    private void createTable()
+    {
+        if (created)
+        {
+            return;
+        }
+        transactions.write(emf, "changeCounters.create", "Creating change counters failed", true, em ->
+        {
+            em.createNativeQuery(CREATE_TABLE).executeUpdate();
+            for (Scope scope : Scope.values())
+            {
+                em.createNativeQuery(INSERT_SCOPE).setParameter(1, scope.name()).executeUpdate();
+            }
+            return null;
+        });
+        created = true;
+    }
+}
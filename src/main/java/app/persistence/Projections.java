@@ -0,0 +1,50 @@
+package app.persistence;
+
+import jakarta.persistence.Tuple;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Turns a sparse fieldset (?fields=) into a JPQL select list, and the resulting tuples into maps keyed
+// by DTO field name. A field without a path has no column (e.g. lastLogDate on asset lists) and comes back null.
+public final class Projections
+{
+    private Projections()
+    {
+    }
+
+    public static String selectList(List<String> fields, Map<String, String> paths)
+    {
+        String select = fields.stream()
+                .map(paths::get)
+                .filter(path -> path != null)
+                .collect(Collectors.joining(", "));
+        return select.isEmpty() ? "1" : select;
+    }
+
+    // Whether any selected path goes through the join alias, so the join is only added when needed
+    public static boolean uses(List<String> fields, Map<String, String> paths, String alias)
+    {
+        return fields.stream()
+                .map(paths::get)
+                .anyMatch(path -> path != null && path.contains(alias + "."));
+    }
+
+    public static List<Map<String, Object>> toMaps(List<Tuple> rows, List<String> fields, Map<String, String> paths)
+    {
+        return rows.stream()
+                .map(row ->
+                {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    int column = 0;
+                    for (String field : fields)
+                    {
+                        values.put(field, paths.get(field) != null ? row.get(column++) : null);
+                    }
+                    return values;
+                })
+                .toList();
+    }
+}
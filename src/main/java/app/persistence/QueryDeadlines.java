@@ -0,0 +1,100 @@
+package app.persistence;
+
+import app.context.RequestContext;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import jakarta.persistence.Query;
+import jakarta.persistence.QueryTimeoutException;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+// Turns the current request's deadline into JPA query timeouts. Hibernate passes the timeout on as
+// Statement.setQueryTimeout, and the Postgres driver cancels the statement server-side when it fires.
+// That takes whole seconds and Hibernate truncates the hint's milliseconds to them, where 0 means no timeout,
+// so every hint is rounded up to a whole second first.
+public final class QueryDeadlines
+{
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+    private static final String QUERY_CANCELED_SQL_STATE = "57014";
+
+    private QueryDeadlines()
+    {
+    }
+
+    public static <Q extends Query> Q apply(Q query)
+    {
+        Long remaining = remainingMillis();
+        if (remaining != null)
+        {
+            query.setHint(TIMEOUT_HINT, timeoutHint(remaining));
+        }
+        return query;
+    }
+
+    // For plain JDBC, which only takes whole seconds. Rounded up, so a statement never gets less time than the request has left.
+    public static void apply(Statement statement) throws SQLException
+    {
+        Long remaining = remainingMillis();
+        if (remaining != null)
+        {
+            statement.setQueryTimeout(seconds(remaining));
+        }
+    }
+
+    // For em.find, which takes hints as properties
+    public static Map<String, Object> hints()
+    {
+        Long remaining = remainingMillis();
+        return remaining != null ? Map.of(TIMEOUT_HINT, timeoutHint(remaining)) : Map.of();
+    }
+
+    // Milliseconds for TIMEOUT_HINT, rounded up to whole seconds so a statement never gets less time than asked for
+    public static int timeoutHint(long millis)
+    {
+        return (int) Math.min(Integer.MAX_VALUE / 1000, seconds(millis)) * 1000;
+    }
+
+    private static int seconds(long millis)
+    {
+        return (int) Math.min(Integer.MAX_VALUE, (Math.max(1, millis) + 999) / 1000);
+    }
+
+    // Writes have no query to put a hint on, they just don't start once the caller has given up
+    public static void checkNotExpired()
+    {
+        remainingMillis();
+    }
+
+    public static boolean isTimeout(Throwable e)
+    {
+        for (Throwable t = e; t != null; t = t.getCause())
+        {
+            if (t instanceof QueryTimeoutException || t instanceof org.hibernate.QueryTimeoutException)
+            {
+                return true;
+            }
+            if (t instanceof SQLException sqlException && QUERY_CANCELED_SQL_STATE.equals(sqlException.getSQLState()))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Null outside a request. For clients that enforce the deadline themselves.
+    public static Long remainingMillis()
+    {
+        RequestContext context = RequestContext.current();
+        if (context == null)
+        {
+            return null;
+        }
+        if (context.isExpired())
+        {
+            throw new DatabaseException("Request deadline exceeded", DatabaseErrorType.QUERY_TIMEOUT);
+        }
+        return Math.max(1, context.remainingMillis());
+    }
+}
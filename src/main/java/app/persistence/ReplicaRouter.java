@@ -0,0 +1,252 @@
+package app.persistence;
+
+import app.caching.CacheRefill;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationEvent;
+import app.context.RequestContext;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Picks the EntityManagerFactory for DAO query methods. Reads go round-robin to replicas whose replay lag
+// is within REPLICA_MAX_LAG_MS, and fall back to the primary when none is. Requests pinned by their
+// RequestContext (writes, and a client's reads right after it wrote) always read from the primary.
+// So do cache refills (see CacheRefill) for a while after an invalidation of a scope they load, local or from
+// another instance: a lagging replica would store pre-write rows under the post-write ETag. Other reads stay on the replicas.
+public class ReplicaRouter
+{
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+    // 0 when the replica has replayed everything it received, otherwise the age of the last replayed transaction.
+    // NULL while no WAL receiver is streaming: a disconnected replica has replayed all it received, but isn't current.
+    // Without pg_read_all_stats the receiver's status reads as NULL, its row only shows up while it runs.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status IS NULL OR status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END""";
+
+    private final EntityManagerFactory primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final long checkIntervalMs;
+    private final long primaryAfterInvalidationNanos;
+    private final Map<Scope, AtomicLong> primaryUntilNanos = new EnumMap<>(Scope.class);
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicLong replicaReads = new AtomicLong();
+    private final AtomicLong primaryReads = new AtomicLong();
+    private final AtomicLong pinnedReads = new AtomicLong();
+    private final AtomicLong afterInvalidationReads = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private ScheduledExecutorService lagChecker;
+
+    public ReplicaRouter(EntityManagerFactory primary, List<EntityManagerFactory> replicaEmfs)
+    {
+        this(primary, replicaEmfs, EnvReader.getLong("REPLICA_MAX_LAG_MS", 1_000), EnvReader.getLong("REPLICA_LAG_CHECK_MS", 1_000));
+    }
+
+    // A replica passed the last check with up to maxLagMs of lag, and may have fallen further behind since
+    private ReplicaRouter(EntityManagerFactory primary, List<EntityManagerFactory> replicaEmfs, long maxLagMs, long checkIntervalMs)
+    {
+        this(primary, replicaEmfs, maxLagMs, checkIntervalMs, EnvReader.getLong("REPLICA_PRIMARY_AFTER_INVALIDATION_MS", maxLagMs + checkIntervalMs));
+    }
+
+    public ReplicaRouter(EntityManagerFactory primary, List<EntityManagerFactory> replicaEmfs, long maxLagMs, long checkIntervalMs, long primaryAfterInvalidationMs)
+    {
+        this.primary = primary;
+        this.maxLagMs = maxLagMs;
+        this.checkIntervalMs = checkIntervalMs;
+        this.primaryAfterInvalidationNanos = primaryAfterInvalidationMs * 1_000_000;
+        for (Scope scope : Scope.values())
+        {
+            primaryUntilNanos.put(scope, new AtomicLong(System.nanoTime()));
+        }
+        for (int i = 0; i < replicaEmfs.size(); i++)
+        {
+            replicas.add(new Replica("replica-" + (i + 1), replicaEmfs.get(i)));
+        }
+    }
+
+    public static ReplicaRouter primaryOnly(EntityManagerFactory primary)
+    {
+        return new ReplicaRouter(primary, List.of());
+    }
+
+    public EntityManagerFactory forRead()
+    {
+        if (replicas.isEmpty())
+        {
+            primaryReads.incrementAndGet();
+            return primary;
+        }
+
+        RequestContext context = RequestContext.current();
+        if (context != null && context.isPrimaryPinned())
+        {
+            pinnedReads.incrementAndGet();
+            return primary;
+        }
+        if (refillsRecentlyInvalidated())
+        {
+            afterInvalidationReads.incrementAndGet();
+            return primary;
+        }
+
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++)
+        {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (replica.healthy)
+            {
+                replicaReads.incrementAndGet();
+                return replica.emf;
+            }
+        }
+
+        fallbacks.incrementAndGet();
+        return primary;
+    }
+
+    private boolean refillsRecentlyInvalidated()
+    {
+        Set<Scope> refill = CacheRefill.current();
+        if (refill == null)
+        {
+            return false;
+        }
+        long now = System.nanoTime();
+        for (Scope scope : refill)
+        {
+            if (now - primaryUntilNanos.get(scope).get() < 0)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Subscribed before the caches, so refills already go to the primary when an entry is evicted
+    public void onInvalidation(InvalidationEvent event)
+    {
+        primaryUntilNanos.get(event.scope()).set(System.nanoTime() + primaryAfterInvalidationNanos);
+    }
+
+    // Replicas start out unhealthy, the first check runs right away
+    public void start()
+    {
+        if (replicas.isEmpty())
+        {
+            return;
+        }
+
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(() -> replicas.forEach(this::checkLag), 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop()
+    {
+        if (lagChecker != null)
+        {
+            lagChecker.shutdownNow();
+        }
+    }
+
+    private void checkLag(Replica replica)
+    {
+        boolean wasHealthy = replica.healthy;
+        try (EntityManager em = replica.emf.createEntityManager())
+        {
+            Number lag = (Number) em.createNativeQuery(LAG_QUERY)
+                    .setHint(QueryDeadlines.TIMEOUT_HINT, QueryDeadlines.timeoutHint(checkIntervalMs))
+                    .getSingleResult();
+            if (lag == null)
+            {
+                replica.lagMs = -1;
+                replica.healthy = false;
+                replica.lastError = "WAL receiver not streaming";
+            }
+            else
+            {
+                replica.lagMs = lag.longValue();
+                replica.healthy = replica.lagMs <= maxLagMs;
+                replica.lastError = null;
+            }
+        }
+        catch (RuntimeException e)
+        {
+            replica.healthy = false;
+            replica.lastError = e.getMessage();
+        }
+
+        if (wasHealthy != replica.healthy)
+        {
+            if (replica.healthy)
+            {
+                log.info("{} is back within the lag limit ({} ms), routing reads to it", replica.name, replica.lagMs);
+            }
+            else
+            {
+                log.warn("{} taken out of read routing: lag {} ms, error {}", replica.name, replica.lagMs, replica.lastError);
+            }
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> replicaMetrics = new LinkedHashMap<>();
+        for (Replica replica : replicas)
+        {
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put("healthy", replica.healthy);
+            metrics.put("lagMs", replica.lagMs);
+            metrics.put("lastError", replica.lastError);
+            replicaMetrics.put(replica.name, metrics);
+        }
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("maxLagMs", maxLagMs);
+        metrics.put("replicaReads", replicaReads.get());
+        metrics.put("primaryReads", primaryReads.get());
+        metrics.put("pinnedReads", pinnedReads.get());
+        metrics.put("primaryAfterInvalidationMs", primaryAfterInvalidationNanos / 1_000_000);
+        metrics.put("afterInvalidationReads", afterInvalidationReads.get());
+        metrics.put("fallbacks", fallbacks.get());
+        metrics.put("replicas", replicaMetrics);
+        return metrics;
+    }
+
+    private static final class Replica
+    {
+        private final String name;
+        private final EntityManagerFactory emf;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+        private volatile String lastError;
+
+        private Replica(String name, EntityManagerFactory emf)
+        {
+            this.name = name;
+            this.emf = emf;
+        }
+    }
+}
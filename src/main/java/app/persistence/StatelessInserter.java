@@ -0,0 +1,86 @@
+package app.persistence;
+
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+// Bulk inserts for the JPA DAOs. A StatelessSession keeps no persistence context, so memory stays flat however
+// many rows go through, and each chunk is one transaction instead of one per row.
+// The ids are IDENTITY, so Hibernate has to read each generated id back and can't batch the inserts: every row
+// is still its own INSERT round trip, only the commits are saved.
+final class StatelessInserter
+{
+    private static final int CHUNK_SIZE = Math.max(1, EnvReader.getInt("BULK_CREATE_CHUNK_SIZE", 500));
+
+    private StatelessInserter()
+    {
+    }
+
+    static <T> int insert(EntityManagerFactory emf, Iterator<T> entities, String failure)
+    {
+        if (entities == null)
+        {
+            throw new IllegalArgumentException("Entities are required");
+        }
+
+        int inserted = 0;
+        try (StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession())
+        {
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (entities.hasNext())
+            {
+                T entity = entities.next();
+                if (entity == null)
+                {
+                    throw new IllegalArgumentException("Entities cant contain null");
+                }
+                chunk.add(entity);
+                if (chunk.size() == CHUNK_SIZE || !entities.hasNext())
+                {
+                    commit(session, chunk, failure, inserted);
+                    inserted += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        return inserted;
+    }
+
+    private static <T> void commit(StatelessSession session, List<T> chunk, String failure, int inserted)
+    {
+        QueryDeadlines.checkNotExpired();
+        Transaction tx = session.beginTransaction();
+        try
+        {
+            session.insertMultiple(chunk);
+            tx.commit();
+        }
+        catch (PersistenceException e)
+        {
+            rollback(tx);
+            throw new DatabaseException(failure + " after " + inserted + " rows", TransactionExecutor.classify(e, DatabaseErrorType.TRANSACTION_FAILURE), e);
+        }
+        catch (RuntimeException e)
+        {
+            rollback(tx);
+            throw new DatabaseException(failure + " after " + inserted + " rows", DatabaseErrorType.UNKNOWN, e);
+        }
+    }
+
+    private static void rollback(Transaction tx)
+    {
+        if (tx.isActive())
+        {
+            tx.rollback();
+        }
+    }
+}
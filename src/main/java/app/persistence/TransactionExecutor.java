@@ -0,0 +1,317 @@
+package app.persistence;
+
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Runs the DAOs' work in an EntityManager, turns failures into DatabaseExceptions by SQLState, and retries the
+// transient ones with jittered backoff as long as the request deadline allows. Latency and retries are kept per operation.
+public class TransactionExecutor
+{
+    private static final String SERIALIZATION_FAILURE = "40001";
+    private static final String DEADLOCK_DETECTED = "40P01";
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    // Plain JDBC work on a connection of the factory's pool
+    @FunctionalInterface
+    public interface JdbcWork<T>
+    {
+        T apply(EntityManagerFactory emf) throws SQLException;
+    }
+
+    public TransactionExecutor()
+    {
+        this(EnvReader.getInt("DB_RETRY_MAX_ATTEMPTS", 3), EnvReader.getLong("DB_RETRY_BASE_MS", 20), EnvReader.getLong("DB_RETRY_MAX_MS", 500));
+    }
+
+    public TransactionExecutor(int maxAttempts, long baseBackoffMs, long maxBackoffMs)
+    {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = Math.max(1, baseBackoffMs);
+        this.maxBackoffMs = Math.max(1, maxBackoffMs);
+    }
+
+    // No transaction. Reads can always run again.
+    public <T> T read(EntityManagerFactory emf, String operation, String failure, Function<EntityManager, T> work)
+    {
+        return read(() -> emf, operation, failure, work);
+    }
+
+    // The factory is picked again for every attempt, so a retry after a failed replica goes to another one
+    public <T> T read(Supplier<EntityManagerFactory> emfs, String operation, String failure, Function<EntityManager, T> work)
+    {
+        return execute(emfs, operation, true, emf -> attempt(emf, failure, false, work));
+    }
+
+    public <T> T readJdbc(Supplier<EntityManagerFactory> emfs, String operation, String failure, JdbcWork<T> work)
+    {
+        return execute(emfs, operation, true, emf -> attemptJdbc(emf, failure, work));
+    }
+
+    // Only idempotent writes are retried. After a lost connection a create's commit may have gone through,
+    // and a persisted entity keeps the id of its rolled back insert.
+    public <T> T write(EntityManagerFactory emf, String operation, String failure, boolean idempotent, Function<EntityManager, T> work)
+    {
+        return execute(() -> emf, operation, idempotent, primary -> attempt(primary, failure, true, work));
+    }
+
+    private <T> T execute(Supplier<EntityManagerFactory> emfs, String operation, boolean idempotent, Function<EntityManagerFactory, T> call)
+    {
+        OperationStats stats = operations.computeIfAbsent(operation, key -> new OperationStats());
+        long start = System.nanoTime();
+        try
+        {
+            for (int attempt = 1; ; attempt++)
+            {
+                try
+                {
+                    return call.apply(emfs.get());
+                }
+                catch (DatabaseException e)
+                {
+                    if (attempt >= maxAttempts || !isRetryable(e.getCause(), idempotent) || !backOff(attempt))
+                    {
+                        throw e;
+                    }
+                    stats.retries.increment();
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            if (!(e instanceof DatabaseException databaseException) || databaseException.getErrorType() != DatabaseErrorType.NOT_FOUND)
+            {
+                stats.failures.increment();
+            }
+            throw e;
+        }
+        finally
+        {
+            stats.record(System.nanoTime() - start);
+        }
+    }
+
+    private static <T> T attempt(EntityManagerFactory emf, String failure, boolean transactional, Function<EntityManager, T> work)
+    {
+        QueryDeadlines.checkNotExpired();
+        try (EntityManager em = emf.createEntityManager())
+        {
+            if (!transactional)
+            {
+                return work.apply(em);
+            }
+
+            EntityTransaction tx = em.getTransaction();
+            tx.begin();
+            try
+            {
+                T result = work.apply(em);
+                tx.commit();
+                return result;
+            }
+            catch (RuntimeException e)
+            {
+                rollback(tx, e);
+                throw e;
+            }
+        }
+        catch (DatabaseException e)
+        {
+            throw e;
+        }
+        catch (PersistenceException e)
+        {
+            throw new DatabaseException(failure, classify(e, transactional ? DatabaseErrorType.TRANSACTION_FAILURE : DatabaseErrorType.QUERY_FAILURE), e);
+        }
+        catch (RuntimeException e)
+        {
+            if (!transactional)
+            {
+                throw e;
+            }
+            throw new DatabaseException(failure, DatabaseErrorType.UNKNOWN, e);
+        }
+    }
+
+    private static <T> T attemptJdbc(EntityManagerFactory emf, String failure, JdbcWork<T> work)
+    {
+        QueryDeadlines.checkNotExpired();
+        try
+        {
+            return work.apply(emf);
+        }
+        catch (SQLException e)
+        {
+            throw new DatabaseException(failure, classify(e, DatabaseErrorType.QUERY_FAILURE), e);
+        }
+    }
+
+    // A broken connection fails the rollback too, the original error is the one worth reporting
+    private static void rollback(EntityTransaction tx, RuntimeException cause)
+    {
+        try
+        {
+            if (tx.isActive())
+            {
+                tx.rollback();
+            }
+        }
+        catch (RuntimeException e)
+        {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Full jitter, so callers that failed together don't retry together. No retry that would outlive the request.
+    private boolean backOff(int attempt)
+    {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        long sleepMs = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        Long remaining = QueryDeadlines.remainingMillis();
+        if (remaining != null && sleepMs >= remaining)
+        {
+            return false;
+        }
+
+        try
+        {
+            Thread.sleep(sleepMs);
+            return true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // A timed out pool or connection budget wait is not retried, trying again only queues once more
+    private static boolean isRetryable(Throwable e, boolean idempotent)
+    {
+        if (!idempotent)
+        {
+            return false;
+        }
+        for (Throwable t = e; t != null; t = t.getCause())
+        {
+            if (t instanceof SQLException sqlException && sqlException.getSQLState() != null)
+            {
+                String state = sqlException.getSQLState();
+                if (SERIALIZATION_FAILURE.equals(state) || DEADLOCK_DETECTED.equals(state))
+                {
+                    return true;
+                }
+                if (isConnectionState(state))
+                {
+                    return !(t instanceof SQLTransientConnectionException);
+                }
+            }
+        }
+        return false;
+    }
+
+    public static DatabaseErrorType classify(Throwable e, DatabaseErrorType otherwise)
+    {
+        if (QueryDeadlines.isTimeout(e))
+        {
+            return DatabaseErrorType.QUERY_TIMEOUT;
+        }
+        for (Throwable t = e; t != null; t = t.getCause())
+        {
+            if (t instanceof OptimisticLockException || t instanceof org.hibernate.StaleStateException)
+            {
+                return DatabaseErrorType.CONSTRAINT_VIOLATION;
+            }
+            if (t instanceof SQLException sqlException && sqlException.getSQLState() != null)
+            {
+                return classify(sqlException.getSQLState(), otherwise);
+            }
+        }
+        return otherwise;
+    }
+
+    // 08 connection exceptions and the 57P0x shutdown states are 503, integrity violations and lost
+    // serialization races are 409, a cancelled statement is the deadline
+    public static DatabaseErrorType classify(String sqlState, DatabaseErrorType otherwise)
+    {
+        if (sqlState == null)
+        {
+            return otherwise;
+        }
+        if (isConnectionState(sqlState))
+        {
+            return DatabaseErrorType.CONNECTION_FAILURE;
+        }
+        if (sqlState.startsWith("23") || SERIALIZATION_FAILURE.equals(sqlState) || DEADLOCK_DETECTED.equals(sqlState))
+        {
+            return DatabaseErrorType.CONSTRAINT_VIOLATION;
+        }
+        if (sqlState.equals("57014"))
+        {
+            return DatabaseErrorType.QUERY_TIMEOUT;
+        }
+        return otherwise;
+    }
+
+    private static boolean isConnectionState(String sqlState)
+    {
+        return sqlState.startsWith("08") || sqlState.startsWith("57P0");
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new TreeMap<>();
+        operations.forEach((operation, stats) -> metrics.put(operation, stats.snapshot()));
+        return metrics;
+    }
+
+    private static final class OperationStats
+    {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos)
+        {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> snapshot()
+        {
+            long count = calls.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("calls", count);
+            snapshot.put("retries", retries.sum());
+            snapshot.put("failures", failures.sum());
+            snapshot.put("avgMs", count > 0 ? TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count) : 0);
+            snapshot.put("maxMs", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package app.persistence.archive;
+
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.utils.DateRange;
+
+// Every part is optional, a null range covers the whole archive
+public record ArchiveFilter(DateRange range, Integer assetId, Integer employeeId, LogStatus status, TaskType taskType)
+{
+    public static ArchiveFilter range(DateRange range)
+    {
+        return new ArchiveFilter(range, null, null, null, null);
+    }
+}
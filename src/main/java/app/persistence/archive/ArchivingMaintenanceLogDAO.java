@@ -0,0 +1,192 @@
+package app.persistence.archive;
+
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.LogRecord;
+import app.persistence.LogRecordResolver;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.interfaces.IReadDAO;
+import app.utils.DateRange;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Adds the archived logs to the results of queries whose date range reaches into the archive.
+// Queries without a range, like GET /logs without from/to, only see the logs still in Postgres.
+// Lookups by id fall back to the archive, so links to old logs keep working.
+public class ArchivingMaintenanceLogDAO implements IMaintenanceLogDAO
+{
+    private final IMaintenanceLogDAO delegate;
+    private final LogArchive archive;
+    private final LogRecordResolver resolver;
+
+    public ArchivingMaintenanceLogDAO(IMaintenanceLogDAO delegate, LogArchive archive, IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao)
+    {
+        this.delegate = delegate;
+        this.archive = archive;
+        this.resolver = new LogRecordResolver(assetDao, employeeDao);
+    }
+
+    @Override
+    public MaintenanceLog create(MaintenanceLog log)
+    {
+        return delegate.create(log);
+    }
+
+    @Override
+    public List<MaintenanceLog> createAll(Collection<MaintenanceLog> logs)
+    {
+        return delegate.createAll(logs);
+    }
+
+    @Override
+    public int createAll(Iterator<MaintenanceLog> logs)
+    {
+        return delegate.createAll(logs);
+    }
+
+    @Override
+    public MaintenanceLog get(Integer id)
+    {
+        try
+        {
+            return delegate.get(id);
+        }
+        catch (DatabaseException e)
+        {
+            LogRecord archived = e.getErrorType() == DatabaseErrorType.NOT_FOUND ? archive.find(id) : null;
+            if (archived == null)
+            {
+                throw e;
+            }
+            return resolver.resolve(List.of(archived)).get(0);
+        }
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll()
+    {
+        return delegate.getAll();
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll(Collection<Integer> ids)
+    {
+        List<MaintenanceLog> logs = delegate.getAll(ids);
+        if (logs.size() == new HashSet<>(ids).size())
+        {
+            return logs;
+        }
+
+        Set<Integer> found = logs.stream().map(MaintenanceLog::getLogId).collect(Collectors.toSet());
+        List<LogRecord> archived = ids.stream()
+                .distinct()
+                .filter(id -> id != null && !found.contains(id))
+                .map(archive::find)
+                .filter(row -> row != null)
+                .toList();
+
+        List<MaintenanceLog> result = new ArrayList<>(logs);
+        result.addAll(resolver.resolve(archived));
+        return result;
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAsset(Integer assetId)
+    {
+        return delegate.getByAsset(assetId);
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        return delegate.getByAssetAndTask(assetId, taskType);
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatus(LogStatus status)
+    {
+        return delegate.getByStatus(status);
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        return delegate.getByStatusAndAsset(status, assetId);
+    }
+
+    @Override
+    public List<MaintenanceLog> getByPerformedEmployee(Integer employeeId)
+    {
+        return delegate.getByPerformedEmployee(employeeId);
+    }
+
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit)
+    {
+        return delegate.getLogsOnActiveAssets(limit);
+    }
+
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        List<MaintenanceLog> logs = delegate.getLogsOnActiveAssets(limit, range);
+        if (range == null || !archive.overlaps(range))
+        {
+            return logs;
+        }
+
+        List<MaintenanceLog> merged = new ArrayList<>(logs);
+        resolver.resolve(archive.scan(ArchiveFilter.range(range))).stream()
+                .filter(log -> log.getAsset().isActive())
+                .forEach(merged::add);
+        merged.sort(Comparator.comparing((MaintenanceLog log) -> log.getAsset().getAssetId()).reversed()
+                .thenComparing(MaintenanceLog::getPerformedDate, Comparator.reverseOrder()));
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    @Override
+    public List<MaintenanceLog> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        List<MaintenanceLog> logs = delegate.getByDateRange(range, assetId, status, taskType);
+        if (!archive.overlaps(range))
+        {
+            return logs;
+        }
+
+        List<MaintenanceLog> merged = new ArrayList<>(logs);
+        merged.addAll(resolver.resolve(archive.scan(new ArchiveFilter(range, assetId, null, status, taskType))));
+        merged.sort(Comparator.comparing(MaintenanceLog::getPerformedDate).reversed());
+        return merged;
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        List<Map<String, Object>> rows = delegate.getProjected(fields, assetId, status, taskType, range);
+        if (range == null || !archive.overlaps(range))
+        {
+            return rows;
+        }
+
+        List<Map<String, Object>> merged = new ArrayList<>(rows);
+        for (MaintenanceLog log : resolver.resolve(archive.scan(new ArchiveFilter(range, assetId, null, status, taskType))))
+        {
+            merged.add(MaintenanceLogMapper.toFields(log, fields));
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,167 @@
+package app.persistence.archive;
+
+import app.persistence.LogRecord;
+import app.utils.DateRange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+
+// The segment files in LOG_ARCHIVE_DIR. Segments are only ever added, readers work on a snapshot of the list.
+// A new segment is written as *.pending, and renamed to *.seg once its rows are deleted from Postgres.
+public class LogArchive
+{
+    private static final Logger log = LoggerFactory.getLogger(LogArchive.class);
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String PENDING_SUFFIX = ".pending";
+
+    private final Path directory;
+    private volatile List<LogSegment> segments = List.of();
+    private final AtomicLong fileSequence = new AtomicLong();
+    private final AtomicLong scans = new AtomicLong();
+    private final AtomicLong segmentsScanned = new AtomicLong();
+    private final AtomicLong rowsReturned = new AtomicLong();
+
+    public LogArchive(Path directory)
+    {
+        this.directory = directory;
+    }
+
+    // stillInPostgres tells whether a log id exists in maintenance_logs. A pending segment whose rows are still
+    // there was never committed and is discarded, otherwise the delete went through and it is kept.
+    public void open(IntPredicate stillInPostgres)
+    {
+        try
+        {
+            Files.createDirectories(directory);
+            List<LogSegment> opened = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory))
+            {
+                for (Path file : files.sorted().toList())
+                {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(PENDING_SUFFIX))
+                    {
+                        LogSegment pending = openPending(file);
+                        if (pending == null || stillInPostgres.test(pending.firstLogId()))
+                        {
+                            log.warn("Discarding uncommitted archive segment {}", file);
+                            Files.delete(file);
+                            continue;
+                        }
+                        Path promoted = promote(file);
+                        log.info("Recovered archive segment {}", promoted);
+                        opened.add(LogSegment.open(promoted));
+                    }
+                    else if (name.endsWith(SEGMENT_SUFFIX))
+                    {
+                        opened.add(LogSegment.open(file));
+                    }
+                }
+            }
+            opened.sort(Comparator.comparing(LogSegment::getMinDate));
+            segments = List.copyOf(opened);
+            log.info("Opened log archive {} with {} segments", directory, segments.size());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not open log archive " + directory, e);
+        }
+    }
+
+    // A crash while writing leaves a truncated file. Its rows were not deleted yet, since that comes after the write.
+    private static LogSegment openPending(Path file) throws IOException
+    {
+        try
+        {
+            return LogSegment.open(file);
+        }
+        catch (IllegalStateException | IndexOutOfBoundsException e)
+        {
+            return null;
+        }
+    }
+
+    public Path newPendingFile(String prefix)
+    {
+        return directory.resolve(prefix + "-" + System.currentTimeMillis() + "-" + fileSequence.incrementAndGet() + PENDING_SUFFIX);
+    }
+
+    public Path promote(Path pendingFile) throws IOException
+    {
+        String name = pendingFile.getFileName().toString();
+        Path segmentFile = pendingFile.resolveSibling(name.substring(0, name.length() - PENDING_SUFFIX.length()) + SEGMENT_SUFFIX);
+        return Files.move(pendingFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public synchronized void add(LogSegment segment)
+    {
+        List<LogSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(Comparator.comparing(LogSegment::getMinDate));
+        segments = List.copyOf(updated);
+    }
+
+    // Whether any segment holds logs inside the range
+    public boolean overlaps(DateRange range)
+    {
+        return segments.stream().anyMatch(segment -> segment.overlaps(range));
+    }
+
+    public List<LogRecord> scan(ArchiveFilter filter)
+    {
+        scans.incrementAndGet();
+        List<LogRecord> result = new ArrayList<>();
+        for (LogSegment segment : segments)
+        {
+            if (segment.overlaps(filter.range()))
+            {
+                segmentsScanned.incrementAndGet();
+                result.addAll(segment.scan(filter));
+            }
+        }
+        rowsReturned.addAndGet(result.size());
+        return result;
+    }
+
+    public LogRecord find(int logId)
+    {
+        for (LogSegment segment : segments)
+        {
+            LogRecord row = segment.find(logId);
+            if (row != null)
+            {
+                return row;
+            }
+        }
+        return null;
+    }
+
+    public Map<String, Object> metrics()
+    {
+        List<LogSegment> current = segments;
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("segments", current.size());
+        metrics.put("rows", current.stream().mapToLong(LogSegment::getRowCount).sum());
+        metrics.put("bytes", current.stream().mapToLong(LogSegment::getSizeBytes).sum());
+        metrics.put("oldest", current.isEmpty() ? null : current.get(0).getMinDate().toString());
+        metrics.put("newest", current.stream().map(LogSegment::getMaxDate).max(LocalDateTime::compareTo).map(LocalDateTime::toString).orElse(null));
+        metrics.put("scans", scans.get());
+        metrics.put("segmentsScanned", segmentsScanned.get());
+        metrics.put("rowsReturned", rowsReturned.get());
+        return metrics;
+    }
+}
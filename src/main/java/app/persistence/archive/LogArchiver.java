@@ -0,0 +1,239 @@
+package app.persistence.archive;
+
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.LogRecord;
+import app.utils.EnvReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Tuple;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Moves logs older than LOG_ARCHIVE_AFTER_DAYS out of Postgres into segment files, a calendar month at a time,
+// so archived months line up with the maintenance_logs partitions and can be detached afterwards.
+// Per segment: write and fsync a pending file, delete the rows in one transaction, then rename the file.
+// LOG_ARCHIVE_DIR is local to the instance, so archiving is single-instance only (DependencyContainer refuses
+// it together with replicas or the Postgres bus). Each run also holds a Postgres advisory lock, so two
+// instances that overlap anyway, e.g. during a rolling deploy, never move the same rows.
+public class LogArchiver
+{
+    private static final Logger log = LoggerFactory.getLogger(LogArchiver.class);
+    private static final int DELETE_CHUNK = 1_000;
+    // pg_advisory_xact_lock key, the same on every instance
+    public static final long LOCK_KEY = 0x4c4f475f41524348L;
+
+    private final EntityManagerFactory emf;
+    private final LogArchive archive;
+    private final Runnable onArchived;
+    private final int afterDays;
+    private final int segmentRows;
+    private final long intervalMs;
+    private final AtomicLong archivedRows = new AtomicLong();
+    private final AtomicLong writtenSegments = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private volatile LocalDateTime lastRun;
+    private volatile String lastError;
+    private ScheduledExecutorService scheduler;
+
+    // onArchived runs after each batch of moved rows, e.g. to evict cached lists that still contain them
+    public LogArchiver(EntityManagerFactory emf, LogArchive archive, Runnable onArchived)
+    {
+        this.emf = emf;
+        this.archive = archive;
+        this.onArchived = onArchived;
+        this.afterDays = EnvReader.getInt("LOG_ARCHIVE_AFTER_DAYS", 90);
+        this.segmentRows = EnvReader.getInt("LOG_ARCHIVE_SEGMENT_ROWS", 100_000);
+        this.intervalMs = EnvReader.getLong("LOG_ARCHIVE_INTERVAL_MS", 3_600_000);
+    }
+
+    public void start()
+    {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "log-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void runSafely()
+    {
+        try
+        {
+            int moved = run();
+            lastError = null;
+            if (moved > 0)
+            {
+                onArchived.run();
+            }
+        }
+        catch (RuntimeException | IOException e)
+        {
+            failures.incrementAndGet();
+            lastError = e.getMessage();
+            log.warn("Log archiving failed", e);
+        }
+        lastRun = LocalDateTime.now();
+    }
+
+    // The lock is transaction scoped and held by a connection of its own for the whole run,
+    // it is released when that transaction ends, even if the run fails
+    public int run() throws IOException
+    {
+        try (EntityManager lockEm = emf.createEntityManager())
+        {
+            EntityTransaction lockTx = lockEm.getTransaction();
+            lockTx.begin();
+            try
+            {
+                Boolean locked = (Boolean) lockEm.createNativeQuery("SELECT pg_try_advisory_xact_lock(?1)")
+                        .setParameter(1, LOCK_KEY)
+                        .getSingleResult();
+                if (!locked)
+                {
+                    skippedRuns.incrementAndGet();
+                    log.info("Skipping log archiving, another instance holds the archive lock");
+                    return 0;
+                }
+                return archive();
+            }
+            finally
+            {
+                lockTx.rollback();
+            }
+        }
+    }
+
+    // Only whole months before the threshold, a month still receiving back-dated logs gets another segment later
+    private int archive() throws IOException
+    {
+        LocalDateTime cutoff = LocalDate.now().minusDays(afterDays).withDayOfMonth(1).atStartOfDay();
+        int moved = 0;
+        while (true)
+        {
+            LocalDateTime oldest = oldestBefore(cutoff);
+            if (oldest == null)
+            {
+                return moved;
+            }
+            LocalDateTime monthStart = oldest.toLocalDate().withDayOfMonth(1).atStartOfDay();
+            List<LogRecord> rows = load(monthStart, monthStart.plusMonths(1));
+            moveToArchive(monthStart, rows);
+            moved += rows.size();
+        }
+    }
+
+    private void moveToArchive(LocalDateTime month, List<LogRecord> rows) throws IOException
+    {
+        Path pending = archive.newPendingFile(String.format("logs-%04d-%02d", month.getYear(), month.getMonthValue()));
+        LogSegment.write(pending, rows);
+
+        try (EntityManager em = emf.createEntityManager())
+        {
+            EntityTransaction tx = em.getTransaction();
+            try
+            {
+                tx.begin();
+                List<Integer> ids = rows.stream().map(LogRecord::logId).toList();
+                for (int i = 0; i < ids.size(); i += DELETE_CHUNK)
+                {
+                    em.createQuery("DELETE FROM MaintenanceLog m WHERE m.logId IN :ids")
+                            .setParameter("ids", ids.subList(i, Math.min(i + DELETE_CHUNK, ids.size())))
+                            .executeUpdate();
+                }
+                tx.commit();
+            }
+            catch (RuntimeException e)
+            {
+                if (tx.isActive())
+                {
+                    tx.rollback();
+                }
+                Files.deleteIfExists(pending);
+                throw e;
+            }
+        }
+
+        // A crash before this rename is resolved by LogArchive.open
+        archive.add(LogSegment.open(archive.promote(pending)));
+        archivedRows.addAndGet(rows.size());
+        writtenSegments.incrementAndGet();
+        log.info("Archived {} logs from {}", rows.size(), month.toLocalDate());
+    }
+
+    private LocalDateTime oldestBefore(LocalDateTime cutoff)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return em.createQuery("SELECT MIN(m.performedDate) FROM MaintenanceLog m WHERE m.performedDate < :cutoff", LocalDateTime.class)
+                    .setParameter("cutoff", cutoff)
+                    .getSingleResult();
+        }
+    }
+
+    // Ids only, no entity or association loading
+    private List<LogRecord> load(LocalDateTime from, LocalDateTime to)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return em.createQuery("""
+                            SELECT m.logId, m.performedDate, m.status, m.taskType, m.comment, m.asset.assetId, m.performedBy.employeeId
+                            FROM MaintenanceLog m
+                            WHERE m.performedDate >= :from AND m.performedDate < :to
+                            ORDER BY m.performedDate, m.logId""", Tuple.class)
+                    .setParameter("from", from)
+                    .setParameter("to", to)
+                    .setMaxResults(segmentRows)
+                    .getResultList()
+                    .stream()
+                    .map(row -> new LogRecord(
+                            row.get(0, Integer.class),
+                            row.get(1, LocalDateTime.class),
+                            row.get(2, LogStatus.class),
+                            row.get(3, TaskType.class),
+                            row.get(4, String.class),
+                            row.get(5, Integer.class),
+                            row.get(6, Integer.class)))
+                    .toList();
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("afterDays", afterDays);
+        metrics.put("archivedRows", archivedRows.get());
+        metrics.put("writtenSegments", writtenSegments.get());
+        metrics.put("failures", failures.get());
+        metrics.put("skippedRuns", skippedRuns.get());
+        metrics.put("lastRun", lastRun != null ? lastRun.toString() : null);
+        metrics.put("lastError", lastError);
+        metrics.put("archive", archive.metrics());
+        return metrics;
+    }
+}
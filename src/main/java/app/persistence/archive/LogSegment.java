@@ -0,0 +1,458 @@
+package app.persistence.archive;
+
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.LogRecord;
+import app.utils.DateRange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+// An immutable, memory-mapped file of archived logs, stored column by column and sorted by performed date:
+//   header   magic, version, row count, min/max performed date (epoch micros), min/max log id
+//   columns  log ids (int), performed dates (varint deltas), status and task type (dictionary + one byte per row),
+//            asset ids (int), employee ids (int), comments (deflated block of length-prefixed UTF-8)
+//   trailer  CRC32 of everything before it
+// Each column is prefixed with its length in bytes. Filters are checked on the small columns first,
+// the comment block is only inflated when a row matches.
+public class LogSegment
+{
+    private static final int MAGIC = 0x4D4C5347; // "MLSG"
+    private static final short VERSION = 1;
+
+    private final Path file;
+    private final int rowCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final int minLogId;
+    private final int maxLogId;
+    private final ByteBuffer ids;
+    private final ByteBuffer dates;
+    private final LogStatus[] statusDictionary;
+    private final ByteBuffer statusCodes;
+    private final TaskType[] taskTypeDictionary;
+    private final ByteBuffer taskTypeCodes;
+    private final ByteBuffer assetIds;
+    private final ByteBuffer employeeIds;
+    private final ByteBuffer comments;
+    private final long sizeBytes;
+
+    private LogSegment(Path file, MappedByteBuffer buffer)
+    {
+        this.file = file;
+        this.sizeBytes = buffer.capacity();
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, buffer.capacity() - Long.BYTES));
+        if (crc.getValue() != buffer.getLong(buffer.capacity() - Long.BYTES))
+        {
+            throw new IllegalStateException("Segment " + file + " is corrupt: checksum mismatch");
+        }
+        if (buffer.getInt() != MAGIC || buffer.getShort() != VERSION)
+        {
+            throw new IllegalStateException("Segment " + file + " has an unknown format");
+        }
+
+        this.rowCount = buffer.getInt();
+        this.minMicros = buffer.getLong();
+        this.maxMicros = buffer.getLong();
+        this.minLogId = buffer.getInt();
+        this.maxLogId = buffer.getInt();
+        this.ids = nextBlock(buffer);
+        this.dates = nextBlock(buffer);
+        ByteBuffer status = nextBlock(buffer);
+        this.statusDictionary = readDictionary(status, LogStatus.class);
+        this.statusCodes = status.slice();
+        ByteBuffer taskType = nextBlock(buffer);
+        this.taskTypeDictionary = readDictionary(taskType, TaskType.class);
+        this.taskTypeCodes = taskType.slice();
+        this.assetIds = nextBlock(buffer);
+        this.employeeIds = nextBlock(buffer);
+        this.comments = nextBlock(buffer);
+    }
+
+    public static LogSegment open(Path file) throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            // The mapping stays valid after the channel is closed
+            return new LogSegment(file, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    // Writes and fsyncs the segment, rows don't need to be sorted
+    public static void write(Path file, List<LogRecord> rows) throws IOException
+    {
+        if (rows.isEmpty())
+        {
+            throw new IllegalArgumentException("A segment needs at least one row");
+        }
+        List<LogRecord> sorted = new ArrayList<>(rows);
+        sorted.sort(Comparator.comparing(LogRecord::performedDate).thenComparing(LogRecord::logId));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(sorted.size());
+        out.writeLong(toMicros(sorted.get(0).performedDate()));
+        out.writeLong(toMicros(sorted.get(sorted.size() - 1).performedDate()));
+        out.writeInt(sorted.stream().mapToInt(LogRecord::logId).min().orElseThrow());
+        out.writeInt(sorted.stream().mapToInt(LogRecord::logId).max().orElseThrow());
+
+        writeBlock(out, block -> sorted.forEach(row -> writeInt(block, row.logId())));
+
+        long first = toMicros(sorted.get(0).performedDate());
+        writeBlock(out, block ->
+        {
+            long previous = first;
+            for (LogRecord row : sorted)
+            {
+                long micros = toMicros(row.performedDate());
+                writeVarLong(block, micros - previous);
+                previous = micros;
+            }
+        });
+
+        writeBlock(out, block -> writeDictionaryColumn(block, sorted.stream().map(LogRecord::status).toList()));
+        writeBlock(out, block -> writeDictionaryColumn(block, sorted.stream().map(LogRecord::taskType).toList()));
+        writeBlock(out, block -> sorted.forEach(row -> writeInt(block, row.assetId())));
+        writeBlock(out, block -> sorted.forEach(row -> writeInt(block, row.employeeId())));
+
+        ByteArrayOutputStream rawComments = new ByteArrayOutputStream();
+        for (LogRecord row : sorted)
+        {
+            byte[] comment = row.comment().getBytes(StandardCharsets.UTF_8);
+            writeVarLong(rawComments, comment.length);
+            rawComments.writeBytes(comment);
+        }
+        writeBlock(out, block ->
+        {
+            writeInt(block, rawComments.size());
+            Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+            try (DeflaterOutputStream deflated = new DeflaterOutputStream(block, deflater))
+            {
+                rawComments.writeTo(deflated);
+            }
+            catch (IOException e)
+            {
+                throw new IllegalStateException(e);
+            }
+            finally
+            {
+                deflater.end();
+            }
+        });
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    public boolean overlaps(DateRange range)
+    {
+        if (range == null)
+        {
+            return true;
+        }
+        return (range.from() == null || toMicros(range.from()) <= maxMicros)
+                && (range.to() == null || toMicros(range.to()) > minMicros);
+    }
+
+    public List<LogRecord> scan(ArchiveFilter filter)
+    {
+        if (!overlaps(filter.range()))
+        {
+            return List.of();
+        }
+        int statusCode = filter.status() != null ? indexOf(statusDictionary, filter.status()) : -1;
+        int taskTypeCode = filter.taskType() != null ? indexOf(taskTypeDictionary, filter.taskType()) : -1;
+        if ((filter.status() != null && statusCode < 0) || (filter.taskType() != null && taskTypeCode < 0))
+        {
+            return List.of();
+        }
+
+        long fromMicros = filter.range() != null && filter.range().from() != null ? toMicros(filter.range().from()) : Long.MIN_VALUE;
+        long toMicros = filter.range() != null && filter.range().to() != null ? toMicros(filter.range().to()) : Long.MAX_VALUE;
+
+        List<Integer> rows = new ArrayList<>();
+        List<Long> rowMicros = new ArrayList<>();
+        ByteBuffer deltas = dates.duplicate();
+        long micros = minMicros;
+        for (int i = 0; i < rowCount; i++)
+        {
+            micros += readVarLong(deltas);
+            if (micros < fromMicros)
+            {
+                continue;
+            }
+            // Sorted by date, nothing after this matches
+            if (micros >= toMicros)
+            {
+                break;
+            }
+            if (statusCode >= 0 && statusCodes.get(i) != statusCode)
+            {
+                continue;
+            }
+            if (taskTypeCode >= 0 && taskTypeCodes.get(i) != taskTypeCode)
+            {
+                continue;
+            }
+            if (filter.assetId() != null && assetIds.getInt(i * Integer.BYTES) != filter.assetId())
+            {
+                continue;
+            }
+            if (filter.employeeId() != null && employeeIds.getInt(i * Integer.BYTES) != filter.employeeId())
+            {
+                continue;
+            }
+            rows.add(i);
+            rowMicros.add(micros);
+        }
+
+        if (rows.isEmpty())
+        {
+            return List.of();
+        }
+        String[] text = inflateComments();
+        List<LogRecord> result = new ArrayList<>(rows.size());
+        for (int j = 0; j < rows.size(); j++)
+        {
+            result.add(row(rows.get(j), rowMicros.get(j), text));
+        }
+        return result;
+    }
+
+    public LogRecord find(int logId)
+    {
+        if (logId < minLogId || logId > maxLogId)
+        {
+            return null;
+        }
+        for (int i = 0; i < rowCount; i++)
+        {
+            if (ids.getInt(i * Integer.BYTES) == logId)
+            {
+                ByteBuffer deltas = dates.duplicate();
+                long micros = minMicros;
+                for (int j = 0; j <= i; j++)
+                {
+                    micros += readVarLong(deltas);
+                }
+                return row(i, micros, inflateComments());
+            }
+        }
+        return null;
+    }
+
+    // Used to tell whether the rows of a pending segment were already deleted from Postgres
+    public int firstLogId()
+    {
+        return ids.getInt(0);
+    }
+
+    public Path getFile()
+    {
+        return file;
+    }
+
+    public int getRowCount()
+    {
+        return rowCount;
+    }
+
+    public long getSizeBytes()
+    {
+        return sizeBytes;
+    }
+
+    public LocalDateTime getMinDate()
+    {
+        return fromMicros(minMicros);
+    }
+
+    public LocalDateTime getMaxDate()
+    {
+        return fromMicros(maxMicros);
+    }
+
+    private LogRecord row(int i, long micros, String[] text)
+    {
+        return new LogRecord(
+                ids.getInt(i * Integer.BYTES),
+                fromMicros(micros),
+                statusDictionary[statusCodes.get(i)],
+                taskTypeDictionary[taskTypeCodes.get(i)],
+                text[i],
+                assetIds.getInt(i * Integer.BYTES),
+                employeeIds.getInt(i * Integer.BYTES));
+    }
+
+    private String[] inflateComments()
+    {
+        ByteBuffer block = comments.duplicate();
+        byte[] raw = new byte[block.getInt()];
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(block);
+            int length = 0;
+            while (length < raw.length && !inflater.finished())
+            {
+                length += inflater.inflate(raw, length, raw.length - length);
+            }
+        }
+        catch (DataFormatException e)
+        {
+            throw new IllegalStateException("Segment " + file + " has a corrupt comment block", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        String[] text = new String[rowCount];
+        for (int i = 0; i < rowCount; i++)
+        {
+            int length = (int) readVarLong(in);
+            text[i] = new String(raw, in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        }
+        return text;
+    }
+
+    private static ByteBuffer nextBlock(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        ByteBuffer block = buffer.slice(buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return block;
+    }
+
+    private static <E extends Enum<E>> void writeDictionaryColumn(ByteArrayOutputStream block, List<E> values)
+    {
+        // Codes index the dictionary, not the enum ordinal, so reordering an enum doesn't break old segments
+        List<E> dictionary = values.stream().distinct().toList();
+        block.write(dictionary.size());
+        for (E value : dictionary)
+        {
+            byte[] name = value.name().getBytes(StandardCharsets.UTF_8);
+            block.write(name.length);
+            block.writeBytes(name);
+        }
+        values.forEach(value -> block.write(dictionary.indexOf(value)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Enum<E>> E[] readDictionary(ByteBuffer block, Class<E> type)
+    {
+        int size = Byte.toUnsignedInt(block.get());
+        E[] dictionary = (E[]) Array.newInstance(type, size);
+        for (int i = 0; i < size; i++)
+        {
+            byte[] name = new byte[Byte.toUnsignedInt(block.get())];
+            block.get(name);
+            dictionary[i] = Enum.valueOf(type, new String(name, StandardCharsets.UTF_8));
+        }
+        return dictionary;
+    }
+
+    private static <E> int indexOf(E[] dictionary, E value)
+    {
+        for (int i = 0; i < dictionary.length; i++)
+        {
+            if (dictionary[i] == value)
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private interface BlockWriter
+    {
+        void write(ByteArrayOutputStream block);
+    }
+
+    private static void writeBlock(DataOutputStream out, BlockWriter writer) throws IOException
+    {
+        ByteArrayOutputStream block = new ByteArrayOutputStream();
+        writer.write(block);
+        out.writeInt(block.size());
+        block.writeTo(out);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value)
+    {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value)
+    {
+        while ((value & ~0x7FL) != 0)
+        {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in)
+    {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do
+        {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        }
+        while ((b & 0x80) != 0);
+        return value;
+    }
+
+    static long toMicros(LocalDateTime date)
+    {
+        return date.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + date.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros)
+    {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
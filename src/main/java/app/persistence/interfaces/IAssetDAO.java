@@ -2,6 +2,6 @@ package app.persistence.interfaces;
 
 import app.entities.Asset;
 
-public interface IAssetDAO extends ICreateDAO<Asset>, IReadDAO<Asset>, IAssetQueries
+public interface IAssetDAO extends IBulkCreateDAO<Asset>, IReadDAO<Asset>, IAssetQueries
 {
 }
\ No newline at end of file
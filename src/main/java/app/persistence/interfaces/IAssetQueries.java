@@ -2,11 +2,23 @@ package app.persistence.interfaces;
 
 import app.entities.Asset;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface IAssetQueries
 {
     Asset setActive(Integer id, boolean active);
 
     List<Asset> getAllByStatus(boolean active);
+
+    // "{version}-{newest log id}", changes with the asset and with its logs
+    String getChangeVersion(Integer id);
+
+    // Newest performedDate per asset id, assets without logs are absent
+    Map<Integer, LocalDateTime> getLastLogDates(Collection<Integer> ids);
+
+    // active is optional, fields are AssetDTO field names
+    List<Map<String, Object>> getProjected(List<String> fields, Boolean active);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package app.persistence.interfaces;
+
+import app.entities.Asset;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking counterpart of IAssetDAO. Failures complete the future with a DatabaseException.
+public interface IAsyncAssetDAO
+{
+    CompletableFuture<Asset> create(Asset asset);
+
+    // Without the logs, IAsyncMaintenanceLogDAO.getByAsset has them
+    CompletableFuture<Asset> get(Integer id);
+
+    CompletableFuture<List<Asset>> getAll();
+
+    CompletableFuture<List<Asset>> getAllByStatus(boolean active);
+
+    CompletableFuture<Asset> setActive(Integer id, boolean active);
+}
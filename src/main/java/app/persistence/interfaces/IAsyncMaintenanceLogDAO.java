@@ -0,0 +1,27 @@
+package app.persistence.interfaces;
+
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Non-blocking counterpart of IMaintenanceLogDAO for the request-path queries.
+// Logs come with their asset's and employee's id and names only. Failures complete the future with a DatabaseException.
+public interface IAsyncMaintenanceLogDAO
+{
+    CompletableFuture<MaintenanceLog> create(MaintenanceLog log);
+
+    CompletableFuture<MaintenanceLog> get(Integer id);
+
+    CompletableFuture<List<MaintenanceLog>> getByAsset(Integer assetId);
+
+    CompletableFuture<List<MaintenanceLog>> getByAssetAndTask(Integer assetId, TaskType taskType);
+
+    CompletableFuture<List<MaintenanceLog>> getByStatusAndAsset(LogStatus status, Integer assetId);
+
+    CompletableFuture<List<MaintenanceLog>> getByPerformedEmployee(Integer employeeId);
+
+    CompletableFuture<List<MaintenanceLog>> getLogsOnActiveAssets(int limit);
+}
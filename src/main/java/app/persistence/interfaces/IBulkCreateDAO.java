@@ -0,0 +1,43 @@
+package app.persistence.interfaces;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+// The defaults create one row at a time, the JPA DAOs override them with a StatelessSession that commits in chunks.
+// Rows in chunks committed before a failure stay created.
+public interface IBulkCreateDAO<T> extends ICreateDAO<T>
+{
+    default List<T> createAll(Collection<T> entities)
+    {
+        if (entities == null)
+        {
+            throw new IllegalArgumentException("Entities are required");
+        }
+
+        List<T> created = new ArrayList<>(entities.size());
+        for (T entity : entities)
+        {
+            created.add(create(entity));
+        }
+        return created;
+    }
+
+    // For imports that don't fit in memory, returns the number of rows created
+    default int createAll(Iterator<T> entities)
+    {
+        if (entities == null)
+        {
+            throw new IllegalArgumentException("Entities are required");
+        }
+
+        int created = 0;
+        while (entities.hasNext())
+        {
+            create(entities.next());
+            created++;
+        }
+        return created;
+    }
+}
@@ -2,6 +2,6 @@ package app.persistence.interfaces;
 
 import app.entities.Employee;
 
-public interface IEmployeeDAO extends IReadDAO<Employee>, IUpdateDAO<Employee>, IEmployeeQueries, ISecurityDAO
+public interface IEmployeeDAO extends IBulkCreateDAO<Employee>, IReadDAO<Employee>, IUpdateDAO<Employee>, IEmployeeQueries, ISecurityDAO
 {
 }
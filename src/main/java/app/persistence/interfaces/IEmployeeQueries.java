@@ -3,9 +3,13 @@ package app.persistence.interfaces;
 import app.entities.Employee;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IEmployeeQueries
 {
     List<Employee> getInactiveEmployees(int limit);
     List<Employee> getActiveEmployees(int limit);
+    long getVersion(Integer id);
+    // active and limit are optional, fields are EmployeeDTO field names
+    List<Map<String, Object>> getProjected(List<String> fields, Boolean active, Integer limit);
 }
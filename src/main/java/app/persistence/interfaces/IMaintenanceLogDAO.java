@@ -2,6 +2,6 @@ package app.persistence.interfaces;
 
 import app.entities.MaintenanceLog;
 
-public interface IMaintenanceLogDAO extends ICreateDAO<MaintenanceLog>, IReadDAO<MaintenanceLog>, IMaintenanceLogQueries
+public interface IMaintenanceLogDAO extends IBulkCreateDAO<MaintenanceLog>, IReadDAO<MaintenanceLog>, IMaintenanceLogQueries
 {
 }
@@ -0,0 +1,16 @@
+package app.persistence.interfaces;
+
+import app.dtos.MaintenanceLogDTO;
+import app.entities.enums.LogStatus;
+
+import java.util.List;
+
+// The hottest IMaintenanceLogQueries lookups, answered straight as DTOs without loading entities
+public interface IMaintenanceLogDTOQueries
+{
+    List<MaintenanceLogDTO> getByAsset(Integer assetId);
+
+    List<MaintenanceLogDTO> getByStatusAndAsset(LogStatus status, Integer assetId);
+
+    List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit);
+}
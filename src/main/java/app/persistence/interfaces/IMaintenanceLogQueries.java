@@ -3,8 +3,10 @@ package app.persistence.interfaces;
 import app.entities.enums.LogStatus;
 import app.entities.enums.TaskType;
 import app.entities.MaintenanceLog;
+import app.utils.DateRange;
 
 import java.util.List;
+import java.util.Map;
 
 public interface IMaintenanceLogQueries
 {
@@ -19,4 +21,13 @@ public interface IMaintenanceLogQueries
     List<MaintenanceLog> getByPerformedEmployee(Integer employeeId);
 
     List<MaintenanceLog> getLogsOnActiveAssets(int limit);
+
+    // Only scans the monthly partitions the range overlaps
+    List<MaintenanceLog> getLogsOnActiveAssets(int limit, DateRange range);
+
+    // Range is required, the filters are optional. Newest first.
+    List<MaintenanceLog> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType);
+
+    // Filters and range are optional, fields are MaintenanceLogDTO field names
+    List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range);
 }
@@ -1,5 +1,6 @@
 package app.persistence.interfaces;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface IReadDAO<T>
@@ -7,5 +8,8 @@ public interface IReadDAO<T>
     T get(Integer id);
 
     List<T> getAll();
+
+    // One IN query, in no particular order. Ids that don't exist are simply absent.
+    List<T> getAll(Collection<Integer> ids);
 }
 
@@ -0,0 +1,73 @@
+package app.persistence.logstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Memory-mapped array of (key, record address) entries, only appended to by the store's writer thread.
+// The file is grown in steps and may be longer than the entries in it; the number of valid entries
+// is kept in the store's checkpoint, anything after it is rebuilt from the segments on open.
+class MappedIndexFile implements Closeable
+{
+    private static final int ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int INITIAL_ENTRIES = 64 * 1024;
+
+    interface EntryConsumer
+    {
+        void accept(int key, long address);
+    }
+
+    private final FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int count;
+
+    MappedIndexFile(Path file, int validEntries) throws IOException
+    {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long capacity = Math.max(channel.size(), (long) Math.max(INITIAL_ENTRIES, validEntries) * ENTRY_BYTES);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        this.count = Math.min(validEntries, (int) (channel.size() / ENTRY_BYTES));
+    }
+
+    void append(int key, long address) throws IOException
+    {
+        int offset = count * ENTRY_BYTES;
+        if (offset + ENTRY_BYTES > buffer.capacity())
+        {
+            buffer.force();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) buffer.capacity() * 2);
+        }
+        buffer.putInt(offset, key);
+        buffer.putLong(offset + Integer.BYTES, address);
+        count++;
+    }
+
+    void forEach(EntryConsumer consumer)
+    {
+        for (int i = 0; i < count; i++)
+        {
+            int offset = i * ENTRY_BYTES;
+            consumer.accept(buffer.getInt(offset), buffer.getLong(offset + Integer.BYTES));
+        }
+    }
+
+    int count()
+    {
+        return count;
+    }
+
+    void force()
+    {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        buffer.force();
+        channel.close();
+    }
+}
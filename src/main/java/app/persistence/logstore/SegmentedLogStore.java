@@ -0,0 +1,675 @@
+package app.persistence.logstore;
+
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.LogRecord;
+import app.utils.EnvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+// Append-only storage for maintenance logs. Records go to numbered segment files, each framed as
+// [payload length][CRC32][payload]. A single writer thread drains the queue of pending appends, writes them
+// in one go and fsyncs once for the whole group before any caller returns.
+//
+// Lookups by id, asset and employee use in-memory maps, backed by memory-mapped index files so a restart doesn't
+// have to read every segment. A checkpoint records how far the index files are complete. On open, everything
+// after the checkpoint is replayed from the segments, and a torn record at the tail (crash mid-write) is cut off.
+public class SegmentedLogStore implements Closeable
+{
+    private static final Logger log = LoggerFactory.getLogger(SegmentedLogStore.class);
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES * 2;
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxBatch;
+    private final int checkpointEvery;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final Map<Integer, Long> byId = new ConcurrentHashMap<>();
+    private final Map<Integer, AddressList> byAsset = new ConcurrentHashMap<>();
+    private final Map<Integer, AddressList> byEmployee = new ConcurrentHashMap<>();
+    private final AtomicInteger maxId = new AtomicInteger();
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final MappedIndexFile idIndex;
+    private final MappedIndexFile assetIndex;
+    private final MappedIndexFile employeeIndex;
+    private final Thread writer;
+    private final AtomicLong appended = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong recovered = new AtomicLong();
+    private final AtomicLong truncatedBytes = new AtomicLong();
+    private volatile boolean running = true;
+    private int sinceCheckpoint;
+
+    private SegmentedLogStore(Path directory) throws IOException
+    {
+        this.directory = directory;
+        this.segmentBytes = EnvReader.getLong("LOG_STORE_SEGMENT_BYTES", 64L * 1024 * 1024);
+        this.maxBatch = EnvReader.getInt("LOG_STORE_MAX_BATCH", 1024);
+        this.checkpointEvery = EnvReader.getInt("LOG_STORE_CHECKPOINT_RECORDS", 10_000);
+
+        Files.createDirectories(directory);
+        Checkpoint checkpoint = readCheckpoint();
+        this.idIndex = new MappedIndexFile(directory.resolve("id.idx"), checkpoint.idEntries);
+        this.assetIndex = new MappedIndexFile(directory.resolve("asset.idx"), checkpoint.assetEntries);
+        this.employeeIndex = new MappedIndexFile(directory.resolve("employee.idx"), checkpoint.employeeEntries);
+
+        idIndex.forEach((logId, address) ->
+        {
+            byId.put(logId, address);
+            maxId.accumulateAndGet(logId, Math::max);
+        });
+        assetIndex.forEach((assetId, address) -> byAsset.computeIfAbsent(assetId, id -> new AddressList()).add(address));
+        employeeIndex.forEach((employeeId, address) -> byEmployee.computeIfAbsent(employeeId, id -> new AddressList()).add(address));
+
+        openSegments();
+        replayAfter(checkpoint.address);
+        writeCheckpoint();
+
+        this.writer = new Thread(this::writeLoop, "log-store-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static SegmentedLogStore open(Path directory)
+    {
+        try
+        {
+            return new SegmentedLogStore(directory);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException("Could not open log store " + directory, e);
+        }
+    }
+
+    public int nextId()
+    {
+        return maxId.incrementAndGet();
+    }
+
+    // Returns once the record is fsynced. Ids are unique, an id that is already stored gives CONSTRAINT_VIOLATION.
+    public void append(LogRecord record)
+    {
+        if (!running)
+        {
+            throw new DatabaseException("Log store is closed", DatabaseErrorType.CONNECTION_FAILURE);
+        }
+        maxId.accumulateAndGet(record.logId(), Math::max);
+        PendingAppend pending = new PendingAppend(record, encode(record));
+        queue.add(pending);
+        try
+        {
+            pending.done.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    public LogRecord get(int logId)
+    {
+        Long address = byId.get(logId);
+        return address != null ? read(address) : null;
+    }
+
+    public List<LogRecord> getByAsset(int assetId)
+    {
+        return readAll(byAsset.get(assetId));
+    }
+
+    public List<LogRecord> getByEmployee(int employeeId)
+    {
+        return readAll(byEmployee.get(employeeId));
+    }
+
+    // Sequential read of every committed record
+    public List<LogRecord> scan(Predicate<LogRecord> filter)
+    {
+        List<LogRecord> result = new ArrayList<>();
+        List<Segment> current = List.copyOf(segments);
+        for (Segment segment : current)
+        {
+            long committed = segment.committed;
+            if (committed == 0)
+            {
+                continue;
+            }
+            try
+            {
+                // Only the last segment still grows, every other one is sealed and mapped once
+                ByteBuffer buffer = segment.number < current.size() - 1
+                        ? segment.sealedMapping()
+                        : segment.channel.map(FileChannel.MapMode.READ_ONLY, 0, committed);
+                while (buffer.remaining() >= FRAME_HEADER_BYTES)
+                {
+                    int length = buffer.getInt();
+                    buffer.getInt();
+                    byte[] payload = new byte[length];
+                    buffer.get(payload);
+                    LogRecord record = decode(payload);
+                    if (filter.test(record))
+                    {
+                        result.add(record);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    private List<LogRecord> readAll(AddressList addresses)
+    {
+        if (addresses == null)
+        {
+            return List.of();
+        }
+        List<LogRecord> records = new ArrayList<>();
+        for (long address : addresses.snapshot())
+        {
+            records.add(read(address));
+        }
+        return records;
+    }
+
+    private LogRecord read(long address)
+    {
+        Segment segment = segments.get((int) (address >>> 32));
+        long position = address & 0xFFFFFFFFL;
+        try
+        {
+            ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+            readFully(segment.channel, header, position);
+            ByteBuffer payload = ByteBuffer.allocate(header.getInt(0));
+            readFully(segment.channel, payload, position + FRAME_HEADER_BYTES);
+            return decode(payload.array());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLoop()
+    {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (running || !queue.isEmpty())
+        {
+            try
+            {
+                PendingAppend first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                {
+                    continue;
+                }
+                batch.add(first);
+                // Everything that queued up during the previous fsync shares the next one
+                queue.drainTo(batch, maxBatch - 1);
+                writeBatch(batch);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            finally
+            {
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingAppend> batch)
+    {
+        List<PendingAppend> accepted = new ArrayList<>();
+        Set<Integer> batchIds = new HashSet<>();
+        for (PendingAppend pending : batch)
+        {
+            if (byId.containsKey(pending.record.logId()) || !batchIds.add(pending.record.logId()))
+            {
+                pending.done.completeExceptionally(new DatabaseException("Log " + pending.record.logId() + " already exists", DatabaseErrorType.CONSTRAINT_VIOLATION));
+            }
+            else
+            {
+                accepted.add(pending);
+            }
+        }
+        if (accepted.isEmpty())
+        {
+            return;
+        }
+
+        Segment segment = segments.get(segments.size() - 1);
+        long start = segment.committed;
+        try
+        {
+            long batchBytes = accepted.stream().mapToLong(pending -> pending.frame.length).sum();
+            if (start > 0 && start + batchBytes > segmentBytes)
+            {
+                segment = rollSegment();
+                start = 0;
+            }
+
+            long position = start;
+            for (PendingAppend pending : accepted)
+            {
+                pending.address = ((long) segment.number << 32) | position;
+                writeFully(segment.channel, ByteBuffer.wrap(pending.frame), position);
+                position += pending.frame.length;
+            }
+            segment.channel.force(false);
+            segment.committed = position;
+
+            for (PendingAppend pending : accepted)
+            {
+                index(pending.record, pending.address);
+            }
+            batches.incrementAndGet();
+            appended.addAndGet(accepted.size());
+
+            sinceCheckpoint += accepted.size();
+            if (sinceCheckpoint >= checkpointEvery)
+            {
+                writeCheckpoint();
+            }
+            accepted.forEach(pending -> pending.done.complete(null));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Nothing of a failed group may survive, a caller was told it wasn't stored
+            try
+            {
+                segment.channel.truncate(start);
+            }
+            catch (IOException truncateFailure)
+            {
+                e.addSuppressed(truncateFailure);
+            }
+            log.error("Log store write failed", e);
+            DatabaseException failure = new DatabaseException("Create log failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
+            accepted.forEach(pending -> pending.done.completeExceptionally(failure));
+        }
+    }
+
+    private void index(LogRecord record, long address) throws IOException
+    {
+        byId.put(record.logId(), address);
+        byAsset.computeIfAbsent(record.assetId(), id -> new AddressList()).add(address);
+        byEmployee.computeIfAbsent(record.employeeId(), id -> new AddressList()).add(address);
+        idIndex.append(record.logId(), address);
+        assetIndex.append(record.assetId(), address);
+        employeeIndex.append(record.employeeId(), address);
+    }
+
+    private void openSegments() throws IOException
+    {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory))
+        {
+            files = list.filter(file -> file.getFileName().toString().matches("segment-\\d+\\.log")).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++)
+        {
+            FileChannel channel = FileChannel.open(files.get(i), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.add(new Segment(i, channel, channel.size()));
+        }
+        if (segments.isEmpty())
+        {
+            rollSegment();
+        }
+    }
+
+    private Segment rollSegment() throws IOException
+    {
+        int number = segments.size();
+        Path file = directory.resolve(String.format("segment-%010d.log", number));
+        Segment segment = new Segment(number, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE), 0);
+        segments.add(segment);
+        return segment;
+    }
+
+    // Indexes every record after the checkpoint. A bad frame can only be the torn tail of the last segment,
+    // anywhere else it means the file was damaged.
+    private void replayAfter(long checkpointAddress) throws IOException
+    {
+        int fromSegment = (int) (checkpointAddress >>> 32);
+        for (int i = fromSegment; i < segments.size(); i++)
+        {
+            Segment segment = segments.get(i);
+            long position = i == fromSegment ? checkpointAddress & 0xFFFFFFFFL : 0;
+            long size = segment.channel.size();
+            while (position < size)
+            {
+                LogRecord record = readFrame(segment.channel, position, size);
+                if (record == null)
+                {
+                    if (i != segments.size() - 1)
+                    {
+                        throw new IllegalStateException("Log store segment " + segment.number + " is corrupt at " + position);
+                    }
+                    log.warn("Truncating torn record at the tail of log store segment {}: {} bytes", segment.number, size - position);
+                    truncatedBytes.addAndGet(size - position);
+                    segment.channel.truncate(position);
+                    segment.channel.force(true);
+                    break;
+                }
+                long address = ((long) segment.number << 32) | position;
+                if (!byId.containsKey(record.logId()))
+                {
+                    index(record, address);
+                    maxId.accumulateAndGet(record.logId(), Math::max);
+                    recovered.incrementAndGet();
+                }
+                position += FRAME_HEADER_BYTES + encodedLength(segment.channel, position);
+            }
+            segment.committed = Math.min(position, segment.channel.size());
+        }
+    }
+
+    // Null when the frame is incomplete or its checksum doesn't match
+    private static LogRecord readFrame(FileChannel channel, long position, long size) throws IOException
+    {
+        if (size - position < FRAME_HEADER_BYTES)
+        {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER_BYTES);
+        readFully(channel, header, position);
+        int length = header.getInt(0);
+        if (length <= 0 || size - position - FRAME_HEADER_BYTES < length)
+        {
+            return null;
+        }
+        ByteBuffer payload = ByteBuffer.allocate(length);
+        readFully(channel, payload, position + FRAME_HEADER_BYTES);
+        CRC32 crc = new CRC32();
+        crc.update(payload.array());
+        if ((int) crc.getValue() != header.getInt(Integer.BYTES))
+        {
+            return null;
+        }
+        return decode(payload.array());
+    }
+
+    private static int encodedLength(FileChannel channel, long position) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES);
+        readFully(channel, header, position);
+        return header.getInt(0);
+    }
+
+    private static byte[] encode(LogRecord record)
+    {
+        try
+        {
+            ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(128);
+            DataOutputStream payload = new DataOutputStream(payloadBytes);
+            payload.writeInt(record.logId());
+            payload.writeLong(record.performedDate().toEpochSecond(ZoneOffset.UTC));
+            payload.writeInt(record.performedDate().getNano());
+            payload.writeUTF(record.status().name());
+            payload.writeUTF(record.taskType().name());
+            payload.writeInt(record.assetId());
+            payload.writeInt(record.employeeId());
+            payload.writeUTF(record.comment());
+
+            byte[] bytes = payloadBytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(bytes);
+            return ByteBuffer.allocate(FRAME_HEADER_BYTES + bytes.length)
+                    .putInt(bytes.length)
+                    .putInt((int) crc.getValue())
+                    .put(bytes)
+                    .array();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LogRecord decode(byte[] bytes)
+    {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes)))
+        {
+            int logId = in.readInt();
+            LocalDateTime performedDate = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            LogStatus status = LogStatus.valueOf(in.readUTF());
+            TaskType taskType = TaskType.valueOf(in.readUTF());
+            int assetId = in.readInt();
+            int employeeId = in.readInt();
+            return new LogRecord(logId, performedDate, status, taskType, in.readUTF(), assetId, employeeId);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+            {
+                throw new IOException("Unexpected end of segment");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    // The index files are forced before the checkpoint names them complete
+    private void writeCheckpoint() throws IOException
+    {
+        idIndex.force();
+        assetIndex.force();
+        employeeIndex.force();
+
+        Segment last = segments.get(segments.size() - 1);
+        ByteBuffer content = ByteBuffer.allocate(Long.BYTES + Integer.BYTES * 3 + Long.BYTES)
+                .putLong(((long) last.number << 32) | last.committed)
+                .putInt(idIndex.count())
+                .putInt(assetIndex.count())
+                .putInt(employeeIndex.count());
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), 0, content.position());
+        content.putLong(crc.getValue());
+
+        Path temp = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            writeFully(channel, content.flip(), 0);
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(CHECKPOINT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        sinceCheckpoint = 0;
+    }
+
+    // A missing or damaged checkpoint means replaying everything
+    private Checkpoint readCheckpoint() throws IOException
+    {
+        Path file = directory.resolve(CHECKPOINT);
+        if (!Files.exists(file))
+        {
+            return new Checkpoint(0, 0, 0, 0);
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (content.capacity() != Long.BYTES + Integer.BYTES * 3 + Long.BYTES)
+        {
+            return new Checkpoint(0, 0, 0, 0);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(content.array(), 0, content.capacity() - Long.BYTES);
+        if (crc.getValue() != content.getLong(content.capacity() - Long.BYTES))
+        {
+            log.warn("Log store checkpoint is damaged, rebuilding the indexes from the segments");
+            return new Checkpoint(0, 0, 0, 0);
+        }
+        return new Checkpoint(content.getLong(), content.getInt(), content.getInt(), content.getInt());
+    }
+
+    @Override
+    public void close()
+    {
+        running = false;
+        try
+        {
+            writer.join(5_000);
+            // Appends that raced with close never reached the writer
+            PendingAppend leftover;
+            while ((leftover = queue.poll()) != null)
+            {
+                leftover.done.completeExceptionally(new DatabaseException("Log store is closed", DatabaseErrorType.CONNECTION_FAILURE));
+            }
+            writeCheckpoint();
+            idIndex.close();
+            assetIndex.close();
+            employeeIndex.close();
+            for (Segment segment : segments)
+            {
+                segment.channel.close();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        long batchCount = batches.get();
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("records", byId.size());
+        metrics.put("segments", segments.size());
+        metrics.put("appended", appended.get());
+        metrics.put("fsyncs", batchCount);
+        metrics.put("averageGroupSize", batchCount == 0 ? 0 : (double) appended.get() / batchCount);
+        metrics.put("queued", queue.size());
+        metrics.put("recoveredOnOpen", recovered.get());
+        metrics.put("truncatedBytesOnOpen", truncatedBytes.get());
+        return metrics;
+    }
+
+    private record Checkpoint(long address, int idEntries, int assetEntries, int employeeEntries)
+    {
+    }
+
+    private static final class Segment
+    {
+        private final int number;
+        private final FileChannel channel;
+        // Bytes that are fsynced and indexed, readers never look past this
+        private volatile long committed;
+        private MappedByteBuffer mapping;
+
+        private Segment(int number, FileChannel channel, long committed)
+        {
+            this.number = number;
+            this.channel = channel;
+            this.committed = committed;
+        }
+
+        // Each scan gets its own position on the shared mapping
+        private synchronized ByteBuffer sealedMapping() throws IOException
+        {
+            if (mapping == null)
+            {
+                mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, committed);
+            }
+            return mapping.duplicate();
+        }
+    }
+
+    private static final class PendingAppend
+    {
+        private final LogRecord record;
+        private final byte[] frame;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long address;
+
+        private PendingAppend(LogRecord record, byte[] frame)
+        {
+            this.record = record;
+            this.frame = frame;
+        }
+    }
+
+    private static final class AddressList
+    {
+        private long[] addresses = new long[4];
+        private int size;
+
+        private synchronized void add(long address)
+        {
+            if (size == addresses.length)
+            {
+                addresses = Arrays.copyOf(addresses, size * 2);
+            }
+            addresses[size++] = address;
+        }
+
+        private synchronized long[] snapshot()
+        {
+            return Arrays.copyOf(addresses, size);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package app.persistence.logstore;
+
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.LogRecord;
+import app.persistence.LogRecordResolver;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.interfaces.IReadDAO;
+import app.utils.DateRange;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+// IMaintenanceLogDAO on top of a SegmentedLogStore, with the same validation and errors as MaintenanceLogDAO.
+// Asset and employee lookups use the indexes, everything else is a scan over the segments.
+public class SegmentedMaintenanceLogDAO implements IMaintenanceLogDAO
+{
+    private static final Comparator<MaintenanceLog> NEWEST_FIRST = Comparator.comparing(MaintenanceLog::getPerformedDate).reversed();
+
+    private final SegmentedLogStore store;
+    private final LogRecordResolver resolver;
+
+    public SegmentedMaintenanceLogDAO(SegmentedLogStore store, IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao)
+    {
+        this.store = store;
+        this.resolver = new LogRecordResolver(assetDao, employeeDao);
+    }
+
+    // A log that already has an id (an import from Postgres) keeps it
+    @Override
+    public MaintenanceLog create(MaintenanceLog log)
+    {
+        if (log == null)
+        {
+            throw new IllegalArgumentException("Log cant be null");
+        }
+
+        int logId = log.getLogId() != null ? log.getLogId() : store.nextId();
+        try
+        {
+            store.append(new LogRecord(logId, log.getPerformedDate(), log.getStatus(), log.getTaskType(), log.getComment(),
+                    log.getAsset().getAssetId(), log.getPerformedBy().getEmployeeId()));
+        }
+        catch (UncheckedIOException | NullPointerException e)
+        {
+            throw new DatabaseException("Create log failed", DatabaseErrorType.TRANSACTION_FAILURE, e);
+        }
+
+        return MaintenanceLog.builder()
+                .logId(logId)
+                .performedDate(log.getPerformedDate())
+                .status(log.getStatus())
+                .taskType(log.getTaskType())
+                .comment(log.getComment())
+                .asset(log.getAsset())
+                .performedBy(log.getPerformedBy())
+                .build();
+    }
+
+    @Override
+    public MaintenanceLog get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Log id is required");
+        }
+
+        List<MaintenanceLog> logs = read("Get log failed", () ->
+        {
+            LogRecord record = store.get(id);
+            return record != null ? List.of(record) : List.of();
+        });
+        if (logs.isEmpty())
+        {
+            throw new DatabaseException("Log not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return logs.get(0);
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll()
+    {
+        return read("Get logs failed", () -> store.scan(record -> true));
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Log ids are required");
+        }
+
+        return read("Get logs by ids failed", () -> ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(store::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    public MaintenanceLog update(MaintenanceLog maintenanceLog)
+    {
+        throw new UnsupportedOperationException("Maintenance logs are immutable");
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAsset(Integer assetId)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return read("Get logs by asset failed", () -> store.getByAsset(assetId));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+        if (taskType == null)
+        {
+            throw new IllegalArgumentException("Task type is required");
+        }
+
+        return read("Get logs by asset and task failed", () -> store.getByAsset(assetId).stream()
+                .filter(record -> record.taskType() == taskType)
+                .toList());
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatus(LogStatus status)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+
+        return read("Get logs by status failed", () -> store.scan(record -> record.status() == status));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return read("Get logs by status and asset failed", () -> store.getByAsset(assetId).stream()
+                .filter(record -> record.status() == status)
+                .toList());
+    }
+
+    @Override
+    public List<MaintenanceLog> getByPerformedEmployee(Integer employeeId)
+    {
+        if (employeeId == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        return read("Get logs by performed employee failed", () -> store.getByEmployee(employeeId));
+    }
+
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit)
+    {
+        return getLogsOnActiveAssets(limit, null);
+    }
+
+    // Whether an asset is active lives in Postgres, so the limit is applied after resolving
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return read("Get logs on active assets failed", () -> store.scan(inRange(range))).stream()
+                .filter(log -> log.getAsset().isActive())
+                .sorted(Comparator.comparing((MaintenanceLog log) -> log.getAsset().getAssetId()).reversed()
+                        .thenComparing(NEWEST_FIRST))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<MaintenanceLog> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        if (range == null)
+        {
+            throw new IllegalArgumentException("Date range is required");
+        }
+
+        return read("Get logs by date range failed", () -> store.scan(matching(range, assetId, status, taskType))).stream()
+                .sorted(NEWEST_FIRST)
+                .toList();
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        return read("Get projected logs failed", () -> store.scan(matching(range, assetId, status, taskType))).stream()
+                .map(log -> MaintenanceLogMapper.toFields(log, fields))
+                .toList();
+    }
+
+    private List<MaintenanceLog> read(String failure, Supplier<List<LogRecord>> records)
+    {
+        try
+        {
+            return resolver.resolve(records.get());
+        }
+        catch (UncheckedIOException e)
+        {
+            throw new DatabaseException(failure, DatabaseErrorType.QUERY_FAILURE, e);
+        }
+    }
+
+    private static Predicate<LogRecord> matching(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        return inRange(range).and(record -> (assetId == null || record.assetId() == assetId)
+                && (status == null || record.status() == status)
+                && (taskType == null || record.taskType() == taskType));
+    }
+
+    private static Predicate<LogRecord> inRange(DateRange range)
+    {
+        return record -> range == null || range.contains(record.performedDate());
+    }
+}
@@ -0,0 +1,231 @@
+package app.persistence.memory;
+
+import app.entities.Asset;
+import app.entities.MaintenanceLog;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.LogRecord;
+import app.persistence.interfaces.IAssetDAO;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+public class InMemoryAssetDAO implements IAssetDAO
+{
+    // Same fields as AssetDAO's projection, lastLogDate comes back null
+    private static final Map<String, Function<Asset, Object>> FIELDS = Map.of(
+            "id", Asset::getAssetId,
+            "name", Asset::getName,
+            "description", Asset::getDescription,
+            "active", Asset::isActive
+    );
+    private static final Comparator<Asset> NEWEST_FIRST = Comparator.comparing(Asset::getAssetId).reversed();
+
+    private final InMemoryDatabase db;
+
+    public InMemoryAssetDAO(InMemoryDatabase db)
+    {
+        this.db = db;
+    }
+
+    @Override
+    public Asset create(Asset asset)
+    {
+        if (asset == null)
+        {
+            throw new IllegalArgumentException("Asset cant be null");
+        }
+        if (asset.getName() == null || asset.getDescription() == null)
+        {
+            throw new DatabaseException("Create Asset failed", DatabaseErrorType.TRANSACTION_FAILURE);
+        }
+
+        synchronized (db.assets)
+        {
+            int id = InMemoryDatabase.claimId(db.assetIds, asset.getAssetId());
+            if (db.assets.containsKey(id))
+            {
+                throw new DatabaseException("Create Asset failed", DatabaseErrorType.CONSTRAINT_VIOLATION);
+            }
+            Asset stored = Asset.builder()
+                    .assetId(id)
+                    .name(asset.getName())
+                    .description(asset.getDescription())
+                    .active(asset.isActive())
+                    .version(asset.getVersion() != null ? asset.getVersion() : 0L)
+                    .build();
+            db.assets.put(id, stored);
+            return InMemoryDatabase.copy(stored);
+        }
+    }
+
+    // With the logs, newest first, like the fetch join in AssetDAO
+    @Override
+    public Asset get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        Asset asset = InMemoryDatabase.copy(find(id));
+        logsOf(id).stream()
+                .map(db::toLog)
+                .sorted(Comparator.comparing(MaintenanceLog::getPerformedDate).reversed())
+                .forEach(asset.getLogs()::add);
+        return asset;
+    }
+
+    @Override
+    public List<Asset> getAll()
+    {
+        return db.assets.values().stream()
+                .sorted(NEWEST_FIRST)
+                .map(InMemoryDatabase::copy)
+                .toList();
+    }
+
+    @Override
+    public List<Asset> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Asset ids are required");
+        }
+
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(db.assets::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryDatabase::copy)
+                .toList();
+    }
+
+    @Override
+    public Map<Integer, LocalDateTime> getLastLogDates(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Asset ids are required");
+        }
+
+        Map<Integer, LocalDateTime> lastLogDates = new HashMap<>();
+        for (Integer id : ids)
+        {
+            if (id == null)
+            {
+                continue;
+            }
+            logsOf(id).stream()
+                    .map(LogRecord::performedDate)
+                    .max(Comparator.naturalOrder())
+                    .ifPresent(date -> lastLogDates.put(id, date));
+        }
+        return lastLogDates;
+    }
+
+    public Asset update(Asset asset)
+    {
+        throw new UnsupportedOperationException("Assets are immutable");
+    }
+
+    // The version only moves when the flag actually changes, as with Hibernate's dirty checking
+    @Override
+    public Asset setActive(Integer id, boolean active)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        synchronized (db.assets)
+        {
+            Asset stored = find(id);
+            if (stored.isActive() != active)
+            {
+                stored = Asset.builder()
+                        .assetId(stored.getAssetId())
+                        .name(stored.getName())
+                        .description(stored.getDescription())
+                        .active(active)
+                        .version(stored.getVersion() + 1)
+                        .build();
+                db.assets.put(id, stored);
+            }
+            return InMemoryDatabase.copy(stored);
+        }
+    }
+
+    @Override
+    public List<Asset> getAllByStatus(boolean active)
+    {
+        return db.assets.values().stream()
+                .filter(asset -> asset.isActive() == active)
+                .sorted(NEWEST_FIRST)
+                .map(InMemoryDatabase::copy)
+                .toList();
+    }
+
+    @Override
+    public String getChangeVersion(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        long newestLogId = logsOf(id).stream().mapToLong(LogRecord::logId).max().orElse(0);
+        return find(id).getVersion() + "-" + newestLogId;
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Boolean active)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        return db.assets.values().stream()
+                .filter(asset -> active == null || asset.isActive() == active)
+                .sorted(NEWEST_FIRST)
+                .map(asset ->
+                {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (String field : fields)
+                    {
+                        Function<Asset, Object> getter = FIELDS.get(field);
+                        values.put(field, getter != null ? getter.apply(asset) : null);
+                    }
+                    return values;
+                })
+                .toList();
+    }
+
+    private Asset find(int id)
+    {
+        Asset asset = db.assets.get(id);
+        if (asset == null)
+        {
+            throw new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return asset;
+    }
+
+    private List<LogRecord> logsOf(int assetId)
+    {
+        return db.logsByAsset.getOrDefault(assetId, Set.of()).stream()
+                .map(db.logs::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,110 @@
+package app.persistence.memory;
+
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.LogRecord;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The tables behind the in-memory DAOs, shared by them the way the EntityManagerFactory is shared by the JPA DAOs.
+// Rows are private copies, the DAOs copy on the way in and out so callers can't change stored state.
+// Reads are lock-free. Writes to a table are serialized on the table, so a row and its indexes change together.
+public class InMemoryDatabase
+{
+    final Map<Integer, Asset> assets = new ConcurrentHashMap<>();
+    final Map<Integer, Employee> employees = new ConcurrentHashMap<>();
+    final Map<String, Integer> employeeIdsByEmail = new ConcurrentHashMap<>();
+    final Map<Integer, LogRecord> logs = new ConcurrentHashMap<>();
+
+    // Log ids per asset, employee, status and task type
+    final Map<Integer, Set<Integer>> logsByAsset = new ConcurrentHashMap<>();
+    final Map<Integer, Set<Integer>> logsByEmployee = new ConcurrentHashMap<>();
+    final Map<LogStatus, Set<Integer>> logsByStatus = enumIndex(LogStatus.class);
+    final Map<TaskType, Set<Integer>> logsByTaskType = enumIndex(TaskType.class);
+
+    final AtomicInteger assetIds = new AtomicInteger();
+    final AtomicInteger employeeIds = new AtomicInteger();
+    final AtomicInteger logIds = new AtomicInteger();
+
+    // Fixed keys, so the maps themselves are never written after construction
+    private static <E extends Enum<E>> Map<E, Set<Integer>> enumIndex(Class<E> type)
+    {
+        Map<E, Set<Integer>> index = new EnumMap<>(type);
+        for (E value : type.getEnumConstants())
+        {
+            index.put(value, ConcurrentHashMap.newKeySet());
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    // Rows created with an id keep it, later generated ids continue after the highest one
+    static int claimId(AtomicInteger sequence, Integer presetId)
+    {
+        if (presetId == null)
+        {
+            return sequence.incrementAndGet();
+        }
+        sequence.accumulateAndGet(presetId, Math::max);
+        return presetId;
+    }
+
+    static Asset copy(Asset asset)
+    {
+        return Asset.builder()
+                .assetId(asset.getAssetId())
+                .name(asset.getName())
+                .description(asset.getDescription())
+                .active(asset.isActive())
+                .version(asset.getVersion())
+                .logs(new ArrayList<>())
+                .build();
+    }
+
+    static Employee copy(Employee employee)
+    {
+        return Employee.builder()
+                .employeeId(employee.getEmployeeId())
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .phone(employee.getPhone())
+                .email(employee.getEmail())
+                .password(employee.getPassword())
+                .role(employee.getRole())
+                .active(employee.isActive())
+                .version(employee.getVersion())
+                .build();
+    }
+
+    // Assets and employees are never deleted, so a stored log always finds both
+    MaintenanceLog toLog(LogRecord record)
+    {
+        return MaintenanceLog.builder()
+                .logId(record.logId())
+                .performedDate(record.performedDate())
+                .status(record.status())
+                .taskType(record.taskType())
+                .comment(record.comment())
+                .asset(copy(assets.get(record.assetId())))
+                .performedBy(copy(employees.get(record.employeeId())))
+                .build();
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("assets", assets.size());
+        metrics.put("employees", employees.size());
+        metrics.put("logs", logs.size());
+        return metrics;
+    }
+}
@@ -0,0 +1,266 @@
+package app.persistence.memory;
+
+import app.entities.Employee;
+import app.exceptions.DatabaseException;
+import app.exceptions.ValidationException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IEmployeeDAO;
+import app.services.SecurityServiceImpl;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+public class InMemoryEmployeeDAO implements IEmployeeDAO
+{
+    // The password is not an EmployeeDTO field and can never be selected
+    private static final Map<String, Function<Employee, Object>> FIELDS = Map.of(
+            "id", Employee::getEmployeeId,
+            "firstName", Employee::getFirstName,
+            "lastName", Employee::getLastName,
+            "phone", Employee::getPhone,
+            "email", Employee::getEmail,
+            "role", Employee::getRole,
+            "active", Employee::isActive
+    );
+
+    private final InMemoryDatabase db;
+
+    public InMemoryEmployeeDAO(InMemoryDatabase db)
+    {
+        this.db = db;
+    }
+
+    // The email column is unique, a taken email is a constraint violation like the insert's
+    @Override
+    public Employee create(Employee employee)
+    {
+        if (employee == null)
+        {
+            throw new IllegalArgumentException("Employee cant be null");
+        }
+        if (!hasRequiredFields(employee))
+        {
+            throw new DatabaseException("Create employee failed", DatabaseErrorType.TRANSACTION_FAILURE);
+        }
+
+        synchronized (db.employees)
+        {
+            int id = InMemoryDatabase.claimId(db.employeeIds, employee.getEmployeeId());
+            if (db.employees.containsKey(id) || db.employeeIdsByEmail.containsKey(employee.getEmail()))
+            {
+                throw new DatabaseException("Create employee failed", DatabaseErrorType.CONSTRAINT_VIOLATION);
+            }
+            Employee stored = copyWith(employee, id, employee.getVersion() != null ? employee.getVersion() : 0L);
+            db.employees.put(id, stored);
+            db.employeeIdsByEmail.put(stored.getEmail(), id);
+            return InMemoryDatabase.copy(stored);
+        }
+    }
+
+    @Override
+    public Employee get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        Employee employee = db.employees.get(id);
+        if (employee == null)
+        {
+            throw new DatabaseException("Employee not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return InMemoryDatabase.copy(employee);
+    }
+
+    @Override
+    public Employee getVerifiedEmployee(String email, String password) throws ValidationException
+    {
+        Employee employee = findActiveByEmail(email);
+        if (employee != null && SecurityServiceImpl.verifyPassword(password, employee.getPassword()))
+        {
+            return InMemoryDatabase.copy(employee);
+        }
+        throw new ValidationException("Could not Authenticate login info");
+    }
+
+    @Override
+    public List<Employee> getAll()
+    {
+        return byId().map(InMemoryDatabase::copy).toList();
+    }
+
+    @Override
+    public List<Employee> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Employee ids are required");
+        }
+
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(db.employees::get)
+                .filter(Objects::nonNull)
+                .map(InMemoryDatabase::copy)
+                .toList();
+    }
+
+    // Optimistic locking on the version, like the @Version column: an update based on an older read fails
+    @Override
+    public Employee update(Employee u)
+    {
+        if (u == null || u.getEmployeeId() == null)
+        {
+            throw new IllegalArgumentException("Employee and employee id are required");
+        }
+
+        synchronized (db.employees)
+        {
+            Employee stored = db.employees.get(u.getEmployeeId());
+            if (stored == null)
+            {
+                throw new DatabaseException("Employee not found or invalid", DatabaseErrorType.NOT_FOUND);
+            }
+            if (u.getVersion() != null && !u.getVersion().equals(stored.getVersion()))
+            {
+                throw new DatabaseException("Employee was modified by another request", DatabaseErrorType.CONSTRAINT_VIOLATION);
+            }
+            if (!hasRequiredFields(u))
+            {
+                throw new DatabaseException("Update employee failed", DatabaseErrorType.TRANSACTION_FAILURE);
+            }
+            Integer emailOwner = db.employeeIdsByEmail.get(u.getEmail());
+            if (emailOwner != null && !emailOwner.equals(u.getEmployeeId()))
+            {
+                throw new DatabaseException("Update employee failed", DatabaseErrorType.CONSTRAINT_VIOLATION);
+            }
+
+            Employee updated = copyWith(u, stored.getEmployeeId(), stored.getVersion());
+            if (updated.equals(stored))
+            {
+                return InMemoryDatabase.copy(stored);
+            }
+            updated = copyWith(u, stored.getEmployeeId(), stored.getVersion() + 1);
+            db.employeeIdsByEmail.remove(stored.getEmail());
+            db.employeeIdsByEmail.put(updated.getEmail(), updated.getEmployeeId());
+            db.employees.put(updated.getEmployeeId(), updated);
+            return InMemoryDatabase.copy(updated);
+        }
+    }
+
+    @Override
+    public Employee getByEmail(String email)
+    {
+        if (email == null || email.isBlank())
+        {
+            throw new IllegalArgumentException("Email is required");
+        }
+
+        Employee employee = findActiveByEmail(email);
+        return employee != null ? InMemoryDatabase.copy(employee) : null;
+    }
+
+    @Override
+    public List<Employee> getInactiveEmployees(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return byId().filter(employee -> !employee.isActive()).limit(limit).map(InMemoryDatabase::copy).toList();
+    }
+
+    @Override
+    public List<Employee> getActiveEmployees(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return byId().filter(Employee::isActive).limit(limit).map(InMemoryDatabase::copy).toList();
+    }
+
+    @Override
+    public long getVersion(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        Employee employee = db.employees.get(id);
+        if (employee == null)
+        {
+            throw new DatabaseException("Employee not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return employee.getVersion();
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Boolean active, Integer limit)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        return byId()
+                .filter(employee -> active == null || employee.isActive() == active)
+                .limit(limit != null ? limit : Long.MAX_VALUE)
+                .map(employee ->
+                {
+                    Map<String, Object> values = new LinkedHashMap<>();
+                    for (String field : fields)
+                    {
+                        Function<Employee, Object> getter = FIELDS.get(field);
+                        values.put(field, getter != null ? getter.apply(employee) : null);
+                    }
+                    return values;
+                })
+                .toList();
+    }
+
+    private Employee findActiveByEmail(String email)
+    {
+        Integer id = email != null ? db.employeeIdsByEmail.get(email) : null;
+        Employee employee = id != null ? db.employees.get(id) : null;
+        return employee != null && employee.isActive() ? employee : null;
+    }
+
+    // Insertion order, which is what the unordered JPA queries return in practice
+    private Stream<Employee> byId()
+    {
+        return db.employees.values().stream().sorted(Comparator.comparing(Employee::getEmployeeId));
+    }
+
+    private static boolean hasRequiredFields(Employee employee)
+    {
+        return employee.getFirstName() != null && employee.getLastName() != null && employee.getPhone() != null
+                && employee.getEmail() != null && employee.getPassword() != null && employee.getRole() != null;
+    }
+
+    private static Employee copyWith(Employee employee, int id, long version)
+    {
+        return Employee.builder()
+                .employeeId(id)
+                .firstName(employee.getFirstName())
+                .lastName(employee.getLastName())
+                .phone(employee.getPhone())
+                .email(employee.getEmail())
+                .password(employee.getPassword())
+                .role(employee.getRole())
+                .active(employee.isActive())
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,281 @@
+package app.persistence.memory;
+
+import app.entities.Asset;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.LogRecord;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.utils.DateRange;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+// Logs are stored as LogRecords with the asset and employee ids, and joined with the current rows on read.
+// Filters start from the smallest matching index: asset or employee, then status or task type.
+public class InMemoryMaintenanceLogDAO implements IMaintenanceLogDAO
+{
+    private static final Comparator<MaintenanceLog> NEWEST_FIRST = Comparator.comparing(MaintenanceLog::getPerformedDate).reversed();
+
+    private final InMemoryDatabase db;
+
+    public InMemoryMaintenanceLogDAO(InMemoryDatabase db)
+    {
+        this.db = db;
+    }
+
+    // Asset and employee must exist, as the foreign keys require
+    @Override
+    public MaintenanceLog create(MaintenanceLog log)
+    {
+        if (log == null)
+        {
+            throw new IllegalArgumentException("Log cant be null");
+        }
+        if (log.getPerformedDate() == null || log.getStatus() == null || log.getTaskType() == null || log.getComment() == null
+                || log.getAsset() == null || log.getPerformedBy() == null)
+        {
+            throw new DatabaseException("Create log failed", DatabaseErrorType.TRANSACTION_FAILURE);
+        }
+        if (!db.assets.containsKey(log.getAsset().getAssetId()) || !db.employees.containsKey(log.getPerformedBy().getEmployeeId()))
+        {
+            throw new DatabaseException("Create log failed", DatabaseErrorType.CONSTRAINT_VIOLATION);
+        }
+
+        LogRecord record;
+        synchronized (db.logs)
+        {
+            int id = InMemoryDatabase.claimId(db.logIds, log.getLogId());
+            if (db.logs.containsKey(id))
+            {
+                throw new DatabaseException("Create log failed", DatabaseErrorType.CONSTRAINT_VIOLATION);
+            }
+            record = new LogRecord(id, log.getPerformedDate(), log.getStatus(), log.getTaskType(), log.getComment(),
+                    log.getAsset().getAssetId(), log.getPerformedBy().getEmployeeId());
+            // Row first, a reader that finds the id in an index always finds the row
+            db.logs.put(id, record);
+            db.logsByAsset.computeIfAbsent(record.assetId(), key -> ConcurrentHashMap.newKeySet()).add(id);
+            db.logsByEmployee.computeIfAbsent(record.employeeId(), key -> ConcurrentHashMap.newKeySet()).add(id);
+            db.logsByStatus.get(record.status()).add(id);
+            db.logsByTaskType.get(record.taskType()).add(id);
+        }
+        return db.toLog(record);
+    }
+
+    @Override
+    public MaintenanceLog get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Log id is required");
+        }
+
+        LogRecord record = db.logs.get(id);
+        if (record == null)
+        {
+            throw new DatabaseException("Log not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return db.toLog(record);
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll()
+    {
+        return toLogs(db.logs.values().stream());
+    }
+
+    @Override
+    public List<MaintenanceLog> getAll(Collection<Integer> ids)
+    {
+        if (ids == null)
+        {
+            throw new IllegalArgumentException("Log ids are required");
+        }
+
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(db.logs::get)
+                .filter(Objects::nonNull)
+                .map(db::toLog)
+                .toList();
+    }
+
+    public MaintenanceLog update(MaintenanceLog maintenanceLog)
+    {
+        throw new UnsupportedOperationException("Maintenance logs are immutable");
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAsset(Integer assetId)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return toLogs(records(db.logsByAsset.get(assetId)));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+        if (taskType == null)
+        {
+            throw new IllegalArgumentException("Task type is required");
+        }
+
+        return toLogs(records(db.logsByAsset.get(assetId)).filter(record -> record.taskType() == taskType));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatus(LogStatus status)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+
+        return toLogs(records(db.logsByStatus.get(status)));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return toLogs(records(db.logsByAsset.get(assetId)).filter(record -> record.status() == status));
+    }
+
+    @Override
+    public List<MaintenanceLog> getByPerformedEmployee(Integer employeeId)
+    {
+        if (employeeId == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        return toLogs(records(db.logsByEmployee.get(employeeId)));
+    }
+
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit)
+    {
+        return getLogsOnActiveAssets(limit, null);
+    }
+
+    // Walks the active assets from the highest id down and stops once the limit is filled
+    @Override
+    public List<MaintenanceLog> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return db.assets.values().stream()
+                .filter(Asset::isActive)
+                .map(Asset::getAssetId)
+                .sorted(Comparator.reverseOrder())
+                .flatMap(assetId -> records(db.logsByAsset.get(assetId))
+                        .filter(inRange(range))
+                        .map(db::toLog)
+                        .sorted(NEWEST_FIRST))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public List<MaintenanceLog> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        if (range == null)
+        {
+            throw new IllegalArgumentException("Date range is required");
+        }
+
+        return filtered(range, assetId, status, taskType)
+                .map(db::toLog)
+                .sorted(NEWEST_FIRST)
+                .toList();
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        if (fields == null || fields.isEmpty())
+        {
+            throw new IllegalArgumentException("At least one field is required");
+        }
+
+        return filtered(range, assetId, status, taskType)
+                .sorted(Comparator.comparing(LogRecord::logId))
+                .map(record -> MaintenanceLogMapper.toFields(db.toLog(record), fields))
+                .toList();
+    }
+
+    private Stream<LogRecord> filtered(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        Set<Integer> ids;
+        if (assetId != null)
+        {
+            ids = db.logsByAsset.get(assetId);
+        }
+        else if (status != null)
+        {
+            ids = db.logsByStatus.get(status);
+        }
+        else if (taskType != null)
+        {
+            ids = db.logsByTaskType.get(taskType);
+        }
+        else
+        {
+            ids = db.logs.keySet();
+        }
+
+        return records(ids).filter(inRange(range).and(record -> (assetId == null || record.assetId() == assetId)
+                && (status == null || record.status() == status)
+                && (taskType == null || record.taskType() == taskType)));
+    }
+
+    private Stream<LogRecord> records(Set<Integer> ids)
+    {
+        if (ids == null)
+        {
+            return Stream.empty();
+        }
+        return ids.stream().map(db.logs::get).filter(Objects::nonNull);
+    }
+
+    // Id order, which is the insertion order the unordered JPA queries return in practice
+    private List<MaintenanceLog> toLogs(Stream<LogRecord> records)
+    {
+        return records.sorted(Comparator.comparing(LogRecord::logId)).map(db::toLog).toList();
+    }
+
+    private static Predicate<LogRecord> inRange(DateRange range)
+    {
+        return record -> range == null || range.contains(record.performedDate());
+    }
+}
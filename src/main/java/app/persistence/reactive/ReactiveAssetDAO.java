@@ -0,0 +1,115 @@
+package app.persistence.reactive;
+
+import app.entities.Asset;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IAsyncAssetDAO;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ReactiveAssetDAO implements IAsyncAssetDAO
+{
+    private static final String COLUMNS = "asset_id, name, description, status, version";
+
+    // The version only moves when the flag actually changes, as with Hibernate's dirty checking.
+    // An unchanged asset is read in the same statement, it sees the row as it was before the (empty) update.
+    private static final String SET_ACTIVE = "WITH updated AS (UPDATE assets SET status = $2, version = version + 1 WHERE asset_id = $1 AND status <> $2 RETURNING " + COLUMNS + ") "
+            + "SELECT " + COLUMNS + " FROM updated "
+            + "UNION ALL SELECT " + COLUMNS + " FROM assets WHERE asset_id = $1 AND NOT EXISTS (SELECT 1 FROM updated)";
+
+    private final ReactivePgClient client;
+
+    public ReactiveAssetDAO(ReactivePgClient client)
+    {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<Asset> create(Asset asset)
+    {
+        if (asset == null)
+        {
+            throw new IllegalArgumentException("Asset cant be null");
+        }
+        if (asset.getName() == null || asset.getDescription() == null)
+        {
+            return CompletableFuture.failedFuture(new DatabaseException("Create Asset failed", DatabaseErrorType.TRANSACTION_FAILURE));
+        }
+
+        return client.query("Create Asset failed",
+                "INSERT INTO assets (name, description, status, version) VALUES ($1, $2, $3, 0) RETURNING " + COLUMNS,
+                Tuple.of(asset.getName(), asset.getDescription(), asset.isActive()),
+                rows -> toAsset(rows.iterator().next()));
+    }
+
+    @Override
+    public CompletableFuture<Asset> get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return client.query("Get asset failed", "SELECT " + COLUMNS + " FROM assets WHERE asset_id = $1", Tuple.of(id), ReactiveAssetDAO::single);
+    }
+
+    @Override
+    public CompletableFuture<List<Asset>> getAll()
+    {
+        return client.query("Get assets failed", "SELECT " + COLUMNS + " FROM assets ORDER BY asset_id DESC", Tuple.tuple(), ReactiveAssetDAO::toAssets);
+    }
+
+    @Override
+    public CompletableFuture<List<Asset>> getAllByStatus(boolean active)
+    {
+        return client.query("Get inactive assets failed", "SELECT " + COLUMNS + " FROM assets WHERE status = $1 ORDER BY asset_id DESC",
+                Tuple.of(active), ReactiveAssetDAO::toAssets);
+    }
+
+    @Override
+    public CompletableFuture<Asset> setActive(Integer id, boolean active)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return client.query("Update Asset failed", SET_ACTIVE, Tuple.of(id, active), ReactiveAssetDAO::single);
+    }
+
+    private static Asset single(RowSet<Row> rows)
+    {
+        if (rows.size() == 0)
+        {
+            throw new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND);
+        }
+        return toAsset(rows.iterator().next());
+    }
+
+    private static List<Asset> toAssets(RowSet<Row> rows)
+    {
+        List<Asset> assets = new ArrayList<>(rows.size());
+        for (Row row : rows)
+        {
+            assets.add(toAsset(row));
+        }
+        return assets;
+    }
+
+    private static Asset toAsset(Row row)
+    {
+        return Asset.builder()
+                .assetId(row.getInteger(0))
+                .name(row.getString(1))
+                .description(row.getString(2))
+                .active(row.getBoolean(3))
+                .version(row.getLong(4))
+                .logs(new ArrayList<>())
+                .build();
+    }
+}
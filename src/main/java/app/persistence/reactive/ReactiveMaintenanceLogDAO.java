@@ -0,0 +1,216 @@
+package app.persistence.reactive;
+
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IAsyncMaintenanceLogDAO;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.Tuple;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Logs, their asset and their employee in one statement, so a list never costs more than one round trip
+public class ReactiveMaintenanceLogDAO implements IAsyncMaintenanceLogDAO
+{
+    private static final String SELECT = """
+            SELECT m.log_id, m.performed_date, m.status, m.task_type, m.comment,
+                   a.asset_id, a.name, a.status, e.employee_id, e.first_name, e.last_name
+            FROM maintenance_logs m
+            JOIN assets a ON a.asset_id = m.asset_id
+            JOIN employees e ON e.employee_id = m.performed_by_employee_id
+            """;
+
+    // Inserts nothing when the employee doesn't exist, which tells that case apart without a second query.
+    // A missing asset still fails the foreign key.
+    private static final String INSERT = """
+            WITH e AS (SELECT employee_id, first_name, last_name FROM employees WHERE employee_id = $6),
+                 m AS (INSERT INTO maintenance_logs (performed_date, status, task_type, comment, asset_id, performed_by_employee_id)
+                       SELECT $1::timestamp, $2::varchar, $3::varchar, $4::varchar, $5::int, e.employee_id FROM e
+                       RETURNING log_id)
+            SELECT m.log_id, e.first_name, e.last_name FROM m, e
+            """;
+
+    private static final LogStatus[] STATUSES = LogStatus.values();
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    private final ReactivePgClient client;
+
+    public ReactiveMaintenanceLogDAO(ReactivePgClient client)
+    {
+        this.client = client;
+    }
+
+    @Override
+    public CompletableFuture<MaintenanceLog> create(MaintenanceLog log)
+    {
+        if (log == null)
+        {
+            throw new IllegalArgumentException("Log cant be null");
+        }
+        if (log.getPerformedDate() == null || log.getStatus() == null || log.getTaskType() == null || log.getComment() == null
+                || log.getAsset() == null || log.getPerformedBy() == null)
+        {
+            return CompletableFuture.failedFuture(new DatabaseException("Create log failed", DatabaseErrorType.TRANSACTION_FAILURE));
+        }
+
+        Tuple arguments = Tuple.of(log.getPerformedDate(), log.getStatus().name(), log.getTaskType().name(), log.getComment(),
+                log.getAsset().getAssetId(), log.getPerformedBy().getEmployeeId());
+        return client.query("Create log failed", INSERT, arguments, rows ->
+        {
+            if (rows.size() == 0)
+            {
+                throw new DatabaseException("Employee not found", DatabaseErrorType.NOT_FOUND);
+            }
+            Row row = rows.iterator().next();
+            return MaintenanceLog.builder()
+                    .logId(row.getInteger(0))
+                    .performedDate(log.getPerformedDate())
+                    .status(log.getStatus())
+                    .taskType(log.getTaskType())
+                    .comment(log.getComment())
+                    .asset(log.getAsset())
+                    .performedBy(Employee.builder()
+                            .employeeId(log.getPerformedBy().getEmployeeId())
+                            .firstName(row.getString(1))
+                            .lastName(row.getString(2))
+                            .build())
+                    .build();
+        });
+    }
+
+    @Override
+    public CompletableFuture<MaintenanceLog> get(Integer id)
+    {
+        if (id == null)
+        {
+            throw new IllegalArgumentException("Log id is required");
+        }
+
+        return client.query("Get log failed", SELECT + "WHERE m.log_id = $1", Tuple.of(id), rows ->
+        {
+            if (rows.size() == 0)
+            {
+                throw new DatabaseException("Log not found", DatabaseErrorType.NOT_FOUND);
+            }
+            return toLog(rows.iterator().next());
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLog>> getByAsset(Integer assetId)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return client.query("Get logs by asset failed", SELECT + "WHERE m.asset_id = $1", Tuple.of(assetId), ReactiveMaintenanceLogDAO::toLogs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLog>> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+        if (taskType == null)
+        {
+            throw new IllegalArgumentException("Task type is required");
+        }
+
+        return client.query("Get logs by asset and task failed", SELECT + "WHERE m.asset_id = $1 AND m.task_type = $2",
+                Tuple.of(assetId, taskType.name()), ReactiveMaintenanceLogDAO::toLogs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLog>> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        if (status == null)
+        {
+            throw new IllegalArgumentException("Status is required");
+        }
+        if (assetId == null)
+        {
+            throw new IllegalArgumentException("Asset id is required");
+        }
+
+        return client.query("Get logs by status and asset failed", SELECT + "WHERE m.asset_id = $1 AND m.status = $2",
+                Tuple.of(assetId, status.name()), ReactiveMaintenanceLogDAO::toLogs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLog>> getByPerformedEmployee(Integer employeeId)
+    {
+        if (employeeId == null)
+        {
+            throw new IllegalArgumentException("Employee id is required");
+        }
+
+        return client.query("Get logs by performed employee failed", SELECT + "WHERE m.performed_by_employee_id = $1",
+                Tuple.of(employeeId), ReactiveMaintenanceLogDAO::toLogs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLog>> getLogsOnActiveAssets(int limit)
+    {
+        if (limit <= 0)
+        {
+            throw new IllegalArgumentException("Input needs to be bigger than 0");
+        }
+
+        return client.query("Get logs on active assets failed", SELECT + "WHERE a.status = true ORDER BY a.asset_id DESC, m.performed_date DESC LIMIT $1",
+                Tuple.of(limit), ReactiveMaintenanceLogDAO::toLogs);
+    }
+
+    private static List<MaintenanceLog> toLogs(RowSet<Row> rows)
+    {
+        List<MaintenanceLog> logs = new ArrayList<>(rows.size());
+        for (Row row : rows)
+        {
+            logs.add(toLog(row));
+        }
+        return logs;
+    }
+
+    private static MaintenanceLog toLog(Row row)
+    {
+        return MaintenanceLog.builder()
+                .logId(row.getInteger(0))
+                .performedDate(row.getLocalDateTime(1))
+                .status(lookup(STATUSES, row.getString(2)))
+                .taskType(lookup(TASK_TYPES, row.getString(3)))
+                .comment(row.getString(4))
+                .asset(Asset.builder()
+                        .assetId(row.getInteger(5))
+                        .name(row.getString(6))
+                        .active(row.getBoolean(7))
+                        .logs(new ArrayList<>())
+                        .build())
+                .performedBy(Employee.builder()
+                        .employeeId(row.getInteger(8))
+                        .firstName(row.getString(9))
+                        .lastName(row.getString(10))
+                        .build())
+                .build();
+    }
+
+    private static <E extends Enum<E>> E lookup(E[] values, String name)
+    {
+        for (E value : values)
+        {
+            if (value.name().equals(name))
+            {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Unknown enum value in maintenance_logs: " + name);
+    }
+}
@@ -0,0 +1,136 @@
+package app.persistence.reactive;
+
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.QueryDeadlines;
+import app.persistence.TransactionExecutor;
+import app.utils.EnvReader;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.pgclient.PgBuilder;
+import io.vertx.pgclient.PgConnectOptions;
+import io.vertx.pgclient.PgException;
+import io.vertx.sqlclient.PoolOptions;
+import io.vertx.sqlclient.Row;
+import io.vertx.sqlclient.RowSet;
+import io.vertx.sqlclient.SqlClient;
+import io.vertx.sqlclient.Tuple;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Vert.x pg-client on a few event-loop threads. Connections pipeline: a query is written to a connection
+// without waiting for the ones before it, so REACTIVE_POOL_SIZE connections carry thousands of in-flight
+// queries and no thread ever blocks on one. Talks to the primary only, and outside the Hikari pool.
+public class ReactivePgClient implements AutoCloseable
+{
+
+    private final Vertx vertx;
+    private final SqlClient client;
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public ReactivePgClient(EntityManagerFactory emf)
+    {
+        this((String) emf.getProperties().get("hibernate.connection.url"),
+                (String) emf.getProperties().get("hibernate.connection.username"),
+                (String) emf.getProperties().get("hibernate.connection.password"));
+    }
+
+    public ReactivePgClient(String jdbcUrl, String username, String password)
+    {
+        this.vertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(EnvReader.getInt("REACTIVE_EVENT_LOOPS", 2)));
+
+        // jdbc:postgresql://host:port/db?params is the same URI as postgresql://host:port/db?params
+        PgConnectOptions connectOptions = PgConnectOptions.fromUri(jdbcUrl.replaceFirst("^jdbc:", ""))
+                .setUser(username)
+                .setPassword(password)
+                .setPipeliningLimit(EnvReader.getInt("REACTIVE_PIPELINING_LIMIT", 256))
+                .setCachePreparedStatements(true);
+        // Requests beyond the wait queue fail at once instead of piling up behind a slow database
+        PoolOptions poolOptions = new PoolOptions()
+                .setMaxSize(EnvReader.getInt("REACTIVE_POOL_SIZE", 4))
+                .setMaxWaitQueueSize(EnvReader.getInt("REACTIVE_MAX_WAIT_QUEUE", 10_000));
+
+        this.client = PgBuilder.client()
+                .with(poolOptions)
+                .connectingTo(connectOptions)
+                .using(vertx)
+                .build();
+    }
+
+    // Runs one prepared statement and maps its rows on the event loop. The request deadline bounds the wait:
+    // the statement itself is not cancelled, as other requests' queries share its connection.
+    public <T> CompletableFuture<T> query(String failure, String sql, Tuple arguments, Function<RowSet<Row>, T> mapper)
+    {
+        Long remaining = QueryDeadlines.remainingMillis();
+        inFlight.incrementAndGet();
+
+        CompletableFuture<T> future = client.preparedQuery(sql)
+                .execute(arguments)
+                .map(mapper::apply)
+                .toCompletionStage()
+                .toCompletableFuture();
+        if (remaining != null)
+        {
+            future = future.orTimeout(remaining, TimeUnit.MILLISECONDS);
+        }
+
+        return future.handle((result, error) ->
+        {
+            inFlight.decrementAndGet();
+            if (error == null)
+            {
+                completed.incrementAndGet();
+                return result;
+            }
+            failed.incrementAndGet();
+            throw toDatabaseException(failure, error instanceof CompletionException ? error.getCause() : error);
+        });
+    }
+
+    private DatabaseException toDatabaseException(String failure, Throwable error)
+    {
+        if (error instanceof DatabaseException databaseException)
+        {
+            return databaseException;
+        }
+        if (error instanceof TimeoutException)
+        {
+            timedOut.incrementAndGet();
+            return new DatabaseException(failure, DatabaseErrorType.QUERY_TIMEOUT, error);
+        }
+        if (error instanceof PgException pgException)
+        {
+            return new DatabaseException(failure, TransactionExecutor.classify(pgException.getSqlState(), DatabaseErrorType.QUERY_FAILURE), error);
+        }
+        // No answer from Postgres at all: refused or closed connection, or the wait queue is full
+        return new DatabaseException(failure, DatabaseErrorType.CONNECTION_FAILURE, error);
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("inFlight", inFlight.get());
+        metrics.put("completed", completed.get());
+        metrics.put("failed", failed.get());
+        metrics.put("timedOut", timedOut.get());
+        return metrics;
+    }
+
+    @Override
+    public void close()
+    {
+        client.close();
+        vertx.close();
+    }
+}
@@ -1,6 +1,11 @@
 package app.services;
 
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
 import app.dtos.AssetDTO;
+import app.dtos.MultiGetResult;
 import app.entities.Asset;
 import app.mappers.AssetMapper;
 import app.persistence.interfaces.IAssetDAO;
@@ -8,14 +13,19 @@ import app.services.interfaces.AssetService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 public class AssetServiceImpl implements AssetService
 {
     private final IAssetDAO assetDao;
+    private final ChangeCounters changeCounters;
+    private final InvalidationBus invalidationBus;
 
-    public AssetServiceImpl(IAssetDAO assetDao)
+    public AssetServiceImpl(IAssetDAO assetDao, ChangeCounters changeCounters, InvalidationBus invalidationBus)
     {
         this.assetDao = assetDao;
+        this.changeCounters = changeCounters;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -23,6 +33,7 @@ public class AssetServiceImpl implements AssetService
     {
         Asset asset = AssetMapper.toEntity(dto);
         Asset created = assetDao.create(asset);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.ASSETS, created.getAssetId()));
         return AssetMapper.toDTO(created);
     }
 
@@ -38,6 +49,13 @@ public class AssetServiceImpl implements AssetService
         return AssetMapper.toDTO(asset, lastLogDate);
     }
 
+    // Always reads the database, which is at least as new as the tag
+    @Override
+    public AssetDTO get(Integer id, String etag)
+    {
+        return get(id);
+    }
+
     @Override
     public List<AssetDTO> getAll(Boolean active)
     {
@@ -57,10 +75,30 @@ public class AssetServiceImpl implements AssetService
                 .toList();
     }
 
+    @Override
+    public List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active)
+    {
+        return assetDao.getProjected(fields, active);
+    }
+
+    // Two queries for any number of ids: the assets, then the newest log date per asset
+    @Override
+    public MultiGetResult<AssetDTO> getMany(List<Integer> ids)
+    {
+        List<Asset> assets = assetDao.getAll(ids);
+        Map<Integer, LocalDateTime> lastLogDates = assetDao.getLastLogDates(ids);
+
+        List<AssetDTO> dtos = assets.stream()
+                .map(asset -> AssetMapper.toDTO(asset, lastLogDates.get(asset.getAssetId())))
+                .toList();
+        return MultiGetResult.of(ids, dtos, AssetDTO::id);
+    }
+
     @Override
     public AssetDTO activate(Integer id)
     {
         Asset activated = assetDao.setActive(id, true);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.ASSETS, id));
         return AssetMapper.toDTO(activated);
     }
 
@@ -68,6 +106,21 @@ public class AssetServiceImpl implements AssetService
     public AssetDTO deactivate(Integer id)
     {
         Asset deactivated = assetDao.setActive(id, false);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.ASSETS, id));
         return AssetMapper.toDTO(deactivated);
     }
+
+    // Stored in the database, so it holds across restarts and instances
+    @Override
+    public String getETag(Integer id)
+    {
+        return "asset-" + id + "-" + assetDao.getChangeVersion(id);
+    }
+
+    // The list has no lastLogDate, so only asset writes change it
+    @Override
+    public String getCollectionETag(Boolean active)
+    {
+        return changeCounters.tag(Scope.ASSETS) + "-" + (active == null ? "all" : active);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+package app.services;
+
+import app.caching.ChangeCounters.Scope;
+import app.caching.DtoCache;
+import app.caching.InvalidationEvent;
+import app.concurrency.Bulkhead;
+import app.dtos.AssetDTO;
+import app.dtos.MultiGetResult;
+import app.services.interfaces.AssetService;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps mapped AssetDTOs, so a hit costs neither the query nor the mapping. Evicted through the invalidation bus.
+public class CachingAssetService implements AssetService
+{
+    private static final Set<Scope> SCOPES = Set.of(Scope.ASSETS);
+
+    private final AssetService delegate;
+    private final DtoCache<AssetDTO> byId;
+    private final DtoCache<List<AssetDTO>> lists;
+
+    public CachingAssetService(AssetService delegate, Bulkhead refresher)
+    {
+        this.delegate = delegate;
+        this.byId = new DtoCache<>("ASSET", SCOPES, 10_000, 60_000, 30_000, refresher);
+        this.lists = new DtoCache<>("ASSET_LIST", SCOPES, 16, 15_000, 30_000, refresher);
+    }
+
+    @Override
+    public AssetDTO create(AssetDTO dto)
+    {
+        return delegate.create(dto);
+    }
+
+    @Override
+    public AssetDTO get(Integer id)
+    {
+        return byId.get(String.valueOf(id), () -> delegate.get(id));
+    }
+
+    // An entry cached for an older ETag is reloaded, the body never predates the tag sent with it
+    @Override
+    public AssetDTO get(Integer id, String etag)
+    {
+        return byId.get(String.valueOf(id), etag, () -> delegate.get(id));
+    }
+
+    // Kept under the collection ETag, a list cached before a write is reloaded even if the counters moved before this cache heard of it
+    @Override
+    public List<AssetDTO> getAll(Boolean active)
+    {
+        return lists.get(String.valueOf(active), delegate.getCollectionETag(active), () -> delegate.getAll(active));
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active)
+    {
+        return delegate.getAllProjected(fields, active);
+    }
+
+    @Override
+    public MultiGetResult<AssetDTO> getMany(List<Integer> ids)
+    {
+        return delegate.getMany(ids);
+    }
+
+    @Override
+    public AssetDTO activate(Integer id)
+    {
+        return delegate.activate(id);
+    }
+
+    @Override
+    public AssetDTO deactivate(Integer id)
+    {
+        return delegate.deactivate(id);
+    }
+
+    @Override
+    public String getETag(Integer id)
+    {
+        return delegate.getETag(id);
+    }
+
+    @Override
+    public String getCollectionETag(Boolean active)
+    {
+        return delegate.getCollectionETag(active);
+    }
+
+    public void onInvalidation(InvalidationEvent event)
+    {
+        if (event.isAll())
+        {
+            byId.invalidateAll();
+            lists.invalidateAll();
+            return;
+        }
+        if (event.scope() != Scope.ASSETS)
+        {
+            return;
+        }
+
+        byId.invalidate(String.valueOf(event.id()));
+        if (event.collectionsChanged())
+        {
+            lists.invalidateAll();
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("byId", byId.metrics());
+        metrics.put("lists", lists.metrics());
+        return metrics;
+    }
+}
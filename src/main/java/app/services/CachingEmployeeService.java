@@ -0,0 +1,121 @@
+package app.services;
+
+import app.caching.ChangeCounters.Scope;
+import app.caching.DtoCache;
+import app.caching.InvalidationEvent;
+import app.concurrency.Bulkhead;
+import app.dtos.EmployeeDTO;
+import app.dtos.MultiGetResult;
+import app.services.interfaces.EmployeeService;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keeps mapped EmployeeDTOs (no password hash), evicted through the invalidation bus
+public class CachingEmployeeService implements EmployeeService
+{
+    private static final Set<Scope> SCOPES = Set.of(Scope.EMPLOYEES);
+
+    private final EmployeeService delegate;
+    private final DtoCache<EmployeeDTO> byId;
+    private final DtoCache<List<EmployeeDTO>> lists;
+
+    public CachingEmployeeService(EmployeeService delegate, Bulkhead refresher)
+    {
+        this.delegate = delegate;
+        this.byId = new DtoCache<>("EMPLOYEE", SCOPES, 10_000, 60_000, 30_000, refresher);
+        this.lists = new DtoCache<>("EMPLOYEE_LIST", SCOPES, 16, 15_000, 30_000, refresher);
+    }
+
+    @Override
+    public EmployeeDTO get(Integer id)
+    {
+        return byId.get(String.valueOf(id), () -> delegate.get(id));
+    }
+
+    // An entry cached for an older ETag is reloaded, the body never predates the tag sent with it
+    @Override
+    public EmployeeDTO get(Integer id, String etag)
+    {
+        return byId.get(String.valueOf(id), etag, () -> delegate.get(id));
+    }
+
+    // Kept under the collection ETag, a list cached before a write is reloaded even if the counters moved before this cache heard of it
+    @Override
+    public List<EmployeeDTO> getAll(Boolean active)
+    {
+        return lists.get(String.valueOf(active), delegate.getCollectionETag(active), () -> delegate.getAll(active));
+    }
+
+    @Override
+    public List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active)
+    {
+        return delegate.getAllProjected(fields, active);
+    }
+
+    @Override
+    public MultiGetResult<EmployeeDTO> getMany(List<Integer> ids)
+    {
+        return delegate.getMany(ids);
+    }
+
+    @Override
+    public EmployeeDTO update(Integer id, EmployeeDTO employeeDTO)
+    {
+        return delegate.update(id, employeeDTO);
+    }
+
+    @Override
+    public EmployeeDTO deactivate(Integer id)
+    {
+        return delegate.deactivate(id);
+    }
+
+    @Override
+    public EmployeeDTO activate(Integer id)
+    {
+        return delegate.activate(id);
+    }
+
+    @Override
+    public String getETag(Integer id)
+    {
+        return delegate.getETag(id);
+    }
+
+    @Override
+    public String getCollectionETag(Boolean active)
+    {
+        return delegate.getCollectionETag(active);
+    }
+
+    public void onInvalidation(InvalidationEvent event)
+    {
+        if (event.isAll())
+        {
+            byId.invalidateAll();
+            lists.invalidateAll();
+            return;
+        }
+        if (event.scope() != Scope.EMPLOYEES)
+        {
+            return;
+        }
+
+        byId.invalidate(String.valueOf(event.id()));
+        if (event.collectionsChanged())
+        {
+            lists.invalidateAll();
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("byId", byId.metrics());
+        metrics.put("lists", lists.metrics());
+        return metrics;
+    }
+}
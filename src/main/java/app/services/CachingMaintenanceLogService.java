@@ -0,0 +1,168 @@
+package app.services;
+
+import app.caching.CachedResponse;
+import app.caching.ChangeCounters.Scope;
+import app.caching.DtoCache;
+import app.caching.InvalidationEvent;
+import app.concurrency.Bulkhead;
+import app.dtos.CreateLogRequest;
+import app.dtos.MaintenanceLogDTO;
+import app.dtos.MultiGetResult;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.services.interfaces.MaintenanceLogService;
+import app.utils.DateRange;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Keeps mapped MaintenanceLogDTOs and filtered log lists, evicted through the invalidation bus.
+// Logs never change, but performedByName follows the employee, so employee events evict their logs too.
+public class CachingMaintenanceLogService implements MaintenanceLogService
+{
+    private static final Set<Scope> SCOPES = Set.of(Scope.LOGS, Scope.EMPLOYEES);
+
+    private final MaintenanceLogService delegate;
+    private final DtoCache<MaintenanceLogDTO> byId;
+    private final DtoCache<List<MaintenanceLogDTO>> lists;
+
+    public CachingMaintenanceLogService(MaintenanceLogService delegate, Bulkhead refresher)
+    {
+        this.delegate = delegate;
+        this.byId = new DtoCache<>("LOG", SCOPES, 10_000, 300_000, 60_000, refresher);
+        this.lists = new DtoCache<>("LOG_LIST", SCOPES, 256, 15_000, 30_000, refresher);
+    }
+
+    // Kept under the collection ETag, a list cached before a write is reloaded even if the counters moved before this cache heard of it
+    private List<MaintenanceLogDTO> list(String key, Supplier<List<MaintenanceLogDTO>> loader)
+    {
+        return lists.get(key, delegate.getCollectionETag(key), loader);
+    }
+
+    @Override
+    public MaintenanceLogDTO create(Integer assetId, CreateLogRequest request)
+    {
+        return delegate.create(assetId, request);
+    }
+
+    @Override
+    public MaintenanceLogDTO get(Integer id)
+    {
+        return byId.get(String.valueOf(id), () -> delegate.get(id));
+    }
+
+    // Has its own cache of serialized bodies
+    @Override
+    public CachedResponse getSerialized(Integer id, Function<MaintenanceLogDTO, String> serializer)
+    {
+        return delegate.getSerialized(id, serializer);
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getAll()
+    {
+        return list("all", delegate::getAll);
+    }
+
+    @Override
+    public MultiGetResult<MaintenanceLogDTO> getMany(List<Integer> ids)
+    {
+        return delegate.getMany(ids);
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByAsset(Integer assetId)
+    {
+        return list("asset-" + assetId, () -> delegate.getByAsset(assetId));
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        return list("asset-" + assetId + "-task-" + taskType, () -> delegate.getByAssetAndTask(assetId, taskType));
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByStatus(LogStatus status)
+    {
+        return list("status-" + status, () -> delegate.getByStatus(status));
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        return list("asset-" + assetId + "-status-" + status, () -> delegate.getByStatusAndAsset(status, assetId));
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByPerformedEmployee(Integer employeeId)
+    {
+        return list("employee-" + employeeId, () -> delegate.getByPerformedEmployee(employeeId));
+    }
+
+    // Depends on the assets' active flag as well, not worth tracking
+    @Override
+    public List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit)
+    {
+        return delegate.getLogsOnActiveAssets(limit);
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        return delegate.getLogsOnActiveAssets(limit, range);
+    }
+
+    // Ranges are client-chosen, caching them would mostly hold one-off entries
+    @Override
+    public List<MaintenanceLogDTO> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        return delegate.getByDateRange(range, assetId, status, taskType);
+    }
+
+    @Override
+    public String getCollectionETag(String variant)
+    {
+        return delegate.getCollectionETag(variant);
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        return delegate.getProjected(fields, assetId, status, taskType, range);
+    }
+
+    public void onInvalidation(InvalidationEvent event)
+    {
+        if (event.isAll())
+        {
+            byId.invalidateAll();
+            lists.invalidateAll();
+            return;
+        }
+
+        if (event.scope() == Scope.LOGS)
+        {
+            byId.invalidate(String.valueOf(event.id()));
+            lists.invalidateAll();
+        }
+        else if (event.scope() == Scope.EMPLOYEES)
+        {
+            byId.invalidateIf(log -> Objects.equals(log.performedByEmployeeId(), event.id()));
+            lists.invalidateAll();
+        }
+    }
+
+    public Map<String, Object> metrics()
+    {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("byId", byId.metrics());
+        metrics.put("lists", lists.metrics());
+        return metrics;
+    }
+}
@@ -1,6 +1,11 @@
 package app.services;
 
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
 import app.dtos.EmployeeDTO;
+import app.dtos.MultiGetResult;
 import app.entities.Employee;
 import app.exceptions.ApiException;
 import app.mappers.EmployeeMapper;
@@ -8,14 +13,19 @@ import app.persistence.interfaces.IEmployeeDAO;
 import app.services.interfaces.EmployeeService;
 
 import java.util.List;
+import java.util.Map;
 
 public class EmployeeServiceImpl implements EmployeeService
 {
     private final IEmployeeDAO employeeDao;
+    private final ChangeCounters changeCounters;
+    private final InvalidationBus invalidationBus;
 
-    public EmployeeServiceImpl(IEmployeeDAO employeeDao)
+    public EmployeeServiceImpl(IEmployeeDAO employeeDao, ChangeCounters changeCounters, InvalidationBus invalidationBus)
     {
         this.employeeDao = employeeDao;
+        this.changeCounters = changeCounters;
+        this.invalidationBus = invalidationBus;
     }
 
     @Override
@@ -24,6 +34,13 @@ public class EmployeeServiceImpl implements EmployeeService
         return EmployeeMapper.toDTO(employeeDao.get(id));
     }
 
+    // Always reads the database, which is at least as new as the tag
+    @Override
+    public EmployeeDTO get(Integer id, String etag)
+    {
+        return get(id);
+    }
+
     @Override
     public List<EmployeeDTO> getAll(Boolean active)
     {
@@ -48,6 +65,22 @@ public class EmployeeServiceImpl implements EmployeeService
                 .toList();
     }
 
+    @Override
+    public MultiGetResult<EmployeeDTO> getMany(List<Integer> ids)
+    {
+        List<EmployeeDTO> dtos = employeeDao.getAll(ids).stream()
+                .map(EmployeeMapper::toDTO)
+                .toList();
+        return MultiGetResult.of(ids, dtos, EmployeeDTO::id);
+    }
+
+    // Same limits as getAll
+    @Override
+    public List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active)
+    {
+        return employeeDao.getProjected(fields, active, active == null ? null : 100);
+    }
+
     @Override
     public EmployeeDTO update(Integer id, EmployeeDTO employeeDTO)
     {
@@ -70,7 +103,7 @@ public class EmployeeServiceImpl implements EmployeeService
         existingEmployee.setRole(employeeDTO.role());
         existingEmployee.setActive(employeeDTO.active());
 
-        return EmployeeMapper.toDTO(employeeDao.update(existingEmployee));
+        return EmployeeMapper.toDTO(saveChanges(existingEmployee));
     }
 
     @Override
@@ -84,7 +117,7 @@ public class EmployeeServiceImpl implements EmployeeService
         }
 
         employee.setActive(false);
-        return EmployeeMapper.toDTO(employeeDao.update(employee));
+        return EmployeeMapper.toDTO(saveChanges(employee));
     }
 
     @Override
@@ -98,7 +131,27 @@ public class EmployeeServiceImpl implements EmployeeService
         }
 
         employee.setActive(true);
-        return EmployeeMapper.toDTO(employeeDao.update(employee));
+        return EmployeeMapper.toDTO(saveChanges(employee));
+    }
+
+    @Override
+    public String getETag(Integer id)
+    {
+        return "employee-" + id + "-" + employeeDao.getVersion(id);
+    }
+
+    @Override
+    public String getCollectionETag(Boolean active)
+    {
+        return changeCounters.tag(Scope.EMPLOYEES) + "-" + (active == null ? "all" : active);
+    }
+
+    // Subscribers also drop the employee's logs, they show the performer's name
+    private Employee saveChanges(Employee employee)
+    {
+        Employee updated = employeeDao.update(employee);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.EMPLOYEES, updated.getEmployeeId()));
+        return updated;
     }
 
     //TODO: ADD PASSWORD CHANGER
@@ -1,7 +1,15 @@
 package app.services;
 
+import app.caching.CacheRefill;
+import app.caching.CachedResponse;
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
+import app.caching.LogResponseCache;
 import app.dtos.CreateLogRequest;
 import app.dtos.MaintenanceLogDTO;
+import app.dtos.MultiGetResult;
 import app.entities.Asset;
 import app.entities.MaintenanceLog;
 import app.entities.Employee;
@@ -9,22 +17,45 @@ import app.entities.enums.LogStatus;
 import app.entities.enums.TaskType;
 import app.mappers.MaintenanceLogMapper;
 import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.interfaces.IMaintenanceLogDTOQueries;
 import app.persistence.interfaces.IReadDAO;
 import app.services.interfaces.MaintenanceLogService;
+import app.utils.DateRange;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 public class MaintenanceLogServiceImpl implements MaintenanceLogService
 {
     private final IMaintenanceLogDAO logDao;
     private final IReadDAO<Asset> assetDao;
     private final IReadDAO<Employee> employeeDao;
+    private final ChangeCounters changeCounters;
+    private final LogResponseCache logCache;
+    private final InvalidationBus invalidationBus;
+    private final IMaintenanceLogDTOQueries fastQueries;
+    private final Set<String> fastPathMethods;
 
-    public MaintenanceLogServiceImpl(IMaintenanceLogDAO logDao, IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao)
+    public MaintenanceLogServiceImpl(IMaintenanceLogDAO logDao, IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao, ChangeCounters changeCounters, LogResponseCache logCache, InvalidationBus invalidationBus)
+    {
+        this(logDao, assetDao, employeeDao, changeCounters, logCache, invalidationBus, null, Set.of());
+    }
+
+    // fastPathMethods names the IMaintenanceLogDTOQueries methods answered by fastQueries instead of logDao
+    public MaintenanceLogServiceImpl(IMaintenanceLogDAO logDao, IReadDAO<Asset> assetDao, IReadDAO<Employee> employeeDao, ChangeCounters changeCounters, LogResponseCache logCache, InvalidationBus invalidationBus,
+                                     IMaintenanceLogDTOQueries fastQueries, Set<String> fastPathMethods)
     {
         this.logDao = logDao;
         this.assetDao = assetDao;
         this.employeeDao = employeeDao;
+        this.changeCounters = changeCounters;
+        this.logCache = logCache;
+        this.invalidationBus = invalidationBus;
+        this.fastQueries = fastQueries;
+        this.fastPathMethods = fastQueries != null ? Set.copyOf(fastPathMethods) : Set.of();
     }
 
     @Override
@@ -42,7 +73,11 @@ public class MaintenanceLogServiceImpl implements MaintenanceLogService
                 performedBy
         );
 
-        return MaintenanceLogMapper.toDTO(logDao.create(log));
+        MaintenanceLog created = logDao.create(log);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.LOGS, created.getLogId()));
+        // The asset's lastLogDate moved, the asset lists don't show it
+        invalidationBus.publish(InvalidationEvent.itemChanged(Scope.ASSETS, assetId));
+        return MaintenanceLogMapper.toDTO(created);
     }
 
     @Override
@@ -51,6 +86,22 @@ public class MaintenanceLogServiceImpl implements MaintenanceLogService
         return MaintenanceLogMapper.toDTO(logDao.get(id));
     }
 
+    // Logs never change after create, a hit skips Hibernate and Jackson entirely
+    @Override
+    public CachedResponse getSerialized(Integer id, Function<MaintenanceLogDTO, String> serializer)
+    {
+        CachedResponse cached = logCache.get(id);
+        if (cached != null)
+        {
+            return cached;
+        }
+
+        long stamp = logCache.stamp();
+        MaintenanceLogDTO dto = CacheRefill.run(Set.of(Scope.LOGS, Scope.EMPLOYEES), () -> get(id));
+        byte[] body = serializer.apply(dto).getBytes(StandardCharsets.UTF_8);
+        return logCache.put(id, dto.performedByEmployeeId(), body, stamp);
+    }
+
     @Override
     public List<MaintenanceLogDTO> getAll()
     {
@@ -59,9 +110,22 @@ public class MaintenanceLogServiceImpl implements MaintenanceLogService
                 .toList();
     }
 
+    @Override
+    public MultiGetResult<MaintenanceLogDTO> getMany(List<Integer> ids)
+    {
+        List<MaintenanceLogDTO> dtos = logDao.getAll(ids).stream()
+                .map(MaintenanceLogMapper::toDTO)
+                .toList();
+        return MultiGetResult.of(ids, dtos, MaintenanceLogDTO::id);
+    }
+
     @Override
     public List<MaintenanceLogDTO> getByAsset(Integer assetId)
     {
+        if (fastPathMethods.contains("getByAsset"))
+        {
+            return fastQueries.getByAsset(assetId);
+        }
         return logDao.getByAsset(assetId).stream()
                 .map(MaintenanceLogMapper::toDTO)
                 .toList();
@@ -86,6 +150,10 @@ public class MaintenanceLogServiceImpl implements MaintenanceLogService
     @Override
     public List<MaintenanceLogDTO> getByStatusAndAsset(LogStatus status, Integer assetId)
     {
+        if (fastPathMethods.contains("getByStatusAndAsset"))
+        {
+            return fastQueries.getByStatusAndAsset(status, assetId);
+        }
         return logDao.getByStatusAndAsset(status, assetId).stream()
                 .map(MaintenanceLogMapper::toDTO)
                 .toList();
@@ -102,8 +170,41 @@ public class MaintenanceLogServiceImpl implements MaintenanceLogService
     @Override
     public List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit)
     {
+        if (fastPathMethods.contains("getLogsOnActiveAssets"))
+        {
+            return fastQueries.getLogsOnActiveAssets(limit);
+        }
         return logDao.getLogsOnActiveAssets(limit).stream()
                 .map(MaintenanceLogMapper::toDTO)
                 .toList();
     }
+
+    @Override
+    public List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit, DateRange range)
+    {
+        return logDao.getLogsOnActiveAssets(limit, range).stream()
+                .map(MaintenanceLogMapper::toDTO)
+                .toList();
+    }
+
+    @Override
+    public List<MaintenanceLogDTO> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType)
+    {
+        return logDao.getByDateRange(range, assetId, status, taskType).stream()
+                .map(MaintenanceLogMapper::toDTO)
+                .toList();
+    }
+
+    // Bumped by log creates and employee updates (performedByName), variant identifies the filter
+    @Override
+    public String getCollectionETag(String variant)
+    {
+        return changeCounters.tag(Scope.LOGS) + "-" + variant;
+    }
+
+    @Override
+    public List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range)
+    {
+        return logDao.getProjected(fields, assetId, status, taskType, range);
+    }
 }
\ No newline at end of file
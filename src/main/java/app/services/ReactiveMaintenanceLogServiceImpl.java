@@ -0,0 +1,98 @@
+package app.services;
+
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
+import app.dtos.CreateLogRequest;
+import app.dtos.MaintenanceLogDTO;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.interfaces.IAsyncAssetDAO;
+import app.persistence.interfaces.IAsyncMaintenanceLogDAO;
+import app.services.interfaces.AsyncMaintenanceLogService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class ReactiveMaintenanceLogServiceImpl implements AsyncMaintenanceLogService
+{
+    private final IAsyncMaintenanceLogDAO logDao;
+    private final IAsyncAssetDAO assetDao;
+    private final InvalidationBus invalidationBus;
+
+    public ReactiveMaintenanceLogServiceImpl(IAsyncMaintenanceLogDAO logDao, IAsyncAssetDAO assetDao, InvalidationBus invalidationBus)
+    {
+        this.logDao = logDao;
+        this.assetDao = assetDao;
+        this.invalidationBus = invalidationBus;
+    }
+
+    // The asset lookup and the insert are sent together and pipelined. The events go out as soon as the insert
+    // has committed, however the lookup ends. A missing asset fails the insert's foreign key too, the lookup's
+    // NOT_FOUND is reported then. Once the log is committed the asset exists, so a failed lookup is sent once more
+    // rather than failing a write that went through.
+    @Override
+    public CompletableFuture<MaintenanceLogDTO> create(Integer assetId, CreateLogRequest request)
+    {
+        MaintenanceLog log = new MaintenanceLog(
+                request.performedDate(),
+                request.status(),
+                request.taskType(),
+                request.comment(),
+                Asset.builder().assetId(assetId).build(),
+                Employee.builder().employeeId(request.performedByEmployeeId()).build()
+        );
+
+        CompletableFuture<Asset> lookup = assetDao.get(assetId);
+        CompletableFuture<MaintenanceLog> insert = logDao.create(log).thenApply(created ->
+        {
+            invalidationBus.publish(InvalidationEvent.changed(Scope.LOGS, created.getLogId()));
+            // The asset's lastLogDate moved, the asset lists don't show it
+            invalidationBus.publish(InvalidationEvent.itemChanged(Scope.ASSETS, assetId));
+            return created;
+        });
+
+        return insert
+                .exceptionallyCompose(insertError -> lookup.thenCompose(asset -> CompletableFuture.<MaintenanceLog>failedFuture(insertError)))
+                .thenCompose(created -> lookup
+                        .exceptionallyCompose(lookupError -> assetDao.get(assetId))
+                        .thenApply(asset ->
+                        {
+                            created.setAsset(asset);
+                            return MaintenanceLogMapper.toDTO(created);
+                        }));
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLogDTO>> getByAsset(Integer assetId)
+    {
+        return logDao.getByAsset(assetId).thenApply(ReactiveMaintenanceLogServiceImpl::toDTOs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLogDTO>> getByAssetAndTask(Integer assetId, TaskType taskType)
+    {
+        return logDao.getByAssetAndTask(assetId, taskType).thenApply(ReactiveMaintenanceLogServiceImpl::toDTOs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLogDTO>> getByStatusAndAsset(LogStatus status, Integer assetId)
+    {
+        return logDao.getByStatusAndAsset(status, assetId).thenApply(ReactiveMaintenanceLogServiceImpl::toDTOs);
+    }
+
+    @Override
+    public CompletableFuture<List<MaintenanceLogDTO>> getByPerformedEmployee(Integer employeeId)
+    {
+        return logDao.getByPerformedEmployee(employeeId).thenApply(ReactiveMaintenanceLogServiceImpl::toDTOs);
+    }
+
+    private static List<MaintenanceLogDTO> toDTOs(List<MaintenanceLog> logs)
+    {
+        return logs.stream().map(MaintenanceLogMapper::toDTO).toList();
+    }
+}
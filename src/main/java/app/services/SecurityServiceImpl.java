@@ -1,5 +1,8 @@
 package app.services;
 
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationBus;
+import app.caching.InvalidationEvent;
 import app.dtos.CreateEmployeeRequest;
 import app.dtos.EmployeeDTO;
 import app.dtos.EmployeeLoginDTO;
@@ -18,6 +21,7 @@ import io.javalin.http.Context;
 import io.javalin.http.ForbiddenResponse;
 import io.javalin.http.HttpStatus;
 import io.javalin.http.UnauthorizedResponse;
+import io.javalin.security.RouteRole;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.text.ParseException;
@@ -28,15 +32,17 @@ import java.util.stream.Collectors;
 public class SecurityServiceImpl implements SecurityService
 {
     private final ISecurityDAO secDAO;
+    private final InvalidationBus invalidationBus;
     private final ITokenSecurity tokenSecurity = new TokenSecurity();
     private static final Map<String, Set<String>> ROLE_HIERARCHY = Map.of(
             "ADMIN", Set.of("ADMIN", "MANAGER", "TECHNICIAN", "AUTHENTICATED"),
             "MANAGER", Set.of("MANAGER", "TECHNICIAN","AUTHENTICATED"),
             "TECHNICIAN", Set.of("TECHNICIAN","AUTHENTICATED"));
 
-    public SecurityServiceImpl(ISecurityDAO secDAO)
+    public SecurityServiceImpl(ISecurityDAO secDAO, InvalidationBus invalidationBus)
     {
         this.secDAO = secDAO;
+        this.invalidationBus = invalidationBus;
     }
 
     public static String hashPassword(String password)
@@ -70,6 +76,7 @@ public class SecurityServiceImpl implements SecurityService
                 .build();
 
         Employee created = secDAO.create(employee);
+        invalidationBus.publish(InvalidationEvent.changed(Scope.EMPLOYEES, created.getEmployeeId()));
         return EmployeeMapper.toDTO(created);
 
     }
@@ -150,6 +157,20 @@ public class SecurityServiceImpl implements SecurityService
     }
 
 
+    // Same rules as authorize, for callers that check roles without a matched route (batch items)
+    @Override
+    public boolean hasAccess(UserDTO employee, Set<? extends RouteRole> roles)
+    {
+        Set<String> allowedRoles = roles.stream()
+                .map(role -> role.toString().toUpperCase())
+                .collect(Collectors.toSet());
+
+        if (isOpenEndpoint(allowedRoles))
+            return true;
+
+        return employee != null && employeeHasAllowedRole(employee, allowedRoles);
+    }
+
     private String createToken(EmployeeDTO employeeDTO)
     {
         try
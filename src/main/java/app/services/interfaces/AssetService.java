@@ -1,8 +1,10 @@
 package app.services.interfaces;
 
 import app.dtos.AssetDTO;
+import app.dtos.MultiGetResult;
 
 import java.util.List;
+import java.util.Map;
 
 public interface AssetService
 {
@@ -10,9 +12,20 @@ public interface AssetService
 
     AssetDTO get(Integer id);
 
+    // The asset as of the version in etag (from getETag) or newer
+    AssetDTO get(Integer id, String etag);
+
     List<AssetDTO> getAll(Boolean active);
 
+    List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active);
+
+    MultiGetResult<AssetDTO> getMany(List<Integer> ids);
+
     AssetDTO activate(Integer id);
 
     AssetDTO deactivate(Integer id);
+
+    String getETag(Integer id);
+
+    String getCollectionETag(Boolean active);
 }
@@ -0,0 +1,23 @@
+package app.services.interfaces;
+
+import app.dtos.CreateLogRequest;
+import app.dtos.MaintenanceLogDTO;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// The MaintenanceLogService operations MaintenanceLogController can serve without blocking a thread
+public interface AsyncMaintenanceLogService
+{
+    CompletableFuture<MaintenanceLogDTO> create(Integer assetId, CreateLogRequest request);
+
+    CompletableFuture<List<MaintenanceLogDTO>> getByAsset(Integer assetId);
+
+    CompletableFuture<List<MaintenanceLogDTO>> getByAssetAndTask(Integer assetId, TaskType taskType);
+
+    CompletableFuture<List<MaintenanceLogDTO>> getByStatusAndAsset(LogStatus status, Integer assetId);
+
+    CompletableFuture<List<MaintenanceLogDTO>> getByPerformedEmployee(Integer employeeId);
+}
@@ -1,18 +1,31 @@
 package app.services.interfaces;
 
 import app.dtos.EmployeeDTO;
+import app.dtos.MultiGetResult;
 
 import java.util.List;
+import java.util.Map;
 
 public interface EmployeeService
 {
     EmployeeDTO get(Integer id);
 
+    // The employee as of the version in etag (from getETag) or newer
+    EmployeeDTO get(Integer id, String etag);
+
     List<EmployeeDTO> getAll(Boolean active);
 
+    List<Map<String, Object>> getAllProjected(List<String> fields, Boolean active);
+
+    MultiGetResult<EmployeeDTO> getMany(List<Integer> ids);
+
     EmployeeDTO update(Integer id, EmployeeDTO employeeDTO);
 
     EmployeeDTO deactivate(Integer id);
 
     EmployeeDTO activate(Integer id);
+
+    String getETag(Integer id);
+
+    String getCollectionETag(Boolean active);
 }
@@ -1,11 +1,16 @@
 package app.services.interfaces;
 
+import app.caching.CachedResponse;
 import app.dtos.CreateLogRequest;
 import app.dtos.MaintenanceLogDTO;
+import app.dtos.MultiGetResult;
 import app.entities.enums.LogStatus;
 import app.entities.enums.TaskType;
+import app.utils.DateRange;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public interface MaintenanceLogService
 {
@@ -13,8 +18,12 @@ public interface MaintenanceLogService
 
     MaintenanceLogDTO get(Integer id);
 
+    CachedResponse getSerialized(Integer id, Function<MaintenanceLogDTO, String> serializer);
+
     List<MaintenanceLogDTO> getAll();
 
+    MultiGetResult<MaintenanceLogDTO> getMany(List<Integer> ids);
+
     List<MaintenanceLogDTO> getByAsset(Integer assetId);
 
     List<MaintenanceLogDTO> getByAssetAndTask(Integer assetId, TaskType taskType);
@@ -26,5 +35,13 @@ public interface MaintenanceLogService
     List<MaintenanceLogDTO> getByPerformedEmployee(Integer employeeId);
 
     List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit);
+
+    List<MaintenanceLogDTO> getLogsOnActiveAssets(int limit, DateRange range);
+
+    List<MaintenanceLogDTO> getByDateRange(DateRange range, Integer assetId, LogStatus status, TaskType taskType);
+
+    String getCollectionETag(String variant);
+
+    List<Map<String, Object>> getProjected(List<String> fields, Integer assetId, LogStatus status, TaskType taskType, DateRange range);
 }
 
@@ -3,9 +3,12 @@ package app.services.interfaces;
 import app.dtos.CreateEmployeeRequest;
 import app.dtos.EmployeeDTO;
 import app.dtos.EmployeeLoginDTO;
+import dk.bugelhartmann.UserDTO;
 import io.javalin.http.Context;
+import io.javalin.security.RouteRole;
 
 import java.util.Map;
+import java.util.Set;
 
 public interface SecurityService
 {
@@ -13,6 +16,8 @@ public interface SecurityService
 
     void authorize(Context ctx);
 
+    boolean hasAccess(UserDTO employee, Set<? extends RouteRole> roles);
+
     EmployeeDTO register(CreateEmployeeRequest request);
 
     Map<String, Object> login(EmployeeLoginDTO dto);
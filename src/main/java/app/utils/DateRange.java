@@ -0,0 +1,66 @@
+package app.utils;
+
+import app.exceptions.ApiException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Bounds on performed_date, from inclusive and to exclusive. Either side may be open.
+public record DateRange(LocalDateTime from, LocalDateTime to)
+{
+    public DateRange
+    {
+        if (from != null && to != null && !from.isBefore(to))
+        {
+            throw new IllegalArgumentException("From must be before to");
+        }
+    }
+
+    // Null when neither from nor to is given. Accepts dates (2025-01-31) and date-times (2025-01-31T08:00).
+    public static DateRange parse(String from, String to)
+    {
+        LocalDateTime fromDate = parseBound(from, "Invalid from value");
+        LocalDateTime toDate = parseBound(to, "Invalid to value");
+        if (fromDate == null && toDate == null)
+        {
+            return null;
+        }
+        if (fromDate != null && toDate != null && !fromDate.isBefore(toDate))
+        {
+            throw new ApiException(400, "From must be before to");
+        }
+        return new DateRange(fromDate, toDate);
+    }
+
+    public boolean contains(LocalDateTime date)
+    {
+        return (from == null || !date.isBefore(from)) && (to == null || date.isBefore(to));
+    }
+
+    // Appended to collection ETag variants, empty when there is no range
+    public static String variant(DateRange range)
+    {
+        if (range == null)
+        {
+            return "";
+        }
+        return "-from-" + (range.from != null ? range.from : "") + "-to-" + (range.to != null ? range.to : "");
+    }
+
+    private static LocalDateTime parseBound(String value, String errorMessage)
+    {
+        if (value == null || value.isBlank())
+        {
+            return null;
+        }
+        try
+        {
+            return value.contains("T") ? LocalDateTime.parse(value) : LocalDate.parse(value).atStartOfDay();
+        }
+        catch (DateTimeParseException e)
+        {
+            throw new ApiException(400, errorMessage);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package app.utils;
+
+import io.javalin.http.Context;
+import io.javalin.http.Header;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+public class ETags
+{
+    // Sets the ETag and answers 304 when the client already has it.
+    // Compute the tag before loading the data: a write racing the load can then only leave the tag
+    // older than the body (next poll refetches), never newer (client would keep stale data).
+    public static boolean notModified(Context ctx, String etag)
+    {
+        // Responses depend on the token, so only the client may store them, and must revalidate each time
+        return notModified(ctx, etag, "private, no-cache");
+    }
+
+    public static boolean notModified(Context ctx, String etag, String cacheControl)
+    {
+        String quoted = "\"" + etag + "\"";
+        ctx.header(Header.ETAG, quoted);
+        ctx.header(Header.CACHE_CONTROL, cacheControl);
+
+        if (matches(ctx.header(Header.IF_NONE_MATCH), quoted))
+        {
+            ctx.status(304);
+            return true;
+        }
+        return false;
+    }
+
+    // Strong tag derived from the response bytes themselves
+    public static String ofContent(byte[] body)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String quotedEtag)
+    {
+        if (ifNoneMatch == null)
+        {
+            return false;
+        }
+
+        for (String candidate : ifNoneMatch.split(","))
+        {
+            String tag = candidate.trim();
+            // If-None-Match uses weak comparison
+            if (tag.startsWith("W/"))
+            {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(quotedEtag))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,57 @@
+package app.utils;
+
+public class EnvReader
+{
+    // Environment variable first, then a system property with the same name (handy for tests and benchmarks)
+    public static String getString(String name, String defaultValue)
+    {
+        String value = System.getenv(name);
+        if (value == null || value.isBlank())
+        {
+            value = System.getProperty(name);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String name, int defaultValue)
+    {
+        String value = getString(name, null);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(String.format("Environment variable %s must be a number, was: %s", name, value), e);
+        }
+    }
+
+    public static long getLong(String name, long defaultValue)
+    {
+        String value = getString(name, null);
+        if (value == null)
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Long.parseLong(value);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new IllegalArgumentException(String.format("Environment variable %s must be a number, was: %s", name, value), e);
+        }
+    }
+
+    public static boolean getBoolean(String name, boolean defaultValue)
+    {
+        String value = getString(name, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
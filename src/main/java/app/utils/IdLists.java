@@ -0,0 +1,49 @@
+package app.utils;
+
+import app.exceptions.ApiException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class IdLists
+{
+    private static final int MAX_IDS = EnvReader.getInt("MULTI_GET_MAX_IDS", 200);
+
+    // ?ids=3,1,3 -> [3, 1]: order kept, duplicates dropped. Null when the parameter is absent.
+    public static List<Integer> parse(String idsParam)
+    {
+        if (idsParam == null)
+        {
+            return null;
+        }
+
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (String id : idsParam.split(","))
+        {
+            String trimmed = id.trim();
+            if (trimmed.isEmpty())
+            {
+                continue;
+            }
+            try
+            {
+                ids.add(Integer.parseInt(trimmed));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new ApiException(400, "Invalid id '" + trimmed + "'");
+            }
+        }
+
+        if (ids.isEmpty())
+        {
+            throw new ApiException(400, "At least one id is required");
+        }
+        if (ids.size() > MAX_IDS)
+        {
+            throw new ApiException(400, "At most " + MAX_IDS + " ids per request");
+        }
+        return List.copyOf(ids);
+    }
+}
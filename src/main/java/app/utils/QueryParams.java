@@ -0,0 +1,50 @@
+package app.utils;
+
+import app.exceptions.ApiException;
+
+public class QueryParams
+{
+    // Case-insensitive enum lookup. Null when the parameter is absent, 400 with errorMessage when it's not a value of the enum.
+    public static <E extends Enum<E>> E parseEnum(String value, Class<E> type, String errorMessage)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+        try
+        {
+            return Enum.valueOf(type, value.toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new ApiException(400, errorMessage);
+        }
+    }
+
+    // defaultValue when the parameter is absent, 400 with errorMessage when it's not a whole number within min and max
+    public static int parseInt(String value, int defaultValue, int min, int max, String errorMessage)
+    {
+        if (value == null)
+        {
+            return defaultValue;
+        }
+        try
+        {
+            int parsed = Integer.parseInt(value);
+            if (parsed < min || parsed > max)
+            {
+                throw new ApiException(400, errorMessage);
+            }
+            return parsed;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new ApiException(400, errorMessage);
+        }
+    }
+
+    public static Boolean parseBoolean(String value)
+    {
+        return value != null ? Boolean.parseBoolean(value) : null;
+    }
+}
@@ -0,0 +1,48 @@
+package app.utils;
+
+import app.exceptions.ApiException;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SparseFields
+{
+    // ?fields=id,status -> [id, status], validated against the DTO's fields. Null when the parameter is absent.
+    public static List<String> parse(String fieldsParam, Class<? extends Record> dto)
+    {
+        if (fieldsParam == null || fieldsParam.isBlank())
+        {
+            return null;
+        }
+
+        Set<String> allowed = Arrays.stream(dto.getRecordComponents())
+                .map(RecordComponent::getName)
+                .collect(Collectors.toSet());
+
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : fieldsParam.split(","))
+        {
+            String trimmed = field.trim();
+            if (trimmed.isEmpty())
+            {
+                continue;
+            }
+            if (!allowed.contains(trimmed))
+            {
+                throw new ApiException(400, "Unknown field '" + trimmed + "'");
+            }
+            fields.add(trimmed);
+        }
+        return fields.isEmpty() ? null : List.copyOf(fields);
+    }
+
+    // Suffix that keeps ETags and cache keys apart per fieldset
+    public static String variant(List<String> fields)
+    {
+        return fields == null ? "" : "-fields-" + String.join(".", fields);
+    }
+}
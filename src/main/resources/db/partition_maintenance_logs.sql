@@ -0,0 +1,54 @@
+-- Converts maintenance_logs into monthly range partitions on performed_date. Run once, with the API stopped:
+--   psql -d <database> -f partition_maintenance_logs.sql
+-- Afterwards LogPartitionMaintainer creates the coming months and applies LOG_RETENTION_MONTHS.
+-- The primary key has to include the partition key, so it becomes (log_id, performed_date). log_id stays unique
+-- through its identity sequence.
+
+BEGIN;
+
+ALTER TABLE maintenance_logs RENAME TO maintenance_logs_legacy;
+
+CREATE TABLE maintenance_logs
+(
+    log_id                   integer GENERATED BY DEFAULT AS IDENTITY,
+    performed_date           timestamp(6) NOT NULL,
+    status                   varchar(255) NOT NULL,
+    task_type                varchar(255) NOT NULL,
+    comment                  varchar(255) NOT NULL,
+    asset_id                 integer      NOT NULL REFERENCES assets (asset_id),
+    performed_by_employee_id integer      NOT NULL REFERENCES employees (employee_id),
+    PRIMARY KEY (log_id, performed_date)
+) PARTITION BY RANGE (performed_date);
+
+-- Catches dates no monthly partition covers yet, e.g. back-dated or far-future logs
+CREATE TABLE maintenance_logs_default PARTITION OF maintenance_logs DEFAULT;
+
+DO
+$$
+DECLARE
+    month date := date_trunc('month', COALESCE((SELECT min(performed_date) FROM maintenance_logs_legacy), now()));
+BEGIN
+    WHILE month <= date_trunc('month', now() + interval '3 months') LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF maintenance_logs FOR VALUES FROM (%L) TO (%L)',
+                       'maintenance_logs_y' || to_char(month, 'YYYY') || 'm' || to_char(month, 'MM'),
+                       month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END
+$$;
+
+INSERT INTO maintenance_logs (log_id, performed_date, status, task_type, comment, asset_id, performed_by_employee_id)
+SELECT log_id, performed_date, status, task_type, comment, asset_id, performed_by_employee_id
+FROM maintenance_logs_legacy;
+
+SELECT setval(pg_get_serial_sequence('maintenance_logs', 'log_id'), COALESCE((SELECT max(log_id) FROM maintenance_logs), 0) + 1, false);
+
+-- Created on the parent, so every partition gets its own (month-sized) copy
+CREATE INDEX maintenance_logs_asset_date_idx ON maintenance_logs (asset_id, performed_date DESC);
+CREATE INDEX maintenance_logs_employee_idx ON maintenance_logs (performed_by_employee_id);
+CREATE INDEX maintenance_logs_status_idx ON maintenance_logs (status);
+CREATE INDEX maintenance_logs_date_idx ON maintenance_logs (performed_date);
+
+DROP TABLE maintenance_logs_legacy;
+
+COMMIT;
@@ -0,0 +1,102 @@
+package app.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+// Generates deterministic data directly in Postgres, so the same size always produces the same plans
+public class BenchmarkDataset
+{
+    private static final Logger log = LoggerFactory.getLogger(BenchmarkDataset.class);
+    private static final int EMPLOYEES = 500;
+    private static final int CHUNK_SIZE = 1_000_000;
+
+    private final int logRows;
+    private final int assets;
+
+    public BenchmarkDataset(int logRows)
+    {
+        this.logRows = logRows;
+        this.assets = Math.max(50, logRows / 1000);
+    }
+
+    public int getLogRows()
+    {
+        return logRows;
+    }
+
+    public int getAssets()
+    {
+        return assets;
+    }
+
+    public int getEmployees()
+    {
+        return EMPLOYEES;
+    }
+
+    public void load(EntityManagerFactory emf)
+    {
+        log.info("Generating dataset: {} logs, {} assets, {} employees", logRows, assets, EMPLOYEES);
+
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.unwrap(Session.class).doWork(connection ->
+            {
+                connection.setAutoCommit(true);
+
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("TRUNCATE TABLE maintenance_logs, assets, employees RESTART IDENTITY CASCADE");
+                }
+
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO employees (first_name, last_name, phone, email, password, role, active) " +
+                        "SELECT 'First' || g, 'Last' || g, lpad(g::text, 8, '0'), 'employee' || g || '@bench.dk', 'x', " +
+                        "(ARRAY['TECHNICIAN','MANAGER','ADMIN'])[1 + g % 3], g % 10 <> 0 " +
+                        "FROM generate_series(1, ?) g"))
+                {
+                    ps.setInt(1, EMPLOYEES);
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO assets (name, description, status) " +
+                        "SELECT 'Asset ' || g, 'Benchmark asset ' || g, g % 5 <> 0 " +
+                        "FROM generate_series(1, ?) g"))
+                {
+                    ps.setInt(1, assets);
+                    ps.executeUpdate();
+                }
+
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO maintenance_logs (performed_date, status, task_type, comment, asset_id, performed_by_employee_id) " +
+                        "SELECT timestamp '2015-01-01' + g * interval '37 seconds', " +
+                        "CASE WHEN g % 20 = 0 THEN 'FAILED' ELSE 'DONE' END, " +
+                        "(ARRAY['PRODUCTION','MAINTENANCE','ERROR'])[1 + g % 3], " +
+                        "'Benchmark comment ' || g, 1 + (g * 7919) % ?, 1 + (g * 104729) % ? " +
+                        "FROM generate_series(?, ?) g"))
+                {
+                    for (int from = 1; from <= logRows; from += CHUNK_SIZE)
+                    {
+                        ps.setInt(1, assets);
+                        ps.setInt(2, EMPLOYEES);
+                        ps.setInt(3, from);
+                        ps.setInt(4, Math.min(logRows, from + CHUNK_SIZE - 1));
+                        ps.executeUpdate();
+                    }
+                }
+
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("VACUUM ANALYZE");
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package app.benchmarks;
+
+import app.config.ApplicationConfig;
+import app.config.DependencyContainer;
+import app.config.HibernateTestConfig;
+import app.entities.Employee;
+import app.entities.enums.EmployeeRole;
+import app.persistence.EmployeeDAO;
+import app.services.SecurityServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Measures POST /assets/{id}/logs latency while a flood of GET /logs reports runs in parallel.
+ * With bulkheads the write p99 should stay close to the idle p99, and excess reports get 503.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=app.benchmarks.BulkheadBenchmark
+ * Optional args: <floodClients> <writes> <logRows>
+ */
+public class BulkheadBenchmark
+{
+    private static final int PORT = 7091;
+    private static final String BASE_URL = "http://localhost:" + PORT + "/api/v1";
+    private static final String EMAIL = "bench-admin@bench.dk";
+    private static final String PASSWORD = "benchmark";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public static void main(String[] args) throws Exception
+    {
+        int floodClients = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int writes = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        int logRows = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+
+        EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+        new BenchmarkDataset(logRows).load(emf);
+        Employee admin = new EmployeeDAO(emf).create(Employee.builder()
+                .firstName("Bench")
+                .lastName("Admin")
+                .phone("00000000")
+                .email(EMAIL)
+                .password(SecurityServiceImpl.hashPassword(PASSWORD))
+                .role(EmployeeRole.ADMIN)
+                .active(true)
+                .build());
+
+        DependencyContainer container = new DependencyContainer(emf);
+        Javalin app = ApplicationConfig.start(container, PORT);
+        try
+        {
+            BulkheadBenchmark benchmark = new BulkheadBenchmark();
+            String token = benchmark.login();
+
+            List<Long> idle = benchmark.measureWrites(token, admin.getEmployeeId(), writes);
+
+            AtomicBoolean flooding = new AtomicBoolean(true);
+            AtomicInteger rejectedReads = new AtomicInteger();
+            List<Long> underLoad;
+            try (ExecutorService flood = Executors.newVirtualThreadPerTaskExecutor())
+            {
+                for (int i = 0; i < floodClients; i++)
+                {
+                    flood.submit(() ->
+                    {
+                        while (flooding.get())
+                        {
+                            if (benchmark.get(token, "/logs") == 503)
+                            {
+                                rejectedReads.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    });
+                }
+                underLoad = benchmark.measureWrites(token, admin.getEmployeeId(), writes);
+                flooding.set(false);
+            }
+
+            System.out.printf("%nPOST /assets/{id}/logs p50/p99 idle:       %d / %d ms%n", percentile(idle, 0.50), percentile(idle, 0.99));
+            System.out.printf("POST /assets/{id}/logs p50/p99 under flood: %d / %d ms%n", percentile(underLoad, 0.50), percentile(underLoad, 0.99));
+            System.out.printf("GET /logs rejected by bulkhead: %d%n", rejectedReads.get());
+        }
+        finally
+        {
+            ApplicationConfig.stop(app, container);
+            emf.close();
+        }
+    }
+
+    private List<Long> measureWrites(String token, int employeeId, int writes) throws Exception
+    {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < writes; i++)
+        {
+            long start = System.nanoTime();
+            client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/assets/" + (1 + i % 50) + "/logs"))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format("""
+                            {"performedDate": "2024-06-01T08:00:00", "status": "DONE", "taskType": "MAINTENANCE", "comment": "bench", "performedByEmployeeId": %d}
+                            """, employeeId)))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            latencies.add((System.nanoTime() - start) / 1_000_000);
+        }
+        Collections.sort(latencies);
+        return latencies;
+    }
+
+    private int get(String token, String path)
+    {
+        try
+        {
+            return client.send(HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(60))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+        catch (Exception e)
+        {
+            return -1;
+        }
+    }
+
+    private String login() throws Exception
+    {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format("{\"email\": \"%s\", \"password\": \"%s\"}", EMAIL, PASSWORD)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    private static long percentile(List<Long> sorted, double percentile)
+    {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
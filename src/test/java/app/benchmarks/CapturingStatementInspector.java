@@ -0,0 +1,29 @@
+package app.benchmarks;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Registered through hibernate.session_factory.statement_inspector, records the SQL Hibernate sends on this thread
+public class CapturingStatementInspector implements StatementInspector
+{
+    private static final ThreadLocal<List<String>> CAPTURED = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql)
+    {
+        CAPTURED.get().add(sql);
+        return sql;
+    }
+
+    public static void reset()
+    {
+        CAPTURED.get().clear();
+    }
+
+    public static List<String> captured()
+    {
+        return List.copyOf(CAPTURED.get());
+    }
+}
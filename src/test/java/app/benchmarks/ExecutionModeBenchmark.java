@@ -0,0 +1,162 @@
+package app.benchmarks;
+
+import app.config.ApplicationConfig;
+import app.config.DependencyContainer;
+import app.config.ExecutionMode;
+import app.config.HibernateTestConfig;
+import app.entities.Employee;
+import app.entities.enums.EmployeeRole;
+import app.persistence.EmployeeDAO;
+import app.services.SecurityServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.Javalin;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Compares platform-thread and virtual-thread request execution under the same load:
+ * many concurrent clients mixing heavy report reads (GET /logs) with point reads (GET /assets/{id}).
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=app.benchmarks.ExecutionModeBenchmark
+ * Optional args: <clients> <requestsPerClient> <logRows>
+ */
+public class ExecutionModeBenchmark
+{
+    private static final int PORT = 7090;
+    private static final String BASE_URL = "http://localhost:" + PORT + "/api/v1";
+    private static final String EMAIL = "bench-admin@bench.dk";
+    private static final String PASSWORD = "benchmark";
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    private record Result(ExecutionMode mode, int requests, int errors, long elapsedMs, long p50Ms, long p99Ms, long maxMs)
+    {
+    }
+
+    public static void main(String[] args) throws Exception
+    {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int logRows = args.length > 2 ? Integer.parseInt(args[2]) : 50_000;
+
+        EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+        new BenchmarkDataset(logRows).load(emf);
+        new EmployeeDAO(emf).create(Employee.builder()
+                .firstName("Bench")
+                .lastName("Admin")
+                .phone("00000000")
+                .email(EMAIL)
+                .password(SecurityServiceImpl.hashPassword(PASSWORD))
+                .role(EmployeeRole.ADMIN)
+                .active(true)
+                .build());
+
+        ExecutionModeBenchmark benchmark = new ExecutionModeBenchmark();
+        List<Result> results = new ArrayList<>();
+        for (ExecutionMode mode : ExecutionMode.values())
+        {
+            DependencyContainer container = new DependencyContainer(emf, mode);
+            Javalin app = ApplicationConfig.start(container, PORT);
+            try
+            {
+                results.add(benchmark.run(mode, clients, requestsPerClient));
+            }
+            finally
+            {
+                ApplicationConfig.stop(app, container);
+            }
+        }
+
+        System.out.printf("%n%-10s %10s %8s %10s %10s %8s %8s %8s%n", "mode", "requests", "errors", "elapsed", "req/s", "p50", "p99", "max");
+        for (Result r : results)
+        {
+            System.out.printf(Locale.US, "%-10s %10d %8d %8dms %10.1f %6dms %6dms %6dms%n",
+                    r.mode(), r.requests(), r.errors(), r.elapsedMs(), r.requests() * 1000.0 / r.elapsedMs(), r.p50Ms(), r.p99Ms(), r.maxMs());
+        }
+        emf.close();
+    }
+
+    private Result run(ExecutionMode mode, int clients, int requestsPerClient) throws Exception
+    {
+        String token = login();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < clients; c++)
+            {
+                int clientId = c;
+                futures.add(executor.submit(() ->
+                {
+                    for (int i = 0; i < requestsPerClient; i++)
+                    {
+                        // Every tenth request is a heavy report, the rest are point reads
+                        String path = (clientId + i) % 10 == 0 ? "/logs" : "/assets/" + (1 + (clientId + i) % 50);
+                        long requestStart = System.nanoTime();
+                        try
+                        {
+                            HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(BASE_URL + path))
+                                    .header("Authorization", "Bearer " + token)
+                                    .timeout(Duration.ofSeconds(60))
+                                    .GET()
+                                    .build(), HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200)
+                            {
+                                errors.incrementAndGet();
+                            }
+                        }
+                        catch (Exception e)
+                        {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add((System.nanoTime() - requestStart) / 1_000_000);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+            {
+                future.get();
+            }
+        }
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return new Result(mode, sorted.size(), errors.get(), elapsedMs, percentile(sorted, 0.50), percentile(sorted, 0.99), sorted.get(sorted.size() - 1));
+    }
+
+    private String login() throws Exception
+    {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(BASE_URL + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(String.format("{\"email\": \"%s\", \"password\": \"%s\"}", EMAIL, PASSWORD)))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return new ObjectMapper().readTree(response.body()).get("token").asText();
+    }
+
+    private static long percentile(List<Long> sorted, double percentile)
+    {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
@@ -0,0 +1,98 @@
+package app.benchmarks;
+
+import app.config.HibernateTestConfig;
+import app.entities.enums.LogStatus;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.JdbcMaintenanceLogQueries;
+import app.persistence.MaintenanceLogDAO;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/*
+ * Compares the JPA path (DAO query + MaintenanceLogMapper.toDTO) with JdbcMaintenanceLogQueries for the three
+ * fast path queries, on the same pool and dataset. Prints p50/p99 per call and rows per call for both.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=app.benchmarks.JdbcFastPathBenchmark
+ * Optional args: <logRows> <iterations>
+ */
+public class JdbcFastPathBenchmark
+{
+    private static final int WARMUP = 500;
+
+    private record Comparison(String name, IntFunction<List<?>> jpa, IntFunction<List<?>> jdbc)
+    {
+    }
+
+    public static void main(String[] args)
+    {
+        int logRows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5_000;
+
+        EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+        BenchmarkDataset dataset = new BenchmarkDataset(logRows);
+        dataset.load(emf);
+        try
+        {
+            MaintenanceLogDAO logDao = new MaintenanceLogDAO(emf);
+            JdbcMaintenanceLogQueries jdbc = new JdbcMaintenanceLogQueries(emf);
+            int assets = dataset.getAssets();
+
+            List<Comparison> comparisons = List.of(
+                    new Comparison("getByAsset",
+                            i -> logDao.getByAsset(1 + i % assets).stream().map(MaintenanceLogMapper::toDTO).toList(),
+                            i -> jdbc.getByAsset(1 + i % assets)),
+                    new Comparison("getByStatusAndAsset",
+                            i -> logDao.getByStatusAndAsset(LogStatus.FAILED, 1 + i % assets).stream().map(MaintenanceLogMapper::toDTO).toList(),
+                            i -> jdbc.getByStatusAndAsset(LogStatus.FAILED, 1 + i % assets)),
+                    new Comparison("getLogsOnActiveAssets(100)",
+                            i -> logDao.getLogsOnActiveAssets(100).stream().map(MaintenanceLogMapper::toDTO).toList(),
+                            i -> jdbc.getLogsOnActiveAssets(100))
+            );
+
+            System.out.printf("%n%d logs, %d assets, %d iterations%n", logRows, assets, iterations);
+            System.out.printf("%-28s %10s %10s %10s %10s %8s%n", "query", "jpa p50", "jpa p99", "jdbc p50", "jdbc p99", "rows");
+            for (Comparison comparison : comparisons)
+            {
+                List<Long> jpa = measure(comparison.jpa(), iterations);
+                List<Long> fast = measure(comparison.jdbc(), iterations);
+                System.out.printf("%-28s %8.3fms %8.3fms %8.3fms %8.3fms %8d%n", comparison.name(),
+                        percentile(jpa, 0.50) / 1_000_000.0, percentile(jpa, 0.99) / 1_000_000.0,
+                        percentile(fast, 0.50) / 1_000_000.0, percentile(fast, 0.99) / 1_000_000.0,
+                        comparison.jdbc().apply(0).size());
+            }
+        }
+        finally
+        {
+            emf.close();
+        }
+    }
+
+    // Both paths get the same warmup, so neither is measured while the JIT or the statement cache is still cold
+    private static List<Long> measure(IntFunction<List<?>> call, int iterations)
+    {
+        for (int i = 0; i < WARMUP; i++)
+        {
+            call.apply(i);
+        }
+
+        List<Long> latencies = new ArrayList<>(iterations);
+        for (int i = 0; i < iterations; i++)
+        {
+            long start = System.nanoTime();
+            call.apply(i);
+            latencies.add(System.nanoTime() - start);
+        }
+        Collections.sort(latencies);
+        return latencies;
+    }
+
+    private static long percentile(List<Long> sorted, double percentile)
+    {
+        int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+}
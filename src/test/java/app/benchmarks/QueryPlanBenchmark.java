@@ -0,0 +1,330 @@
+package app.benchmarks;
+
+import app.config.hibernate.HibernateBaseProperties;
+import app.config.hibernate.HibernateEmfBuilder;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.AssetDAO;
+import app.persistence.EmployeeDAO;
+import app.persistence.MaintenanceLogDAO;
+import app.utils.DateRange;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/*
+ * Runs every DAO query against generated datasets and writes two files per dataset size:
+ *  - query-plans-<rows>.md   : SQL, plan shape and rows touched. Stable between runs, so commit it and diff it.
+ *  - query-timings-<rows>.csv: execution/planning time, buffers and spills. Varies between runs.
+ *
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=app.benchmarks.QueryPlanBenchmark
+ * Optional args: dataset sizes, e.g. "10000 1000000". Output dir: -Dqueryplan.outputDir=...
+ */
+public class QueryPlanBenchmark
+{
+    private static final Logger log = LoggerFactory.getLogger(QueryPlanBenchmark.class);
+    private static final int[] DEFAULT_SIZES = {10_000, 1_000_000, 10_000_000};
+    // Unbounded queries (e.g. getAll) are only hydrated through the DAO up to this size, above it they are explained only
+    private static final int DAO_EXECUTION_LIMIT = 1_000_000;
+    // The first month of generated logs, which every dataset size reaches into
+    private static final LocalDateTime RANGE_FROM = LocalDateTime.of(2015, 1, 1, 0, 0);
+    private static final LocalDateTime RANGE_TO = LocalDateTime.of(2015, 2, 1, 0, 0);
+    private static final DateRange RANGE = new DateRange(RANGE_FROM, RANGE_TO);
+    private static final List<Integer> IDS = List.of(1, 2, 3);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<String>> capturedSql = new HashMap<>();
+    private final EntityManagerFactory emf;
+    private final List<BenchmarkQuery> queries;
+
+    private record BenchmarkQuery(String name, boolean unbounded, Function<BenchmarkDataset, List<Object>> parameters, Function<BenchmarkDataset, Object> call)
+    {
+    }
+
+    private record ExplainResult(List<String> planLines, long rowsTouched, double planningMs, double executionMs, long sharedHit, long sharedRead, long tempWritten)
+    {
+    }
+
+    public QueryPlanBenchmark(EntityManagerFactory emf)
+    {
+        this.emf = emf;
+        this.queries = buildQueries(new AssetDAO(emf), new EmployeeDAO(emf), new MaintenanceLogDAO(emf));
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int[] sizes = args.length > 0 ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray() : DEFAULT_SIZES;
+        Path outputDir = Path.of(System.getProperty("queryplan.outputDir", "src/docs/query-plans"));
+        Files.createDirectories(outputDir);
+
+        EntityManagerFactory emf = HibernateEmfBuilder.build(buildProps());
+        try
+        {
+            QueryPlanBenchmark benchmark = new QueryPlanBenchmark(emf);
+            for (int size : sizes)
+            {
+                BenchmarkDataset dataset = new BenchmarkDataset(size);
+                dataset.load(emf);
+                benchmark.run(dataset, outputDir);
+            }
+        }
+        finally
+        {
+            emf.close();
+        }
+    }
+
+    private static Properties buildProps()
+    {
+        Properties props = HibernateBaseProperties.createBase();
+        props.put("hibernate.connection.driver_class", "org.testcontainers.jdbc.ContainerDatabaseDriver");
+        props.put("hibernate.connection.url", "jdbc:tc:postgresql:16.2:///bench_db");
+        props.put("hibernate.hbm2ddl.auto", "create-drop");
+        props.put("hibernate.session_factory.statement_inspector", CapturingStatementInspector.class.getName());
+        return props;
+    }
+
+    private static List<BenchmarkQuery> buildQueries(AssetDAO assetDao, EmployeeDAO employeeDao, MaintenanceLogDAO logDao)
+    {
+        return List.of(
+                new BenchmarkQuery("AssetDAO.get", false, d -> List.of(1), d -> assetDao.get(1)),
+                new BenchmarkQuery("AssetDAO.getAll", true, d -> List.of(), d -> assetDao.getAll()),
+                new BenchmarkQuery("AssetDAO.getAllByStatus", true, d -> List.of(true), d -> assetDao.getAllByStatus(true)),
+                new BenchmarkQuery("AssetDAO.getAllByIds", false, d -> List.copyOf(IDS), d -> assetDao.getAll(IDS)),
+                new BenchmarkQuery("AssetDAO.getChangeVersion", false, d -> List.of(1), d -> assetDao.getChangeVersion(1)),
+                new BenchmarkQuery("AssetDAO.getLastLogDates", false, d -> List.copyOf(IDS), d -> assetDao.getLastLogDates(IDS)),
+                new BenchmarkQuery("AssetDAO.getProjected", true, d -> List.of(true), d -> assetDao.getProjected(List.of("id", "name"), true)),
+
+                new BenchmarkQuery("EmployeeDAO.get", false, d -> List.of(1), d -> employeeDao.get(1)),
+                new BenchmarkQuery("EmployeeDAO.getAll", true, d -> List.of(), d -> employeeDao.getAll()),
+                new BenchmarkQuery("EmployeeDAO.getByEmail", false, d -> List.of("employee1@bench.dk"), d -> employeeDao.getByEmail("employee1@bench.dk")),
+                new BenchmarkQuery("EmployeeDAO.getActiveEmployees", false, d -> List.of(100), d -> employeeDao.getActiveEmployees(100)),
+                new BenchmarkQuery("EmployeeDAO.getInactiveEmployees", false, d -> List.of(100), d -> employeeDao.getInactiveEmployees(100)),
+                new BenchmarkQuery("EmployeeDAO.getAllByIds", false, d -> List.copyOf(IDS), d -> employeeDao.getAll(IDS)),
+                new BenchmarkQuery("EmployeeDAO.getVersion", false, d -> List.of(1), d -> employeeDao.getVersion(1)),
+                new BenchmarkQuery("EmployeeDAO.getProjected", false, d -> List.of(true, 100), d -> employeeDao.getProjected(List.of("id", "firstName", "lastName"), true, 100)),
+
+                new BenchmarkQuery("MaintenanceLogDAO.get", false, d -> List.of(1), d -> logDao.get(1)),
+                new BenchmarkQuery("MaintenanceLogDAO.getAll", true, d -> List.of(), d -> logDao.getAll()),
+                new BenchmarkQuery("MaintenanceLogDAO.getByAsset", false, d -> List.of(1), d -> logDao.getByAsset(1)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByAssetAndTask", false, d -> List.of(1, TaskType.MAINTENANCE), d -> logDao.getByAssetAndTask(1, TaskType.MAINTENANCE)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByStatus", true, d -> List.of(LogStatus.FAILED), d -> logDao.getByStatus(LogStatus.FAILED)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByStatusAndAsset", false, d -> List.of(1, LogStatus.FAILED), d -> logDao.getByStatusAndAsset(LogStatus.FAILED, 1)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByPerformedEmployee", true, d -> List.of(1), d -> logDao.getByPerformedEmployee(1)),
+                new BenchmarkQuery("MaintenanceLogDAO.getLogsOnActiveAssets", false, d -> List.of(100), d -> logDao.getLogsOnActiveAssets(100)),
+                new BenchmarkQuery("MaintenanceLogDAO.getAllByIds", false, d -> List.copyOf(IDS), d -> logDao.getAll(IDS)),
+                // Parameters in the order the conditions are written: from, to, then the filters and the limit
+                new BenchmarkQuery("MaintenanceLogDAO.getLogsOnActiveAssetsInRange", false, d -> List.of(RANGE_FROM, RANGE_TO, 100), d -> logDao.getLogsOnActiveAssets(100, RANGE)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByDateRange", true, d -> List.of(RANGE_FROM, RANGE_TO), d -> logDao.getByDateRange(RANGE, null, null, null)),
+                new BenchmarkQuery("MaintenanceLogDAO.getByDateRangeAndAsset", false, d -> List.of(RANGE_FROM, RANGE_TO, 1, LogStatus.FAILED), d -> logDao.getByDateRange(RANGE, 1, LogStatus.FAILED, null)),
+                new BenchmarkQuery("MaintenanceLogDAO.getProjected", false, d -> List.of(RANGE_FROM, RANGE_TO, 1), d -> logDao.getProjected(List.of("id", "performedDate", "status", "assetName"), 1, null, null, RANGE))
+        );
+    }
+
+    public void run(BenchmarkDataset dataset, Path outputDir) throws IOException
+    {
+        StringBuilder plans = new StringBuilder();
+        StringBuilder timings = new StringBuilder("query,log_rows,dao_ms,rows_returned,planning_ms,execution_ms,shared_hit,shared_read,temp_written\n");
+
+        plans.append("# Query plans - ").append(dataset.getLogRows()).append(" maintenance_logs rows\n\n");
+        plans.append("Dataset: ").append(dataset.getAssets()).append(" assets, ").append(dataset.getEmployees()).append(" employees\n\n");
+
+        for (BenchmarkQuery query : queries)
+        {
+            String daoMs = "-";
+            String rowsReturned = "-";
+
+            if (!query.unbounded() || dataset.getLogRows() <= DAO_EXECUTION_LIMIT || !capturedSql.containsKey(query.name()))
+            {
+                CapturingStatementInspector.reset();
+                long start = System.nanoTime();
+                Object result = query.call().apply(dataset);
+                daoMs = String.format(Locale.US, "%.2f", (System.nanoTime() - start) / 1_000_000.0);
+                rowsReturned = String.valueOf(result instanceof Collection<?> c ? c.size() : (result == null ? 0 : 1));
+                capturedSql.put(query.name(), CapturingStatementInspector.captured());
+            }
+
+            List<String> statements = capturedSql.get(query.name());
+            String primary = statements.get(0);
+            ExplainResult explain = explain(primary, query.parameters().apply(dataset));
+
+            plans.append("## ").append(query.name()).append("\n\n");
+            plans.append("```sql\n").append(primary).append("\n```\n\n");
+            plans.append("Follow-up statements: ").append(statements.size() - 1).append("\n\n");
+            plans.append("```\n");
+            explain.planLines().forEach(line -> plans.append(line).append("\n"));
+            plans.append("```\n\n");
+            plans.append("Rows touched: ").append(explain.rowsTouched()).append("\n\n");
+
+            timings.append(String.join(",",
+                    query.name(),
+                    String.valueOf(dataset.getLogRows()),
+                    daoMs,
+                    rowsReturned,
+                    String.format(Locale.US, "%.3f", explain.planningMs()),
+                    String.format(Locale.US, "%.3f", explain.executionMs()),
+                    String.valueOf(explain.sharedHit()),
+                    String.valueOf(explain.sharedRead()),
+                    String.valueOf(explain.tempWritten()))).append("\n");
+
+            log.info("{} @ {} rows: {} ms", query.name(), dataset.getLogRows(), explain.executionMs());
+        }
+
+        Files.writeString(outputDir.resolve("query-plans-" + dataset.getLogRows() + ".md"), plans.toString(), StandardCharsets.UTF_8);
+        Files.writeString(outputDir.resolve("query-timings-" + dataset.getLogRows() + ".csv"), timings.toString(), StandardCharsets.UTF_8);
+    }
+
+    private ExplainResult explain(String sql, List<Object> parameters)
+    {
+        String json;
+        try (EntityManager em = emf.createEntityManager())
+        {
+            json = em.unwrap(Session.class).doReturningWork(connection ->
+            {
+                try (Statement statement = connection.createStatement())
+                {
+                    // PREPARE + EXECUTE gives a custom plan for the actual values, like the first executions from JDBC
+                    statement.execute("PREPARE bench_query AS " + toPositionalParameters(sql));
+                    try (ResultSet rs = statement.executeQuery("EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) EXECUTE bench_query" + toLiteralArguments(parameters)))
+                    {
+                        rs.next();
+                        return rs.getString(1);
+                    }
+                    finally
+                    {
+                        statement.execute("DEALLOCATE bench_query");
+                    }
+                }
+            });
+        }
+
+        try
+        {
+            JsonNode root = objectMapper.readTree(json).get(0);
+            JsonNode plan = root.get("Plan");
+
+            List<String> lines = new ArrayList<>();
+            renderNode(plan, 0, lines);
+
+            return new ExplainResult(
+                    lines,
+                    rowsTouched(plan),
+                    root.path("Planning Time").asDouble(),
+                    root.path("Execution Time").asDouble(),
+                    plan.path("Shared Hit Blocks").asLong(),
+                    plan.path("Shared Read Blocks").asLong(),
+                    plan.path("Temp Written Blocks").asLong());
+        }
+        catch (IOException e)
+        {
+            throw new RuntimeException("Could not parse EXPLAIN output for: " + sql, e);
+        }
+    }
+
+    // Only plan shape goes in the report (node types, indexes, sort methods), never costs or timings
+    private void renderNode(JsonNode node, int depth, List<String> lines)
+    {
+        StringBuilder line = new StringBuilder("  ".repeat(depth));
+        if (depth > 0)
+        {
+            line.append("-> ");
+        }
+        line.append(node.path("Node Type").asText());
+
+        if (node.has("Join Type") && !"Inner".equals(node.path("Join Type").asText()))
+        {
+            line.append(" (").append(node.path("Join Type").asText()).append(")");
+        }
+        if (node.has("Index Name"))
+        {
+            line.append(" using ").append(node.path("Index Name").asText());
+        }
+        if (node.has("Relation Name"))
+        {
+            line.append(" on ").append(node.path("Relation Name").asText());
+        }
+        if (node.has("Sort Method"))
+        {
+            line.append(" [").append(node.path("Sort Method").asText()).append(", ").append(node.path("Sort Space Type").asText()).append("]");
+        }
+        if (node.path("Temp Written Blocks").asLong() > 0 && (node.has("Sort Method") || node.path("Node Type").asText().startsWith("Hash")))
+        {
+            line.append(" [spills to disk]");
+        }
+        lines.add(line.toString());
+
+        for (JsonNode child : node.path("Plans"))
+        {
+            renderNode(child, depth + 1, lines);
+        }
+    }
+
+    private long rowsTouched(JsonNode node)
+    {
+        long touched = 0;
+        if (node.path("Node Type").asText().endsWith("Scan"))
+        {
+            long loops = Math.max(1, node.path("Actual Loops").asLong());
+            touched += (node.path("Actual Rows").asLong() + node.path("Rows Removed by Filter").asLong()) * loops;
+        }
+        for (JsonNode child : node.path("Plans"))
+        {
+            touched += rowsTouched(child);
+        }
+        return touched;
+    }
+
+    private static String toPositionalParameters(String sql)
+    {
+        StringBuilder sb = new StringBuilder();
+        int index = 1;
+        for (char c : sql.toCharArray())
+        {
+            if (c == '?')
+            {
+                sb.append('$').append(index++);
+            }
+            else
+            {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String toLiteralArguments(List<Object> parameters)
+    {
+        if (parameters.isEmpty())
+        {
+            return "";
+        }
+
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (Object parameter : parameters)
+        {
+            if (parameter instanceof Number || parameter instanceof Boolean)
+            {
+                joiner.add(parameter.toString());
+            }
+            else
+            {
+                joiner.add("'" + parameter.toString().replace("'", "''") + "'");
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,147 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import app.config.HibernateTestConfig;
+import app.persistence.PgChangeCounterStore;
+import app.persistence.TransactionExecutor;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two buses and two sets of counters on the same database stand in for two instances
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChangeCountersTest
+{
+    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+    private PgInvalidationBus firstBus;
+    private PgInvalidationBus secondBus;
+    private ChangeCounters first;
+    private ChangeCounters second;
+
+    @BeforeEach
+    void setUp() throws InterruptedException
+    {
+        firstBus = new PgInvalidationBus(emf);
+        secondBus = new PgInvalidationBus(emf);
+        first = counters(firstBus);
+        second = counters(secondBus);
+        firstBus.start();
+        secondBus.start();
+        waitFor(() -> isListening(firstBus) && isListening(secondBus));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        firstBus.stop();
+        secondBus.stop();
+    }
+
+    @AfterAll
+    void closeEmf()
+    {
+        emf.close();
+    }
+
+    private ChangeCounters counters(InvalidationBus bus)
+    {
+        ChangeCounters counters = new ChangeCounters(new PgChangeCounterStore(emf, new TransactionExecutor()));
+        bus.onPublish(counters::onPublish);
+        bus.subscribe(counters::onInvalidation);
+        return counters;
+    }
+
+    private static boolean isListening(PgInvalidationBus bus)
+    {
+        return (boolean) bus.metrics().get("listening");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("Tag - should be the same on every instance, before and after a write on one of them")
+    void tagSharedBetweenInstances() throws InterruptedException
+    {
+        String before = first.tag(Scope.ASSETS);
+        assertThat(second.tag(Scope.ASSETS), is(before));
+
+        firstBus.publish(InvalidationEvent.changed(Scope.ASSETS, 1));
+
+        String after = first.tag(Scope.ASSETS);
+        assertThat(after, not(equalTo(before)));
+        waitFor(() -> second.tag(Scope.ASSETS).equals(after));
+        // An instance started later agrees as well
+        assertThat(counters(new LocalInvalidationBus()).tag(Scope.ASSETS), is(after));
+    }
+
+    @Test
+    @DisplayName("Tag - should move the log tag along with an employee write, and no tag for an item-only change")
+    void tagFollowsAffectedScopes()
+    {
+        String assets = first.tag(Scope.ASSETS);
+        String employees = first.tag(Scope.EMPLOYEES);
+        String logs = first.tag(Scope.LOGS);
+
+        firstBus.publish(InvalidationEvent.itemChanged(Scope.ASSETS, 1));
+        assertThat(first.tag(Scope.ASSETS), is(assets));
+
+        firstBus.publish(InvalidationEvent.changed(Scope.EMPLOYEES, 1));
+        assertThat(first.tag(Scope.EMPLOYEES), not(equalTo(employees)));
+        assertThat(first.tag(Scope.LOGS), not(equalTo(logs)));
+        assertThat(first.tag(Scope.ASSETS), is(assets));
+    }
+
+    @Test
+    @DisplayName("OnPublish - should keep a failed bump and send it with the next read")
+    void failedBumpRetried()
+    {
+        AtomicInteger failuresLeft = new AtomicInteger(1);
+        Map<Scope, Long> stored = new EnumMap<>(Map.of(Scope.ASSETS, 0L, Scope.EMPLOYEES, 0L, Scope.LOGS, 0L));
+        ChangeCounters counters = new ChangeCounters(new ChangeCounters.Store()
+        {
+            @Override
+            public void bump(Set<Scope> scopes)
+            {
+                if (failuresLeft.getAndDecrement() > 0)
+                {
+                    throw new IllegalStateException("Database not there");
+                }
+                scopes.forEach(scope -> stored.merge(scope, 1L, Long::sum));
+            }
+
+            @Override
+            public Map<Scope, Long> read()
+            {
+                return new EnumMap<>(stored);
+            }
+        });
+        LocalInvalidationBus bus = new LocalInvalidationBus();
+        bus.onPublish(counters::onPublish);
+        bus.subscribe(counters::onInvalidation);
+        assertThat(counters.tag(Scope.ASSETS), is("assets-0"));
+
+        bus.publish(InvalidationEvent.changed(Scope.ASSETS, 1));
+
+        assertThat(counters.metrics().get("bumpFailures"), is(1L));
+        assertThat(counters.tag(Scope.ASSETS), is("assets-1"));
+        assertThat(counters.metrics().get("pending"), is("[]"));
+    }
+}
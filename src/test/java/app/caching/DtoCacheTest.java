@@ -0,0 +1,174 @@
+package app.caching;
+
+import app.concurrency.Bulkhead;
+import app.concurrency.WorkloadClass;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DtoCacheTest
+{
+    private final Bulkhead refresher = new Bulkhead(WorkloadClass.BULK_READ);
+    private final ExecutorService callers = Executors.newSingleThreadExecutor();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown()
+    {
+        refresher.shutdown();
+        callers.shutdownNow();
+    }
+
+    private String load()
+    {
+        return "v" + loads.incrementAndGet();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("Get - should serve a fresh entry without loading again")
+    void getFreshEntry()
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_FRESH", 10, 60_000, 0, refresher);
+
+        assertThat(cache.get("1", this::load), is("v1"));
+        assertThat(cache.get("1", this::load), is("v1"));
+
+        assertThat(loads.get(), is(1));
+        assertThat(cache.metrics().get("hits"), is(1L));
+        assertThat(cache.metrics().get("misses"), is(1L));
+    }
+
+    @Test
+    @DisplayName("Get - should load again once the TTL and stale window have run out")
+    void getAfterTtlExpiry() throws Exception
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_TTL", 10, 20, 0, refresher);
+
+        assertThat(cache.get("1", this::load), is("v1"));
+        Thread.sleep(40);
+
+        assertThat(cache.get("1", this::load), is("v2"));
+        assertThat(cache.metrics().get("misses"), is(2L));
+        assertThat(cache.metrics().get("staleHits"), is(0L));
+    }
+
+    @Test
+    @DisplayName("Get - should serve a stale entry while one refresh runs in the background")
+    void getStaleWhileRefreshing() throws Exception
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_STALE", 10, 20, 60_000, refresher);
+        CountDownLatch release = new CountDownLatch(1);
+
+        assertThat(cache.get("1", this::load), is("v1"));
+        Thread.sleep(40);
+
+        Supplier<String> slowLoad = () ->
+        {
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return load();
+        };
+        // Both answered from the stale entry, only the first starts a refresh
+        assertThat(cache.get("1", slowLoad), is("v1"));
+        assertThat(cache.get("1", slowLoad), is("v1"));
+        assertThat(loads.get(), is(1));
+
+        release.countDown();
+        waitFor(() -> (long) cache.metrics().get("refreshes") == 1);
+
+        assertThat(cache.get("1", this::load), is("v2"));
+        assertThat(loads.get(), is(2));
+        assertThat(cache.metrics().get("staleHits"), is(2L));
+    }
+
+    @Test
+    @DisplayName("Get - should not store a value whose load finished after an invalidation")
+    void getDropsLoadFinishedAfterInvalidation() throws Exception
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_INVALIDATE", 10, 60_000, 0, refresher);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> beforeWrite = callers.submit(() -> cache.get("1", () ->
+        {
+            started.countDown();
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return "before write";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        cache.invalidate("1");
+        // Arrives after the invalidation, so it must not join the older load
+        assertThat(cache.get("1", () -> "after write"), is("after write"));
+
+        release.countDown();
+        assertThat(beforeWrite.get(5, TimeUnit.SECONDS), is("before write"));
+        assertThat(cache.get("1", this::load), is("after write"));
+        assertThat(loads.get(), is(0));
+    }
+
+    @Test
+    @DisplayName("Get - should reload an entry cached for another version")
+    void getWithVersion()
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_VERSION", 10, 60_000, 60_000, refresher);
+
+        assertThat(cache.get("1", "asset-1-3", this::load), is("v1"));
+        assertThat(cache.get("1", "asset-1-3", this::load), is("v1"));
+        assertThat(cache.get("1", "asset-1-4", this::load), is("v2"));
+        // Without a version whatever is cached is fine
+        assertThat(cache.get("1", this::load), is("v2"));
+
+        assertThat(loads.get(), is(2));
+    }
+
+    @Test
+    @DisplayName("Get - should evict the least recently used entry above the entry limit")
+    void getEvictsLeastRecentlyUsed()
+    {
+        DtoCache<String> cache = new DtoCache<>("TEST_EVICT", 2, 60_000, 0, refresher);
+
+        cache.get("1", this::load);
+        cache.get("2", this::load);
+        cache.get("1", this::load);
+        cache.get("3", this::load);
+
+        assertThat(cache.metrics().get("entries"), is(2));
+        assertThat(cache.get("1", this::load), is("v1"));
+        assertThat(cache.get("2", this::load), is("v4"));
+    }
+}
@@ -0,0 +1,140 @@
+package app.caching;
+
+import app.caching.ChangeCounters.Scope;
+import app.config.HibernateTestConfig;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two buses on the same database stand in for two instances
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PgInvalidationBusTest
+{
+    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+    private List<InvalidationEvent> firstReceived;
+    private List<InvalidationEvent> secondReceived;
+    private PgInvalidationBus first;
+    private PgInvalidationBus second;
+
+    @BeforeEach
+    void setUp() throws InterruptedException
+    {
+        // New lists each test, a stopped bus's listener can still deliver for up to a poll
+        firstReceived = new CopyOnWriteArrayList<>();
+        secondReceived = new CopyOnWriteArrayList<>();
+        first = new PgInvalidationBus(emf);
+        second = new PgInvalidationBus(emf);
+        first.subscribe(firstReceived::add);
+        second.subscribe(secondReceived::add);
+        first.start();
+        second.start();
+        waitFor(() -> isListening(first) && isListening(second));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        first.stop();
+        second.stop();
+    }
+
+    @AfterAll
+    void closeEmf()
+    {
+        emf.close();
+    }
+
+    private static boolean isListening(PgInvalidationBus bus)
+    {
+        return (boolean) bus.metrics().get("listening");
+    }
+
+    private static String nodeId(PgInvalidationBus bus)
+    {
+        return (String) bus.metrics().get("nodeId");
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    // Like a connection dropped by the network or a database restart
+    private void terminate(String applicationName)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.createNativeQuery("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE application_name = ?1")
+                    .setParameter(1, applicationName)
+                    .getResultList();
+        }
+    }
+
+    private void waitForFullFlush(List<InvalidationEvent> received) throws InterruptedException
+    {
+        waitFor(() -> received.contains(InvalidationEvent.all(Scope.ASSETS))
+                && received.contains(InvalidationEvent.all(Scope.EMPLOYEES))
+                && received.contains(InvalidationEvent.all(Scope.LOGS)));
+    }
+
+    @Test
+    @DisplayName("Publish - should reach the other instance and be delivered locally once")
+    void publishReachesOtherInstance() throws InterruptedException
+    {
+        InvalidationEvent event = InvalidationEvent.changed(Scope.ASSETS, 5);
+
+        first.publish(event);
+
+        waitFor(() -> secondReceived.contains(event));
+        // The notification also comes back to the sender, which must skip it
+        Thread.sleep(300);
+        assertThat(firstReceived, contains(event));
+        assertThat(secondReceived, contains(event));
+        assertThat(second.metrics().get("eventsReceived"), is(1L));
+    }
+
+    @Test
+    @DisplayName("Publish - should send a flush of every scope after a send failed")
+    void publishFlushesAfterSendFailure() throws InterruptedException
+    {
+        first.publish(InvalidationEvent.changed(Scope.ASSETS, 1));
+        waitFor(() -> secondReceived.contains(InvalidationEvent.changed(Scope.ASSETS, 1)));
+
+        terminate("invalidation-sender-" + nodeId(first));
+        first.publish(InvalidationEvent.changed(Scope.ASSETS, 2));
+
+        waitForFullFlush(secondReceived);
+        assertThat((long) first.metrics().get("sendFailures"), greaterThanOrEqualTo(1L));
+        waitFor(() -> !(boolean) first.metrics().get("flushPending"));
+    }
+
+    @Test
+    @DisplayName("Listener - should flush locally and on the other instance after reconnecting")
+    void listenerReconnectFlushesEverywhere() throws InterruptedException
+    {
+        terminate("invalidation-listener-" + nodeId(first));
+
+        waitFor(() -> (long) first.metrics().get("reconnects") == 1L);
+        waitForFullFlush(firstReceived);
+        waitForFullFlush(secondReceived);
+
+        // Listening again: events from the other instance arrive as before
+        InvalidationEvent event = InvalidationEvent.changed(Scope.EMPLOYEES, 3);
+        second.publish(event);
+        waitFor(() -> firstReceived.contains(event));
+    }
+}
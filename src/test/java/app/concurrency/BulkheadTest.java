@@ -0,0 +1,105 @@
+package app.concurrency;
+
+import app.context.RequestContext;
+import app.exceptions.OverloadException;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkheadTest
+{
+    private Bulkhead bulkhead;
+
+    @AfterEach
+    void tearDown()
+    {
+        bulkhead.shutdown();
+    }
+
+    @Test
+    @DisplayName("Submit - should reject with 503 once the in-flight limit is reached")
+    void submitRejectsAboveInFlightLimit() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.BULK_READ);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Object>> running = new ArrayList<>();
+        for (int i = 0; i < bulkhead.getMaxInFlight(); i++)
+        {
+            running.add(bulkhead.submit(() -> release.await(5, TimeUnit.SECONDS)));
+        }
+
+        OverloadException exception = assertThrows(OverloadException.class, () -> bulkhead.submit(() -> true));
+
+        assertThat(exception.getCode(), is(503));
+        assertThat(exception.getRetryAfterSeconds(), greaterThan(0));
+        assertThat(bulkhead.getRejected(), is(1L));
+
+        release.countDown();
+        for (CompletableFuture<Object> future : running)
+        {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(bulkhead.getInFlight(), is(0));
+        assertThat(bulkhead.submit(() -> true).get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    @DisplayName("Submit - should cap a longer request deadline with the workload's timeout")
+    void submitCapsDeadline() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.POINT_READ);
+
+        long remaining = bulkhead.submit(RequestContext.withTimeout(600_000), () -> RequestContext.current().remainingMillis())
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(remaining, lessThanOrEqualTo(WorkloadClass.POINT_READ.timeoutMs()));
+    }
+
+    @Test
+    @DisplayName("Submit - should keep a shorter request deadline")
+    void submitKeepsShorterDeadline() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.POINT_READ);
+
+        long remaining = bulkhead.submit(RequestContext.withTimeout(100), () -> RequestContext.current().remainingMillis())
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(remaining, lessThanOrEqualTo(100L));
+    }
+
+    @Test
+    @DisplayName("Submit - should not leak a request's deadline to the next task on the worker thread")
+    void submitDoesNotLeakDeadline() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.BULK_READ);
+        bulkhead.submit(RequestContext.withTimeout(1_000), () -> true).get(5, TimeUnit.SECONDS);
+
+        assertThat(bulkhead.submit(() -> RequestContext.current().remainingMillis()).get(5, TimeUnit.SECONDS), greaterThan(1_000L));
+    }
+
+    @Test
+    @DisplayName("Submit - should run tasks on virtual threads when asked to")
+    void submitOnVirtualThreads() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.POINT_READ, true);
+
+        assertThat(bulkhead.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS), is(true));
+    }
+
+    @Test
+    @DisplayName("Submit - should run tasks on platform threads by default")
+    void submitOnPlatformThreads() throws Exception
+    {
+        bulkhead = new Bulkhead(WorkloadClass.POINT_READ);
+
+        assertThat(bulkhead.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS), is(false));
+    }
+}
@@ -0,0 +1,148 @@
+package app.concurrency;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CircuitBreakerTest
+{
+    private static final int THRESHOLD = 3;
+    private static final long OPEN_MS = 100;
+
+    private final CircuitBreaker circuit = new CircuitBreaker(THRESHOLD, OPEN_MS);
+
+    private void fail(int times)
+    {
+        for (int i = 0; i < times; i++)
+        {
+            assertThat(circuit.tryAcquire(), is(true));
+            circuit.onFailure();
+        }
+    }
+
+    @Test
+    @DisplayName("OnFailure - should open only after the threshold of consecutive failures")
+    void opensAtThreshold()
+    {
+        fail(THRESHOLD - 1);
+        assertThat(circuit.getState(), is(CircuitBreaker.State.CLOSED));
+
+        // A success in between starts the count over
+        circuit.onSuccess();
+        fail(THRESHOLD - 1);
+        assertThat(circuit.getState(), is(CircuitBreaker.State.CLOSED));
+
+        fail(1);
+        assertThat(circuit.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(circuit.metrics().get("opened"), is(1L));
+    }
+
+    @Test
+    @DisplayName("TryAcquire - should reject every call while the open window lasts")
+    void rejectsWhileOpen()
+    {
+        fail(THRESHOLD);
+
+        assertThat(circuit.permitsCalls(), is(false));
+        assertThat(circuit.tryAcquire(), is(false));
+        assertThat(circuit.tryAcquire(), is(false));
+        assertThat(circuit.metrics().get("rejected"), is(2L));
+        assertThat(circuit.getState(), is(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    @DisplayName("TryAcquire - should let a single probe through once the window has passed")
+    void singleProbeAfterWindow() throws InterruptedException
+    {
+        fail(THRESHOLD);
+        Thread.sleep(OPEN_MS + 20);
+
+        // permitsCalls only looks, it doesn't take the probe
+        assertThat(circuit.permitsCalls(), is(true));
+        assertThat(circuit.getState(), is(CircuitBreaker.State.OPEN));
+
+        assertThat(circuit.tryAcquire(), is(true));
+        assertThat(circuit.getState(), is(CircuitBreaker.State.HALF_OPEN));
+        assertThat(circuit.permitsCalls(), is(false));
+        assertThat(circuit.tryAcquire(), is(false));
+    }
+
+    @Test
+    @DisplayName("TryAcquire - should hand the probe to exactly one of many concurrent callers")
+    void singleProbeUnderContention() throws Exception
+    {
+        fail(THRESHOLD);
+        Thread.sleep(OPEN_MS + 20);
+
+        int callers = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try
+        {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++)
+            {
+                results.add(executor.submit(() ->
+                {
+                    start.await();
+                    return circuit.tryAcquire();
+                }));
+            }
+            start.countDown();
+
+            int acquired = 0;
+            for (Future<Boolean> result : results)
+            {
+                acquired += result.get(5, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertThat(acquired, is(1));
+            assertThat(circuit.metrics().get("rejected"), is((long) callers - 1));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("OnSuccess - should close the circuit after a successful probe")
+    void probeSuccessCloses() throws InterruptedException
+    {
+        fail(THRESHOLD);
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire(), is(true));
+
+        circuit.onSuccess();
+
+        assertThat(circuit.getState(), is(CircuitBreaker.State.CLOSED));
+        assertThat(circuit.metrics().get("consecutiveFailures"), is(0));
+        assertThat(circuit.tryAcquire(), is(true));
+    }
+
+    @Test
+    @DisplayName("OnFailure - should reopen for a whole new window when the probe fails")
+    void probeFailureReopens() throws InterruptedException
+    {
+        fail(THRESHOLD);
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire(), is(true));
+
+        circuit.onFailure();
+
+        assertThat(circuit.getState(), is(CircuitBreaker.State.OPEN));
+        assertThat(circuit.metrics().get("opened"), is(2L));
+        assertThat(circuit.tryAcquire(), is(false));
+
+        Thread.sleep(OPEN_MS + 20);
+        assertThat(circuit.tryAcquire(), is(true));
+    }
+}
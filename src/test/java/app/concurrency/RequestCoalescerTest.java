@@ -0,0 +1,165 @@
+package app.concurrency;
+
+import io.javalin.http.Context;
+import io.javalin.http.HandlerType;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestCoalescerTest
+{
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final ExecutorService callers = Executors.newFixedThreadPool(3);
+
+    @AfterEach
+    void tearDown()
+    {
+        callers.shutdownNow();
+    }
+
+    // Only what the coalescer reads: attributes, method, path and query parameters
+    private static Context context(String path, Map<String, List<String>> query)
+    {
+        Map<String, Object> attributes = new HashMap<>();
+        return (Context) Proxy.newProxyInstance(Context.class.getClassLoader(), new Class<?>[]{Context.class}, (proxy, method, args) ->
+        {
+            switch (method.getName())
+            {
+                case "attribute":
+                    if (args.length == 2)
+                    {
+                        attributes.put((String) args[0], args[1]);
+                        return null;
+                    }
+                    return attributes.get((String) args[0]);
+                case "method":
+                    return HandlerType.GET;
+                case "path":
+                    return path;
+                case "queryParamMap":
+                    return query;
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    // Runs the route's handler so the context is marked as coalesced, like a registered route would
+    private Context routed(String path, Map<String, List<String>> query) throws Exception
+    {
+        Context ctx = context(path, query);
+        coalescer.coalesce("GET " + path, c -> {}).handle(ctx);
+        return ctx;
+    }
+
+    @Test
+    @DisplayName("Load - should share one load between identical concurrent requests")
+    void loadCoalescesIdenticalRequests() throws Exception
+    {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        byte[] body = "[]".getBytes();
+
+        Context first = routed("/assets", Map.of());
+        Context second = routed("/assets", Map.of());
+        Future<byte[]> leader = callers.submit(() -> coalescer.load(first, "etag", () ->
+        {
+            loads.incrementAndGet();
+            leaderStarted.countDown();
+            try
+            {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return body;
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+        Future<byte[]> follower = callers.submit(() -> coalescer.load(second, "etag", () ->
+        {
+            loads.incrementAndGet();
+            return "not shared".getBytes();
+        }));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((long) coalescer.metrics().get("coalesced") < 1 && System.nanoTime() < deadline)
+        {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS), is(sameInstance(body)));
+        assertThat(follower.get(5, TimeUnit.SECONDS), is(sameInstance(body)));
+        assertThat(loads.get(), is(1));
+        assertThat(coalescer.metrics().get("coalescedByRoute"), is(Map.of("GET /assets", 1L)));
+        assertThat(coalescer.metrics().get("inFlight"), is(0));
+    }
+
+    @Test
+    @DisplayName("Load - should load separately for different query parameters or variants")
+    void loadKeepsDifferentRequestsApart() throws Exception
+    {
+        CountDownLatch allStarted = new CountDownLatch(3);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<byte[]>> results = List.of(
+                load(routed("/logs", Map.of("limit", List.of("10"))), "etag", allStarted, loads),
+                load(routed("/logs", Map.of("limit", List.of("20"))), "etag", allStarted, loads),
+                load(routed("/logs", Map.of("limit", List.of("10"))), "gzip|etag", allStarted, loads));
+
+        for (Future<byte[]> result : results)
+        {
+            result.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(loads.get(), is(3));
+        assertThat(coalescer.metrics().get("coalesced"), is(0L));
+    }
+
+    // Each load waits until all three are running, so none of them could have joined another
+    private Future<byte[]> load(Context ctx, String variant, CountDownLatch allStarted, AtomicInteger loads)
+    {
+        return callers.submit(() -> coalescer.load(ctx, variant, () ->
+        {
+            loads.incrementAndGet();
+            allStarted.countDown();
+            try
+            {
+                allStarted.await(5, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return new byte[0];
+        }));
+    }
+
+    @Test
+    @DisplayName("Load - should call the loader directly on routes that don't coalesce")
+    void loadWithoutCoalescedRoute()
+    {
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.load(context("/employees", Map.of()), "etag", () -> new byte[loads.incrementAndGet()]);
+        coalescer.load(context("/employees", Map.of()), "etag", () -> new byte[loads.incrementAndGet()]);
+
+        assertThat(loads.get(), is(2));
+        assertThat(coalescer.metrics().get("loads"), is(0L));
+    }
+}
@@ -0,0 +1,193 @@
+package app.concurrency;
+
+import app.context.RequestContext;
+import app.exceptions.ApiException;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest
+{
+    private static final int CALLERS = 8;
+
+    private final SingleFlight<String> flight = new SingleFlight<>();
+    private final ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown()
+    {
+        callers.shutdownNow();
+        RequestContext.clear();
+    }
+
+    // Starts a leader blocked on release, then the other callers once the leader is in flight
+    private List<Future<String>> startCallers(String key, CountDownLatch release, AtomicInteger loads, RuntimeException failure) throws Exception
+    {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++)
+        {
+            results.add(callers.submit(() -> flight.execute(key, () ->
+            {
+                loads.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                if (failure != null)
+                {
+                    throw failure;
+                }
+                return "loaded";
+            })));
+            if (i == 0)
+            {
+                assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            }
+        }
+        waitForCoalesced(CALLERS - 1);
+        return results;
+    }
+
+    private void waitForCoalesced(long expected) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.getCoalesced() < expected && System.nanoTime() < deadline)
+        {
+            Thread.sleep(5);
+        }
+        assertThat(flight.getCoalesced(), is(expected));
+    }
+
+    private static void await(CountDownLatch latch)
+    {
+        try
+        {
+            latch.await(5, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    @DisplayName("Execute - should run the loader once for concurrent calls with the same key")
+    void executeRunsLoaderOnce() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> results = startCallers("assets", release, loads, null);
+        assertThat(flight.getInFlight(), is(1));
+        release.countDown();
+
+        for (Future<String> result : results)
+        {
+            assertThat(result.get(5, TimeUnit.SECONDS), is("loaded"));
+        }
+        assertThat(loads.get(), is(1));
+        assertThat(flight.getLoads(), is(1L));
+    }
+
+    @Test
+    @DisplayName("Execute - should throw the loader's exception to every waiting caller")
+    void executeFailureReachesEveryCaller() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        ApiException failure = new ApiException(500, "Database unavailable");
+
+        List<Future<String>> results = startCallers("assets", release, loads, failure);
+        release.countDown();
+
+        for (Future<String> result : results)
+        {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertThat(exception.getCause(), is(sameInstance(failure)));
+        }
+        assertThat(loads.get(), is(1));
+    }
+
+    @Test
+    @DisplayName("Execute - should release the key once the load finishes so the next call loads again")
+    void executeReleasesKey()
+    {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(flight.execute("assets", () -> "first-" + loads.incrementAndGet()), is("first-1"));
+        assertThat(flight.getInFlight(), is(0));
+        assertThat(flight.execute("assets", () -> "second-" + loads.incrementAndGet()), is("second-2"));
+
+        assertThrows(IllegalStateException.class, () -> flight.execute("assets", () ->
+        {
+            throw new IllegalStateException("failed");
+        }));
+        assertThat(flight.getInFlight(), is(0));
+        assertThat(flight.execute("assets", () -> "third"), is("third"));
+        assertThat(flight.getCoalesced(), is(0L));
+    }
+
+    @Test
+    @DisplayName("Execute - should load different keys independently")
+    void executeDifferentKeys() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> assets = callers.submit(() -> flight.execute("assets", () ->
+        {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "assets";
+        }));
+        Future<String> employees = callers.submit(() -> flight.execute("employees", () ->
+        {
+            loads.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "employees";
+        }));
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        assertThat(assets.get(5, TimeUnit.SECONDS), is("assets"));
+        assertThat(employees.get(5, TimeUnit.SECONDS), is("employees"));
+        assertThat(loads.get(), is(2));
+        assertThat(flight.getCoalesced(), is(0L));
+    }
+
+    @Test
+    @DisplayName("Execute - should give up waiting with 504 once the follower's own deadline passes")
+    void executeFollowerKeepsOwnDeadline() throws Exception
+    {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        Future<String> leader = callers.submit(() -> flight.execute("assets", () ->
+        {
+            leaderStarted.countDown();
+            await(release);
+            return "loaded";
+        }));
+        assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+
+        RequestContext.set(RequestContext.withTimeout(50));
+        ApiException exception = assertThrows(ApiException.class, () -> flight.execute("assets", () -> "not run"));
+
+        assertThat(exception.getCode(), is(504));
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS), is("loaded"));
+    }
+}
@@ -4,6 +4,7 @@ import app.config.hibernate.HibernateBaseProperties;
 import app.config.hibernate.HibernateEmfBuilder;
 import jakarta.persistence.EntityManagerFactory;
 
+import java.util.Map;
 import java.util.Properties;
 
 public final class HibernateTestConfig
@@ -29,6 +30,15 @@ public final class HibernateTestConfig
         return emf;
     }
 
+    // A separate factory on the same container, e.g. with a smaller pool. The caller closes it.
+    public static EntityManagerFactory createEntityManagerFactory(Map<String, String> overrides)
+    {
+        Properties props = buildProps();
+        props.put("hibernate.hbm2ddl.auto", "none");
+        props.putAll(overrides);
+        return HibernateEmfBuilder.build(props);
+    }
+
     private static Properties buildProps()
     {
         Properties props = HibernateBaseProperties.createBase();
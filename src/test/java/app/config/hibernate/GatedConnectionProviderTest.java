@@ -0,0 +1,234 @@
+package app.config.hibernate;
+
+import app.concurrency.Bulkhead;
+import app.concurrency.CircuitBreaker;
+import app.concurrency.WorkloadClass;
+import app.config.HibernateTestConfig;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GatedConnectionProviderTest
+{
+    private static final int POOL_SIZE = 2;
+    private static final long TIMEOUT_MS = 500;
+
+    private EntityManagerFactory emf;
+    private GatedConnectionProvider provider;
+    private final List<Connection> held = new ArrayList<>();
+
+    @BeforeAll
+    void init()
+    {
+        emf = HibernateTestConfig.createEntityManagerFactory(Map.of(
+                "hibernate.hikari.maximumPoolSize", String.valueOf(POOL_SIZE),
+                "hibernate.hikari.minimumIdle", "0",
+                "hibernate.hikari.connectionTimeout", String.valueOf(TIMEOUT_MS)));
+        provider = GatedConnectionProvider.of(emf);
+    }
+
+    @AfterEach
+    void releaseHeld() throws SQLException
+    {
+        for (Connection connection : held)
+        {
+            provider.closeConnection(connection);
+        }
+        held.clear();
+        provider.getCircuitBreaker().onSuccess();
+    }
+
+    @AfterAll
+    void tearDown()
+    {
+        emf.close();
+    }
+
+    // Like the failed connection attempts while Postgres is down, the threshold comes from the environment
+    private void openCircuit()
+    {
+        CircuitBreaker circuit = provider.getCircuitBreaker();
+        while (circuit.getState() != CircuitBreaker.State.OPEN)
+        {
+            circuit.onFailure();
+        }
+    }
+
+    private void holdAll() throws SQLException
+    {
+        for (int i = 0; i < POOL_SIZE; i++)
+        {
+            held.add(provider.getConnection());
+        }
+    }
+
+    @Test
+    @DisplayName("GetConnection - should queue the next caller while every connection is held, then time out with 08001")
+    void getConnectionQueuesThenTimesOut() throws Exception
+    {
+        holdAll();
+        assertThat(provider.getAvailablePermits(), is(0));
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                return provider.getConnection();
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MS);
+        while (provider.getQueueLength() == 0 && System.nanoTime() < deadline)
+        {
+            Thread.onSpinWait();
+        }
+        assertThat(provider.getQueueLength(), is(1));
+
+        Exception exception = assertThrows(Exception.class, () -> waiting.get(TIMEOUT_MS * 4, TimeUnit.MILLISECONDS));
+        SQLTransientConnectionException cause = assertInstanceOf(SQLTransientConnectionException.class, exception.getCause().getCause());
+        assertThat(cause.getSQLState(), is("08001"));
+        assertThat(provider.getQueueLength(), is(0));
+    }
+
+    @Test
+    @DisplayName("GetConnection - should hand the permit to the waiting caller when a connection is closed")
+    void getConnectionAfterClose() throws Exception
+    {
+        holdAll();
+
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() ->
+        {
+            try
+            {
+                return provider.getConnection();
+            }
+            catch (SQLException e)
+            {
+                throw new RuntimeException(e);
+            }
+        });
+        provider.closeConnection(held.remove(0));
+
+        held.add(waiting.get(TIMEOUT_MS * 4, TimeUnit.MILLISECONDS));
+        assertThat(provider.getAvailablePermits(), is(0));
+    }
+
+    @Test
+    @DisplayName("GetConnection - should give back every permit after timed out callers")
+    void getConnectionTimeoutReleasesNothingItDidNotTake() throws SQLException
+    {
+        holdAll();
+        assertThrows(SQLTransientConnectionException.class, provider::getConnection);
+
+        releaseHeld();
+
+        assertThat(provider.getAvailablePermits(), is(POOL_SIZE));
+    }
+
+    @Test
+    @DisplayName("GetConnection - should take from the bulkhead's connection budget and give it back when the connection closes")
+    void getConnectionBindsBudget() throws Exception
+    {
+        Bulkhead bulkhead = new Bulkhead(WorkloadClass.BULK_READ);
+        try
+        {
+            int budget = bulkhead.getAvailableConnections();
+
+            // Closed here on the test thread, not on the bulkhead thread that opened it
+            Connection connection = bulkhead.submit(provider::getConnection).get(TIMEOUT_MS * 4, TimeUnit.MILLISECONDS);
+            assertThat(bulkhead.getAvailableConnections(), is(budget - 1));
+
+            provider.closeConnection(connection);
+            assertThat(bulkhead.getAvailableConnections(), is(budget));
+        }
+        finally
+        {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("GetConnection - should give the budget back when no connection could be had")
+    void getConnectionTimeoutReleasesBudget() throws Exception
+    {
+        Bulkhead bulkhead = new Bulkhead(WorkloadClass.BULK_READ);
+        try
+        {
+            int budget = bulkhead.getAvailableConnections();
+            holdAll();
+
+            Exception exception = assertThrows(Exception.class,
+                    () -> bulkhead.submit(provider::getConnection).get(TIMEOUT_MS * 4, TimeUnit.MILLISECONDS));
+
+            assertInstanceOf(SQLTransientConnectionException.class, exception.getCause());
+            assertThat(bulkhead.getAvailableConnections(), is(budget));
+        }
+        finally
+        {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("GetConnection - should fail at once while the circuit is open, without queueing or taking a budget")
+    void getConnectionRejectsEarlyWhileOpen() throws Exception
+    {
+        Bulkhead bulkhead = new Bulkhead(WorkloadClass.BULK_READ);
+        try
+        {
+            int budget = bulkhead.getAvailableConnections();
+            // With every connection held, anything but an early reject would wait out the timeout
+            holdAll();
+            openCircuit();
+            long rejectedBefore = (long) provider.getCircuitBreaker().metrics().get("rejected");
+
+            long start = System.nanoTime();
+            Exception exception = assertThrows(Exception.class,
+                    () -> bulkhead.submit(provider::getConnection).get(TIMEOUT_MS * 4, TimeUnit.MILLISECONDS));
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            SQLTransientConnectionException cause = assertInstanceOf(SQLTransientConnectionException.class, exception.getCause());
+            assertThat(cause.getSQLState(), is("08001"));
+            assertThat(cause.getMessage(), containsString("circuit is open"));
+            assertThat(elapsedMs, lessThan(TIMEOUT_MS));
+            assertThat(provider.getQueueLength(), is(0));
+            assertThat(provider.getAvailablePermits(), is(0));
+            assertThat(bulkhead.getAvailableConnections(), is(budget));
+            assertThat(provider.getCircuitBreaker().metrics().get("rejected"), is(rejectedBefore + 1));
+        }
+        finally
+        {
+            bulkhead.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("GetConnection - should hand out connections again once the circuit is closed")
+    void getConnectionAfterCircuitCloses() throws SQLException
+    {
+        openCircuit();
+        assertThrows(SQLTransientConnectionException.class, provider::getConnection);
+
+        provider.getCircuitBreaker().onSuccess();
+
+        held.add(provider.getConnection());
+        assertThat(provider.getAvailablePermits(), is(POOL_SIZE - 1));
+    }
+}
@@ -0,0 +1,38 @@
+package app.context;
+
+import org.junit.jupiter.api.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class WriteStickinessTest
+{
+    @Test
+    @DisplayName("WroteRecently - should be true for the writing client within the window only")
+    void wroteRecentlyWithinWindow() throws InterruptedException
+    {
+        WriteStickiness stickiness = new WriteStickiness(100);
+
+        stickiness.recordWrite("Bearer a");
+
+        assertThat(stickiness.wroteRecently("Bearer a"), is(true));
+        assertThat(stickiness.wroteRecently("Bearer b"), is(false));
+        Thread.sleep(150);
+        assertThat(stickiness.wroteRecently("Bearer a"), is(false));
+    }
+
+    @Test
+    @DisplayName("RecordWrite - should restart the window on every write")
+    void recordWriteRestartsWindow() throws InterruptedException
+    {
+        WriteStickiness stickiness = new WriteStickiness(200);
+
+        stickiness.recordWrite("Bearer a");
+        Thread.sleep(120);
+        stickiness.recordWrite("Bearer a");
+        Thread.sleep(120);
+
+        assertThat(stickiness.wroteRecently("Bearer a"), is(true));
+        assertThat(stickiness.metrics().get("trackedClients"), is(1));
+    }
+}
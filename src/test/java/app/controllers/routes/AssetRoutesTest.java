@@ -52,6 +52,8 @@ class AssetRoutesTest
         employees = TestPopulator.populateEmployees(emf);
         assets = TestPopulator.populateAssets(emf);
         logs = TestPopulator.populateMaintenanceLogs(emf, employees, assets);
+        // TestPopulator writes around the services, so their caches never saw it
+        container.getInvalidationBus().flush();
 
         authenticatedToken = loginAsEmployee("Johndoe@mail.dk", "password123");
         managerToken = loginAsEmployee("Janedoe@mail.dk", "password123");
@@ -79,7 +81,7 @@ class AssetRoutesTest
     @AfterAll
     static void shutDown()
     {
-        ApplicationConfig.stop(app);
+        ApplicationConfig.stop(app, container);
         emf.close();
     }
 
@@ -246,6 +248,47 @@ class AssetRoutesTest
                 .body("taskType", equalTo("MAINTENANCE"));
     }
 
+    @Test
+    void testGetLogsByAssetIncludesLogPostedAfterRead()
+    {
+        Asset asset1 = assets.get("asset1");
+        Employee employee1 = employees.get("employee1");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets/" + asset1.getAssetId() + "/logs")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(2));
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "performedDate": "2024-07-01T10:00:00",
+                            "status": "DONE",
+                            "taskType": "MAINTENANCE",
+                            "comment": "Evicts the cached list",
+                            "performedByEmployeeId": %d
+                        }
+                        """, employee1.getEmployeeId()))
+                .when()
+                .post("/assets/" + asset1.getAssetId() + "/logs")
+                .then()
+                .statusCode(201);
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets/" + asset1.getAssetId() + "/logs")
+                .then()
+                .statusCode(200)
+                .body("size()", equalTo(3))
+                .body("comment", hasItem("Evicts the cached list"));
+    }
+
     @Test
     void testGetAssetsNoAccessWithoutToken()
     {
@@ -413,5 +456,139 @@ class AssetRoutesTest
                 .then()
                 .statusCode(403);
     }
-}
 
+    @Test
+    void testGetByIdNotModifiedUntilLogAdded()
+    {
+        Asset asset1 = assets.get("asset1");
+        Employee employee1 = employees.get("employee1");
+
+        String etag = given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets/" + asset1.getAssetId())
+                .then()
+                .statusCode(200)
+                .header("ETag", notNullValue())
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/assets/" + asset1.getAssetId())
+                .then()
+                .statusCode(304);
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "performedDate": "2024-07-01T10:00:00",
+                            "status": "DONE",
+                            "taskType": "MAINTENANCE",
+                            "comment": "Changes lastLogDate",
+                            "performedByEmployeeId": %d
+                        }
+                        """, employee1.getEmployeeId()))
+                .when()
+                .post("/assets/" + asset1.getAssetId() + "/logs")
+                .then()
+                .statusCode(201);
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/assets/" + asset1.getAssetId())
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(etag)));
+    }
+
+    @Test
+    void testGetAllNotModifiedUntilAssetChanged()
+    {
+        String etag = given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets?active=true")
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/assets?active=true")
+                .then()
+                .statusCode(304);
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .when()
+                .patch("/assets/" + assets.get("asset4").getAssetId())
+                .then()
+                .statusCode(204);
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/assets?active=true")
+                .then()
+                .statusCode(200)
+                .body("name", hasItem(assets.get("asset4").getName()));
+    }
+
+    @Test
+    void testGetManyByIdsKeepsOrderAndReportsMissing()
+    {
+        Asset asset1 = assets.get("asset1");
+        Asset asset2 = assets.get("asset2");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets?ids=" + asset2.getAssetId() + ",999999," + asset1.getAssetId())
+                .then()
+                .statusCode(200)
+                .body("items.id", contains(asset2.getAssetId(), asset1.getAssetId()))
+                .body("items[1].lastLogDate", notNullValue())
+                .body("missing", contains(999999));
+    }
+
+    @Test
+    void testGetManyWithInvalidIdReturns400()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/assets?ids=1,abc")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testNonPositiveRequestTimeoutReturns400()
+    {
+        Asset asset1 = assets.get("asset1");
+
+        for (String timeout : new String[]{"0", "-5"})
+        {
+            given()
+                    .header("Authorization", "Bearer " + authenticatedToken)
+                    .header("X-Request-Timeout", timeout)
+                    .when()
+                    .get("/assets/" + asset1.getAssetId())
+                    .then()
+                    .statusCode(400)
+                    .body("status", is(400))
+                    .body("msg", containsString("positive"));
+        }
+    }
+}
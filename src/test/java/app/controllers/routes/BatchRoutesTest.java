@@ -0,0 +1,194 @@
+package app.controllers.routes;
+
+import app.config.ApplicationConfig;
+import app.config.DependencyContainer;
+import app.config.HibernateTestConfig;
+import app.entities.Asset;
+import app.entities.MaintenanceLog;
+import app.entities.Employee;
+import app.persistence.testutils.TestPopulator;
+import io.javalin.Javalin;
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+class BatchRoutesTest
+{
+    private static EntityManagerFactory emf;
+    private static DependencyContainer container;
+    private static Javalin app;
+    private static final int TEST_PORT = 7074;
+    private Map<String, Employee> employees;
+    private Map<String, Asset> assets;
+    private Map<String, MaintenanceLog> logs;
+    private static String authenticatedToken;
+    private static String managerToken;
+
+    @BeforeAll
+    public static void init()
+    {
+        emf = HibernateTestConfig.getEntityManagerFactory();
+        container = new DependencyContainer(emf);
+        app = ApplicationConfig.start(container, TEST_PORT);
+
+        RestAssured.baseURI = "http://localhost:" + TEST_PORT;
+        RestAssured.basePath = "/" + Routes.getApiVersion();
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        employees = TestPopulator.populateEmployees(emf);
+        assets = TestPopulator.populateAssets(emf);
+        logs = TestPopulator.populateMaintenanceLogs(emf, employees, assets);
+        // TestPopulator writes around the services, so their caches never saw it
+        container.getInvalidationBus().flush();
+
+        authenticatedToken = loginAsEmployee("Johndoe@mail.dk", "password123");
+        managerToken = loginAsEmployee("Janedoe@mail.dk", "password123");
+    }
+
+    private String loginAsEmployee(String email, String password)
+    {
+        return given()
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }
+                        """, email, password))
+                .when()
+                .post("/auth/login")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("token");
+    }
+
+    @AfterAll
+    static void shutDown()
+    {
+        ApplicationConfig.stop(app, container);
+        emf.close();
+    }
+
+    @Test
+    void testBatchReturnsStatusPerItem()
+    {
+        Asset asset1 = assets.get("asset1");
+        Employee employee1 = employees.get("employee1");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "requests": [
+                                { "id": "asset", "method": "GET", "path": "/assets/%d" },
+                                { "id": "activeAssets", "method": "GET", "path": "/api/v1/assets?active=true" },
+                                { "id": "missing", "method": "GET", "path": "/assets/9999" },
+                                { "id": "forbidden", "method": "GET", "path": "/logs/employee/%d" },
+                                { "id": "write", "method": "DELETE", "path": "/assets/%d" },
+                                { "id": "unknown", "method": "GET", "path": "/nothing" }
+                            ]
+                        }
+                        """, asset1.getAssetId(), employee1.getEmployeeId(), asset1.getAssetId()))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("responses.id", contains("asset", "activeAssets", "missing", "forbidden", "write", "unknown"))
+                .body("responses.status", contains(200, 200, 404, 403, 405, 404))
+                .body("responses[0].body.name", equalTo(asset1.getName()))
+                .body("responses[1].body.name", hasItem(asset1.getName()))
+                .body("responses[1].body.name", not(hasItem(assets.get("asset4").getName())))
+                .body("responses[2].body.error", notNullValue());
+    }
+
+    @Test
+    void testBatchAsManagerIncludesEmployeeLogs()
+    {
+        Employee employee1 = employees.get("employee1");
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "requests": [
+                                { "id": "logs", "path": "/logs/employee/%d" },
+                                { "id": "badStatus", "path": "/logs?status=broken" }
+                            ]
+                        }
+                        """, employee1.getEmployeeId()))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("responses.status", contains(200, 400))
+                .body("responses[0].body", not(empty()))
+                .body("responses[1].body.error", equalTo("Invalid status value"));
+    }
+
+    @Test
+    void testEmptyBatchReturns400()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .contentType("application/json")
+                .body("""
+                        { "requests": [] }
+                        """)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testBatchNoAccessWithoutToken()
+    {
+        given()
+                .contentType("application/json")
+                .body("""
+                        { "requests": [ { "id": "assets", "path": "/assets" } ] }
+                        """)
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(403);
+    }
+
+    @Test
+    void testBatchServesPathAndQueryParameters()
+    {
+        Asset asset1 = assets.get("asset1");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "requests": [
+                                { "id": "production", "path": "/assets/%d/logs?taskType=production" },
+                                { "id": "badId", "path": "/assets/abc" }
+                            ]
+                        }
+                        """, asset1.getAssetId()))
+                .when()
+                .post("/batch")
+                .then()
+                .statusCode(200)
+                .body("responses.status", contains(200, 400))
+                .body("responses[0].body.comment", contains("Production run successful"));
+    }
+}
@@ -46,6 +46,8 @@ class EmployeeRoutesTest
     void setUp()
     {
         seeded = TestPopulator.populateEmployees(emf);
+        // TestPopulator writes around the services, so their caches never saw it
+        container.getInvalidationBus().flush();
 
         authenticatedToken = loginAsEmployee("Johndoe@mail.dk", "password123");
         managerToken = loginAsEmployee("Janedoe@mail.dk", "password123");
@@ -73,7 +75,7 @@ class EmployeeRoutesTest
     @AfterAll
     static void shutDown()
     {
-        ApplicationConfig.stop(app);
+        ApplicationConfig.stop(app, container);
         emf.close();
     }
 
@@ -356,4 +358,54 @@ class EmployeeRoutesTest
                 .then()
                 .statusCode(403);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetByIdNotModifiedUntilUpdated()
+    {
+        Employee employee1 = seeded.get("employee1");
+
+        String etag = given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/employees/" + employee1.getEmployeeId())
+                .then()
+                .statusCode(200)
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/employees/" + employee1.getEmployeeId())
+                .then()
+                .statusCode(304);
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "firstName": "Renamed",
+                            "lastName": "%s",
+                            "email": "%s",
+                            "phone": "%s",
+                            "role": "%s",
+                            "active": true
+                        }
+                        """, employee1.getLastName(), employee1.getEmail(), employee1.getPhone(), employee1.getRole()))
+                .when()
+                .put("/employees/" + employee1.getEmployeeId())
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/employees/" + employee1.getEmployeeId())
+                .then()
+                .statusCode(200)
+                .body("firstName", equalTo("Renamed"));
+    }
+}
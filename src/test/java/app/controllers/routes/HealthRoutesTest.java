@@ -0,0 +1,135 @@
+package app.controllers.routes;
+
+import app.concurrency.CircuitBreaker;
+import app.config.ApplicationConfig;
+import app.config.DependencyContainer;
+import app.config.HibernateTestConfig;
+import app.config.hibernate.GatedConnectionProvider;
+import app.persistence.testutils.TestPopulator;
+import io.javalin.Javalin;
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HealthRoutesTest
+{
+    private static EntityManagerFactory emf;
+    private static DependencyContainer container;
+    private static Javalin app;
+    private static CircuitBreaker circuit;
+    private static final int TEST_PORT = 7076;
+
+    @BeforeAll
+    public static void init() throws InterruptedException
+    {
+        emf = HibernateTestConfig.getEntityManagerFactory();
+        TestPopulator.populateEmployees(emf);
+        TestPopulator.populateAssets(emf);
+        container = new DependencyContainer(emf);
+        app = ApplicationConfig.start(container, TEST_PORT);
+        circuit = GatedConnectionProvider.of(emf).getCircuitBreaker();
+
+        RestAssured.baseURI = "http://localhost:" + TEST_PORT;
+        RestAssured.basePath = "";
+        // The first check warms up right after start, every later one comes HEALTH_CHECK_INTERVAL_MS apart
+        waitFor(() -> status("/health/ready") == 200);
+    }
+
+    @AfterEach
+    void closeCircuit()
+    {
+        circuit.onSuccess();
+    }
+
+    @AfterAll
+    static void shutDown()
+    {
+        ApplicationConfig.stop(app, container);
+        emf.close();
+    }
+
+    private static int status(String path)
+    {
+        return given().when().get(path).then().extract().statusCode();
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(100);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void testLive()
+    {
+        given()
+                .when()
+                .get("/health/live")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"));
+    }
+
+    @Test
+    void testReady()
+    {
+        given()
+                .when()
+                .get("/health/ready")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"))
+                .body("checks.warm", equalTo(true))
+                .body("checks.databaseCircuit", equalTo("CLOSED"))
+                .body("checks", hasKey("dbLatencyMs"));
+    }
+
+    @Test
+    void testHealthcheckAliasNeedsNoToken()
+    {
+        given()
+                .when()
+                .get("/" + Routes.getApiVersion() + "/auth/healthcheck")
+                .then()
+                .statusCode(200)
+                .body("status", equalTo("UP"));
+    }
+
+    @Test
+    void testNotReadyWhileCircuitOpenButStillLive() throws InterruptedException
+    {
+        while (circuit.getState() != CircuitBreaker.State.OPEN)
+        {
+            circuit.onFailure();
+        }
+
+        waitFor(() -> status("/health/ready") == 503);
+        given()
+                .when()
+                .get("/health/ready")
+                .then()
+                .statusCode(503)
+                .body("status", equalTo("DOWN"))
+                .body("checks.databaseCircuit", not(equalTo("CLOSED")));
+        given()
+                .when()
+                .get("/" + Routes.getApiVersion() + "/auth/healthcheck")
+                .then()
+                .statusCode(200);
+        assertEquals(200, status("/health/live"));
+
+        circuit.onSuccess();
+        waitFor(() -> status("/health/ready") == 200);
+    }
+}
@@ -0,0 +1,163 @@
+package app.controllers.routes;
+
+import app.concurrency.AdaptiveConcurrencyLimiter;
+import app.config.ApplicationConfig;
+import app.config.DependencyContainer;
+import app.config.HibernateTestConfig;
+import app.persistence.testutils.TestPopulator;
+import io.javalin.Javalin;
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+class LoadSheddingRoutesTest
+{
+    private static EntityManagerFactory emf;
+    private static DependencyContainer container;
+    private static Javalin app;
+    private static final int TEST_PORT = 7075;
+    private static AdaptiveConcurrencyLimiter limiter;
+    private int held;
+
+    @BeforeAll
+    public static void init()
+    {
+        emf = HibernateTestConfig.getEntityManagerFactory();
+        container = new DependencyContainer(emf);
+        app = ApplicationConfig.start(container, TEST_PORT);
+        limiter = container.getLoadShedder().getLimiter();
+
+        RestAssured.baseURI = "http://localhost:" + TEST_PORT;
+        RestAssured.basePath = "";
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        TestPopulator.populateEmployees(emf);
+        TestPopulator.populateAssets(emf);
+        container.getInvalidationBus().flush();
+    }
+
+    @AfterEach
+    void releaseLimiter()
+    {
+        for (; held > 0; held--)
+        {
+            limiter.release(1_000_000, 0);
+        }
+    }
+
+    @AfterAll
+    static void shutDown()
+    {
+        ApplicationConfig.stop(app, container);
+        emf.close();
+    }
+
+    // Takes every slot of the limit, as if that many requests were running
+    private void saturate()
+    {
+        while (limiter.tryAcquire(1.0))
+        {
+            held++;
+        }
+    }
+
+    private String login()
+    {
+        return given()
+                .contentType("application/json")
+                .body("""
+                        {
+                            "email": "Johndoe@mail.dk",
+                            "password": "password123"
+                        }
+                        """)
+                .when()
+                .post("/api/v1/auth/login")
+                .then()
+                .statusCode(200)
+                .extract()
+                .path("token");
+    }
+
+    @Test
+    void testSaturatedLimiterReturns503WithRetryAfter()
+    {
+        String token = login();
+        saturate();
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/v1/assets")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", notNullValue())
+                .body("error", containsString("overloaded"));
+    }
+
+    @Test
+    void testSaturatedLimiterShedsWrites()
+    {
+        String token = login();
+        saturate();
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .contentType("application/json")
+                .body("""
+                        {
+                            "name": "Shed Machine",
+                            "description": "Never created",
+                            "active": true
+                        }
+                        """)
+                .when()
+                .post("/api/v1/assets")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", notNullValue());
+    }
+
+    @Test
+    void testHealthIsNotShed()
+    {
+        saturate();
+
+        given()
+                .when()
+                .get("/health/live")
+                .then()
+                .statusCode(200)
+                .body("status", is("UP"));
+    }
+
+    @Test
+    void testLoginIsNotShed()
+    {
+        saturate();
+
+        login();
+    }
+
+    @Test
+    void testRequestsPassAgainOnceTheLimiterHasRoom()
+    {
+        String token = login();
+        saturate();
+        releaseLimiter();
+
+        given()
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/api/v1/assets")
+                .then()
+                .statusCode(200)
+                .body("size()", is(4));
+    }
+}
@@ -53,6 +53,8 @@ class MaintenanceLogRoutesTest
         employees = TestPopulator.populateEmployees(emf);
         assets = TestPopulator.populateAssets(emf);
         logs = TestPopulator.populateMaintenanceLogs(emf, employees, assets);
+        // TestPopulator writes around the services, so their caches never saw it
+        container.getInvalidationBus().flush();
 
         authenticatedToken = loginAsEmployee("Johndoe@mail.dk", "password123");
         managerToken = loginAsEmployee("Janedoe@mail.dk", "password123");
@@ -80,7 +82,7 @@ class MaintenanceLogRoutesTest
     @AfterAll
     static void shutDown()
     {
-        ApplicationConfig.stop(app);
+        ApplicationConfig.stop(app, container);
         emf.close();
     }
 
@@ -120,6 +122,74 @@ class MaintenanceLogRoutesTest
                 .statusCode(400);
     }
 
+    @Test
+    void testGetLogsByDateRange()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs?from=2024-02-01&to=2024-05-01&status=DONE")
+                .then()
+                .statusCode(200)
+                .body("status", everyItem(equalTo("DONE")))
+                .body("size()", is(2));
+    }
+
+    @Test
+    void testGetLogsByDateRangeInvalid()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs?from=2024-05-01&to=2024-02-01")
+                .then()
+                .statusCode(400);
+    }
+
+    @Test
+    void testGetLogsOnActiveAssets()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs/active")
+                .then()
+                .statusCode(200)
+                .body("assetName", not(hasItem("Machine D")))
+                .body("size()", is(5));
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs/active?limit=2")
+                .then()
+                .statusCode(200)
+                .body("size()", is(2));
+    }
+
+    @Test
+    void testGetLogsOnActiveAssetsByDateRange()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs/active?from=2024-03-01&to=2024-06-01")
+                .then()
+                .statusCode(200)
+                .body("size()", is(3));
+    }
+
+    @Test
+    void testGetLogsOnActiveAssetsInvalidLimit()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs/active?limit=0")
+                .then()
+                .statusCode(400);
+    }
+
     @Test
     void testGetById()
     {
@@ -208,4 +278,108 @@ class MaintenanceLogRoutesTest
                 .then()
                 .statusCode(403);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetByIdCachedUntilPerformerRenamed()
+    {
+        MaintenanceLog log1 = logs.get("log1");
+        Employee performer = employees.get("employee1");
+
+        String etag = given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs/" + log1.getLogId())
+                .then()
+                .statusCode(200)
+                .header("Cache-Control", containsString("immutable"))
+                .body("performedByName", equalTo("John Doe"))
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/logs/" + log1.getLogId())
+                .then()
+                .statusCode(304);
+
+        given()
+                .header("Authorization", "Bearer " + managerToken)
+                .contentType("application/json")
+                .body(String.format("""
+                        {
+                            "firstName": "Johnny",
+                            "lastName": "%s",
+                            "email": "%s",
+                            "phone": "%s",
+                            "role": "%s",
+                            "active": true
+                        }
+                        """, performer.getLastName(), performer.getEmail(), performer.getPhone(), performer.getRole()))
+                .when()
+                .put("/employees/" + performer.getEmployeeId())
+                .then()
+                .statusCode(200);
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("If-None-Match", etag)
+                .when()
+                .get("/logs/" + log1.getLogId())
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(etag)))
+                .body("performedByName", equalTo("Johnny Doe"));
+    }
+
+    @Test
+    void testGetAllLogsPrecompressedAndNotModified()
+    {
+        String etag = given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("Accept-Encoding", "gzip")
+                .when()
+                .get("/logs")
+                .then()
+                .statusCode(200)
+                .header("Content-Encoding", "gzip")
+                .header("Vary", containsString("Accept-Encoding"))
+                .body("size()", is(6))
+                .extract()
+                .header("ETag");
+
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag)
+                .when()
+                .get("/logs")
+                .then()
+                .statusCode(304);
+    }
+
+    @Test
+    void testGetAllLogsWithSparseFields()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs?status=DONE&fields=id,performedDate,status,assetName")
+                .then()
+                .statusCode(200)
+                .body("size()", is(4))
+                .body("[0].keySet()", containsInAnyOrder("id", "performedDate", "status", "assetName"));
+    }
+
+    @Test
+    void testGetAllLogsWithUnknownFieldReturns400()
+    {
+        given()
+                .header("Authorization", "Bearer " + authenticatedToken)
+                .when()
+                .get("/logs?fields=id,password")
+                .then()
+                .statusCode(400);
+    }
+}
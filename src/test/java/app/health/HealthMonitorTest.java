@@ -0,0 +1,166 @@
+package app.health;
+
+import app.concurrency.CircuitBreaker;
+import app.config.HibernateTestConfig;
+import app.config.hibernate.GatedConnectionProvider;
+import app.exceptions.enums.DatabaseErrorType;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs on a factory of its own, the circuit tests would otherwise trip the shared pool's breaker
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HealthMonitorTest
+{
+    private static final long CHECK_INTERVAL_MS = 50;
+
+    private EntityManagerFactory emf;
+    private CircuitBreaker circuit;
+    private HealthMonitor monitor;
+
+    @BeforeAll
+    void init()
+    {
+        emf = HibernateTestConfig.createEntityManagerFactory(Map.of(
+                "hibernate.hikari.maximumPoolSize", "2",
+                "hibernate.hikari.minimumIdle", "0"));
+        circuit = GatedConnectionProvider.of(emf).getCircuitBreaker();
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if (monitor != null)
+        {
+            monitor.stop();
+        }
+        circuit.onSuccess();
+    }
+
+    @AfterAll
+    void closeEmf()
+    {
+        emf.close();
+    }
+
+    private HealthMonitor start(EntityManagerFactory factory, Runnable warmUp, long maxPingMs, int maxWaiting)
+    {
+        monitor = new HealthMonitor(factory, warmUp, CHECK_INTERVAL_MS, maxPingMs, maxWaiting);
+        monitor.start();
+        return monitor;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    // A couple of check rounds, for asserting that something stays the same
+    private static void settle() throws InterruptedException
+    {
+        Thread.sleep(CHECK_INTERVAL_MS * 4);
+    }
+
+    @Test
+    @DisplayName("GetReadiness - should report not ready before the first check")
+    void notReadyBeforeFirstCheck()
+    {
+        monitor = new HealthMonitor(null, () -> {}, CHECK_INTERVAL_MS, 500, 50);
+
+        assertThat(monitor.getReadiness().ready(), is(false));
+        assertThat(monitor.getReadiness().details(), hasEntry("reason", "Not checked yet"));
+    }
+
+    @Test
+    @DisplayName("Check - should retry a failed warm-up and run it no more once it succeeded")
+    void warmUpRetriedUntilItSucceeds() throws InterruptedException
+    {
+        AtomicInteger runs = new AtomicInteger();
+        start(null, () ->
+        {
+            if (runs.incrementAndGet() < 3)
+            {
+                throw new IllegalStateException("Database not there yet");
+            }
+        }, 500, 50);
+
+        waitFor(() -> monitor.getReadiness().ready());
+        settle();
+
+        assertThat(runs.get(), is(3));
+        assertThat(monitor.getReadiness().details(), hasEntry("warm", true));
+    }
+
+    @Test
+    @DisplayName("Check - should be ready with Postgres when the ping is fast and the circuit is closed")
+    void readyWithPostgres() throws InterruptedException
+    {
+        start(emf, () -> {}, 5_000, 50);
+
+        waitFor(() -> monitor.getReadiness().ready());
+
+        Map<String, Object> details = monitor.getReadiness().details();
+        assertThat(details, hasKey("dbLatencyMs"));
+        assertThat(details, hasEntry("databaseCircuit", "CLOSED"));
+        assertThat(details, hasEntry("waitingForConnection", 0));
+    }
+
+    @Test
+    @DisplayName("Check - should not be ready when the ping is slower than allowed")
+    void notReadyOnSlowPing() throws InterruptedException
+    {
+        // No ping is faster than -1 ms
+        start(emf, () -> {}, -1, 50);
+
+        waitFor(() -> monitor.getReadiness().details().containsKey("dbLatencyMs"));
+        settle();
+
+        assertThat(monitor.getReadiness().ready(), is(false));
+    }
+
+    @Test
+    @DisplayName("Check - should not be ready while too many requests wait for a connection")
+    void notReadyWhenTooManyWaiting() throws InterruptedException
+    {
+        start(emf, () -> {}, 5_000, -1);
+
+        waitFor(() -> monitor.getReadiness().details().containsKey("waitingForConnection"));
+        settle();
+
+        assertThat(monitor.getReadiness().ready(), is(false));
+    }
+
+    @Test
+    @DisplayName("Check - should go not ready while the circuit is open and recover once it closes")
+    void notReadyWhileCircuitOpen() throws InterruptedException
+    {
+        start(emf, () -> {}, 5_000, 50);
+        waitFor(() -> monitor.getReadiness().ready());
+
+        while (circuit.getState() != CircuitBreaker.State.OPEN)
+        {
+            circuit.onFailure();
+        }
+
+        waitFor(() -> !monitor.getReadiness().ready());
+        assertThat(monitor.getReadiness().details(), hasEntry("databaseCircuit", "OPEN"));
+        // Only the category, the database's message never reaches the unauthenticated probe
+        assertDoesNotThrow(() -> DatabaseErrorType.valueOf((String) monitor.getReadiness().details().get("dbError")));
+
+        circuit.onSuccess();
+        waitFor(() -> monitor.getReadiness().ready());
+    }
+}
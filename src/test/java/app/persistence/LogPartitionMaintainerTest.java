@@ -0,0 +1,206 @@
+package app.persistence;
+
+import app.config.HibernateTestConfig;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.persistence.testutils.TestPopulator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+// Runs db/partition_maintenance_logs.sql on its own database, the other tests keep a plain maintenance_logs
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LogPartitionMaintainerTest
+{
+    private static final String URL = "jdbc:tc:postgresql:16.2:///partition_test";
+    // The seeded logs are from January to June 2024
+    private static final YearMonth FIRST_KEPT = YearMonth.of(2024, 4);
+
+    private EntityManagerFactory emf;
+    private final AtomicInteger expiredCallbacks = new AtomicInteger();
+
+    @BeforeAll
+    void init()
+    {
+        emf = HibernateTestConfig.createEntityManagerFactory(Map.of(
+                "hibernate.connection.url", URL,
+                "hibernate.hbm2ddl.auto", "create-drop"));
+    }
+
+    // A fresh plain table every test, converted by the script
+    @BeforeEach
+    void setUp() throws SQLException, IOException
+    {
+        expiredCallbacks.set(0);
+        try (Connection connection = DriverManager.getConnection(URL); Statement statement = connection.createStatement())
+        {
+            // Detached months are plain tables the schema drop doesn't know about
+            statement.execute("""
+                    DO $$
+                    DECLARE partition text;
+                    BEGIN
+                        FOR partition IN SELECT tablename FROM pg_tables WHERE tablename LIKE 'maintenance\\_logs\\_%' LOOP
+                            EXECUTE format('DROP TABLE IF EXISTS %I CASCADE', partition);
+                        END LOOP;
+                    END
+                    $$""");
+        }
+        emf.getSchemaManager().drop(true);
+        emf.getSchemaManager().create(true);
+
+        Map<String, Employee> employees = TestPopulator.populateEmployees(emf);
+        Map<String, Asset> assets = TestPopulator.populateAssets(emf);
+        TestPopulator.populateMaintenanceLogs(emf, employees, assets);
+
+        try (InputStream script = getClass().getResourceAsStream("/db/partition_maintenance_logs.sql");
+             Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement())
+        {
+            statement.execute(new String(script.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @AfterAll
+    void tearDown()
+    {
+        emf.close();
+    }
+
+    private LogPartitionMaintainer maintainer(int monthsAhead, int retentionMonths, boolean dropExpired)
+    {
+        return new LogPartitionMaintainer(emf, expiredCallbacks::incrementAndGet, monthsAhead, retentionMonths, dropExpired);
+    }
+
+    // Retention that expires January to March 2024
+    private static int retentionKeepingFromApril2024()
+    {
+        return (int) ChronoUnit.MONTHS.between(FIRST_KEPT, YearMonth.now());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> attachedPartitions()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return (List<String>) em.createNativeQuery("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = to_regclass('maintenance_logs')")
+                    .getResultList();
+        }
+    }
+
+    private boolean tableExists(String name)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return (Boolean) em.createNativeQuery("SELECT to_regclass(CAST(?1 AS text)) IS NOT NULL")
+                    .setParameter(1, name)
+                    .getSingleResult();
+        }
+    }
+
+    private long countLogs()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return em.createQuery("SELECT COUNT(m) FROM MaintenanceLog m", Long.class).getSingleResult();
+        }
+    }
+
+    @Test
+    @DisplayName("Script - should partition maintenance_logs by month and keep every row")
+    void scriptPartitionsTable()
+    {
+        List<String> partitions = attachedPartitions();
+
+        assertThat(partitions, hasItems("maintenance_logs_default",
+                LogPartitionMaintainer.partitionName(YearMonth.of(2024, 1)),
+                LogPartitionMaintainer.partitionName(YearMonth.now().plusMonths(3))));
+        assertThat(countLogs(), is(6L));
+    }
+
+    @Test
+    @DisplayName("Run - should create the missing months ahead")
+    void runCreatesMonthsAhead()
+    {
+        LogPartitionMaintainer maintainer = maintainer(5, 0, false);
+
+        maintainer.run();
+
+        assertThat(attachedPartitions(), hasItems(
+                LogPartitionMaintainer.partitionName(YearMonth.now().plusMonths(4)),
+                LogPartitionMaintainer.partitionName(YearMonth.now().plusMonths(5))));
+        assertThat(maintainer.metrics().get("partitioned"), is(true));
+        assertThat(maintainer.metrics().get("created"), is(2L));
+        assertThat(expiredCallbacks.get(), is(0));
+
+        // Nothing left to do on the next run
+        maintainer.run();
+        assertThat(maintainer.metrics().get("created"), is(2L));
+    }
+
+    @Test
+    @DisplayName("Run - should detach months past retention and report it")
+    void runDetachesExpiredMonths()
+    {
+        LogPartitionMaintainer maintainer = maintainer(3, retentionKeepingFromApril2024(), false);
+        String january = LogPartitionMaintainer.partitionName(YearMonth.of(2024, 1));
+
+        maintainer.run();
+
+        assertThat(attachedPartitions(), not(hasItem(january)));
+        assertThat(attachedPartitions(), hasItem(LogPartitionMaintainer.partitionName(FIRST_KEPT)));
+        assertThat(tableExists(january), is(true));
+        assertThat(countLogs(), is(3L));
+        assertThat(maintainer.metrics().get("detached"), is(3L));
+        assertThat(expiredCallbacks.get(), is(1));
+    }
+
+    @Test
+    @DisplayName("Run - should drop months past retention in drop mode")
+    void runDropsExpiredMonths()
+    {
+        LogPartitionMaintainer maintainer = maintainer(3, retentionKeepingFromApril2024(), true);
+
+        maintainer.run();
+
+        assertThat(tableExists(LogPartitionMaintainer.partitionName(YearMonth.of(2024, 1))), is(false));
+        assertThat(tableExists(LogPartitionMaintainer.partitionName(YearMonth.of(2024, 3))), is(false));
+        assertThat(countLogs(), is(3L));
+        assertThat(maintainer.metrics().get("dropped"), is(3L));
+        assertThat(expiredCallbacks.get(), is(1));
+
+        // Already gone, so nothing is reported again
+        maintainer.run();
+        assertThat(expiredCallbacks.get(), is(1));
+    }
+
+    @Test
+    @DisplayName("Run - should do nothing while maintenance_logs is a plain table")
+    void runSkipsPlainTable()
+    {
+        emf.getSchemaManager().drop(true);
+        emf.getSchemaManager().create(true);
+        LogPartitionMaintainer maintainer = maintainer(3, 1, true);
+
+        maintainer.run();
+
+        assertThat(maintainer.metrics().get("partitioned"), is(false));
+        assertThat(maintainer.metrics().get("created"), is(0L));
+        assertThat(expiredCallbacks.get(), is(0));
+    }
+}
@@ -0,0 +1,151 @@
+package app.persistence;
+
+import app.config.HibernateTestConfig;
+import app.context.RequestContext;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryDeadlinesTest
+{
+    private final Map<String, Object> hints = new HashMap<>();
+    private final Map<String, Object> statementCalls = new HashMap<>();
+
+    @AfterEach
+    void tearDown()
+    {
+        RequestContext.clear();
+    }
+
+    // Records setHint, the only Query method apply calls
+    private Query recordingQuery()
+    {
+        return (Query) Proxy.newProxyInstance(Query.class.getClassLoader(), new Class<?>[]{Query.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("setHint"))
+            {
+                hints.put((String) args[0], args[1]);
+                return proxy;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Statement recordingStatement()
+    {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("setQueryTimeout"))
+            {
+                statementCalls.put("queryTimeout", args[0]);
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @Test
+    @DisplayName("Apply - should set the query timeout hint to the request's remaining time, rounded up to whole seconds")
+    void applySetsTimeoutFromRemainingBudget()
+    {
+        RequestContext.set(RequestContext.withTimeout(2_000));
+
+        QueryDeadlines.apply(recordingQuery());
+
+        assertThat(hints.get(QueryDeadlines.TIMEOUT_HINT), is(2_000));
+    }
+
+    @Test
+    @DisplayName("Apply - should never hand Hibernate less than a second, which it would truncate to no timeout")
+    void applyRoundsSubSecondUp()
+    {
+        RequestContext.set(RequestContext.withTimeout(300));
+
+        QueryDeadlines.apply(recordingQuery());
+
+        assertThat(hints.get(QueryDeadlines.TIMEOUT_HINT), is(1_000));
+        assertThat(QueryDeadlines.timeoutHint(1), is(1_000));
+        assertThat(QueryDeadlines.timeoutHint(1_001), is(2_000));
+    }
+
+    @Test
+    @DisplayName("Apply - should have Postgres cancel a statement that outlives a sub-second deadline")
+    void applyCancelsStatementInPostgres()
+    {
+        EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+        try (EntityManager em = emf.createEntityManager())
+        {
+            RequestContext.set(RequestContext.withTimeout(500));
+            long start = System.nanoTime();
+
+            PersistenceException exception = assertThrows(PersistenceException.class,
+                    () -> QueryDeadlines.apply(em.createNativeQuery("SELECT pg_sleep(10)")).getSingleResult());
+
+            assertThat(QueryDeadlines.isTimeout(exception), is(true));
+            // The 500 ms become a 1 s statement timeout, without the rounding there would be none at all
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(5_000L));
+        }
+        finally
+        {
+            emf.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Apply - should leave the query alone outside a request")
+    void applyWithoutRequestContext()
+    {
+        QueryDeadlines.apply(recordingQuery());
+
+        assertThat(hints, anEmptyMap());
+    }
+
+    @Test
+    @DisplayName("Apply - should throw QUERY_TIMEOUT once the deadline has passed")
+    void applyAfterDeadlineThrowsException()
+    {
+        RequestContext.set(RequestContext.withTimeout(0));
+
+        DatabaseException exception = assertThrows(DatabaseException.class, () -> QueryDeadlines.apply(recordingQuery()));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.QUERY_TIMEOUT));
+        assertThat(exception.getStatusCode(), is(504));
+        assertThat(hints, anEmptyMap());
+    }
+
+    @Test
+    @DisplayName("Apply - should round a JDBC statement's timeout up to whole seconds")
+    void applyToStatementRoundsUp() throws Exception
+    {
+        RequestContext.set(RequestContext.withTimeout(1_500));
+
+        QueryDeadlines.apply(recordingStatement());
+
+        assertThat(statementCalls.get("queryTimeout"), is(2));
+    }
+
+    @Test
+    @DisplayName("Hints - should carry the remaining time for em.find")
+    void hintsCarryRemainingTime()
+    {
+        RequestContext.set(RequestContext.withTimeout(2_000));
+
+        Map<String, Object> hints = QueryDeadlines.hints();
+
+        assertThat(hints.get(QueryDeadlines.TIMEOUT_HINT), is(2_000));
+    }
+}
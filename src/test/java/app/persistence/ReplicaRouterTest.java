@@ -0,0 +1,186 @@
+package app.persistence;
+
+import app.caching.CacheRefill;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationEvent;
+import app.config.HibernateTestConfig;
+import app.context.RequestContext;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The "replicas" are separate factories on the test database, which reports no lag since it isn't in recovery
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReplicaRouterTest
+{
+    private static final long CHECK_INTERVAL_MS = 50;
+
+    private EntityManagerFactory primary;
+    private EntityManagerFactory replicaA;
+    private EntityManagerFactory replicaB;
+    private EntityManagerFactory unreachable;
+    private ReplicaRouter router;
+
+    @BeforeAll
+    void init()
+    {
+        primary = HibernateTestConfig.getEntityManagerFactory();
+        replicaA = replica();
+        replicaB = replica();
+        // A closed factory fails every lag check, like a replica that is down
+        unreachable = replica();
+        unreachable.close();
+    }
+
+    private static EntityManagerFactory replica()
+    {
+        return HibernateTestConfig.createEntityManagerFactory(Map.of(
+                "hibernate.hikari.maximumPoolSize", "2",
+                "hibernate.hikari.minimumIdle", "0"));
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        RequestContext.clear();
+        if (router != null)
+        {
+            router.stop();
+        }
+    }
+
+    @AfterAll
+    void closeEmfs()
+    {
+        replicaA.close();
+        replicaB.close();
+        primary.close();
+    }
+
+    private ReplicaRouter start(List<EntityManagerFactory> replicas, long primaryAfterInvalidationMs) throws InterruptedException
+    {
+        router = new ReplicaRouter(primary, replicas, 1_000, CHECK_INTERVAL_MS, primaryAfterInvalidationMs);
+        router.start();
+        // One full round of lag checks
+        Thread.sleep(CHECK_INTERVAL_MS * 4);
+        return router;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> replicaMetrics(String name)
+    {
+        return (Map<String, Object>) ((Map<String, Object>) router.metrics().get("replicas")).get(name);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline)
+        {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    @DisplayName("ForRead - should use the primary without replicas")
+    void forReadWithoutReplicas()
+    {
+        router = ReplicaRouter.primaryOnly(primary);
+
+        assertThat(router.forRead(), is(sameInstance(primary)));
+        assertThat(router.metrics().get("primaryReads"), is(1L));
+    }
+
+    @Test
+    @DisplayName("ForRead - should fall back to the primary before the first lag check")
+    void forReadBeforeFirstCheck()
+    {
+        router = new ReplicaRouter(primary, List.of(replicaA), 1_000, CHECK_INTERVAL_MS, 0);
+
+        assertThat(router.forRead(), is(sameInstance(primary)));
+        assertThat(router.metrics().get("fallbacks"), is(1L));
+    }
+
+    @Test
+    @DisplayName("ForRead - should spread reads round-robin over healthy replicas")
+    void forReadRoundRobin() throws InterruptedException
+    {
+        start(List.of(replicaA, replicaB), 0);
+        waitFor(() -> (boolean) replicaMetrics("replica-1").get("healthy") && (boolean) replicaMetrics("replica-2").get("healthy"));
+
+        EntityManagerFactory first = router.forRead();
+        EntityManagerFactory second = router.forRead();
+        EntityManagerFactory third = router.forRead();
+
+        assertThat(List.of(first, second), containsInAnyOrder(replicaA, replicaB));
+        assertThat(third, is(sameInstance(first)));
+        assertThat(router.metrics().get("replicaReads"), is(3L));
+    }
+
+    @Test
+    @DisplayName("ForRead - should use the primary for a request pinned to it")
+    void forReadPinned() throws InterruptedException
+    {
+        start(List.of(replicaA), 0);
+        waitFor(() -> (boolean) replicaMetrics("replica-1").get("healthy"));
+
+        RequestContext.set(RequestContext.withTimeout(1_000).withPrimaryPinned());
+
+        assertThat(router.forRead(), is(sameInstance(primary)));
+        assertThat(router.metrics().get("pinnedReads"), is(1L));
+    }
+
+    @Test
+    @DisplayName("ForRead - should use the primary for refills of the invalidated scope during the configured window")
+    void forReadAfterInvalidation() throws InterruptedException
+    {
+        start(List.of(replicaA), 300);
+        waitFor(() -> (boolean) replicaMetrics("replica-1").get("healthy"));
+        Supplier<EntityManagerFactory> assetRefill = () -> CacheRefill.run(Set.of(Scope.ASSETS), router::forRead);
+        assertThat(assetRefill.get(), is(sameInstance(replicaA)));
+
+        router.onInvalidation(InvalidationEvent.changed(Scope.ASSETS, 1));
+
+        assertThat(assetRefill.get(), is(sameInstance(primary)));
+        assertThat(CacheRefill.run(Set.of(Scope.LOGS, Scope.ASSETS), router::forRead), is(sameInstance(primary)));
+        assertThat(router.metrics().get("afterInvalidationReads"), is(2L));
+        // Reads that fill no cache, and refills of other scopes, stay on the replica
+        assertThat(router.forRead(), is(sameInstance(replicaA)));
+        assertThat(CacheRefill.run(Set.of(Scope.EMPLOYEES), router::forRead), is(sameInstance(replicaA)));
+        waitFor(() -> assetRefill.get() == replicaA);
+    }
+
+    @Test
+    @DisplayName("ForRead - should skip an unreachable replica and fall back to the primary when none is left")
+    void forReadFailover() throws InterruptedException
+    {
+        start(List.of(unreachable, replicaA), 0);
+        waitFor(() -> (boolean) replicaMetrics("replica-2").get("healthy"));
+
+        Set<EntityManagerFactory> used = new HashSet<>();
+        for (int i = 0; i < 4; i++)
+        {
+            used.add(router.forRead());
+        }
+        assertThat(used, is(Set.of(replicaA)));
+        assertThat(replicaMetrics("replica-1").get("healthy"), is(false));
+        assertThat(replicaMetrics("replica-1").get("lastError"), is(notNullValue()));
+        router.stop();
+
+        start(List.of(unreachable), 0);
+        assertThat(router.forRead(), is(sameInstance(primary)));
+        assertThat(router.metrics().get("fallbacks"), is(1L));
+    }
+}
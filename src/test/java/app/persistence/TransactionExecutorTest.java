@@ -0,0 +1,186 @@
+package app.persistence;
+
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionExecutorTest
+{
+    private final TransactionExecutor transactions = new TransactionExecutor(3, 1, 1);
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    // A factory whose every EntityManager fails to open with the given SQL error, like a lost connection
+    private EntityManagerFactory failingFactory(SQLException cause)
+    {
+        return (EntityManagerFactory) Proxy.newProxyInstance(EntityManagerFactory.class.getClassLoader(), new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("createEntityManager"))
+            {
+                attempts.incrementAndGet();
+                throw new PersistenceException("Could not open connection", cause);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    // A factory whose EntityManagers only support close, enough for work that doesn't touch them
+    private static EntityManagerFactory workingFactory()
+    {
+        EntityManager em = (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(), new Class<?>[]{EntityManager.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("close"))
+            {
+                return null;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+        return (EntityManagerFactory) Proxy.newProxyInstance(EntityManagerFactory.class.getClassLoader(), new Class<?>[]{EntityManagerFactory.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("createEntityManager"))
+            {
+                return em;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String operation)
+    {
+        return (Map<String, Object>) transactions.metrics().get(operation);
+    }
+
+    @Test
+    @DisplayName("Classify - should map SQLStates to error types")
+    void classifySqlStates()
+    {
+        assertThat(TransactionExecutor.classify("08006", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONNECTION_FAILURE));
+        assertThat(TransactionExecutor.classify("08001", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONNECTION_FAILURE));
+        assertThat(TransactionExecutor.classify("57P01", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONNECTION_FAILURE));
+        assertThat(TransactionExecutor.classify("23505", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify("23503", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify("40001", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify("40P01", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify("57014", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.QUERY_TIMEOUT));
+        assertThat(TransactionExecutor.classify("42P01", DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.QUERY_FAILURE));
+        assertThat(TransactionExecutor.classify("42P01", DatabaseErrorType.TRANSACTION_FAILURE), is(DatabaseErrorType.TRANSACTION_FAILURE));
+        assertThat(TransactionExecutor.classify((String) null, DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.QUERY_FAILURE));
+    }
+
+    @Test
+    @DisplayName("Classify - should find the SQLState or stale version anywhere in the cause chain")
+    void classifyCauseChain()
+    {
+        PersistenceException wrapped = new PersistenceException("Insert failed", new RuntimeException(new SQLException("duplicate key", "23505")));
+
+        assertThat(TransactionExecutor.classify(wrapped, DatabaseErrorType.TRANSACTION_FAILURE), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify(new PersistenceException(new OptimisticLockException()), DatabaseErrorType.TRANSACTION_FAILURE),
+                is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(TransactionExecutor.classify(new PersistenceException("No state"), DatabaseErrorType.QUERY_FAILURE), is(DatabaseErrorType.QUERY_FAILURE));
+    }
+
+    @Test
+    @DisplayName("Read - should retry a serialization failure up to the attempt limit")
+    void readStopsAtAttemptLimit()
+    {
+        EntityManagerFactory emf = failingFactory(new SQLException("could not serialize access", "40001"));
+
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> transactions.read(emf, "test.read", "Read failed", em -> "never"));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(exception.getMessage(), is("Read failed"));
+        assertThat(attempts.get(), is(3));
+        assertThat(stats("test.read").get("retries"), is(2L));
+        assertThat(stats("test.read").get("failures"), is(1L));
+    }
+
+    @Test
+    @DisplayName("Read - should pick the factory again for every attempt")
+    void readPicksFactoryPerAttempt()
+    {
+        EntityManagerFactory failed = failingFactory(new SQLException("connection lost", "08006"));
+        EntityManagerFactory healthy = workingFactory();
+        AtomicInteger picks = new AtomicInteger();
+
+        String result = transactions.read(() -> picks.getAndIncrement() == 0 ? failed : healthy, "test.read", "Read failed", em -> "ok");
+
+        assertThat(result, is("ok"));
+        assertThat(picks.get(), is(2));
+        assertThat(stats("test.read").get("retries"), is(1L));
+        assertThat(stats("test.read").get("failures"), is(0L));
+    }
+
+    @Test
+    @DisplayName("Write - should retry idempotent writes only")
+    void writeRetriesIdempotentOnly()
+    {
+        EntityManagerFactory emf = failingFactory(new SQLException("deadlock detected", "40P01"));
+
+        assertThrows(DatabaseException.class, () -> transactions.write(emf, "test.create", "Create failed", false, em -> "never"));
+        assertThat(attempts.get(), is(1));
+
+        attempts.set(0);
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> transactions.write(emf, "test.update", "Update failed", true, em -> "never"));
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(attempts.get(), is(3));
+    }
+
+    @Test
+    @DisplayName("Read - should not retry errors that won't go away or a timed out pool wait")
+    void readSkipsNonRetryableErrors()
+    {
+        assertThrows(DatabaseException.class, () -> transactions.read(failingFactory(new SQLException("duplicate key", "23505")), "test.read", "Read failed", em -> "never"));
+        assertThat(attempts.get(), is(1));
+
+        attempts.set(0);
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> transactions.read(failingFactory(new SQLTransientConnectionException("Connection is not available", "08001")), "test.read", "Read failed", em -> "never"));
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONNECTION_FAILURE));
+        assertThat(attempts.get(), is(1));
+    }
+
+    @Test
+    @DisplayName("ReadJdbc - should classify and retry SQLExceptions like the JPA reads")
+    void readJdbcRetries()
+    {
+        EntityManagerFactory emf = workingFactory();
+        AtomicInteger calls = new AtomicInteger();
+
+        DatabaseException exception = assertThrows(DatabaseException.class, () -> transactions.readJdbc(() -> emf, "test.jdbc", "Query failed", factory ->
+        {
+            calls.incrementAndGet();
+            throw new SQLException("connection lost", "08006");
+        }));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONNECTION_FAILURE));
+        assertThat(exception.getMessage(), is("Query failed"));
+        assertThat(calls.get(), is(3));
+
+        String result = transactions.readJdbc(() -> emf, "test.jdbc", "Query failed", factory ->
+        {
+            if (calls.incrementAndGet() == 4)
+            {
+                throw new SQLException("could not serialize access", "40001");
+            }
+            return "ok";
+        });
+        assertThat(result, is("ok"));
+        assertThat(calls.get(), is(5));
+    }
+}
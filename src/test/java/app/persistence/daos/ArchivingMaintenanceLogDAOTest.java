@@ -0,0 +1,172 @@
+package app.persistence.daos;
+
+import app.config.HibernateTestConfig;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.AssetDAO;
+import app.persistence.EmployeeDAO;
+import app.persistence.MaintenanceLogDAO;
+import app.persistence.archive.ArchivingMaintenanceLogDAO;
+import app.persistence.archive.LogArchive;
+import app.persistence.archive.LogArchiver;
+import app.persistence.testutils.TestPopulator;
+import app.utils.DateRange;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ArchivingMaintenanceLogDAOTest
+{
+    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+
+    private Path archiveDir;
+    private MaintenanceLogDAO logDAO;
+    private ArchivingMaintenanceLogDAO archivingDAO;
+    private Map<String, MaintenanceLog> seededLogs;
+    private Map<String, Asset> seededAssets;
+
+    // The seeded logs are from 2024, so the archiver moves all of them with its default threshold of 90 days
+    @BeforeEach
+    void setUp() throws IOException
+    {
+        Map<String, Employee> seededEmployees = TestPopulator.populateEmployees(emf);
+        seededAssets = TestPopulator.populateAssets(emf);
+        seededLogs = TestPopulator.populateMaintenanceLogs(emf, seededEmployees, seededAssets);
+
+        archiveDir = Files.createTempDirectory("log-archive");
+        logDAO = new MaintenanceLogDAO(emf);
+        LogArchive archive = new LogArchive(archiveDir);
+        archive.open(logId -> !logDAO.getAll(List.of(logId)).isEmpty());
+        new LogArchiver(emf, archive, () -> {}).run();
+        archivingDAO = new ArchivingMaintenanceLogDAO(logDAO, archive, new AssetDAO(emf), new EmployeeDAO(emf));
+    }
+
+    @AfterAll
+    void tearDown()
+    {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Archive - should move old logs out of Postgres")
+    void archivedLogsLeavePostgres()
+    {
+        assertThat(logDAO.getAll(), empty());
+        assertThat(archivingDAO.getAll(), empty());
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should return archived logs when the range reaches into the archive")
+    void getByDateRangeReadsArchive()
+    {
+        DateRange range = new DateRange(LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 5, 1, 0, 0));
+
+        List<MaintenanceLog> logs = archivingDAO.getByDateRange(range, null, null, null);
+
+        assertThat(logs.stream().map(MaintenanceLog::getComment).toList(),
+                contains("Preventive maintenance", "Error occurred during operation", "Production run successful"));
+        assertThat(logs.get(0).getAsset().getName(), is(seededAssets.get("asset2").getName()));
+        assertThat(logs.get(0).getPerformedBy().getFirstName(), is("John"));
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should apply filters to archived logs")
+    void getByDateRangeFiltersArchive()
+    {
+        DateRange range = new DateRange(LocalDateTime.of(2024, 1, 1, 0, 0), null);
+
+        List<MaintenanceLog> logs = archivingDAO.getByDateRange(range, null, LogStatus.FAILED, null);
+
+        assertThat(logs, hasSize(2));
+        assertThat(logs, everyItem(hasProperty("status", is(LogStatus.FAILED))));
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should combine archived logs with logs still in Postgres")
+    void getByDateRangeMergesTiers()
+    {
+        MaintenanceLog recent = seededLogs.get("log1");
+        MaintenanceLog created = archivingDAO.create(new MaintenanceLog(LocalDateTime.now(), LogStatus.DONE, recent.getTaskType(), "Recent log", recent.getAsset(), recent.getPerformedBy()));
+
+        List<MaintenanceLog> logs = archivingDAO.getByDateRange(new DateRange(LocalDateTime.of(2024, 6, 1, 0, 0), null), null, null, null);
+
+        assertThat(logs.stream().map(MaintenanceLog::getLogId).toList(), contains(created.getLogId(), seededLogs.get("log6").getLogId()));
+    }
+
+    @Test
+    @DisplayName("Get - should fall back to the archive for archived ids")
+    void getFallsBackToArchive()
+    {
+        MaintenanceLog log1 = seededLogs.get("log1");
+
+        MaintenanceLog fetched = archivingDAO.get(log1.getLogId());
+
+        assertThat(fetched.getComment(), is("Regular maintenance completed"));
+        assertThat(fetched.getPerformedDate(), is(log1.getPerformedDate()));
+    }
+
+    @Test
+    @DisplayName("Get - should throw DatabaseException when the id is in neither tier")
+    void getNotFoundThrowsException()
+    {
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> archivingDAO.get(99999));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.NOT_FOUND));
+    }
+
+    @Test
+    @DisplayName("Run - should skip while another instance holds the archive lock")
+    void runSkipsWhileLocked() throws IOException
+    {
+        MaintenanceLog seeded = seededLogs.get("log1");
+        MaintenanceLog old = logDAO.create(new MaintenanceLog(LocalDateTime.of(2024, 7, 1, 12, 0), LogStatus.DONE, seeded.getTaskType(), "Old log", seeded.getAsset(), seeded.getPerformedBy()));
+        LogArchive archive = new LogArchive(Files.createTempDirectory("log-archive"));
+        archive.open(logId -> true);
+        LogArchiver archiver = new LogArchiver(emf, archive, () -> {});
+
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            em.createNativeQuery("SELECT pg_advisory_xact_lock(?1)").setParameter(1, LogArchiver.LOCK_KEY).getSingleResult();
+
+            assertThat(archiver.run(), is(0));
+            assertThat(archiver.metrics().get("skippedRuns"), is(1L));
+            assertThat(logDAO.getAll(List.of(old.getLogId())), hasSize(1));
+
+            em.getTransaction().rollback();
+        }
+
+        assertThat(archiver.run(), is(1));
+        assertThat(logDAO.getAll(List.of(old.getLogId())), empty());
+    }
+
+    @Test
+    @DisplayName("Open - should read existing segments back from disk")
+    void reopenArchive()
+    {
+        LogArchive reopened = new LogArchive(archiveDir);
+        reopened.open(logId -> false);
+        ArchivingMaintenanceLogDAO dao = new ArchivingMaintenanceLogDAO(logDAO, reopened, new AssetDAO(emf), new EmployeeDAO(emf));
+
+        List<MaintenanceLog> logs = dao.getAll(seededLogs.values().stream().map(MaintenanceLog::getLogId).toList());
+
+        assertThat(logs, hasSize(6));
+    }
+}
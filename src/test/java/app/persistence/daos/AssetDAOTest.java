@@ -5,6 +5,7 @@ import app.entities.Asset;
 import app.exceptions.DatabaseException;
 import app.exceptions.enums.DatabaseErrorType;
 import app.persistence.AssetDAO;
+import app.persistence.interfaces.IAssetDAO;
 import app.persistence.testutils.TestPopulator;
 import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
@@ -19,22 +20,38 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class AssetDAOTest
 {
-    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+    protected EntityManagerFactory emf;
 
-    private AssetDAO assetDAO;
-    private Map<String, Asset> seeded;
+    protected IAssetDAO assetDAO;
+    protected Map<String, Asset> seeded;
 
     @BeforeEach
     void setUp()
     {
-        seeded = TestPopulator.populateAssets(emf);
-        assetDAO = new AssetDAO(emf);
+        seeded = seed();
+        assetDAO = createDao();
+    }
+
+    // The database is only started by the Postgres suite, other implementations seed their own store
+    protected Map<String, Asset> seed()
+    {
+        emf = HibernateTestConfig.getEntityManagerFactory();
+        return TestPopulator.populateAssets(emf);
+    }
+
+    // Other IAssetDAO implementations run the same tests by overriding this and seed
+    protected IAssetDAO createDao()
+    {
+        return new AssetDAO(emf);
     }
 
     @AfterAll
     void tearDown()
     {
-        emf.close();
+        if (emf != null)
+        {
+            emf.close();
+        }
     }
 
     @Test
@@ -120,7 +137,7 @@ class AssetDAOTest
         Asset asset = seeded.get("asset1");
 
         UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
-                () -> assetDAO.update(asset));
+                () -> new AssetDAO(emf).update(asset));
 
         assertThat(exception.getMessage(), containsString("Assets are immutable"));
     }
@@ -228,4 +245,24 @@ class AssetDAOTest
         assertThat(inactiveAssets, notNullValue());
         assertThat(inactiveAssets.isEmpty(), is(true));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GetAll by ids - should return only the existing assets")
+    void getAllByIds()
+    {
+        Asset asset1 = seeded.get("asset1");
+        Asset asset3 = seeded.get("asset3");
+
+        List<Asset> fetched = assetDAO.getAll(List.of(asset3.getAssetId(), 999999, asset1.getAssetId()));
+
+        assertThat(fetched, hasSize(2));
+        assertThat(fetched.stream().map(Asset::getName).toList(), containsInAnyOrder("Machine A", "Machine C"));
+    }
+
+    @Test
+    @DisplayName("GetAll by ids - should return empty list without querying when no ids are given")
+    void getAllByNoIds()
+    {
+        assertThat(assetDAO.getAll(List.of()), empty());
+    }
+}
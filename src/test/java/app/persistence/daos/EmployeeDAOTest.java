@@ -6,6 +6,7 @@ import app.entities.enums.EmployeeRole;
 import app.exceptions.DatabaseException;
 import app.exceptions.enums.DatabaseErrorType;
 import app.persistence.EmployeeDAO;
+import app.persistence.interfaces.IEmployeeDAO;
 import app.persistence.testutils.TestPopulator;
 import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
@@ -20,21 +21,37 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class EmployeeDAOTest
 {
-    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
-    private EmployeeDAO employeeDAO;
-    private Map<String, Employee> seeded;
+    protected EntityManagerFactory emf;
+    protected IEmployeeDAO employeeDAO;
+    protected Map<String, Employee> seeded;
 
     @BeforeEach
     void beforeEach()
     {
-        seeded = TestPopulator.populateEmployees(emf);
-        employeeDAO = new EmployeeDAO(emf);
+        seeded = seed();
+        employeeDAO = createDao();
+    }
+
+    // The database is only started by the Postgres suite, other implementations seed their own store
+    protected Map<String, Employee> seed()
+    {
+        emf = HibernateTestConfig.getEntityManagerFactory();
+        return TestPopulator.populateEmployees(emf);
+    }
+
+    // Other IEmployeeDAO implementations run the same tests by overriding this and seed
+    protected IEmployeeDAO createDao()
+    {
+        return new EmployeeDAO(emf);
     }
 
     @AfterAll
     void shutdown()
     {
-        emf.close();
+        if (emf != null)
+        {
+            emf.close();
+        }
     }
 
     @Test
@@ -54,6 +71,33 @@ class EmployeeDAOTest
         assertThat(fetched.isActive(), is(true));
     }
 
+    @Test
+    @DisplayName("Create - should throw CONSTRAINT_VIOLATION when the email is taken")
+    void createDuplicateEmailThrowsException()
+    {
+        Employee duplicate = new Employee("John", "Again", "12345678", "Johndoe@mail.dk", EmployeeRole.TECHNICIAN, true);
+
+        DatabaseException exception = assertThrows(DatabaseException.class, () -> employeeDAO.create(duplicate));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+    }
+
+    @Test
+    @DisplayName("CreateAll - should persist every employee and generate IDs")
+    void createAll()
+    {
+        List<Employee> employees = List.of(
+                new Employee("Bulk", "One", "11111111", "bulk1@mail.dk", EmployeeRole.TECHNICIAN, true),
+                new Employee("Bulk", "Two", "22222222", "bulk2@mail.dk", EmployeeRole.MANAGER, true)
+        );
+
+        List<Employee> created = employeeDAO.createAll(employees);
+
+        assertThat(created, hasSize(2));
+        assertThat(employeeDAO.get(created.get(0).getEmployeeId()).getEmail(), is("bulk1@mail.dk"));
+        assertThat(employeeDAO.get(created.get(1).getEmployeeId()).getRole(), is(EmployeeRole.MANAGER));
+    }
+
     @Test
     @DisplayName("Create - should throw exception when employee is null")
     void createNullEmployeeThrowsException()
@@ -0,0 +1,70 @@
+package app.persistence.daos;
+
+import app.entities.Asset;
+import app.persistence.interfaces.IAssetDAO;
+import app.persistence.memory.InMemoryAssetDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.testutils.TestPopulator;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every AssetDAOTest against the in-memory DAO, without an EntityManagerFactory
+class InMemoryAssetDAOTest extends AssetDAOTest
+{
+    private InMemoryDatabase db;
+
+    // Seeded straight into the in-memory database, Postgres is never started
+    @Override
+    protected Map<String, Asset> seed()
+    {
+        db = new InMemoryDatabase();
+        return TestPopulator.populateAssets(db);
+    }
+
+    @Override
+    protected IAssetDAO createDao()
+    {
+        return new InMemoryAssetDAO(db);
+    }
+
+    @Test
+    @Override
+    @DisplayName("Update - should throw UnsupportedOperationException as assets are immutable")
+    void update()
+    {
+        Asset asset = seeded.get("asset1");
+
+        UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
+                () -> ((InMemoryAssetDAO) assetDAO).update(asset));
+
+        assertThat(exception.getMessage(), containsString("Assets are immutable"));
+    }
+
+    @Test
+    @DisplayName("Get - should return a copy that does not change the stored asset")
+    void getReturnsCopy()
+    {
+        Asset asset1 = seeded.get("asset1");
+
+        assetDAO.get(asset1.getAssetId()).setActive(false);
+
+        assertThat(assetDAO.get(asset1.getAssetId()).isActive(), is(true));
+    }
+
+    @Test
+    @DisplayName("GetChangeVersion - should change when the asset is deactivated")
+    void getChangeVersionAfterSetActive()
+    {
+        Asset asset1 = seeded.get("asset1");
+        String before = assetDAO.getChangeVersion(asset1.getAssetId());
+
+        assetDAO.setActive(asset1.getAssetId(), false);
+
+        assertThat(assetDAO.getChangeVersion(asset1.getAssetId()), not(equalTo(before)));
+    }
+}
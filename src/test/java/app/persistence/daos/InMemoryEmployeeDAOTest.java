@@ -0,0 +1,52 @@
+package app.persistence.daos;
+
+import app.entities.Employee;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IEmployeeDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.memory.InMemoryEmployeeDAO;
+import app.persistence.testutils.TestPopulator;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every EmployeeDAOTest against the in-memory DAO, without an EntityManagerFactory
+class InMemoryEmployeeDAOTest extends EmployeeDAOTest
+{
+    private InMemoryDatabase db;
+
+    // Seeded straight into the in-memory database, Postgres is never started
+    @Override
+    protected Map<String, Employee> seed()
+    {
+        db = new InMemoryDatabase();
+        return TestPopulator.populateEmployees(db);
+    }
+
+    @Override
+    protected IEmployeeDAO createDao()
+    {
+        return new InMemoryEmployeeDAO(db);
+    }
+
+    @Test
+    @DisplayName("Update - should throw DatabaseException when the employee was changed since it was read")
+    void updateStaleVersionThrowsException()
+    {
+        Employee first = employeeDAO.get(seeded.get("employee1").getEmployeeId());
+        Employee second = employeeDAO.get(seeded.get("employee1").getEmployeeId());
+        first.setPhone("11111111");
+        employeeDAO.update(first);
+        second.setPhone("22222222");
+
+        DatabaseException exception = assertThrows(DatabaseException.class, () -> employeeDAO.update(second));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+        assertThat(employeeDAO.get(first.getEmployeeId()).getPhone(), is("11111111"));
+    }
+}
@@ -0,0 +1,73 @@
+package app.persistence.daos;
+
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.memory.InMemoryAssetDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.memory.InMemoryEmployeeDAO;
+import app.persistence.memory.InMemoryMaintenanceLogDAO;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every MaintenanceLogDAOTest against the in-memory DAO, filled with the seeded rows
+class InMemoryMaintenanceLogDAOTest extends MaintenanceLogDAOTest
+{
+    private InMemoryDatabase db;
+
+    @Override
+    protected IMaintenanceLogDAO createDao()
+    {
+        db = new InMemoryDatabase();
+        seededEmployees.values().forEach(new InMemoryEmployeeDAO(db)::create);
+        seededAssets.values().forEach(new InMemoryAssetDAO(db)::create);
+        IMaintenanceLogDAO dao = new InMemoryMaintenanceLogDAO(db);
+        seededLogs.values().forEach(dao::create);
+        return dao;
+    }
+
+    @Test
+    @Override
+    @DisplayName("Update - should throw UnsupportedOperationException as logs are immutable")
+    void update()
+    {
+        MaintenanceLog log = seededLogs.get("log1");
+
+        UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
+                () -> ((InMemoryMaintenanceLogDAO) logDAO).update(log));
+
+        assertThat(exception.getMessage(), containsString("Maintenance logs are immutable"));
+    }
+
+    @Test
+    @DisplayName("Create - should add the log to every index")
+    void createUpdatesIndexes()
+    {
+        MaintenanceLog created = logDAO.create(new MaintenanceLog(LocalDateTime.of(2024, 7, 1, 12, 0), LogStatus.FAILED, TaskType.ERROR,
+                "Indexed", seededAssets.get("asset3"), seededEmployees.get("employee3")));
+
+        assertThat(logDAO.getByStatus(LogStatus.FAILED), hasSize(3));
+        assertThat(logDAO.getByAsset(seededAssets.get("asset3").getAssetId()), hasSize(2));
+        assertThat(logDAO.getByPerformedEmployee(seededEmployees.get("employee3").getEmployeeId()), hasItem(hasProperty("logId", is(created.getLogId()))));
+        assertThat(logDAO.getProjected(List.of("id"), null, null, TaskType.ERROR, null), hasSize(3));
+    }
+
+    @Test
+    @DisplayName("Get - should join the asset as it is now")
+    void getSeesAssetChanges()
+    {
+        MaintenanceLog log1 = seededLogs.get("log1");
+
+        new InMemoryAssetDAO(db).setActive(log1.getAsset().getAssetId(), false);
+
+        assertThat(logDAO.get(log1.getLogId()).getAsset().isActive(), is(false));
+        assertThat(logDAO.getLogsOnActiveAssets(10), hasSize(3));
+    }
+}
@@ -0,0 +1,110 @@
+package app.persistence.daos;
+
+import app.config.HibernateTestConfig;
+import app.dtos.MaintenanceLogDTO;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.JdbcMaintenanceLogQueries;
+import app.persistence.MaintenanceLogDAO;
+import app.persistence.testutils.TestPopulator;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The JDBC queries must return exactly the DTOs the JPA path maps to
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class JdbcMaintenanceLogQueriesTest
+{
+    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+
+    private JdbcMaintenanceLogQueries queries;
+    private MaintenanceLogDAO logDAO;
+    private Map<String, Asset> seededAssets;
+
+    @BeforeEach
+    void setUp()
+    {
+        Map<String, Employee> seededEmployees = TestPopulator.populateEmployees(emf);
+        seededAssets = TestPopulator.populateAssets(emf);
+        TestPopulator.populateMaintenanceLogs(emf, seededEmployees, seededAssets);
+        queries = new JdbcMaintenanceLogQueries(emf);
+        logDAO = new MaintenanceLogDAO(emf);
+    }
+
+    @AfterAll
+    void tearDown()
+    {
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Get by asset - should match the JPA path")
+    void getByAsset()
+    {
+        Integer assetId = seededAssets.get("asset1").getAssetId();
+
+        List<MaintenanceLogDTO> logs = queries.getByAsset(assetId);
+
+        assertThat(logs, hasSize(2));
+        assertThat(logs, containsInAnyOrder(toDTOs(logDAO.getByAsset(assetId)).toArray()));
+        assertThat(logs.get(0).performedByName(), is("John Doe"));
+        assertThat(logs.get(0).assetName(), is("Machine A"));
+    }
+
+    @Test
+    @DisplayName("Get by asset - should return empty list for asset without logs")
+    void getByAssetEmpty()
+    {
+        assertThat(queries.getByAsset(999), is(empty()));
+    }
+
+    @Test
+    @DisplayName("Get by status and asset - should match the JPA path")
+    void getByStatusAndAsset()
+    {
+        Integer assetId = seededAssets.get("asset2").getAssetId();
+
+        List<MaintenanceLogDTO> logs = queries.getByStatusAndAsset(LogStatus.FAILED, assetId);
+
+        assertThat(logs, hasSize(1));
+        assertThat(logs, contains(toDTOs(logDAO.getByStatusAndAsset(LogStatus.FAILED, assetId)).toArray()));
+    }
+
+    @Test
+    @DisplayName("Get logs on active assets - should match the JPA path in the same order")
+    void getLogsOnActiveAssets()
+    {
+        List<MaintenanceLogDTO> logs = queries.getLogsOnActiveAssets(10);
+
+        assertThat(logs, hasSize(5));
+        assertThat(logs, is(toDTOs(logDAO.getLogsOnActiveAssets(10))));
+        assertThat(queries.getLogsOnActiveAssets(2), hasSize(2));
+    }
+
+    @Test
+    @DisplayName("Queries - should validate input like the JPA path")
+    void invalidInput()
+    {
+        IllegalArgumentException noAsset = assertThrows(IllegalArgumentException.class, () -> queries.getByAsset(null));
+        IllegalArgumentException noStatus = assertThrows(IllegalArgumentException.class, () -> queries.getByStatusAndAsset(null, 1));
+        IllegalArgumentException badLimit = assertThrows(IllegalArgumentException.class, () -> queries.getLogsOnActiveAssets(0));
+
+        assertThat(noAsset.getMessage(), containsString("Asset id is required"));
+        assertThat(noStatus.getMessage(), containsString("Status is required"));
+        assertThat(badLimit.getMessage(), containsString("Input needs to be bigger than 0"));
+    }
+
+    private static List<MaintenanceLogDTO> toDTOs(List<MaintenanceLog> logs)
+    {
+        return logs.stream().map(MaintenanceLogMapper::toDTO).toList();
+    }
+}
@@ -10,7 +10,9 @@ import app.exceptions.DatabaseException;
 import app.exceptions.enums.DatabaseErrorType;
 import app.persistence.AssetDAO;
 import app.persistence.MaintenanceLogDAO;
+import app.persistence.interfaces.IMaintenanceLogDAO;
 import app.persistence.testutils.TestPopulator;
+import app.utils.DateRange;
 import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
 
@@ -25,12 +27,12 @@ import static org.junit.jupiter.api.Assertions.*;
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 class MaintenanceLogDAOTest
 {
-    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+    protected final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
 
-    private MaintenanceLogDAO logDAO;
-    private Map<String, MaintenanceLog> seededLogs;
-    private Map<String, Employee> seededEmployees;
-    private Map<String, Asset> seededAssets;
+    protected IMaintenanceLogDAO logDAO;
+    protected Map<String, MaintenanceLog> seededLogs;
+    protected Map<String, Employee> seededEmployees;
+    protected Map<String, Asset> seededAssets;
 
     @BeforeEach
     void setUp()
@@ -38,7 +40,13 @@ class MaintenanceLogDAOTest
         seededEmployees = TestPopulator.populateEmployees(emf);
         seededAssets = TestPopulator.populateAssets(emf);
         seededLogs = TestPopulator.populateMaintenanceLogs(emf, seededEmployees, seededAssets);
-        logDAO = new MaintenanceLogDAO(emf);
+        logDAO = createDao();
+    }
+
+    // Other IMaintenanceLogDAO implementations run the same tests by overriding this
+    protected IMaintenanceLogDAO createDao()
+    {
+        return new MaintenanceLogDAO(emf);
     }
 
     @AfterAll
@@ -83,6 +91,49 @@ class MaintenanceLogDAOTest
         assertThat(exception.getMessage(), containsString("Log cant be null"));
     }
 
+    @Test
+    @DisplayName("CreateAll - should persist every log and generate IDs")
+    void createAll()
+    {
+        Employee employee = seededEmployees.get("employee1");
+        Asset asset = seededAssets.get("asset3");
+        List<MaintenanceLog> logs = List.of(
+                new MaintenanceLog(LocalDateTime.now(), LogStatus.DONE, TaskType.MAINTENANCE, "Bulk log 1", asset, employee),
+                new MaintenanceLog(LocalDateTime.now(), LogStatus.FAILED, TaskType.ERROR, "Bulk log 2", asset, employee)
+        );
+
+        List<MaintenanceLog> created = logDAO.createAll(logs);
+
+        assertThat(created, hasSize(2));
+        assertThat(created, everyItem(hasProperty("logId", notNullValue())));
+        assertThat(logDAO.getByAsset(asset.getAssetId()), hasSize(3));
+    }
+
+    @Test
+    @DisplayName("CreateAll - should stream logs from an iterator and return the count")
+    void createAllFromIterator()
+    {
+        Employee employee = seededEmployees.get("employee2");
+        Asset asset = seededAssets.get("asset3");
+        List<MaintenanceLog> logs = List.of(
+                new MaintenanceLog(LocalDateTime.now(), LogStatus.DONE, TaskType.MAINTENANCE, "Streamed log 1", asset, employee),
+                new MaintenanceLog(LocalDateTime.now(), LogStatus.DONE, TaskType.MAINTENANCE, "Streamed log 2", asset, employee),
+                new MaintenanceLog(LocalDateTime.now(), LogStatus.DONE, TaskType.MAINTENANCE, "Streamed log 3", asset, employee)
+        );
+
+        int created = logDAO.createAll(logs.iterator());
+
+        assertThat(created, is(3));
+        assertThat(logDAO.getByAssetAndTask(asset.getAssetId(), TaskType.MAINTENANCE), hasSize(3));
+    }
+
+    @Test
+    @DisplayName("CreateAll - should throw IllegalArgumentException when logs are null")
+    void createAllNullThrowsException()
+    {
+        assertThrows(IllegalArgumentException.class, () -> logDAO.createAll((List<MaintenanceLog>) null));
+    }
+
     @Test
     @DisplayName("Get - should retrieve existing log by ID")
     void get()
@@ -142,7 +193,7 @@ class MaintenanceLogDAOTest
         MaintenanceLog log = seededLogs.get("log1");
 
         UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
-                () -> logDAO.update(log));
+                () -> new MaintenanceLogDAO(emf).update(log));
 
         assertThat(exception.getMessage(), containsString("Maintenance logs are immutable"));
     }
@@ -429,4 +480,67 @@ class MaintenanceLogDAOTest
 
         assertThat(exception.getMessage(), containsString("Input needs to be bigger than 0"));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("GetProjected - should return only the requested fields for the filtered logs")
+    void getProjected()
+    {
+        Asset asset1 = seededAssets.get("asset1");
+
+        List<Map<String, Object>> rows = logDAO.getProjected(List.of("id", "status", "assetName", "performedByName"), asset1.getAssetId(), LogStatus.DONE, null, null);
+
+        assertThat(rows, hasSize(2));
+        for (Map<String, Object> row : rows)
+        {
+            assertThat(row.keySet(), contains("id", "status", "assetName", "performedByName"));
+            assertThat(row.get("status"), is(LogStatus.DONE));
+            assertThat(row.get("assetName"), is("Machine A"));
+            assertThat(row.get("performedByName"), is("John Doe"));
+        }
+    }
+
+    @Test
+    @DisplayName("GetProjected - should throw IllegalArgumentException when no fields are given")
+    void getProjectedWithoutFieldsThrowsException()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> logDAO.getProjected(List.of(), null, null, null, null));
+
+        assertThat(exception.getMessage(), containsString("At least one field is required"));
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should return logs within the range, newest first")
+    void getByDateRange()
+    {
+        DateRange range = new DateRange(LocalDateTime.of(2024, 2, 1, 0, 0), LocalDateTime.of(2024, 5, 1, 0, 0));
+
+        List<MaintenanceLog> logs = logDAO.getByDateRange(range, null, null, null);
+
+        assertThat(logs.stream().map(MaintenanceLog::getComment).toList(),
+                contains("Preventive maintenance", "Error occurred during operation", "Production run successful"));
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should apply the filters and treat the end of the range as exclusive")
+    void getByDateRangeWithFilters()
+    {
+        Asset asset2 = seededAssets.get("asset2");
+        DateRange range = new DateRange(LocalDateTime.of(2024, 3, 5, 9, 15), LocalDateTime.of(2024, 4, 20, 11, 45));
+
+        List<MaintenanceLog> logs = logDAO.getByDateRange(range, asset2.getAssetId(), LogStatus.FAILED, null);
+
+        assertThat(logs, hasSize(1));
+        assertThat(logs.get(0).getComment(), is("Error occurred during operation"));
+    }
+
+    @Test
+    @DisplayName("GetByDateRange - should throw IllegalArgumentException when range is null")
+    void getByDateRangeNullRangeThrowsException()
+    {
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> logDAO.getByDateRange(null, null, null, null));
+
+        assertThat(exception.getMessage(), containsString("Date range is required"));
+    }
+}
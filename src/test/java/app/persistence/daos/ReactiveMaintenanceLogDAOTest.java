@@ -0,0 +1,155 @@
+package app.persistence.daos;
+
+import app.config.HibernateTestConfig;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.mappers.MaintenanceLogMapper;
+import app.persistence.MaintenanceLogDAO;
+import app.persistence.reactive.ReactiveAssetDAO;
+import app.persistence.reactive.ReactiveMaintenanceLogDAO;
+import app.persistence.reactive.ReactivePgClient;
+import app.persistence.testutils.TestPopulator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReactiveMaintenanceLogDAOTest
+{
+    private final EntityManagerFactory emf = HibernateTestConfig.getEntityManagerFactory();
+
+    private ReactivePgClient client;
+    private ReactiveMaintenanceLogDAO logDAO;
+    private ReactiveAssetDAO assetDAO;
+    private Map<String, Employee> seededEmployees;
+    private Map<String, Asset> seededAssets;
+
+    @BeforeAll
+    void setUpClient()
+    {
+        // The Testcontainers URL only means something to its JDBC driver, the driver's own connection knows the real one
+        String url;
+        try (EntityManager em = emf.createEntityManager())
+        {
+            url = em.unwrap(Session.class).doReturningWork(connection -> connection.getMetaData().getURL());
+        }
+        client = new ReactivePgClient(url.replaceFirst("\\?.*$", ""), "test", "test");
+        logDAO = new ReactiveMaintenanceLogDAO(client);
+        assetDAO = new ReactiveAssetDAO(client);
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        seededEmployees = TestPopulator.populateEmployees(emf);
+        seededAssets = TestPopulator.populateAssets(emf);
+        TestPopulator.populateMaintenanceLogs(emf, seededEmployees, seededAssets);
+    }
+
+    @AfterAll
+    void tearDown()
+    {
+        client.close();
+        emf.close();
+    }
+
+    @Test
+    @DisplayName("Get by asset - should return the same logs as the JPA DAO")
+    void getByAsset()
+    {
+        Integer assetId = seededAssets.get("asset1").getAssetId();
+
+        List<MaintenanceLog> logs = logDAO.getByAsset(assetId).join();
+
+        assertThat(logs, hasSize(2));
+        assertThat(logs.stream().map(MaintenanceLogMapper::toDTO).toList(),
+                containsInAnyOrder(new MaintenanceLogDAO(emf).getByAsset(assetId).stream().map(MaintenanceLogMapper::toDTO).toArray()));
+    }
+
+    @Test
+    @DisplayName("Get logs on active assets - should skip inactive assets and respect the limit")
+    void getLogsOnActiveAssets()
+    {
+        assertThat(logDAO.getLogsOnActiveAssets(10).join(), hasSize(5));
+        assertThat(logDAO.getLogsOnActiveAssets(2).join(), hasSize(2));
+    }
+
+    @Test
+    @DisplayName("Get by status and asset - should filter on both")
+    void getByStatusAndAsset()
+    {
+        List<MaintenanceLog> logs = logDAO.getByStatusAndAsset(LogStatus.FAILED, seededAssets.get("asset2").getAssetId()).join();
+
+        assertThat(logs, hasSize(1));
+        assertThat(logs.get(0).getTaskType(), is(TaskType.ERROR));
+    }
+
+    @Test
+    @DisplayName("Create - should insert the log and return the employee's name")
+    void create()
+    {
+        Employee employee = seededEmployees.get("employee2");
+        Asset asset = seededAssets.get("asset3");
+
+        MaintenanceLog created = logDAO.create(new MaintenanceLog(LocalDateTime.of(2024, 7, 1, 12, 0), LogStatus.DONE, TaskType.MAINTENANCE,
+                "Reactive", asset, Employee.builder().employeeId(employee.getEmployeeId()).build())).join();
+
+        assertThat(created.getLogId(), notNullValue());
+        assertThat(MaintenanceLogMapper.toDTO(created).performedByName(), is("Jane Doe"));
+        assertThat(logDAO.get(created.getLogId()).join().getComment(), is("Reactive"));
+    }
+
+    @Test
+    @DisplayName("Create - should fail with NOT_FOUND for an unknown employee and insert nothing")
+    void createUnknownEmployee()
+    {
+        Asset asset = seededAssets.get("asset3");
+
+        CompletionException exception = assertThrows(CompletionException.class, () -> logDAO.create(new MaintenanceLog(LocalDateTime.now(),
+                LogStatus.DONE, TaskType.MAINTENANCE, "Nobody", asset, Employee.builder().employeeId(999).build())).join());
+
+        assertThat(exception.getCause(), instanceOf(DatabaseException.class));
+        assertThat(((DatabaseException) exception.getCause()).getErrorType(), is(DatabaseErrorType.NOT_FOUND));
+        assertThat(logDAO.getByAsset(asset.getAssetId()).join(), hasSize(1));
+    }
+
+    @Test
+    @DisplayName("Get - should fail with NOT_FOUND for an unknown id")
+    void getNotFound()
+    {
+        CompletionException exception = assertThrows(CompletionException.class, () -> logDAO.get(999).join());
+
+        assertThat(exception.getCause().getMessage(), is("Log not found"));
+    }
+
+    @Test
+    @DisplayName("Asset set active - should only bump the version when the flag changes")
+    void setActive()
+    {
+        Asset asset = seededAssets.get("asset1");
+        long version = assetDAO.get(asset.getAssetId()).join().getVersion();
+
+        Asset unchanged = assetDAO.setActive(asset.getAssetId(), true).join();
+        Asset deactivated = assetDAO.setActive(asset.getAssetId(), false).join();
+
+        assertThat(unchanged.getVersion(), is(version));
+        assertThat(deactivated.isActive(), is(false));
+        assertThat(deactivated.getVersion(), is(version + 1));
+        assertThat(assetDAO.getAllByStatus(false).join(), hasSize(2));
+    }
+}
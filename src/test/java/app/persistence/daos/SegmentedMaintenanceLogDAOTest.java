@@ -0,0 +1,136 @@
+package app.persistence.daos;
+
+import app.entities.MaintenanceLog;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.AssetDAO;
+import app.persistence.EmployeeDAO;
+import app.persistence.interfaces.IMaintenanceLogDAO;
+import app.persistence.logstore.SegmentedLogStore;
+import app.persistence.logstore.SegmentedMaintenanceLogDAO;
+import org.junit.jupiter.api.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Runs every MaintenanceLogDAOTest against the segmented store, filled with the seeded logs
+class SegmentedMaintenanceLogDAOTest extends MaintenanceLogDAOTest
+{
+    private Path storeDir;
+    private SegmentedLogStore store;
+
+    @Override
+    protected IMaintenanceLogDAO createDao()
+    {
+        try
+        {
+            storeDir = Files.createTempDirectory("log-store");
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        IMaintenanceLogDAO dao = openDao();
+        seededLogs.values().forEach(dao::create);
+        return dao;
+    }
+
+    private IMaintenanceLogDAO openDao()
+    {
+        store = SegmentedLogStore.open(storeDir);
+        return new SegmentedMaintenanceLogDAO(store, new AssetDAO(emf), new EmployeeDAO(emf));
+    }
+
+    @AfterEach
+    void closeStore()
+    {
+        store.close();
+    }
+
+    @Test
+    @Override
+    @DisplayName("Update - should throw UnsupportedOperationException as logs are immutable")
+    void update()
+    {
+        MaintenanceLog log = seededLogs.get("log1");
+
+        UnsupportedOperationException exception = assertThrows(UnsupportedOperationException.class,
+                () -> ((SegmentedMaintenanceLogDAO) logDAO).update(log));
+
+        assertThat(exception.getMessage(), containsString("Maintenance logs are immutable"));
+    }
+
+    @Test
+    @DisplayName("Create - should throw DatabaseException when the log id already exists")
+    void createDuplicateIdThrowsException()
+    {
+        MaintenanceLog log1 = seededLogs.get("log1");
+
+        DatabaseException exception = assertThrows(DatabaseException.class,
+                () -> logDAO.create(log1));
+
+        assertThat(exception.getErrorType(), is(DatabaseErrorType.CONSTRAINT_VIOLATION));
+    }
+
+    @Test
+    @DisplayName("Create - should not reuse ids of imported logs")
+    void createAfterImportUsesNextId()
+    {
+        MaintenanceLog log6 = seededLogs.get("log6");
+        MaintenanceLog log = new MaintenanceLog(log6.getPerformedDate(), log6.getStatus(), log6.getTaskType(), "After import",
+                seededAssets.get("asset1"), seededEmployees.get("employee1"));
+
+        MaintenanceLog created = logDAO.create(log);
+
+        assertThat(created.getLogId(), greaterThan(log6.getLogId()));
+        assertThat(logDAO.getByAsset(seededAssets.get("asset1").getAssetId()), hasSize(3));
+    }
+
+    @Test
+    @DisplayName("Recovery - should keep every log after a restart")
+    void reopen()
+    {
+        store.close();
+        logDAO = openDao();
+
+        assertThat(logDAO.getAll(), hasSize(6));
+        assertThat(logDAO.getByPerformedEmployee(seededEmployees.get("employee1").getEmployeeId()), hasSize(4));
+        assertThat(logDAO.get(seededLogs.get("log3").getLogId()).getComment(), is("Error occurred during operation"));
+    }
+
+    @Test
+    @DisplayName("Recovery - should rebuild the indexes from the segments when the checkpoint is lost")
+    void reopenWithoutCheckpoint() throws IOException
+    {
+        store.close();
+        Files.delete(storeDir.resolve("checkpoint"));
+        logDAO = openDao();
+
+        assertThat(logDAO.getByAsset(seededAssets.get("asset2").getAssetId()), hasSize(2));
+        assertThat(logDAO.getAll(), hasSize(6));
+    }
+
+    @Test
+    @DisplayName("Recovery - should cut off a torn record at the end of the last segment")
+    void reopenTruncatesTornTail() throws IOException
+    {
+        store.close();
+        Path segment = storeDir.resolve("segment-0000000000.log");
+        long size = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+        logDAO = openDao();
+
+        assertThat(Files.size(segment), is(size));
+        assertThat(store.metrics().get("truncatedBytesOnOpen"), is(7L));
+        assertThat(logDAO.getAll(), hasSize(6));
+        assertThat(logDAO.getAll(List.of(seededLogs.get("log6").getLogId())), hasSize(1));
+    }
+}
@@ -6,6 +6,9 @@ import app.entities.enums.TaskType;
 import app.entities.enums.EmployeeRole;
 import app.entities.Asset;
 import app.entities.MaintenanceLog;
+import app.persistence.memory.InMemoryAssetDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.memory.InMemoryEmployeeDAO;
 import app.services.SecurityServiceImpl;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
@@ -23,55 +26,12 @@ public class TestPopulator
         {
             em.getTransaction().begin();
 
-            String hashedPassword = SecurityServiceImpl.hashPassword("password123");
-
-            Employee employee1 = Employee.builder()
-                    .firstName("John")
-                    .lastName("Doe")
-                    .phone("12345678")
-                    .email("Johndoe@mail.dk")
-                    .role(EmployeeRole.AUTHENTICATED)
-                    .password(hashedPassword)
-                    .active(true)
-                    .build();
-
-            Employee employee2 = Employee.builder()
-                    .firstName("Jane")
-                    .lastName("Doe")
-                    .phone("23456789")
-                    .email("Janedoe@mail.dk")
-                    .role(EmployeeRole.MANAGER)
-                    .password(hashedPassword)
-                    .active(true)
-                    .build();
-
-            Employee employee3 = Employee.builder()
-                    .firstName("Jeff")
-                    .lastName("Doe")
-                    .phone("34567890")
-                    .email("Jeffdoe@mail.dk")
-                    .role(EmployeeRole.ADMIN)
-                    .password(hashedPassword)
-                    .active(true)
-                    .build();
-
-            Employee employee4 = Employee.builder()
-                    .firstName("Clark")
-                    .lastName("Kent")
-                    .phone("00000000")
-                    .email("Clarkkent@mail.dk")
-                    .role(EmployeeRole.TECHNICIAN)
-                    .password(hashedPassword)
-                    .active(false)
-                    .build();
+            Map<String, Employee> seeded = newEmployees();
 
             try
             {
                 em.createNativeQuery("TRUNCATE TABLE employees RESTART IDENTITY CASCADE").executeUpdate();
-                em.persist(employee1);
-                em.persist(employee2);
-                em.persist(employee3);
-                em.persist(employee4);
+                seeded.values().forEach(em::persist);
                 em.flush();
             }
             catch (PersistenceException e)
@@ -81,33 +41,31 @@ public class TestPopulator
             }
 
             em.getTransaction().commit();
-
-            Map<String, Employee> seeded = new LinkedHashMap<>();
-            seeded.put("employee1", employee1);
-            seeded.put("employee2", employee2);
-            seeded.put("employee3", employee3);
-            seeded.put("employee4", employee4);
             return seeded;
         }
     }
 
+    // The same employees in an in-memory database, no EntityManagerFactory involved
+    public static Map<String, Employee> populateEmployees(InMemoryDatabase db)
+    {
+        InMemoryEmployeeDAO dao = new InMemoryEmployeeDAO(db);
+        Map<String, Employee> seeded = new LinkedHashMap<>();
+        newEmployees().forEach((key, employee) -> seeded.put(key, dao.create(employee)));
+        return seeded;
+    }
+
     public static Map<String, Asset> populateAssets(EntityManagerFactory emf)
     {
         try (EntityManager em = emf.createEntityManager())
         {
             em.getTransaction().begin();
-            Asset asset1 = new Asset("Machine A", "Primary production machine", true, null);
-            Asset asset2 = new Asset("Machine B", "Secondary production machine", true, null);
-            Asset asset3 = new Asset("Machine C", "Backup machine", true, null);
-            Asset asset4 = new Asset("Machine D", "Decommissioned machine", false, null);
+
+            Map<String, Asset> seeded = newAssets();
 
             try
             {
                 em.createNativeQuery("TRUNCATE TABLE assets RESTART IDENTITY CASCADE").executeUpdate();
-                em.persist(asset1);
-                em.persist(asset2);
-                em.persist(asset3);
-                em.persist(asset4);
+                seeded.values().forEach(em::persist);
                 em.flush();
             }
             catch (PersistenceException e)
@@ -117,16 +75,80 @@ public class TestPopulator
             }
 
             em.getTransaction().commit();
-
-            Map<String, Asset> seeded = new LinkedHashMap<>();
-            seeded.put("asset1", asset1);
-            seeded.put("asset2", asset2);
-            seeded.put("asset3", asset3);
-            seeded.put("asset4", asset4);
             return seeded;
         }
     }
 
+    public static Map<String, Asset> populateAssets(InMemoryDatabase db)
+    {
+        InMemoryAssetDAO dao = new InMemoryAssetDAO(db);
+        Map<String, Asset> seeded = new LinkedHashMap<>();
+        newAssets().forEach((key, asset) -> seeded.put(key, dao.create(asset)));
+        return seeded;
+    }
+
+    private static Map<String, Employee> newEmployees()
+    {
+        String hashedPassword = SecurityServiceImpl.hashPassword("password123");
+
+        Employee employee1 = Employee.builder()
+                .firstName("John")
+                .lastName("Doe")
+                .phone("12345678")
+                .email("Johndoe@mail.dk")
+                .role(EmployeeRole.AUTHENTICATED)
+                .password(hashedPassword)
+                .active(true)
+                .build();
+
+        Employee employee2 = Employee.builder()
+                .firstName("Jane")
+                .lastName("Doe")
+                .phone("23456789")
+                .email("Janedoe@mail.dk")
+                .role(EmployeeRole.MANAGER)
+                .password(hashedPassword)
+                .active(true)
+                .build();
+
+        Employee employee3 = Employee.builder()
+                .firstName("Jeff")
+                .lastName("Doe")
+                .phone("34567890")
+                .email("Jeffdoe@mail.dk")
+                .role(EmployeeRole.ADMIN)
+                .password(hashedPassword)
+                .active(true)
+                .build();
+
+        Employee employee4 = Employee.builder()
+                .firstName("Clark")
+                .lastName("Kent")
+                .phone("00000000")
+                .email("Clarkkent@mail.dk")
+                .role(EmployeeRole.TECHNICIAN)
+                .password(hashedPassword)
+                .active(false)
+                .build();
+
+        Map<String, Employee> employees = new LinkedHashMap<>();
+        employees.put("employee1", employee1);
+        employees.put("employee2", employee2);
+        employees.put("employee3", employee3);
+        employees.put("employee4", employee4);
+        return employees;
+    }
+
+    private static Map<String, Asset> newAssets()
+    {
+        Map<String, Asset> assets = new LinkedHashMap<>();
+        assets.put("asset1", new Asset("Machine A", "Primary production machine", true, null));
+        assets.put("asset2", new Asset("Machine B", "Secondary production machine", true, null));
+        assets.put("asset3", new Asset("Machine C", "Backup machine", true, null));
+        assets.put("asset4", new Asset("Machine D", "Decommissioned machine", false, null));
+        return assets;
+    }
+
     public static Map<String, MaintenanceLog> populateMaintenanceLogs(EntityManagerFactory emf, Map<String, Employee> employees, Map<String, Asset> assets)
     {
         try (EntityManager em = emf.createEntityManager())
@@ -0,0 +1,94 @@
+package app.services;
+
+import app.caching.ChangeCounters;
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationEvent;
+import app.caching.LocalInvalidationBus;
+import app.concurrency.Bulkhead;
+import app.concurrency.WorkloadClass;
+import app.dtos.AssetDTO;
+import app.entities.Asset;
+import app.persistence.memory.InMemoryAssetDAO;
+import app.persistence.memory.InMemoryDatabase;
+import app.persistence.testutils.TestPopulator;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CachingAssetServiceTest
+{
+    private final Bulkhead refresher = new Bulkhead(WorkloadClass.BULK_READ);
+    private final LocalInvalidationBus bus = new LocalInvalidationBus();
+    private final ChangeCounters changeCounters = new ChangeCounters();
+    private InMemoryAssetDAO assetDao;
+    private CachingAssetService service;
+    private Asset asset1;
+
+    @BeforeEach
+    void setUp()
+    {
+        InMemoryDatabase db = new InMemoryDatabase();
+        Map<String, Asset> seeded = TestPopulator.populateAssets(db);
+        asset1 = seeded.get("asset1");
+        assetDao = new InMemoryAssetDAO(db);
+        service = new CachingAssetService(new AssetServiceImpl(assetDao, changeCounters, bus), refresher);
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        refresher.shutdown();
+    }
+
+    private static List<Integer> ids(List<AssetDTO> assets)
+    {
+        return assets.stream().map(AssetDTO::id).toList();
+    }
+
+    @Test
+    @DisplayName("GetAll - should reload a list cached under an older collection ETag before the cache has been evicted")
+    void getAllReloadsUnderNewTag()
+    {
+        // The counters hear of the write first, a request in between must not get the old list under the new tag
+        List<String> tags = new ArrayList<>();
+        List<List<Integer>> seen = new ArrayList<>();
+        bus.subscribe(changeCounters::onInvalidation);
+        bus.subscribe(event ->
+        {
+            tags.add(service.getCollectionETag(true));
+            seen.add(ids(service.getAll(true)));
+        });
+        bus.subscribe(service::onInvalidation);
+
+        String before = service.getCollectionETag(true);
+        assertThat(ids(service.getAll(true)), hasItem(asset1.getAssetId()));
+
+        assetDao.setActive(asset1.getAssetId(), false);
+        bus.publish(InvalidationEvent.changed(Scope.ASSETS, asset1.getAssetId()));
+
+        assertThat(tags.get(0), not(equalTo(before)));
+        assertThat(seen.get(0), not(hasItem(asset1.getAssetId())));
+        assertThat(ids(service.getAll(true)), not(hasItem(asset1.getAssetId())));
+    }
+
+    @Test
+    @DisplayName("GetAll - should serve the cached list while the collection ETag is unchanged")
+    void getAllHitsUnderSameTag()
+    {
+        bus.subscribe(changeCounters::onInvalidation);
+        bus.subscribe(service::onInvalidation);
+
+        service.getAll(true);
+        service.getAll(true);
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> lists = (Map<String, Object>) service.metrics().get("lists");
+        assertThat(lists.get("misses"), is(1L));
+        assertThat(lists.get("hits"), is(1L));
+    }
+}
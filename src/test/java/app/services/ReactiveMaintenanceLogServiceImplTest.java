@@ -0,0 +1,127 @@
+package app.services;
+
+import app.caching.ChangeCounters.Scope;
+import app.caching.InvalidationEvent;
+import app.caching.LocalInvalidationBus;
+import app.dtos.CreateLogRequest;
+import app.dtos.MaintenanceLogDTO;
+import app.entities.Asset;
+import app.entities.Employee;
+import app.entities.MaintenanceLog;
+import app.entities.enums.LogStatus;
+import app.entities.enums.TaskType;
+import app.exceptions.DatabaseException;
+import app.exceptions.enums.DatabaseErrorType;
+import app.persistence.interfaces.IAsyncAssetDAO;
+import app.persistence.interfaces.IAsyncMaintenanceLogDAO;
+import org.junit.jupiter.api.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveMaintenanceLogServiceImplTest
+{
+    private static final int ASSET_ID = 7;
+    private static final CreateLogRequest REQUEST = new CreateLogRequest(LocalDateTime.of(2025, 3, 1, 10, 0), LogStatus.DONE, TaskType.MAINTENANCE, "Checked", 1);
+
+    private final LocalInvalidationBus bus = new LocalInvalidationBus();
+    private final List<InvalidationEvent> events = new ArrayList<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    @BeforeEach
+    void setUp()
+    {
+        bus.subscribe(events::add);
+    }
+
+    // An asset DAO whose get answers from the supplier, one call per lookup
+    private IAsyncAssetDAO assetDao(Supplier<CompletableFuture<Asset>> lookup)
+    {
+        return (IAsyncAssetDAO) Proxy.newProxyInstance(IAsyncAssetDAO.class.getClassLoader(), new Class<?>[]{IAsyncAssetDAO.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("get"))
+            {
+                lookups.incrementAndGet();
+                return lookup.get();
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static IAsyncMaintenanceLogDAO logDao(CompletableFuture<MaintenanceLog> insert)
+    {
+        return (IAsyncMaintenanceLogDAO) Proxy.newProxyInstance(IAsyncMaintenanceLogDAO.class.getClassLoader(), new Class<?>[]{IAsyncMaintenanceLogDAO.class}, (proxy, method, args) ->
+        {
+            if (method.getName().equals("create"))
+            {
+                return insert;
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private static MaintenanceLog committed()
+    {
+        return MaintenanceLog.builder()
+                .logId(42)
+                .performedDate(REQUEST.performedDate())
+                .status(REQUEST.status())
+                .taskType(REQUEST.taskType())
+                .comment(REQUEST.comment())
+                .asset(Asset.builder().assetId(ASSET_ID).build())
+                .performedBy(Employee.builder().employeeId(1).firstName("John").lastName("Doe").build())
+                .build();
+    }
+
+    private static Asset asset()
+    {
+        return Asset.builder().assetId(ASSET_ID).name("Machine A").build();
+    }
+
+    @Test
+    @DisplayName("Create - should publish once the insert commits and answer it even if the first asset lookup failed")
+    void createSurvivesFailedLookup() throws Exception
+    {
+        IAsyncAssetDAO assets = assetDao(() -> lookups.get() == 1
+                ? CompletableFuture.failedFuture(new DatabaseException("Connection lost", DatabaseErrorType.CONNECTION_FAILURE))
+                : CompletableFuture.completedFuture(asset()));
+        ReactiveMaintenanceLogServiceImpl service = new ReactiveMaintenanceLogServiceImpl(logDao(CompletableFuture.completedFuture(committed())), assets, bus);
+
+        MaintenanceLogDTO created = service.create(ASSET_ID, REQUEST).get(5, TimeUnit.SECONDS);
+
+        assertThat(created.id(), is(42));
+        assertThat(created.assetName(), is("Machine A"));
+        assertThat(lookups.get(), is(2));
+        assertThat(events, contains(InvalidationEvent.changed(Scope.LOGS, 42), InvalidationEvent.itemChanged(Scope.ASSETS, ASSET_ID)));
+    }
+
+    @Test
+    @DisplayName("Create - should report the lookup's NOT_FOUND when the insert fails on a missing asset")
+    void createOnMissingAsset()
+    {
+        IAsyncAssetDAO assets = assetDao(() -> CompletableFuture.failedFuture(new DatabaseException("Asset not found", DatabaseErrorType.NOT_FOUND)));
+        CompletableFuture<MaintenanceLog> insert = CompletableFuture.failedFuture(new DatabaseException("Create log failed", DatabaseErrorType.CONSTRAINT_VIOLATION));
+        ReactiveMaintenanceLogServiceImpl service = new ReactiveMaintenanceLogServiceImpl(logDao(insert), assets, bus);
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> service.create(ASSET_ID, REQUEST).get(5, TimeUnit.SECONDS));
+
+        Throwable cause = exception.getCause();
+        while (!(cause instanceof DatabaseException) && cause.getCause() != null)
+        {
+            cause = cause.getCause();
+        }
+        assertThat(((DatabaseException) cause).getErrorType(), is(DatabaseErrorType.NOT_FOUND));
+        assertThat(events, is(empty()));
+    }
+}